@@ -0,0 +1,168 @@
+package com.gregperlinli.certvault.async;
+
+import com.gregperlinli.certvault.certificate.SslCertGenerator;
+import com.gregperlinli.certvault.config.properties.BulkIssuanceProperties;
+import com.gregperlinli.certvault.domain.dto.RequestCertDTO;
+import com.gregperlinli.certvault.domain.entities.CaSigningKey;
+import com.gregperlinli.certvault.domain.entities.CertGenRequest;
+import com.gregperlinli.certvault.domain.entities.CertRenewRequest;
+import com.gregperlinli.certvault.domain.entities.GenResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Parallel SSL Certificate Issuer
+ *
+ * <p>
+ * 在固定大小的线程池上并行生成 (或续期) 并签发同一 CA 下的多张 SSL 证书, CA 签名密钥由调用方解析一次后共享.
+ * 每个请求同时在途的任务数不超过线程数的两倍, 单个大批量请求不会占满线程池的队列.
+ * 结果按完成顺序回调, 每一项的异常单独返回, 不影响其它项.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code BulkCertIssuer}
+ * @date 2025/5/12 14:30
+ */
+@Component
+public class BulkCertIssuer {
+
+    private final int parallelism;
+
+    private final ExecutorService executor;
+
+    public BulkCertIssuer(BulkIssuanceProperties properties) {
+        this.parallelism = properties.getParallelism() != null && properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-issuance-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Issue certificates in parallel
+     *
+     * @param requests     certificate requests
+     * @param caSigningKey parsed signing key of the issuing CA
+     * @param emailAddress email address of the owner
+     * @param listener     receives every result in completion order, on the calling thread
+     * @throws InterruptedException if interrupted while waiting, pending items are cancelled
+     */
+    public void issue(List<RequestCertDTO> requests, CaSigningKey caSigningKey, String emailAddress, Listener listener) throws InterruptedException {
+        run(requests.size(), index -> generate(index, requests.get(index), caSigningKey, emailAddress), listener);
+    }
+
+    /**
+     * Renew certificates in parallel
+     *
+     * @param requests renewal requests, all carrying the same parsed {@link CaSigningKey}
+     * @param listener receives every result in completion order, on the calling thread
+     * @throws InterruptedException if interrupted while waiting, pending items are cancelled
+     */
+    public void renew(List<CertRenewRequest> requests, Listener listener) throws InterruptedException {
+        run(requests.size(), index -> renew(index, requests.get(index)), listener);
+    }
+
+    private void run(int count, IntFunction<Outcome> task, Listener listener) throws InterruptedException {
+        CompletionService<Outcome> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Outcome>> futures = new ArrayList<>(count);
+        int window = parallelism * 2;
+        int submitted = 0;
+        int completed = 0;
+        try {
+            while ( completed < count ) {
+                // 1. 补充在途任务
+                while ( submitted < count && submitted - completed < window ) {
+                    int index = submitted++;
+                    futures.add(completionService.submit(() -> task.apply(index)));
+                }
+                // 2. 暂无完成结果时通知调用方 (用于刷新批量写入), 再阻塞等待
+                Future<Outcome> future = completionService.poll();
+                if ( future == null ) {
+                    listener.onIdle();
+                    future = completionService.take();
+                }
+                completed++;
+                Outcome outcome = future.get();
+                listener.onResult(outcome.index, outcome.genResponse, outcome.error);
+            }
+        } catch (ExecutionException e) {
+            // 任务不会抛出异常
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            if ( completed < count ) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    private static Outcome generate(int index, RequestCertDTO request, CaSigningKey caSigningKey, String emailAddress) {
+        try {
+            if ( request == null ) {
+                throw new IllegalArgumentException("The certificate request cannot be empty.");
+            }
+            return new Outcome(index, SslCertGenerator.generateSslCertificate(new CertGenRequest(request, caSigningKey, emailAddress)), null);
+        } catch (Exception e) {
+            return new Outcome(index, null, e);
+        }
+    }
+
+    private static Outcome renew(int index, CertRenewRequest request) {
+        try {
+            return new Outcome(index, SslCertGenerator.renewSslCertificate(request), null);
+        } catch (Exception e) {
+            return new Outcome(index, null, e);
+        }
+    }
+
+    /**
+     * Receives bulk issuance results
+     */
+    public interface Listener {
+
+        /**
+         * One item finished
+         *
+         * @param index       index of the item in the request
+         * @param genResponse generated certificate, {@code null} if failed
+         * @param error       failure, {@code null} if succeeded
+         */
+        void onResult(int index, GenResponse genResponse, Exception error);
+
+        /**
+         * No further result is ready yet
+         */
+        default void onIdle() {
+        }
+    }
+
+    private static final class Outcome {
+
+        private final int index;
+
+        private final GenResponse genResponse;
+
+        private final Exception error;
+
+        Outcome(int index, GenResponse genResponse, Exception error) {
+            this.index = index;
+            this.genResponse = genResponse;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.gregperlinli.certvault.async;
+
+import cn.hutool.http.useragent.UserAgent;
+import cn.hutool.http.useragent.UserAgentUtil;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.gregperlinli.certvault.cache.UserCache;
+import com.gregperlinli.certvault.config.properties.LoginRecordProperties;
+import com.gregperlinli.certvault.domain.entities.LoginRecord;
+import com.gregperlinli.certvault.domain.entities.User;
+import com.gregperlinli.certvault.mapper.LoginRecordMapper;
+import com.gregperlinli.certvault.utils.IpUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous Login Record Pipeline
+ *
+ * <p>
+ * 登录时只把原始信息 (用户名、Session ID、IP、User-Agent) 放入有界队列, 立即返回;
+ * 后台线程解析 User-Agent、查询 GeoIP 并按批量大小或时间窗口以多行 INSERT 写入 {@code login_record}.
+ * 队列满时等待 {@code login-record.offer-timeout} 后丢弃记录并计数, 不会阻塞登录.
+ * 尚未落库的会话被下线时先标记在内存中, 写入后再补一次下线更新, 保证不会残留在线状态.
+ * </p>
+ * <p>
+ * 指标: {@code login_record_queue_size}, {@code login_record_dropped_total},
+ * {@code login_record_persisted_total}, {@code login_record_failed_total}, {@code login_record_flush_seconds}.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code LoginRecordPipeline}
+ * @date 2025/5/10 10:05
+ */
+@Component
+@Slf4j
+public class LoginRecordPipeline {
+
+    private final LoginRecordMapper loginRecordMapper;
+
+    private final UserCache userCache;
+
+    private final LoginRecordProperties properties;
+
+    private final BlockingQueue<LoginEvent> queue;
+
+    /**
+     * Queued or flushing events by session ID
+     */
+    private final Map<String, LoginEvent> pending = new ConcurrentHashMap<>();
+
+    private final Counter droppedCounter;
+
+    private final Counter persistedCounter;
+
+    private final Counter failedCounter;
+
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    public LoginRecordPipeline(LoginRecordMapper loginRecordMapper,
+                               UserCache userCache,
+                               LoginRecordProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.loginRecordMapper = loginRecordMapper;
+        this.userCache = userCache;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("login.record.queue.size", queue, Collection::size)
+                .description("Login records waiting to be persisted")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("login.record.dropped")
+                .description("Login records dropped because the queue was full")
+                .register(meterRegistry);
+        this.persistedCounter = Counter.builder("login.record.persisted")
+                .description("Login records persisted")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("login.record.failed")
+                .description("Login records that failed to persist")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("login.record.flush")
+                .description("Time to enrich and insert one batch of login records")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if ( !Boolean.TRUE.equals(properties.getAsync()) ) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "login-record-pipeline");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        if ( worker != null ) {
+            // 等待队列中剩余记录写入
+            worker.join(properties.getFlushInterval().toMillis() + 10_000);
+        }
+    }
+
+    /**
+     * Submit a login record
+     *
+     * @param username  username
+     * @param sessionId session ID
+     * @param ip        client IP
+     * @param userAgent {@code User-Agent} header
+     */
+    public void submit(String username, String sessionId, String ip, String userAgent) {
+        LoginEvent event = new LoginEvent(UUID.randomUUID().toString(), username, sessionId, ip, userAgent, LocalDateTime.now());
+        if ( !running ) {
+            flush(List.of(event));
+            return;
+        }
+        if ( sessionId != null ) {
+            pending.put(sessionId, event);
+        }
+        boolean accepted;
+        try {
+            accepted = queue.offer(event, properties.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if ( !accepted ) {
+            if ( sessionId != null ) {
+                pending.remove(sessionId, event);
+            }
+            droppedCounter.increment();
+            log.warn("Login record queue is full, record of user {} dropped", username);
+        }
+    }
+
+    /**
+     * Mark a session offline if its login record has not been persisted yet
+     *
+     * @param sessionId session ID
+     */
+    public void markOffline(String sessionId) {
+        if ( sessionId == null ) {
+            return;
+        }
+        LoginEvent event = pending.get(sessionId);
+        if ( event != null ) {
+            event.offline = true;
+        }
+    }
+
+    /**
+     * Mark all sessions of a user offline whose login records have not been persisted yet
+     *
+     * @param username username
+     */
+    public void markUserOffline(String username) {
+        pending.values().stream()
+                .filter(event -> Objects.equals(event.username, username))
+                .forEach(event -> event.offline = true);
+    }
+
+    private void run() {
+        int batchSize = properties.getBatchSize();
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        List<LoginEvent> batch = new ArrayList<>(batchSize);
+        while ( running || !queue.isEmpty() ) {
+            try {
+                // 1. 等待第一条记录
+                LoginEvent first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if ( first == null ) {
+                    continue;
+                }
+                batch.add(first);
+                // 2. 在时间窗口内凑满一批
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while ( batch.size() < batchSize && running ) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if ( batch.size() >= batchSize || remaining <= 0 ) {
+                        break;
+                    }
+                    LoginEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if ( next == null ) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                // 3. 写入
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Login record pipeline interrupted, {} queued records discarded", queue.size());
+                return;
+            } catch (Exception e) {
+                log.error("Login record pipeline error: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<LoginEvent> events) {
+        flushTimer.record(() -> {
+            List<LoginRecord> records = new ArrayList<>(events.size());
+            List<LoginEvent> persisted = new ArrayList<>(events.size());
+            boolean inserted = false;
+            try {
+                // 1. 逐条解析, 单条失败 (如 GeoIP、User-Agent 解析异常) 只丢弃该条
+                for ( LoginEvent event : events ) {
+                    try {
+                        LoginRecord record = enrich(event);
+                        if ( record != null ) {
+                            records.add(record);
+                            persisted.add(event);
+                        }
+                    } catch (Exception e) {
+                        failedCounter.increment();
+                        log.error("Failed to enrich login record of user {}: {}", event.username, e.getMessage());
+                    }
+                }
+                // 2. 多行写入
+                try {
+                    if ( !records.isEmpty() ) {
+                        loginRecordMapper.insertBatch(records);
+                        persistedCounter.increment(records.size());
+                        inserted = true;
+                    }
+                } catch (Exception e) {
+                    failedCounter.increment(records.size());
+                    log.error("Failed to persist {} login records: {}", records.size(), e.getMessage());
+                }
+            } finally {
+                // 3. 无论成败都移出待写入集合, 之后的下线直接更新数据库
+                for ( LoginEvent event : events ) {
+                    if ( event.sessionId != null ) {
+                        pending.remove(event.sessionId, event);
+                    }
+                }
+            }
+            if ( !inserted ) {
+                return;
+            }
+            // 4. 写入期间被下线的会话补一次更新
+            for ( int i = 0; i < records.size(); i++ ) {
+                if ( persisted.get(i).offline && Boolean.TRUE.equals(records.get(i).getOnline()) ) {
+                    try {
+                        loginRecordMapper.update(null, new UpdateWrapper<LoginRecord>()
+                                .eq("uuid", records.get(i).getUuid())
+                                .set("online", false));
+                    } catch (Exception e) {
+                        log.error("Failed to mark login record {} offline: {}", records.get(i).getUuid(), e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    private LoginRecord enrich(LoginEvent event) {
+        User user = userCache.getActive(event.username);
+        if ( user == null ) {
+            failedCounter.increment();
+            log.warn("Login record of unknown user {} skipped", event.username);
+            return null;
+        }
+        UserAgent ua = UserAgentUtil.parse(event.userAgent);
+        Map<String, String> location = IpUtils.getLocation(event.ip);
+        log.debug("Login record: user {}, session {}, IP {}, browser {}, OS {}, platform {}",
+                event.username, event.sessionId, event.ip,
+                ua == null ? null : ua.getBrowser().getName(),
+                ua == null ? null : ua.getOs().getName(),
+                ua == null ? null : ua.getPlatform().getName());
+        LoginRecord loginRecord = new LoginRecord();
+        loginRecord.setUuid(event.uuid);
+        loginRecord.setUid(user.getId());
+        loginRecord.setSessionId(event.sessionId);
+        loginRecord.setIp(event.ip);
+        loginRecord.setRegion(location.get("region"));
+        loginRecord.setProvince(location.get("province"));
+        loginRecord.setCity(location.get("city"));
+        if ( ua != null ) {
+            loginRecord.setBrowser(ua.getBrowser().getName());
+            loginRecord.setOs(ua.getOs().getName());
+            loginRecord.setPlatform(ua.getPlatform().getName());
+        }
+        loginRecord.setLoginTime(event.loginTime);
+        loginRecord.setOnline(!event.offline);
+        return loginRecord;
+    }
+
+    /**
+     * Raw login information captured on the request thread
+     */
+    @Getter
+    static final class LoginEvent {
+
+        private final String uuid;
+
+        private final String username;
+
+        private final String sessionId;
+
+        private final String ip;
+
+        private final String userAgent;
+
+        private final LocalDateTime loginTime;
+
+        private volatile boolean offline;
+
+        LoginEvent(String uuid, String username, String sessionId, String ip, String userAgent, LocalDateTime loginTime) {
+            this.uuid = uuid;
+            this.username = username;
+            this.sessionId = sessionId;
+            this.ip = ip;
+            this.userAgent = userAgent;
+            this.loginTime = loginTime;
+        }
+    }
+}
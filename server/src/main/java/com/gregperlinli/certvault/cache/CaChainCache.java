@@ -0,0 +1,262 @@
+package com.gregperlinli.certvault.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.CaChain;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.*;
+
+/**
+ * CA Certificate Chain Cache
+ *
+ * <p>
+ * 通过一次递归 CTE 查询 ({@link CaMapper#selectCaChain}) 加载 CA 的全部祖先, 并按 CA UUID 缓存拼接后的证书链.
+ * 任一祖先 CA 变更 (续期 / 删除) 时, 所有包含该 CA 的证书链都会被失效, 事务提交后通过 Redis pub/sub 通知其它节点.
+ * 数据库不支持递归 CTE 时 (如 MySQL 5.7, 表现为语法错误或不支持的特性) 自动退回逐级查询,
+ * 连接中断等其它错误直接抛出, 不影响之后的查询方式.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CaChainCache}
+ * @date 2025/5/5 14:25
+ */
+@Component
+@Slf4j
+public class CaChainCache implements MessageListener {
+
+    public static final String CACHE_NAME = "ca_chain";
+
+    private static final String ALL = "*";
+
+    /**
+     * SQLState of syntax errors (MySQL / H2 {@code 42000}, H2 {@code 42001}, PostgreSQL {@code 42601})
+     * and unsupported features ({@code 0A000})
+     */
+    private static final Set<String> UNSUPPORTED_STATES = Set.of("42000", "42001", "42601", "0A000");
+
+    /**
+     * Max chain length, guards against cyclic parent references
+     */
+    private static final int MAX_DEPTH = 16;
+
+    private final Cache<String, CaChain> cache;
+
+    private final boolean enabled;
+
+    private final CaMapper caMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean recursiveQuerySupported = true;
+
+    public CaChainCache(LocalCacheProperties properties,
+                        MeterRegistry meterRegistry,
+                        CaMapper caMapper,
+                        StringRedisTemplate stringRedisTemplate,
+                        RedisMessageListenerContainer listenerContainer) {
+        LocalCacheProperties.Spec spec = properties.getCaChain();
+        this.enabled = Boolean.TRUE.equals(spec.getEnabled());
+        this.caMapper = caMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(spec.getTtl())
+                .maximumSize(spec.getMaxSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @PostConstruct
+    public void init() {
+        if ( enabled ) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(RedisKeyConstant.CA_CHAIN_CHANNEL.getKeyPrefix()));
+        }
+    }
+
+    /**
+     * Get the assembled chain of a CA
+     *
+     * @param caUuid CA UUID
+     * @return {@link CaChain}, with empty lists if the CA does not exist
+     */
+    public CaChain get(String caUuid) {
+        if ( caUuid == null || caUuid.isEmpty() ) {
+            return assemble(List.of());
+        }
+        if ( !enabled ) {
+            return assemble(load(caUuid));
+        }
+        return cache.get(caUuid, uuid -> assemble(load(uuid)));
+    }
+
+    /**
+     * Invalidate every chain that contains the CA on this node immediately and again after the current transaction commits,
+     * then notify other nodes
+     *
+     * @param caUuid CA UUID
+     */
+    public void invalidate(String caUuid) {
+        if ( caUuid == null ) {
+            return;
+        }
+        broadcast(caUuid);
+    }
+
+    /**
+     * Invalidate all chains on every node
+     */
+    public void invalidateAll() {
+        broadcast(ALL);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if ( separator < 0 || nodeId.equals(body.substring(0, separator)) ) {
+            return;
+        }
+        invalidateLocal(body.substring(separator + 1));
+    }
+
+    private void broadcast(String target) {
+        invalidateLocal(target);
+        Runnable task = () -> {
+            // 提交前并发读取可能已回填旧证书链, 提交后再次失效
+            invalidateLocal(target);
+            publish(target);
+        };
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    private void invalidateLocal(String target) {
+        if ( ALL.equals(target) ) {
+            cache.invalidateAll();
+        } else {
+            cache.asMap().entrySet().removeIf(entry -> entry.getValue().getUuids().contains(target));
+        }
+        log.debug("CA chains containing {} invalidated", target);
+    }
+
+    private void publish(String target) {
+        if ( !enabled ) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.CA_CHAIN_CHANNEL.getKeyPrefix(), nodeId + "|" + target);
+        } catch (Exception e) {
+            log.warn("Failed to publish CA chain invalidation of {}: {}", target, e.getMessage());
+        }
+    }
+
+    /**
+     * Join PEM certificates and encode as BASE64
+     *
+     * @param pems PEM certificates
+     * @return chain in BASE64
+     */
+    public static String encodeChain(List<String> pems) {
+        return Base64.getEncoder().encodeToString(String.join("\n", pems).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Ca> load(String caUuid) {
+        if ( recursiveQuerySupported ) {
+            try {
+                return caMapper.selectCaChain(caUuid, MAX_DEPTH);
+            } catch (DataAccessException e) {
+                if ( !isUnsupported(e) ) {
+                    throw e;
+                }
+                recursiveQuerySupported = false;
+                log.warn("Recursive CA chain query is not supported, fall back to per-hop lookup: {}", e.getMessage());
+            }
+        }
+        // 逐级向上查找CA链
+        List<Ca> chain = new ArrayList<>();
+        String currentCaUuid = caUuid;
+        while ( currentCaUuid != null && !currentCaUuid.isEmpty() && chain.size() <= MAX_DEPTH ) {
+            Ca ca = caMapper.selectOne(new QueryWrapper<Ca>()
+                    .select("uuid", "parent_ca", "cert", "cert_der")
+                    .eq("uuid", currentCaUuid)
+                    .eq("deleted", false));
+            if ( ca == null ) {
+                break;
+            }
+            chain.add(ca);
+            currentCaUuid = ca.getParentCa();
+        }
+        return chain;
+    }
+
+    /**
+     * Whether the failure means the database cannot run the recursive query at all
+     */
+    private static boolean isUnsupported(DataAccessException e) {
+        for ( Throwable cause = e; cause != null; cause = cause.getCause() ) {
+            if ( cause instanceof SQLFeatureNotSupportedException ) {
+                return true;
+            }
+            if ( cause instanceof SQLException sqlException && UNSUPPORTED_STATES.contains(sqlException.getSQLState()) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CaChain assemble(List<Ca> cas) {
+        List<String> uuids = new ArrayList<>(cas.size());
+        List<String> pems = new ArrayList<>(cas.size());
+        List<String> fingerprints = new ArrayList<>(cas.size());
+        for ( Ca ca : cas ) {
+            uuids.add(ca.getUuid());
+            if ( CertStorageUtils.hasCert(ca) ) {
+                pems.add(CertStorageUtils.toPem(ca));
+                fingerprints.add(CertStorageUtils.fingerprint(ca));
+            }
+        }
+        return new CaChain(
+                List.copyOf(uuids),
+                List.copyOf(pems),
+                List.copyOf(fingerprints),
+                encodeChain(pems),
+                encodeChain(pems.isEmpty() ? pems : pems.subList(0, pems.size() - 1))
+        );
+    }
+}
@@ -0,0 +1,377 @@
+package com.gregperlinli.certvault.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.constant.AccountTypeConstant;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.CaBinding;
+import com.gregperlinli.certvault.domain.entities.User;
+import com.gregperlinli.certvault.mapper.CaBindingMapper;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory CA Hierarchy Index
+ *
+ * <p>
+ * 常驻内存的 CA 树索引: uuid → 父 CA / 所有者 / 可用状态 / 是否允许子 CA / 已绑定用户位图,
+ * 用于在不访问数据库的情况下回答 CA 的存在性、可用性与授权问题.
+ * 写操作提交后按 CA 增量重建, 递增 Redis 中的全局版本号, 并通过 Redis pub/sub 通知其它节点重新加载对应 CA.
+ * pub/sub 不保证送达, 因此各节点记录已应用的连续版本号, 读取时最多每秒与 Redis 中的版本号比对一次,
+ * 发现遗漏的变更 (如订阅断线期间解除的绑定) 时先全量重建再回答, 过期授权最多保留一个检查间隔;
+ * 另按固定间隔全量重建一次.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CaHierarchyIndex}
+ * @date 2025/5/6 20:05
+ */
+@Component
+@Slf4j
+public class CaHierarchyIndex implements MessageListener {
+
+    /**
+     * Full rebuild marker in invalidation messages
+     */
+    private static final String ALL = "*";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, CaNode> nodes = new ConcurrentHashMap<>();
+
+    private final CaMapper caMapper;
+
+    private final CaBindingMapper caBindingMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final LocalCacheProperties.Spec spec;
+
+    private final boolean enabled;
+
+    /**
+     * Min interval between two version checks against Redis
+     */
+    long versionCheckIntervalNanos = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Highest version up to which every change has been applied on this node, {@code -1} if unknown
+     */
+    private volatile long appliedVersion = -1;
+
+    private final AtomicLong versionCheckedAt = new AtomicLong(System.nanoTime());
+
+    private ScheduledExecutorService rebuildExecutor;
+
+    public CaHierarchyIndex(CaMapper caMapper,
+                            CaBindingMapper caBindingMapper,
+                            StringRedisTemplate stringRedisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            LocalCacheProperties properties) {
+        this.caMapper = caMapper;
+        this.caBindingMapper = caBindingMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.spec = properties.getCaHierarchy();
+        this.enabled = Boolean.TRUE.equals(spec.getEnabled());
+    }
+
+    @PostConstruct
+    public void init() {
+        if ( !enabled ) {
+            return;
+        }
+        listenerContainer.addMessageListener(this, new ChannelTopic(RedisKeyConstant.CA_INDEX_CHANNEL.getKeyPrefix()));
+        long interval = spec.getTtl().toMillis();
+        rebuildExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ca-hierarchy-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuildExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("CA hierarchy index rebuild failed: {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if ( rebuildExecutor != null ) {
+            rebuildExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the database
+     */
+    public synchronized void rebuild() {
+        if ( !enabled ) {
+            return;
+        }
+        // 1. 先读取版本号, 之后提交的变更版本号更大, 会在下次检查时发现
+        long version = currentVersion();
+        // 2. 加载所有未删除的 CA (不加载证书与私钥)
+        List<Ca> cas = caMapper.selectList(new QueryWrapper<Ca>()
+                .select("uuid", "parent_ca", "owner", "available", "allow_sub_ca")
+                .eq("deleted", false));
+        // 3. 加载所有绑定关系并构建位图
+        Map<String, BitSet> boundUids = new HashMap<>();
+        for ( CaBinding caBinding : caBindingMapper.selectList(new QueryWrapper<CaBinding>().select("ca_uuid", "uid")) ) {
+            boundUids.computeIfAbsent(caBinding.getCaUuid(), k -> new BitSet()).set(caBinding.getUid());
+        }
+        // 4. 替换索引
+        Map<String, CaNode> fresh = new HashMap<>(cas.size() * 2);
+        for ( Ca ca : cas ) {
+            fresh.put(ca.getUuid(), toNode(ca, boundUids.getOrDefault(ca.getUuid(), new BitSet())));
+        }
+        nodes.keySet().retainAll(fresh.keySet());
+        nodes.putAll(fresh);
+        appliedVersion = Math.max(appliedVersion, version);
+        log.debug("CA hierarchy index rebuilt with {} CAs at version {}", fresh.size(), version);
+    }
+
+    /**
+     * Reload CAs after the current transaction commits and notify other nodes
+     *
+     * @param caUuids CA UUIDs
+     */
+    public void refresh(String... caUuids) {
+        if ( !enabled || caUuids.length == 0 ) {
+            return;
+        }
+        List<String> uuids = Arrays.stream(caUuids).filter(Objects::nonNull).distinct().toList();
+        Runnable task = () -> {
+            long version = nextVersion();
+            uuids.forEach(this::reload);
+            apply(version);
+            publish(version + "|" + String.join(",", uuids));
+        };
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Get the index node of a CA, load it from the database on miss
+     *
+     * @param caUuid CA UUID
+     * @return {@link CaNode}, or {@code null} if the CA does not exist
+     */
+    public CaNode get(String caUuid) {
+        if ( caUuid == null ) {
+            return null;
+        }
+        checkVersion();
+        CaNode node = nodes.get(caUuid);
+        if ( node == null || !enabled ) {
+            node = reload(caUuid);
+        }
+        return node;
+    }
+
+    /**
+     * Whether the user is bound to the CA
+     *
+     * @param caUuid CA UUID
+     * @param uid user id
+     * @return {@code true} if bound
+     */
+    public boolean isBound(String caUuid, Integer uid) {
+        CaNode node = get(caUuid);
+        return node != null && node.isBound(uid);
+    }
+
+    /**
+     * Whether the user owns the CA
+     *
+     * @param caUuid CA UUID
+     * @param uid user id
+     * @return {@code true} if owner
+     */
+    public boolean isOwner(String caUuid, Integer uid) {
+        CaNode node = get(caUuid);
+        return node != null && Objects.equals(node.getOwner(), uid);
+    }
+
+    /**
+     * Whether the user may use the CA, i.e. download its certificate or sign with it <br/>
+     * (Bound to an available CA, owner of the CA, or superadmin)
+     *
+     * @param node CA node returned by {@link #get}
+     * @param user user
+     * @return {@code true} if allowed
+     */
+    public boolean canUse(CaNode node, User user) {
+        return ( Boolean.TRUE.equals(node.getAvailable()) && node.isBound(user.getId()) ) ||
+                Objects.equals(node.getOwner(), user.getId()) ||
+                user.getRole() == AccountTypeConstant.SUPERADMIN.getAccountType();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if ( separator < 0 || nodeId.equals(body.substring(0, separator)) ) {
+            return;
+        }
+        // 消息格式: nodeId|version|caUuids
+        String[] parts = body.substring(separator + 1).split("\\|", 2);
+        if ( parts.length != 2 ) {
+            return;
+        }
+        if ( ALL.equals(parts[1]) ) {
+            rebuild();
+        } else {
+            Arrays.stream(parts[1].split(",")).forEach(this::reload);
+        }
+        apply(Long.parseLong(parts[0]));
+    }
+
+    /**
+     * Compare the applied version with Redis at most once per interval, rebuild if a change was missed
+     */
+    private void checkVersion() {
+        if ( !enabled ) {
+            return;
+        }
+        long now = System.nanoTime();
+        long checkedAt = versionCheckedAt.get();
+        if ( now - checkedAt < versionCheckIntervalNanos || !versionCheckedAt.compareAndSet(checkedAt, now) ) {
+            return;
+        }
+        long version = currentVersion();
+        if ( version >= 0 && version != appliedVersion ) {
+            log.info("CA hierarchy index at version {} missed changes up to {}, rebuilding", appliedVersion, version);
+            rebuild();
+        }
+    }
+
+    /**
+     * Advance the applied version only when no change in between is missing
+     */
+    private synchronized void apply(long version) {
+        if ( version >= 0 && version == appliedVersion + 1 ) {
+            appliedVersion = version;
+        }
+    }
+
+    private long currentVersion() {
+        try {
+            String version = stringRedisTemplate.opsForValue().get(RedisKeyConstant.CA_INDEX_VERSION.getKeyPrefix());
+            return version == null ? 0 : Long.parseLong(version);
+        } catch (Exception e) {
+            log.warn("Failed to read CA hierarchy index version: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private long nextVersion() {
+        try {
+            Long version = stringRedisTemplate.opsForValue().increment(RedisKeyConstant.CA_INDEX_VERSION.getKeyPrefix());
+            return version == null ? -1 : version;
+        } catch (Exception e) {
+            log.warn("Failed to increment CA hierarchy index version: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private synchronized CaNode reload(String caUuid) {
+        Ca ca = caMapper.selectOne(new QueryWrapper<Ca>()
+                .select("uuid", "parent_ca", "owner", "available", "allow_sub_ca")
+                .eq("uuid", caUuid)
+                .eq("deleted", false));
+        if ( ca == null ) {
+            nodes.remove(caUuid);
+            return null;
+        }
+        BitSet boundUids = new BitSet();
+        for ( CaBinding caBinding : caBindingMapper.selectList(new QueryWrapper<CaBinding>()
+                .select("ca_uuid", "uid")
+                .eq("ca_uuid", caUuid)) ) {
+            boundUids.set(caBinding.getUid());
+        }
+        CaNode node = toNode(ca, boundUids);
+        if ( enabled ) {
+            nodes.put(caUuid, node);
+        }
+        return node;
+    }
+
+    private void publish(String payload) {
+        try {
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.CA_INDEX_CHANNEL.getKeyPrefix(), nodeId + "|" + payload);
+        } catch (Exception e) {
+            log.warn("Failed to publish CA hierarchy index change: {}", e.getMessage());
+        }
+    }
+
+    private static CaNode toNode(Ca ca, BitSet boundUids) {
+        return new CaNode(ca.getUuid(), ca.getParentCa(), ca.getOwner(), ca.getAvailable(), ca.getAllowSubCa(), boundUids);
+    }
+
+    /**
+     * Immutable CA index node
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class CaNode {
+
+        private final String uuid;
+
+        private final String parentCa;
+
+        private final Integer owner;
+
+        private final Boolean available;
+
+        private final Boolean allowSubCa;
+
+        @Getter(lombok.AccessLevel.NONE)
+        private final BitSet boundUids;
+
+        /**
+         * Whether the user is bound to this CA
+         *
+         * @param uid user id
+         * @return {@code true} if bound
+         */
+        public boolean isBound(Integer uid) {
+            return uid != null && uid >= 0 && boundUids.get(uid);
+        }
+
+    }
+}
@@ -0,0 +1,89 @@
+package com.gregperlinli.certvault.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.domain.entities.StoredCertificate;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * SSL Certificate Fingerprint Cache
+ *
+ * <p>
+ * 按 证书 UUID + 修改时间 缓存证书的 SHA-256 指纹, 用于下载接口的 ETag,
+ * 条件请求只需查询权限相关的列即可判断证书是否变化, 无需读取证书内容.
+ * 续期会更新修改时间, 因此旧指纹不会再被命中, 由容量与过期时间淘汰.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CertFingerprintCache}
+ * @date 2025/5/15 15:10
+ */
+@Component
+public class CertFingerprintCache {
+
+    public static final String CACHE_NAME = "cert_fingerprint";
+
+    private final Cache<String, String> cache;
+
+    private final boolean enabled;
+
+    public CertFingerprintCache(LocalCacheProperties properties, MeterRegistry meterRegistry) {
+        LocalCacheProperties.Spec spec = properties.getCertFingerprint();
+        this.enabled = Boolean.TRUE.equals(spec.getEnabled());
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(spec.getTtl())
+                .maximumSize(spec.getMaxSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Get the fingerprint of a certificate, load the certificate on cache miss
+     *
+     * @param uuid       certificate UUID
+     * @param modifiedAt certificate modification time
+     * @param loader     loads the certificate content
+     * @return fingerprint, {@code null} if the certificate has no content
+     */
+    public String get(String uuid, LocalDateTime modifiedAt, Supplier<StoredCertificate> loader) {
+        if ( !enabled ) {
+            return CertStorageUtils.fingerprint(loader.get());
+        }
+        String key = key(uuid, modifiedAt);
+        String cached = cache.getIfPresent(key);
+        if ( cached != null ) {
+            return cached;
+        }
+        String fingerprint = CertStorageUtils.fingerprint(loader.get());
+        if ( fingerprint != null ) {
+            cache.put(key, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Record the fingerprint of a certificate that has just been loaded
+     *
+     * @param uuid       certificate UUID
+     * @param modifiedAt certificate modification time
+     * @param cert       certificate content
+     */
+    public void put(String uuid, LocalDateTime modifiedAt, StoredCertificate cert) {
+        if ( enabled && CertStorageUtils.hasCert(cert) ) {
+            cache.put(key(uuid, modifiedAt), CertStorageUtils.fingerprint(cert));
+        }
+    }
+
+    private static String key(String uuid, LocalDateTime modifiedAt) {
+        return uuid + "@" + modifiedAt;
+    }
+}
@@ -0,0 +1,427 @@
+package com.gregperlinli.certvault.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.gregperlinli.certvault.config.properties.ExpiryIndexProperties;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * In-memory Expiry Index
+ *
+ * <p>
+ * 常驻内存的到期索引: 按 {@code not_after} 排序的 CA 与 SSL 证书 (uuid / 所有者 / 签发 CA),
+ * 用于在不扫描数据表的情况下回答 "N 天内到期" 的查询, 并提供按时间窗口统计的 Prometheus 指标.
+ * 签发、续期与删除后按 UUID 从数据库重新加载, 并通过 Redis pub/sub 通知其它节点;
+ * 另按 {@code expiry-index.rebuild-interval} 全量重建一次, 以兜底丢失的通知.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code ExpiryIndex}
+ * @date 2025/5/17 16:20
+ */
+@Component
+@Slf4j
+public class ExpiryIndex implements MessageListener {
+
+    public static final String METRIC_NAME = "certvault.expiring";
+
+    /**
+     * Rows per query when loading the index
+     */
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<Target, Shelf> shelves = new EnumMap<>(Target.class);
+
+    private final CaMapper caMapper;
+
+    private final CertificateMapper certificateMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final ExpiryIndexProperties properties;
+
+    private ScheduledExecutorService rebuildExecutor;
+
+    public ExpiryIndex(CaMapper caMapper,
+                       CertificateMapper certificateMapper,
+                       StringRedisTemplate stringRedisTemplate,
+                       RedisMessageListenerContainer listenerContainer,
+                       ExpiryIndexProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.caMapper = caMapper;
+        this.certificateMapper = certificateMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.properties = properties;
+        for ( Target target : Target.values() ) {
+            shelves.put(target, new Shelf());
+            for ( Duration window : properties.getWindows() ) {
+                Gauge.builder(METRIC_NAME, this, index -> index.count(target, window))
+                        .description("Number of certificates expiring within the window")
+                        .tag("type", target.getName())
+                        .tag("window", windowTag(window))
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(RedisKeyConstant.EXPIRY_INDEX_CHANNEL.getKeyPrefix()));
+        long interval = properties.getRebuildInterval().toMillis();
+        rebuildExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "expiry-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuildExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("Expiry index rebuild failed: {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if ( rebuildExecutor != null ) {
+            rebuildExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the database
+     */
+    public void rebuild() {
+        for ( Target target : Target.values() ) {
+            // 按 ID 分批加载, 只查询索引需要的列
+            List<Entry> entries = new ArrayList<>();
+            long lastId = 0L;
+            while ( true ) {
+                List<Entry> batch = load(target, null, lastId);
+                if ( batch.isEmpty() ) {
+                    break;
+                }
+                entries.addAll(batch);
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            shelves.get(target).replaceAll(entries);
+            log.debug("Expiry index of {} rebuilt with {} entries", target.getName(), entries.size());
+        }
+    }
+
+    /**
+     * Reload entries after the current transaction commits and notify other nodes <br/>
+     * (Deleted rows are removed from the index)
+     *
+     * @param target CA or SSL certificate
+     * @param uuids  UUIDs
+     */
+    public void refresh(Target target, String... uuids) {
+        refresh(target, Arrays.asList(uuids));
+    }
+
+    /**
+     * Reload entries after the current transaction commits and notify other nodes <br/>
+     * (Deleted rows are removed from the index)
+     *
+     * @param target CA or SSL certificate
+     * @param uuids  UUIDs
+     */
+    public void refresh(Target target, Collection<String> uuids) {
+        List<String> distinct = uuids.stream().filter(Objects::nonNull).distinct().toList();
+        if ( distinct.isEmpty() ) {
+            return;
+        }
+        Runnable task = () -> {
+            try {
+                reload(target, distinct);
+            } catch (Exception e) {
+                // 下一次全量重建会修正索引
+                log.warn("Failed to reload expiry index of {}: {}", target.getName(), e.getMessage());
+            }
+            publish(target.getName() + "|" + String.join(",", distinct));
+        };
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Entries that have not expired yet and expire within the window, soonest first
+     *
+     * @param target CA or SSL certificate
+     * @param within window from now
+     * @param filter visibility filter (e.g. by owner), {@code null} for all
+     * @return matching entries
+     */
+    public List<Entry> expiring(Target target, Duration within, Predicate<Entry> filter) {
+        long now = System.currentTimeMillis();
+        return shelves.get(target).range(now, now + within.toMillis()).stream()
+                .filter(filter == null ? entry -> true : filter)
+                .toList();
+    }
+
+    /**
+     * Number of entries that have not expired yet and expire within the window
+     *
+     * @param target CA or SSL certificate
+     * @param within window from now
+     * @return count
+     */
+    public long count(Target target, Duration within) {
+        long now = System.currentTimeMillis();
+        return shelves.get(target).range(now, now + within.toMillis()).size();
+    }
+
+    /**
+     * Get the entry of a CA or SSL certificate
+     *
+     * @param target CA or SSL certificate
+     * @param uuid   UUID
+     * @return {@link Entry}, or {@code null} if not indexed
+     */
+    public Entry get(Target target, String uuid) {
+        return uuid == null ? null : shelves.get(target).byUuid.get(uuid);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // 消息格式: nodeId|target|uuid1,uuid2
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|");
+        if ( parts.length != 3 || nodeId.equals(parts[0]) ) {
+            return;
+        }
+        Target target = Target.of(parts[1]);
+        if ( target == null ) {
+            return;
+        }
+        try {
+            reload(target, Arrays.asList(parts[2].split(",")));
+        } catch (Exception e) {
+            log.warn("Failed to reload expiry index of {}: {}", target.getName(), e.getMessage());
+        }
+    }
+
+    private void reload(Target target, List<String> uuids) {
+        Shelf shelf = shelves.get(target);
+        for ( int i = 0; i < uuids.size(); i += LOAD_BATCH_SIZE ) {
+            List<String> chunk = uuids.subList(i, Math.min(uuids.size(), i + LOAD_BATCH_SIZE));
+            Map<String, Entry> loaded = new HashMap<>();
+            for ( Entry entry : load(target, chunk, 0L) ) {
+                loaded.put(entry.getUuid(), entry);
+            }
+            for ( String uuid : chunk ) {
+                Entry entry = loaded.get(uuid);
+                if ( entry == null ) {
+                    shelf.remove(uuid);
+                } else {
+                    shelf.put(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Load a batch of index entries
+     *
+     * @param target  CA or SSL certificate
+     * @param uuids   UUIDs to load, {@code null} for all
+     * @param afterId load rows after this ID
+     * @return entries ordered by ID, at most {@link #LOAD_BATCH_SIZE}
+     */
+    private List<Entry> load(Target target, List<String> uuids, long afterId) {
+        if ( target == Target.CA ) {
+            QueryWrapper<Ca> caQueryWrapper = new QueryWrapper<Ca>()
+                    .select("id", "uuid", "owner", "parent_ca", "not_after")
+                    .in(uuids != null, "uuid", uuids)
+                    .eq("deleted", false)
+                    .gt("id", afterId)
+                    .orderByAsc("id");
+            List<Ca> cas = caMapper.selectPage(new Page<>(1, LOAD_BATCH_SIZE, false), caQueryWrapper).getRecords();
+            return cas.stream()
+                    .filter(ca -> ca.getNotAfter() != null)
+                    .map(ca -> new Entry(ca.getId().longValue(), ca.getUuid(), ca.getOwner(), ca.getParentCa(), toMillis(ca.getNotAfter())))
+                    .toList();
+        }
+        QueryWrapper<Certificate> certificateQueryWrapper = new QueryWrapper<Certificate>()
+                .select("id", "uuid", "owner", "ca_uuid", "not_after")
+                .in(uuids != null, "uuid", uuids)
+                .eq("deleted", false)
+                .gt("id", afterId)
+                .orderByAsc("id");
+        List<Certificate> certificates = certificateMapper.selectPage(new Page<>(1, LOAD_BATCH_SIZE, false), certificateQueryWrapper).getRecords();
+        return certificates.stream()
+                .filter(certificate -> certificate.getNotAfter() != null)
+                .map(certificate -> new Entry(certificate.getId().longValue(), certificate.getUuid(), certificate.getOwner(),
+                        certificate.getCaUuid(), toMillis(certificate.getNotAfter())))
+                .toList();
+    }
+
+    private void publish(String payload) {
+        try {
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.EXPIRY_INDEX_CHANNEL.getKeyPrefix(), nodeId + "|" + payload);
+        } catch (Exception e) {
+            log.warn("Failed to publish expiry index change: {}", e.getMessage());
+        }
+    }
+
+    private static String windowTag(Duration window) {
+        return window.toSeconds() % 86400 == 0 ? window.toDays() + "d" : window.toString();
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Indexed table
+     */
+    @Getter
+    public enum Target {
+
+        /**
+         * CA certificates
+         */
+        CA("ca"),
+
+        /**
+         * SSL certificates
+         */
+        CERTIFICATE("certificate");
+
+        private final String name;
+
+        Target(String name) {
+            this.name = name;
+        }
+
+        public static Target of(String name) {
+            for ( Target target : values() ) {
+                if ( target.name.equals(name) ) {
+                    return target;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Immutable index entry
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Entry {
+
+        private final Long id;
+
+        private final String uuid;
+
+        private final Integer owner;
+
+        /**
+         * Parent CA of a CA, or issuing CA of an SSL certificate
+         */
+        private final String caUuid;
+
+        /**
+         * {@code not_after} in epoch milliseconds
+         */
+        private final long notAfter;
+
+    }
+
+    /**
+     * Entries of one table, sorted by expiry and keyed by UUID
+     */
+    private static final class Shelf {
+
+        private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::getNotAfter)
+                .thenComparing(Entry::getUuid);
+
+        private final NavigableSet<Entry> byExpiry = new ConcurrentSkipListSet<>(ORDER);
+
+        private final Map<String, Entry> byUuid = new ConcurrentHashMap<>();
+
+        private synchronized void put(Entry entry) {
+            Entry previous = byUuid.put(entry.getUuid(), entry);
+            if ( previous != null ) {
+                byExpiry.remove(previous);
+            }
+            byExpiry.add(entry);
+        }
+
+        private synchronized void remove(String uuid) {
+            Entry previous = byUuid.remove(uuid);
+            if ( previous != null ) {
+                byExpiry.remove(previous);
+            }
+        }
+
+        private synchronized void replaceAll(List<Entry> entries) {
+            Set<String> fresh = new HashSet<>(entries.size() * 2);
+            for ( Entry entry : entries ) {
+                fresh.add(entry.getUuid());
+                put(entry);
+            }
+            for ( String uuid : new ArrayList<>(byUuid.keySet()) ) {
+                if ( !fresh.contains(uuid) ) {
+                    remove(uuid);
+                }
+            }
+        }
+
+        private NavigableSet<Entry> range(long from, long to) {
+            if ( to < from ) {
+                return Collections.emptyNavigableSet();
+            }
+            // UUID 为空串与 U+FFFF 的哨兵条目分别落在同一毫秒的最前与最后
+            return byExpiry.subSet(new Entry(0L, "", null, null, from), true,
+                    new Entry(0L, "\uffff", null, null, to), true);
+        }
+    }
+}
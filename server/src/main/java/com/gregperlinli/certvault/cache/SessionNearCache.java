@@ -0,0 +1,174 @@
+package com.gregperlinli.certvault.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.config.properties.SessionAuthProperties;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.domain.dto.UserProfileDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Function;
+
+/**
+ * Verified Session Near Cache
+ *
+ * <p>
+ * 按 Session ID 短时间缓存 Redis 中已验证的会话信息, 使 {@code SessionAuthFilter} 不必每个请求都访问 Redis.
+ * 订阅当前连接的数据库中 {@code user:*} 键的 del / expired / evicted / set 键空间事件失效本地缓存,
+ * 因此强制下线在所有节点上几乎即时生效; 事件丢失或服务器未开启 {@code notify-keyspace-events} 时最长在 TTL 内生效.
+ * 只缓存验证通过的会话, 未登录或已失效的会话每次都会访问 Redis.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code SessionNearCache}
+ * @date 2025/5/8 14:25
+ */
+@Component
+@Slf4j
+public class SessionNearCache implements MessageListener {
+
+    public static final String CACHE_NAME = "session";
+
+    private static final String NOTIFY_KEYSPACE_EVENTS = "notify-keyspace-events";
+
+    /**
+     * Keyevent notification flags: E (keyevent channel), g (del), $ (set), x (expired), e (evicted)
+     */
+    private static final String REQUIRED_FLAGS = "Eg$xe";
+
+    private static final List<String> EVENTS = List.of("del", "expired", "evicted", "set");
+
+    private final Cache<String, UserProfileDTO> cache;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final SessionAuthProperties sessionAuthProperties;
+
+    private final boolean enabled;
+
+    public SessionNearCache(StringRedisTemplate stringRedisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            LocalCacheProperties properties,
+                            SessionAuthProperties sessionAuthProperties,
+                            MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.sessionAuthProperties = sessionAuthProperties;
+        LocalCacheProperties.Spec spec = properties.getSession();
+        this.enabled = Boolean.TRUE.equals(spec.getEnabled());
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(spec.getTtl())
+                .maximumSize(spec.getMaxSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @PostConstruct
+    public void init() {
+        if ( !enabled ) {
+            return;
+        }
+        if ( Boolean.TRUE.equals(sessionAuthProperties.getConfigureKeyspaceNotifications()) ) {
+            configureKeyspaceNotifications();
+        }
+        // 只订阅本应用使用的数据库, 共用 Redis 的其它数据库的事件不会投递到本节点
+        int database = database();
+        EVENTS.forEach(event -> listenerContainer.addMessageListener(this, new ChannelTopic("__keyevent@" + database + "__:" + event)));
+    }
+
+    /**
+     * Get the verified profile of a session, load it from Redis on miss
+     *
+     * @param sessionId session ID
+     * @param loader loads the profile from Redis, returns {@code null} if the session is not logged in
+     * @return {@link UserProfileDTO}, or {@code null} if the session is not logged in
+     */
+    public UserProfileDTO get(String sessionId, Function<String, UserProfileDTO> loader) {
+        if ( !enabled ) {
+            return loader.apply(sessionId);
+        }
+        UserProfileDTO profile = cache.getIfPresent(sessionId);
+        if ( profile == null ) {
+            profile = loader.apply(sessionId);
+            if ( profile != null ) {
+                cache.put(sessionId, profile);
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Evict a session on this node
+     *
+     * @param sessionId session ID
+     */
+    public void evict(String sessionId) {
+        if ( sessionId != null ) {
+            cache.invalidate(sessionId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String key = new String(message.getBody(), StandardCharsets.UTF_8);
+        String prefix = RedisKeyConstant.USER.getKeyPrefix();
+        if ( key.startsWith(prefix) ) {
+            cache.invalidate(key.substring(prefix.length()));
+        }
+    }
+
+    /**
+     * Database index of the Redis connection, keyspace events are published per database
+     */
+    private int database() {
+        RedisConnectionFactory connectionFactory = stringRedisTemplate.getConnectionFactory();
+        return connectionFactory instanceof LettuceConnectionFactory lettuceConnectionFactory ? lettuceConnectionFactory.getDatabase() : 0;
+    }
+
+    /**
+     * Merge the required flags into {@code notify-keyspace-events} of the Redis server
+     */
+    private void configureKeyspaceNotifications() {
+        try {
+            stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+                Properties config = connection.serverCommands().getConfig(NOTIFY_KEYSPACE_EVENTS);
+                String current = config == null ? "" : config.getProperty(NOTIFY_KEYSPACE_EVENTS, "");
+                StringBuilder flags = new StringBuilder(current);
+                for ( char flag : REQUIRED_FLAGS.toCharArray() ) {
+                    // 'A' 是 "g$lshzxetd" 的别名
+                    boolean coveredByAll = current.indexOf('A') >= 0 && flag != 'E';
+                    if ( current.indexOf(flag) < 0 && !coveredByAll ) {
+                        flags.append(flag);
+                    }
+                }
+                if ( !flags.toString().equals(current) ) {
+                    connection.serverCommands().setConfig(NOTIFY_KEYSPACE_EVENTS, flags.toString());
+                    log.info("Redis notify-keyspace-events changed from '{}' to '{}'", current, flags);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to configure Redis keyspace notifications, session near cache relies on TTL only: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.gregperlinli.certvault.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.domain.entities.User;
+import com.gregperlinli.certvault.mapper.UserMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolved User Cache
+ *
+ * <p>
+ * 两级缓存已解析的有效用户 (未删除), 替代各服务方法开头重复的按用户名查询:
+ * 第一级为请求作用域 (由 {@code SessionAuthFilter} 在认证通过时填充), 第二级为按用户名与 id 索引的节点本地缓存.
+ * 缓存中的用户不包含密码哈希, 每次返回副本, 调用方修改不会污染缓存.
+ * 用户资料、角色变更或删除时失效, 并通过 Redis pub/sub 通知其它节点.
+ * 写入提交后再次失效; 每次失效递增代数, 与失效重叠的数据库读取结果不会回填缓存, 避免并发读把旧行缓存至 TTL 结束.
+ * 命中率通过 {@code cache_gets_total{cache="user"}} 导出到 Prometheus.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code UserCache}
+ * @date 2025/5/7 10:15
+ */
+@Component
+@Slf4j
+public class UserCache implements MessageListener {
+
+    public static final String CACHE_NAME = "user";
+
+    private static final String REQUEST_ATTRIBUTE = UserCache.class.getName() + ".RESOLVED_USERS";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Cache<String, User> byUsername;
+
+    private final Cache<Integer, User> byId;
+
+    private final UserMapper userMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final boolean enabled;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserCache(UserMapper userMapper,
+                     StringRedisTemplate stringRedisTemplate,
+                     RedisMessageListenerContainer listenerContainer,
+                     LocalCacheProperties properties,
+                     MeterRegistry meterRegistry) {
+        this.userMapper = userMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        LocalCacheProperties.Spec spec = properties.getUser();
+        this.enabled = Boolean.TRUE.equals(spec.getEnabled());
+        this.byUsername = Caffeine.newBuilder()
+                .expireAfterWrite(spec.getTtl())
+                .maximumSize(spec.getMaxSize())
+                .recordStats()
+                .build();
+        this.byId = Caffeine.newBuilder()
+                .expireAfterWrite(spec.getTtl())
+                .maximumSize(spec.getMaxSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername, CACHE_NAME, "key", "username");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, CACHE_NAME, "key", "id");
+    }
+
+    @PostConstruct
+    public void init() {
+        if ( enabled ) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(RedisKeyConstant.USER_CACHE_CHANNEL.getKeyPrefix()));
+        }
+    }
+
+    /**
+     * Get an active (not deleted) user by username
+     *
+     * @param username username
+     * @return copy of the {@link User} without password, or {@code null} if the user does not exist
+     */
+    public User getActive(String username) {
+        if ( username == null ) {
+            return null;
+        }
+        // 1. 请求作用域
+        Map<String, User> resolved = requestScope();
+        User user = resolved == null ? null : resolved.get(username);
+        // 2. 节点本地缓存
+        if ( user == null && enabled ) {
+            user = byUsername.getIfPresent(username);
+        }
+        // 3. 数据库
+        if ( user == null ) {
+            long readGeneration = generation.get();
+            user = userMapper.selectOne(activeUserQuery().eq("username", username));
+            if ( user == null ) {
+                return null;
+            }
+            put(user, readGeneration);
+        }
+        if ( resolved != null ) {
+            resolved.put(username, user);
+        }
+        return copy(user);
+    }
+
+    /**
+     * Get an active (not deleted) user by id
+     *
+     * @param id user id
+     * @return copy of the {@link User} without password, or {@code null} if the user does not exist
+     */
+    public User getActiveById(Integer id) {
+        if ( id == null ) {
+            return null;
+        }
+        Map<String, User> resolved = requestScope();
+        if ( resolved != null ) {
+            for ( User user : resolved.values() ) {
+                if ( id.equals(user.getId()) ) {
+                    return copy(user);
+                }
+            }
+        }
+        User user = enabled ? byId.getIfPresent(id) : null;
+        if ( user == null ) {
+            long readGeneration = generation.get();
+            user = userMapper.selectOne(activeUserQuery().eq("id", id));
+            if ( user == null ) {
+                return null;
+            }
+            put(user, readGeneration);
+        }
+        if ( resolved != null ) {
+            resolved.put(user.getUsername(), user);
+        }
+        return copy(user);
+    }
+
+    /**
+     * Evict users on this node immediately and again after the current transaction commits,
+     * then notify other nodes
+     *
+     * @param usernames usernames
+     */
+    public void evict(String... usernames) {
+        evict(Arrays.asList(usernames));
+    }
+
+    /**
+     * Evict users on this node immediately and again after the current transaction commits,
+     * then notify other nodes
+     *
+     * @param usernames usernames
+     */
+    public void evict(Collection<String> usernames) {
+        List<String> targets = usernames.stream().filter(Objects::nonNull).distinct().toList();
+        if ( targets.isEmpty() ) {
+            return;
+        }
+        evictLocal(targets);
+        Runnable task = () -> {
+            evictLocal(targets);
+            publish(String.join(",", targets));
+        };
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if ( separator < 0 || nodeId.equals(body.substring(0, separator)) ) {
+            return;
+        }
+        evictLocal(Arrays.asList(body.substring(separator + 1).split(",")));
+    }
+
+    private void evictLocal(List<String> usernames) {
+        Set<String> targets = new HashSet<>(usernames);
+        generation.incrementAndGet();
+        byUsername.invalidateAll(targets);
+        byId.asMap().values().removeIf(user -> targets.contains(user.getUsername()));
+        Map<String, User> resolved = requestScope();
+        if ( resolved != null ) {
+            resolved.keySet().removeAll(targets);
+        }
+        log.debug("User cache evicted: {}", targets);
+    }
+
+    private void put(User user, long readGeneration) {
+        // 读取期间发生过失效, 结果可能早于写入提交, 不回填
+        if ( enabled && generation.get() == readGeneration ) {
+            byUsername.put(user.getUsername(), user);
+            byId.put(user.getId(), user);
+            if ( generation.get() != readGeneration ) {
+                byUsername.invalidate(user.getUsername());
+                byId.invalidate(user.getId());
+            }
+        }
+    }
+
+    private void publish(String payload) {
+        if ( !enabled ) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.USER_CACHE_CHANNEL.getKeyPrefix(), nodeId + "|" + payload);
+        } catch (Exception e) {
+            log.warn("Failed to publish user cache eviction: {}", e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, User> requestScope() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if ( attributes == null ) {
+            return null;
+        }
+        Map<String, User> resolved = (Map<String, User>) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if ( resolved == null ) {
+            resolved = new HashMap<>(4);
+            attributes.setAttribute(REQUEST_ATTRIBUTE, resolved, RequestAttributes.SCOPE_REQUEST);
+        }
+        return resolved;
+    }
+
+    private static QueryWrapper<User> activeUserQuery() {
+        return new QueryWrapper<User>()
+                .select("id", "username", "display_name", "email", "role", "created_at", "modified_at", "deleted")
+                .eq("deleted", false);
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setUsername(user.getUsername());
+        copy.setDisplayName(user.getDisplayName());
+        copy.setEmail(user.getEmail());
+        copy.setRole(user.getRole());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setModifiedAt(user.getModifiedAt());
+        copy.setDeleted(user.getDeleted());
+        return copy;
+    }
+}
@@ -1,29 +1,36 @@
 package com.gregperlinli.certvault.certificate;
 
+import com.gregperlinli.certvault.constant.PrometheusConstant;
 import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
+import com.gregperlinli.certvault.crypto.KeyPairPool;
+import com.gregperlinli.certvault.crypto.SerialNumberService;
 import com.gregperlinli.certvault.domain.entities.CaGenRequest;
+import com.gregperlinli.certvault.domain.entities.CaSigningKey;
 import com.gregperlinli.certvault.domain.entities.GenResponse;
 import com.gregperlinli.certvault.domain.entities.CaRenewRequest;
 import com.gregperlinli.certvault.domain.exception.CertGenException;
 import com.gregperlinli.certvault.utils.CertUtils;
+import com.gregperlinli.certvault.utils.MetricsUtils;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers;
+import org.bouncycastle.asn1.x500.RDN;
 import org.bouncycastle.asn1.x500.X500Name;
-import org.bouncycastle.asn1.x509.BasicConstraints;
-import org.bouncycastle.asn1.x509.Extension;
-import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x500.X500NameBuilder;
+import org.bouncycastle.asn1.x500.style.BCStyle;
+import org.bouncycastle.asn1.x500.style.IETFUtils;
+import org.bouncycastle.asn1.x509.*;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
-import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
-import org.bouncycastle.jcajce.spec.EdDSAParameterSpec;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.operator.ContentSigner;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 
-import java.math.BigInteger;
 import java.security.*;
 import java.security.cert.X509Certificate;
 import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -50,9 +57,14 @@ public class CaGenerator {
      * @return 生成的 CA 证书和私钥
      */
     public static GenResponse generateCaCertificate(CaGenRequest request) {
+        return MetricsUtils.time(PrometheusConstant.CERT_ISSUANCE, () -> generate(request),
+                PrometheusConstant.TYPE.getName(), "ca", PrometheusConstant.OPERATION.getName(), "generate");
+    }
+
+    private static GenResponse generate(CaGenRequest request) {
         try {
-            // 1. 注册 Bouncy Castle 提供者
-            Security.addProvider(new BouncyCastleProvider());
+            // 1. 确保 Bouncy Castle 提供者已注册
+            CryptoBootstrap.bootstrap();
 
             // 2. 判断是否为中间 CA
             boolean isIntermediate = (request.getParentCa() != null
@@ -65,61 +77,27 @@ public class CaGenerator {
             if ( isIntermediate ) {
                 parentCert = parseCertificate(request.getParentCa());
                 parentPrivateKey = parsePrivateKey(request.getParentCaPrivkey());
-                parentPublicKey = new JcaX509CertificateConverter()
-                        .setProvider("BC")
+                parentPublicKey = CryptoBootstrap.certificateConverter()
                         .getCertificate(parentCert)
                         .getPublicKey();
             }
 
-            // 4. 根据算法生成密钥对
-            KeyPairGenerator keyGen = null;
+            // 4. 根据算法生成密钥对 (优先从预生成池中获取)
             String algorithm = request.getAlgorithm();
             Integer keySize = request.getKeySize();
             if ( isIntermediate ) {
                 algorithm = parentPublicKey.getAlgorithm();
-                keyGen = KeyPairGenerator.getInstance(algorithm, "BC");
-                if (parentPublicKey instanceof RSAPublicKey) {
-                    // RSA 密钥长度（模数位数）
-                    // keySize = ((RSAPublicKey) parentPublicKey).getModulus().bitLength();
-                } else if (parentPublicKey instanceof ECPublicKey) {
-                    // EC 密钥长度（椭圆曲线位数）
-                    // keySize = ((ECPublicKey) parentPublicKey).getParams().getCurve().getField().getFieldSize();
-                    // 使用ECC算法，初始化密钥长度只能为 256、384 或 521，不支持其他值
-                    if ( keySize < 320 ) {
-                        keySize = 256;
-                    } else if ( keySize <= 452 ) {
-                        keySize = 384;
-                    } else {
-                        keySize = 521;
-                    }
-                } else if ("Ed25519".equals(parentPublicKey.getAlgorithm())) {
-                    // Ed25519 固定密钥长度
-                    keySize = 256;
-                } else {
+                if ( !(parentPublicKey instanceof RSAPublicKey)
+                        && !(parentPublicKey instanceof ECPublicKey)
+                        && !"Ed25519".equals(parentPublicKey.getAlgorithm()) ) {
                     throw new UnsupportedOperationException("Unsupported key algorithm: " + parentPublicKey.getAlgorithm());
                 }
-                keyGen.initialize(keySize, new SecureRandom());
-            } else {
-                keyGen = KeyPairGenerator.getInstance(algorithm, "BC");
-                if ("Ed25519".equals(algorithm)) {
-                    // 使用Ed25519专用参数初始化，固定密钥长度为256位
-                    keySize = 256;
-                    keyGen.initialize(new EdDSAParameterSpec("Ed25519"));
-                } else if ("EC".equals(algorithm)) {
-                    // 使用ECC算法，初始化密钥长度只能为 256、384 或 521，不支持其他值
-                    if ( keySize < 320 ) {
-                        keySize = 256;
-                    } else if ( keySize <= 452 ) {
-                        keySize = 384;
-                    } else {
-                        keySize = 521;
-                    }
-                    keyGen.initialize(keySize, new SecureRandom());
-                } else {
-                    keyGen.initialize(keySize, new SecureRandom());
-                }
             }
-            KeyPair caKeyPair = keyGen.generateKeyPair();
+            // Ed25519 固定为256位, EC 初始化密钥长度只能为 256、384 或 521
+            keySize = KeyPairPool.normalizeKeySize(algorithm, keySize);
+            long keygenStart = System.nanoTime();
+            KeyPair caKeyPair = KeyPairPool.acquire(algorithm, keySize);
+            MetricsUtils.record(PrometheusConstant.CERT_KEYGEN, keygenStart, PrometheusConstant.TYPE.getName(), "ca", PrometheusConstant.ALGORITHM.getName(), algorithm);
 
             // 5. 构建 X500Name（证书主题）
             StringBuilder dnBuilder = new StringBuilder();
@@ -166,7 +144,7 @@ public class CaGenerator {
             // 10. 构建证书
             X509v3CertificateBuilder certBuilder = new JcaX509v3CertificateBuilder(
                     issuer,
-                    BigInteger.probablePrime(128, new SecureRandom()),
+                    SerialNumberService.next(issuer),
                     notBefore, notAfter,
                     subject,
                     caKeyPair.getPublic()
@@ -199,14 +177,14 @@ public class CaGenerator {
             // 12. 创建签名器（SHA256withRSA）
             // ContentSigner signer = new JcaContentSignerBuilder("SHA256WithRSAEncryption")
             //         .build(caKeyPair.getPrivate());
+            long signStart = System.nanoTime();
             ContentSigner signer = isIntermediate
-                    ? new JcaContentSignerBuilder(signerAlg)
-                    .build(parentPrivateKey)
-                    : new JcaContentSignerBuilder(signerAlg)
-                    .build(caKeyPair.getPrivate());
+                    ? CryptoBootstrap.contentSigner(signerAlg, parentPrivateKey)
+                    : CryptoBootstrap.contentSigner(signerAlg, caKeyPair.getPrivate());
 
             // 13. 生成最终证书
             X509CertificateHolder certHolder = certBuilder.build(signer);
+            MetricsUtils.record(PrometheusConstant.CERT_SIGN, signStart, PrometheusConstant.TYPE.getName(), "ca", PrometheusConstant.ALGORITHM.getName(), algorithm);
 
             // 14. 生成 PEM 格式的证书和私钥字符串（包含头尾）
             String pemCert = generatePemCertificate(certHolder);
@@ -238,9 +216,14 @@ public class CaGenerator {
      * @return 续期后的证书和私钥
      */
     public static GenResponse renewCaCertificate(CaRenewRequest request) {
+        return MetricsUtils.time(PrometheusConstant.CERT_ISSUANCE, () -> renew(request),
+                PrometheusConstant.TYPE.getName(), "ca", PrometheusConstant.OPERATION.getName(), "renew");
+    }
+
+    private static GenResponse renew(CaRenewRequest request) {
         try {
-            // 1. 注册 Bouncy Castle 提供者
-            Security.addProvider(new BouncyCastleProvider());
+            // 1. 确保 Bouncy Castle 提供者已注册
+            CryptoBootstrap.bootstrap();
 
             // 2. 解析旧证书和私钥的 Base64 内容
             X509CertificateHolder oldCert = parseCertificate(request.getOldCert());
@@ -281,8 +264,7 @@ public class CaGenerator {
             // 7. 提取原始证书的主体信息
             X500Name issuer = new X500Name(String.valueOf(oldCert.getIssuer()));
             X500Name subject = new X500Name(String.valueOf(oldCert.getSubject()));
-            PublicKey publicKey = new JcaX509CertificateConverter()
-                    .setProvider("BC")
+            PublicKey publicKey = CryptoBootstrap.certificateConverter()
                     .getCertificate(oldCert)
                     .getPublicKey();
 
@@ -301,7 +283,7 @@ public class CaGenerator {
             // 10. 构建新证书
             X509v3CertificateBuilder certBuilder = new JcaX509v3CertificateBuilder(
                     issuer,
-                    BigInteger.probablePrime(128, new SecureRandom()),
+                    SerialNumberService.next(issuer),
                     notBefore, notAfter,
                     subject,
                     publicKey
@@ -332,12 +314,14 @@ public class CaGenerator {
             // 12. 创建签名器（使用原始私钥）
             // ContentSigner signer = new JcaContentSignerBuilder("SHA256WithRSAEncryption")
             //         .build(privateKey);
+            long signStart = System.nanoTime();
             ContentSigner signer = isIntermediate
-                    ? new JcaContentSignerBuilder(signerAlg).build(parentPrivateKey)
-                    : new JcaContentSignerBuilder(signerAlg).build(privateKey);
+                    ? CryptoBootstrap.contentSigner(signerAlg, parentPrivateKey)
+                    : CryptoBootstrap.contentSigner(signerAlg, privateKey);
 
             // 13. 生成最终证书
             X509CertificateHolder newCertHolder = certBuilder.build(signer);
+            MetricsUtils.record(PrometheusConstant.CERT_SIGN, signStart, PrometheusConstant.TYPE.getName(), "ca", PrometheusConstant.ALGORITHM.getName(), algorithm);
 
             // 14. 生成 PEM 格式的证书和私钥字符串（包含头尾）
             String pemCert = generatePemCertificate(newCertHolder);
@@ -377,4 +361,62 @@ public class CaGenerator {
         }
     }
 
+    /**
+     * 签发委托 OCSP 签名证书 (RFC 6960 4.2.2.2)
+     *
+     * <p>
+     * 由 CA 直接签发, 仅用于签名 OCSP 响应 ({@code id-kp-OCSPSigning}), 带有 {@code id-pkix-ocsp-nocheck},
+     * 使 OCSP 响应无需每次使用 CA 私钥签名.
+     * </p>
+     *
+     * @param caSigningKey    签发 CA 的私钥与证书
+     * @param signerPublicKey 委托签名者的公钥
+     * @param validity        有效期
+     * @return 委托 OCSP 签名证书
+     */
+    public static X509CertificateHolder generateOcspSigningCertificate(CaSigningKey caSigningKey, PublicKey signerPublicKey, Duration validity) {
+        try {
+            // 1. 确保 Bouncy Castle 提供者已注册
+            CryptoBootstrap.bootstrap();
+
+            // 2. 主题: CA 的 CN 加上 OCSP Responder 后缀
+            X500Name issuer = caSigningKey.getCertHolder().getSubject();
+            RDN[] commonNames = issuer.getRDNs(BCStyle.CN);
+            String commonName = commonNames.length == 0
+                    ? "OCSP Responder"
+                    : IETFUtils.valueToString(commonNames[0].getFirst().getValue()) + " OCSP Responder";
+            X500Name subject = new X500NameBuilder(BCStyle.INSTANCE).addRDN(BCStyle.CN, commonName).build();
+
+            // 3. 有效期不超过 CA 证书
+            Date notBefore = new Date();
+            Date notAfter = new Date(notBefore.getTime() + validity.toMillis());
+            if ( notAfter.after(caSigningKey.getCertHolder().getNotAfter()) ) {
+                notAfter = caSigningKey.getCertHolder().getNotAfter();
+            }
+
+            // 4. 构建证书
+            X509v3CertificateBuilder certBuilder = new JcaX509v3CertificateBuilder(
+                    issuer,
+                    SerialNumberService.next(issuer),
+                    notBefore, notAfter,
+                    subject,
+                    signerPublicKey
+            );
+            JcaX509ExtensionUtils extensionUtils = new JcaX509ExtensionUtils();
+            certBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(false));
+            certBuilder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.digitalSignature));
+            certBuilder.addExtension(Extension.extendedKeyUsage, false, new ExtendedKeyUsage(KeyPurposeId.id_kp_OCSPSigning));
+            certBuilder.addExtension(OCSPObjectIdentifiers.id_pkix_ocsp_nocheck, false, DERNull.INSTANCE);
+            certBuilder.addExtension(Extension.authorityKeyIdentifier, false,
+                    extensionUtils.createAuthorityKeyIdentifier(caSigningKey.getCertHolder().getSubjectPublicKeyInfo()));
+            certBuilder.addExtension(Extension.subjectKeyIdentifier, false,
+                    extensionUtils.createSubjectKeyIdentifier(signerPublicKey));
+
+            // 5. 使用 CA 私钥签名
+            return certBuilder.build(CryptoBootstrap.contentSigner(caSigningKey.getPrivateKey()));
+        } catch (Exception e) {
+            throw new CertGenException(ResultStatusCodeConstant.BUSINESS_EXCEPTION.getResultCode(), e.getMessage());
+        }
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.gregperlinli.certvault.certificate;
 
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
 import com.gregperlinli.certvault.domain.entities.*;
 import com.gregperlinli.certvault.utils.CertUtils;
 import org.bouncycastle.asn1.*;
@@ -7,13 +8,10 @@ import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
 import org.bouncycastle.asn1.x9.ECNamedCurveTable;
 import org.bouncycastle.asn1.x509.*;
 import org.bouncycastle.cert.X509CertificateHolder;
-import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.jcajce.provider.asymmetric.util.EC5Util;
 import org.bouncycastle.jcajce.provider.asymmetric.util.ECUtil;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.openssl.PEMKeyPair;
 import org.bouncycastle.openssl.PEMParser;
-import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
 
 import java.io.StringReader;
 import java.math.BigInteger;
@@ -22,7 +20,6 @@ import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 import java.security.PrivateKey;
 import java.security.PublicKey;
-import java.security.Security;
 import java.security.Signature;
 import java.security.cert.X509Certificate;
 import java.security.interfaces.ECPrivateKey;
@@ -45,7 +42,7 @@ import static java.time.Instant.ofEpochMilli;
 public class CertAnalyzer {
 
     static {
-        Security.addProvider(new BouncyCastleProvider());
+        CryptoBootstrap.bootstrap();
     }
 
     /**
@@ -72,8 +69,7 @@ public class CertAnalyzer {
                 ZoneId.systemDefault()));
 
         // 3. 公钥信息
-        PublicKey publicKey = new JcaX509CertificateConverter()
-                .setProvider("BC")
+        PublicKey publicKey = CryptoBootstrap.certificateConverter()
                 .getCertificate(certHolder)
                 .getPublicKey();
         details.setPublicKey(publicKey);
@@ -142,8 +138,7 @@ public class CertAnalyzer {
      */
     public static Boolean certVerify(String privkeyBase64, String certBase64) throws Exception {
         // 1. 解析证书公钥
-        X509Certificate certificate = new JcaX509CertificateConverter()
-                .setProvider("BC")
+        X509Certificate certificate = CryptoBootstrap.certificateConverter()
                 .getCertificate(CertUtils.parseCertificate(certBase64));
         PublicKey publicKey = certificate.getPublicKey();
 
@@ -355,10 +350,10 @@ public class CertAnalyzer {
 
             if (obj instanceof PEMKeyPair keyPair) {
                 // 处理 PEM 密钥对的情况
-                return new JcaPEMKeyConverter().setProvider("BC").getPrivateKey(keyPair.getPrivateKeyInfo());
+                return CryptoBootstrap.pemKeyConverter().getPrivateKey(keyPair.getPrivateKeyInfo());
             } else if (obj instanceof PrivateKeyInfo pkcs8Key) {
                 // 处理 PKCS#8 格式的私钥
-                return new JcaPEMKeyConverter().setProvider("BC").getPrivateKey(pkcs8Key);
+                return CryptoBootstrap.pemKeyConverter().getPrivateKey(pkcs8Key);
             } else {
                 throw new IllegalArgumentException("Unsupported private key format");
             }
@@ -373,7 +368,7 @@ public class CertAnalyzer {
         } else if ( "EC".equals(algorithm)) {
             algorithm = "ECDSA";
         }
-        Signature signature = Signature.getInstance(algorithm, "BC");
+        Signature signature = Signature.getInstance(algorithm, CryptoBootstrap.provider());
 
         byte[] data = "CertVaultVerification".getBytes(StandardCharsets.UTF_8);
 
@@ -1,9 +1,12 @@
 package com.gregperlinli.certvault.certificate;
 
+import com.gregperlinli.certvault.constant.PrometheusConstant;
 import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
 import com.gregperlinli.certvault.domain.entities.CertPrivkeyResult;
 import com.gregperlinli.certvault.domain.exception.ParamValidateException;
 import com.gregperlinli.certvault.utils.CertUtils;
+import com.gregperlinli.certvault.utils.MetricsUtils;
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1InputStream;
 import org.bouncycastle.asn1.ASN1OctetString;
@@ -11,9 +14,6 @@ import org.bouncycastle.asn1.ASN1Sequence;
 import org.bouncycastle.asn1.pkcs.*;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.cert.X509CertificateHolder;
-import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
-import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
 import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
 import org.bouncycastle.operator.InputDecryptor;
 import org.bouncycastle.operator.InputDecryptorProvider;
@@ -42,7 +42,7 @@ import java.util.Base64;
 public class CertConverter {
 
     static {
-        Security.addProvider(new BouncyCastleProvider());
+        CryptoBootstrap.bootstrap();
     }
 
     /**
@@ -54,6 +54,10 @@ public class CertConverter {
      * @return Base64 编码的 PFX 字节数组
      */
     public static String convertFromPemToPfx(String encodedCertPem, String encodedKeyPem, String password) throws Exception {
+        return MetricsUtils.time(PrometheusConstant.CERT_CONVERSION, () -> pemToPfx(encodedCertPem, encodedKeyPem, password), PrometheusConstant.OPERATION.getName(), "pem-to-pfx");
+    }
+
+    private static String pemToPfx(String encodedCertPem, String encodedKeyPem, String password) throws Exception {
         try {
             // 参数基础校验
             if ( encodedCertPem == null || encodedCertPem.isEmpty() ) {
@@ -66,8 +70,7 @@ public class CertConverter {
             PrivateKey privateKey = null;
 
             // 解析证书
-            certificate = new JcaX509CertificateConverter()
-                    .setProvider("BC")
+            certificate = CryptoBootstrap.certificateConverter()
                     .getCertificate(CertUtils.parseCertificate(encodedCertPem));
             pfxBuilder.addData(new JcaPKCS12SafeBagBuilder(certificate).build());
 
@@ -79,7 +82,7 @@ public class CertConverter {
 
             // 创建加密器和MAC计算器
             PKCS12MacCalculatorBuilder macCalculatorBuilder = new JcePKCS12MacCalculatorBuilder()
-                    .setProvider("BC")
+                    .setProvider(CryptoBootstrap.provider())
                     .setIterationCount(1000);
 
             // 构建PFX
@@ -102,6 +105,10 @@ public class CertConverter {
      * @return 包含PEM证书和私钥的Base64编码结果对象
      */
     public static CertPrivkeyResult convertFromPfxToPem(String pfxBase64, String password) throws Exception {
+        return MetricsUtils.time(PrometheusConstant.CERT_CONVERSION, () -> pfxToPem(pfxBase64, password), PrometheusConstant.OPERATION.getName(), "pfx-to-pem");
+    }
+
+    private static CertPrivkeyResult pfxToPem(String pfxBase64, String password) throws Exception {
         ASN1InputStream asn1In = null;
         try {
             byte[] pfxBytes = Base64.getDecoder().decode(pfxBase64);
@@ -138,7 +145,7 @@ public class CertConverter {
                         ASN1OctetString certValue = ASN1OctetString.getInstance(certBag.getCertValue());
                         X509CertificateHolder certHolder = new X509CertificateHolder(certValue.getOctets());
                         try (JcaPEMWriter pemWriter = new JcaPEMWriter(certWriter)) {
-                            pemWriter.writeObject(new JcaX509CertificateConverter().getCertificate(certHolder));
+                            pemWriter.writeObject(CryptoBootstrap.certificateConverter().getCertificate(certHolder));
                         }
                     }
 
@@ -148,7 +155,7 @@ public class CertConverter {
                         try {
                             PrivateKeyInfo keyInfo = PrivateKeyInfo.getInstance(safeBag.getBagValue());
                             try (JcaPEMWriter pemWriter = new JcaPEMWriter(keyWriter)) {
-                                pemWriter.writeObject(new JcaPEMKeyConverter().getPrivateKey(keyInfo));
+                                pemWriter.writeObject(CryptoBootstrap.pemKeyConverter().getPrivateKey(keyInfo));
                             }
                         } catch (Exception e) {
                             throw new CertificateException("Failed to process unencrypted private key: " + e.getMessage());
@@ -161,14 +168,14 @@ public class CertConverter {
                             byte[] encryptedData = encKeyInfo.getEncryptedData();
 
                             InputDecryptorProvider decryptorProvider = new JcePKCSPBEInputDecryptorProviderBuilder()
-                                    .setProvider("BC")
+                                    .setProvider(CryptoBootstrap.provider())
                                     .build((password != null) ? password.toCharArray() : new char[0]);
 
                             InputDecryptor decryptor = decryptorProvider.get(algId);
                             try (ASN1InputStream encIn = new ASN1InputStream(decryptor.getInputStream(new ByteArrayInputStream(encryptedData)))) {
                                 PrivateKeyInfo keyInfo = PrivateKeyInfo.getInstance(encIn.readObject());
                                 try (JcaPEMWriter pemWriter = new JcaPEMWriter(keyWriter)) {
-                                    pemWriter.writeObject(new JcaPEMKeyConverter().getPrivateKey(keyInfo));
+                                    pemWriter.writeObject(CryptoBootstrap.pemKeyConverter().getPrivateKey(keyInfo));
                                 }
                             }
                         } catch (Exception e) {
@@ -200,6 +207,10 @@ public class CertConverter {
      * @throws Exception 抛出异常
      */
     public static CertPrivkeyResult convertFromPemToDer(String encodedCertPem, String encodedKeyPem) throws Exception {
+        return MetricsUtils.time(PrometheusConstant.CERT_CONVERSION, () -> pemToDer(encodedCertPem, encodedKeyPem), PrometheusConstant.OPERATION.getName(), "pem-to-der");
+    }
+
+    private static CertPrivkeyResult pemToDer(String encodedCertPem, String encodedKeyPem) throws Exception {
         // 参数校验：证书 PEM 数据必须存在
         if (encodedCertPem == null || encodedCertPem.isEmpty()) {
             throw new ParamValidateException(
@@ -229,6 +240,10 @@ public class CertConverter {
     }
 
     public static CertPrivkeyResult convertFromDerToPem(String encodedCertDer, String encodedKeyDer) throws Exception {
+        return MetricsUtils.time(PrometheusConstant.CERT_CONVERSION, () -> derToPem(encodedCertDer, encodedKeyDer), PrometheusConstant.OPERATION.getName(), "der-to-pem");
+    }
+
+    private static CertPrivkeyResult derToPem(String encodedCertDer, String encodedKeyDer) throws Exception {
         // 参数校验：证书 DER 数据必须存在
         if (encodedCertDer == null || encodedCertDer.isEmpty()) {
             throw new ParamValidateException(
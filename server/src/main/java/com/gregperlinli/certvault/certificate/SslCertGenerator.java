@@ -1,25 +1,26 @@
 package com.gregperlinli.certvault.certificate;
 
+import com.gregperlinli.certvault.constant.PrometheusConstant;
 import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
+import com.gregperlinli.certvault.crypto.KeyPairPool;
+import com.gregperlinli.certvault.crypto.SerialNumberService;
+import com.gregperlinli.certvault.domain.entities.CaSigningKey;
 import com.gregperlinli.certvault.domain.entities.CertGenRequest;
 import com.gregperlinli.certvault.domain.entities.CertRenewRequest;
 import com.gregperlinli.certvault.domain.entities.GenResponse;
 import com.gregperlinli.certvault.domain.entities.SubjectAltName;
 import com.gregperlinli.certvault.domain.exception.CertGenException;
 import com.gregperlinli.certvault.utils.CertUtils;
+import com.gregperlinli.certvault.utils.MetricsUtils;
 import org.bouncycastle.asn1.*;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.*;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
-import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
-import org.bouncycastle.jcajce.spec.EdDSAParameterSpec;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.operator.ContentSigner;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 
-import java.math.BigInteger;
 import java.security.*;
 import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
@@ -47,40 +48,31 @@ public class SslCertGenerator {
      * @return 生成的SSL证书和私钥
      */
     public static GenResponse generateSslCertificate(CertGenRequest request) {
+        return MetricsUtils.time(PrometheusConstant.CERT_ISSUANCE, () -> generate(request),
+                PrometheusConstant.TYPE.getName(), "ssl", PrometheusConstant.OPERATION.getName(), "generate");
+    }
+
+    private static GenResponse generate(CertGenRequest request) {
         try {
-            // 1. 注册 Bouncy Castle 提供者
-            Security.addProvider(new BouncyCastleProvider());
-
-            // 2. 解析CA证书和私钥
-            X509CertificateHolder caCert = CertUtils.parseCertificate(request.getCa());
-            PrivateKey caPrivateKey = CertUtils.parsePrivateKey(request.getCaKey());
-            PublicKey caPublicKey = new JcaX509CertificateConverter()
-                    .setProvider("BC")
-                    .getCertificate(caCert)
-                    .getPublicKey();
+            // 1. 确保 Bouncy Castle 提供者已注册
+            CryptoBootstrap.bootstrap();
+
+            // 2. 解析CA证书和私钥 (优先使用已解析的签名密钥)
+            CaSigningKey caSigningKey = request.getCaSigningKey() != null
+                    ? request.getCaSigningKey()
+                    : parseCaSigningKey(request.getCaKey(), request.getCa());
+            X509CertificateHolder caCert = caSigningKey.getCertHolder();
+            PrivateKey caPrivateKey = caSigningKey.getPrivateKey();
+            PublicKey caPublicKey = caSigningKey.getPublicKey();
 
             // 3. 生成SSL密钥对
             String algorithm = caPublicKey.getAlgorithm();
             Integer keySize = request.getKeySize();
-            KeyPairGenerator keyGen = KeyPairGenerator.getInstance(algorithm, "BC");
-            if ("Ed25519".equals(algorithm)) {
-                // 使用Ed25519专用参数初始化，固定密钥长度为256位
-                keySize = 256;
-                keyGen.initialize(new EdDSAParameterSpec("Ed25519"));
-            } else if ("EC".equals(algorithm)) {
-                // 使用ECC算法，初始化密钥长度只能为 256、384 或 521，不支持其他值
-                if ( keySize < 320 ) {
-                    keySize = 256;
-                } else if ( keySize <= 452 ) {
-                    keySize = 384;
-                } else {
-                    keySize = 521;
-                }
-                keyGen.initialize(keySize, new SecureRandom());
-            } else {
-                keyGen.initialize(keySize, new SecureRandom());
-            }
-            KeyPair sslKeyPair = keyGen.generateKeyPair();
+            // Ed25519 固定为256位, EC 取最接近的 256、384 或 521 位, 密钥对优先从预生成池中获取
+            keySize = KeyPairPool.normalizeKeySize(algorithm, keySize);
+            long keygenStart = System.nanoTime();
+            KeyPair sslKeyPair = KeyPairPool.acquire(algorithm, keySize);
+            MetricsUtils.record(PrometheusConstant.CERT_KEYGEN, keygenStart, PrometheusConstant.TYPE.getName(), "ssl", PrometheusConstant.ALGORITHM.getName(), algorithm);
 
             // 4. 构建SSL证书主题
             StringBuilder dnBuilder = new StringBuilder();
@@ -110,7 +102,7 @@ public class SslCertGenerator {
             // 8. 创建证书构建器
             X509v3CertificateBuilder certBuilder = new JcaX509v3CertificateBuilder(
                     issuer,
-                    BigInteger.probablePrime(128, new SecureRandom()),
+                    SerialNumberService.next(issuer),
                     notBefore, notAfter,
                     subject,
                     sslKeyPair.getPublic()
@@ -176,11 +168,12 @@ public class SslCertGenerator {
             };
 
             // 11. 创建签名器（使用CA私钥）
-            ContentSigner signer = new JcaContentSignerBuilder(signerAlg)
-                    .build(caPrivateKey);
+            long signStart = System.nanoTime();
+            ContentSigner signer = CryptoBootstrap.contentSigner(signerAlg, caPrivateKey);
 
             // 12. 生成最终证书
             X509CertificateHolder sslCertHolder = certBuilder.build(signer);
+            MetricsUtils.record(PrometheusConstant.CERT_SIGN, signStart, PrometheusConstant.TYPE.getName(), "ssl", PrometheusConstant.ALGORITHM.getName(), algorithm);
 
             // 13. 生成PEM格式的证书和私钥
             String pemCert = CertUtils.generatePemCertificate(sslCertHolder);
@@ -213,21 +206,28 @@ public class SslCertGenerator {
      * @return 续期后的证书和私钥（私钥与原证书一致）
      */
     public static GenResponse renewSslCertificate(CertRenewRequest request) {
+        return MetricsUtils.time(PrometheusConstant.CERT_ISSUANCE, () -> renew(request),
+                PrometheusConstant.TYPE.getName(), "ssl", PrometheusConstant.OPERATION.getName(), "renew");
+    }
+
+    private static GenResponse renew(CertRenewRequest request) {
         try {
-            // 1. 注册 Bouncy Castle 提供者
-            Security.addProvider(new BouncyCastleProvider());
+            // 1. 确保 Bouncy Castle 提供者已注册
+            CryptoBootstrap.bootstrap();
 
-            // 2. 解析证书和私钥
+            // 2. 解析证书和私钥 (旧私钥可选, 续期仅需旧证书中的公钥)
             X509CertificateHolder oldCertHolder = CertUtils.parseCertificate(request.getOldCert());
-            PrivateKey oldPrivateKey = CertUtils.parsePrivateKey(request.getOldPrivkey());
-            X509CertificateHolder caCertHolder = CertUtils.parseCertificate(request.getCa());
-            PrivateKey caPrivateKey = CertUtils.parsePrivateKey(request.getCaKey());
+            PrivateKey oldPrivateKey = request.getOldPrivkey() != null ? CertUtils.parsePrivateKey(request.getOldPrivkey()) : null;
+            CaSigningKey caSigningKey = request.getCaSigningKey() != null
+                    ? request.getCaSigningKey()
+                    : parseCaSigningKey(request.getCaKey(), request.getCa());
+            X509CertificateHolder caCertHolder = caSigningKey.getCertHolder();
+            PrivateKey caPrivateKey = caSigningKey.getPrivateKey();
 
             // 3. 提取旧证书信息
             X500Name subject = oldCertHolder.getSubject();
             X500Name issuer = caCertHolder.getSubject();
-            PublicKey publicKey = new JcaX509CertificateConverter()
-                    .setProvider("BC")
+            PublicKey publicKey = CryptoBootstrap.certificateConverter()
                     .getCertificate(oldCertHolder)
                     .getPublicKey();
 
@@ -243,7 +243,7 @@ public class SslCertGenerator {
             // 6. 创建证书构建器（使用旧公钥）
             X509v3CertificateBuilder certBuilder = new JcaX509v3CertificateBuilder(
                     issuer,
-                    BigInteger.probablePrime(128, new SecureRandom()),
+                    SerialNumberService.next(issuer),
                     notBefore, notAfter,
                     subject,
                     publicKey
@@ -292,17 +292,18 @@ public class SslCertGenerator {
             };
 
             // 9. 使用CA私钥签名新证书
-            ContentSigner signer = new JcaContentSignerBuilder(signerAlg)
-                    .build(caPrivateKey);
+            long signStart = System.nanoTime();
+            ContentSigner signer = CryptoBootstrap.contentSigner(signerAlg, caPrivateKey);
             X509CertificateHolder newCertHolder = certBuilder.build(signer);
+            MetricsUtils.record(PrometheusConstant.CERT_SIGN, signStart, PrometheusConstant.TYPE.getName(), "ssl", PrometheusConstant.ALGORITHM.getName(), algorithm);
 
             // 10. 生成PEM格式的证书和私钥（私钥与原证书一致）
             String pemCert = CertUtils.generatePemCertificate(newCertHolder);
-            String pemPrivateKey = CertUtils.generatePemPrivateKey(oldPrivateKey);
+            String pemPrivateKey = oldPrivateKey != null ? CertUtils.generatePemPrivateKey(oldPrivateKey) : null;
 
             // 11. Base64编码
             String certBase64 = CertUtils.encodeBase64(pemCert.getBytes());
-            String privKeyBase64 = CertUtils.encodeBase64(pemPrivateKey.getBytes());
+            String privKeyBase64 = pemPrivateKey != null ? CertUtils.encodeBase64(pemPrivateKey.getBytes()) : null;
 
             // 获取密钥长度
             Integer keySize = null;
@@ -334,4 +335,31 @@ public class SslCertGenerator {
         }
     }
 
+    /**
+     * 解析CA签名密钥
+     *
+     * @param caKey CA私钥 (Base64)
+     * @param ca CA证书 (Base64)
+     * @return 已解析的CA签名密钥
+     * @throws Exception 解析失败
+     */
+    public static CaSigningKey parseCaSigningKey(String caKey, String ca) throws Exception {
+        return parseCaSigningKey(caKey, CertUtils.parseCertificate(ca));
+    }
+
+    /**
+     * 解析CA签名密钥
+     *
+     * @param caKey CA私钥 (Base64)
+     * @param caCert CA证书
+     * @return 已解析的CA签名密钥
+     * @throws Exception 解析失败
+     */
+    public static CaSigningKey parseCaSigningKey(String caKey, X509CertificateHolder caCert) throws Exception {
+        PublicKey caPublicKey = CryptoBootstrap.certificateConverter()
+                .getCertificate(caCert)
+                .getPublicKey();
+        return new CaSigningKey(CertUtils.parsePrivateKey(caKey), caPublicKey, caCert, caCert.getEncoded());
+    }
+
 }
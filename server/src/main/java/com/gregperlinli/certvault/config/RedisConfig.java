@@ -5,10 +5,14 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.gregperlinli.certvault.config.properties.SessionAuthProperties;
+import com.gregperlinli.certvault.config.serializer.UserProfileRedisSerializer;
+import com.gregperlinli.certvault.domain.dto.UserProfileDTO;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -29,18 +33,7 @@ public class RedisConfig {
         template.setConnectionFactory(redisConnectionFactory);
 
         // 配置 JSON 序列化器
-        ObjectMapper objectMapper = new ObjectMapper()
-                .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        // 替换 enableDefaultTyping 为 activateDefaultTyping
-        objectMapper.activateDefaultTyping(
-                LaissezFaireSubTypeValidator.instance,
-                ObjectMapper.DefaultTyping.NON_FINAL,
-                JsonTypeInfo.As.PROPERTY
-        );
-
-        // 直接通过构造函数绑定 ObjectMapper（无需 setObjectMapper）
-        Jackson2JsonRedisSerializer<Object> jacksonSerializer
-                = new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
+        Jackson2JsonRedisSerializer<Object> jacksonSerializer = jsonRedisSerializer();
 
         // 配置 String 序列化器
         StringRedisSerializer stringSerializer = new StringRedisSerializer();
@@ -55,4 +48,55 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Redis template of the {@code user:} (login session) keyspace <br/>
+     * (Write format is {@code session-auth.serializer}, both binary and JSON values are readable)
+     *
+     * @param redisConnectionFactory {@link RedisConnectionFactory}
+     * @param sessionAuthProperties {@link SessionAuthProperties}
+     * @return {@link RedisTemplate}
+     */
+    @Bean
+    public RedisTemplate<String, UserProfileDTO> sessionRedisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                                      SessionAuthProperties sessionAuthProperties) {
+        RedisTemplate<String, UserProfileDTO> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new UserProfileRedisSerializer(sessionAuthProperties.getSerializer(), jsonRedisSerializer()));
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * Redis message listener container <br/>
+     * (Used for cross-node cache invalidation through pub/sub)
+     *
+     * @param redisConnectionFactory {@link RedisConnectionFactory}
+     * @return {@link RedisMessageListenerContainer}
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+
+    /**
+     * JSON serializer with default typing used by {@link #redisTemplate(RedisConnectionFactory)}
+     *
+     * @return {@link Jackson2JsonRedisSerializer}
+     */
+    public static Jackson2JsonRedisSerializer<Object> jsonRedisSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        // 替换 enableDefaultTyping 为 activateDefaultTyping
+        objectMapper.activateDefaultTyping(
+                LaissezFaireSubTypeValidator.instance,
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY
+        );
+        // 直接通过构造函数绑定 ObjectMapper（无需 setObjectMapper）
+        return new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
+    }
+
 }
@@ -1,6 +1,8 @@
 package com.gregperlinli.certvault.config;
 
+import com.gregperlinli.certvault.interceptor.ApiMetricsInterceptor;
 import com.gregperlinli.certvault.interceptor.LoginInterceptor;
+import jakarta.annotation.Resource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
@@ -19,8 +21,12 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Resource
+    ApiMetricsInterceptor apiMetricsInterceptor;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(apiMetricsInterceptor);
         // Deprecated: Old login verification method with traditional session.
         // registry.addInterceptor(new LoginInterceptor())
         //        .addPathPatterns("/api/*/user/**", "/api/*/admin/**", "/api/*/superadmin/**");
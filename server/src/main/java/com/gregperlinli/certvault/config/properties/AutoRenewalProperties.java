@@ -0,0 +1,46 @@
+package com.gregperlinli.certvault.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Automatic Renewal Properties
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code AutoRenewalProperties}
+ * @date 2025/5/17 18:20
+ */
+@ConfigurationProperties(prefix = "auto-renewal")
+@Data
+@Component
+public class AutoRenewalProperties {
+
+    /**
+     * Whether the renewal engine runs on this node
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Interval between two renewal runs
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    /**
+     * Certificates per batched commit
+     */
+    private Integer commitBatchSize = 200;
+
+    /**
+     * TTL of the per-CA lease, extended after every committed batch
+     */
+    private Duration leaseTtl = Duration.ofMinutes(10);
+
+    /**
+     * Max allowed {@code renewBeforeDays} of a policy
+     */
+    private Integer maxRenewBeforeDays = 365;
+}
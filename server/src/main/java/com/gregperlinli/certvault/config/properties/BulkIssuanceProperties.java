@@ -0,0 +1,34 @@
+package com.gregperlinli.certvault.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulk SSL Certificate Issuance Properties
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code BulkIssuanceProperties}
+ * @date 2025/5/12 14:20
+ */
+@ConfigurationProperties(prefix = "bulk-issuance")
+@Data
+@Component
+public class BulkIssuanceProperties {
+
+    /**
+     * Max certificates per bulk request
+     */
+    private Integer maxItems = 1000;
+
+    /**
+     * Generation threads shared by all bulk requests ({@code 0} for the number of available processors)
+     */
+    private Integer parallelism = 0;
+
+    /**
+     * Max certificates per batched insert
+     */
+    private Integer insertBatchSize = 200;
+}
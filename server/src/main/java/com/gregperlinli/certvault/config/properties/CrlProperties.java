@@ -0,0 +1,53 @@
+package com.gregperlinli.certvault.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Certificate Revocation List Properties
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CrlProperties}
+ * @date 2025/5/16 10:10
+ */
+@ConfigurationProperties(prefix = "crl")
+@Data
+@Component
+public class CrlProperties {
+
+    /**
+     * Interval between full CRLs of a CA, the full CRL is re-signed from the database on the first fetch after it
+     */
+    private Duration fullInterval = Duration.ofHours(24);
+
+    /**
+     * Validity of a full CRL ({@code nextUpdate - thisUpdate}), should exceed {@code full-interval}
+     */
+    private Duration fullValidity = Duration.ofDays(7);
+
+    /**
+     * Validity of a delta CRL
+     */
+    private Duration deltaValidity = Duration.ofHours(1);
+
+    /**
+     * Max entries of a delta CRL, a full CRL is re-signed instead when exceeded
+     */
+    private Integer deltaMaxEntries = 1000;
+
+    /**
+     * Revocations committed this long after a later revocation are still picked up by the delta CRL,
+     * covers transactions committing out of order and clock skew between nodes
+     */
+    private Duration revocationLookback = Duration.ofMinutes(5);
+
+    /**
+     * Public base URL of this server (e.g. {@code https://certvault.example.com}),
+     * used for the Freshest CRL extension of full CRLs pointing at the delta CRL, omitted if empty
+     */
+    private String baseUrl = "";
+}
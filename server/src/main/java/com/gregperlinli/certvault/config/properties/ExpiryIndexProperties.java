@@ -0,0 +1,42 @@
+package com.gregperlinli.certvault.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Expiry Index Properties
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code ExpiryIndexProperties}
+ * @date 2025/5/17 16:10
+ */
+@ConfigurationProperties(prefix = "expiry-index")
+@Data
+@Component
+public class ExpiryIndexProperties {
+
+    /**
+     * Interval of the full rebuild from the database, a fallback for lost change notifications
+     */
+    private Duration rebuildInterval = Duration.ofHours(6);
+
+    /**
+     * Windows of the {@code certvault.expiring} gauges
+     */
+    private List<Duration> windows = List.of(Duration.ofDays(7), Duration.ofDays(30), Duration.ofDays(90));
+
+    /**
+     * Max days of the expiring query API
+     */
+    private Integer maxDays = 3650;
+
+    /**
+     * Max page limit of the expiring query API
+     */
+    private Integer maxLimit = 1000;
+}
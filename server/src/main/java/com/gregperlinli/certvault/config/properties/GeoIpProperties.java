@@ -0,0 +1,89 @@
+package com.gregperlinli.certvault.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * GeoIP Properties
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code GeoIpProperties}
+ * @date 2025/5/11 14:20
+ */
+@ConfigurationProperties(prefix = "geoip")
+@Data
+@Component
+public class GeoIpProperties {
+
+    /**
+     * {@code mmdb} or {@code ip-api.com}
+     */
+    private String type = "ip-api.com";
+
+    /**
+     * MaxMind GeoLite2 City database path (mmdb mode)
+     */
+    private String filePath;
+
+    /**
+     * Resolved location cache
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * ip-api.com client
+     */
+    private IpApi ipApi = new IpApi();
+
+    /**
+     * Max time a caller waits for a location before falling back to {@code Unknown}
+     */
+    private Duration lookupTimeout = Duration.ofSeconds(3);
+
+    @Data
+    public static class Cache {
+
+        /**
+         * Whether the cache is enabled
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Time to live after write
+         */
+        private Duration ttl = Duration.ofHours(24);
+
+        /**
+         * Max entries
+         */
+        private Long maxSize = 100000L;
+
+        /**
+         * Cache key: {@code ip} (exact address) or {@code prefix} (IPv4 /24 network, IPv6 /64 network)
+         */
+        private String key = "ip";
+    }
+
+    @Data
+    public static class IpApi {
+
+        /**
+         * Base URL, the IP address is appended
+         */
+        private String baseUrl = "http://ip-api.com/json/";
+
+        /**
+         * TCP connect timeout
+         */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Request timeout
+         */
+        private Duration requestTimeout = Duration.ofSeconds(3);
+    }
+}
@@ -0,0 +1,64 @@
+package com.gregperlinli.certvault.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pre-generated Key Pair Pool Properties
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code KeyPairPoolProperties}
+ * @date 2025/5/12 10:10
+ */
+@ConfigurationProperties(prefix = "keypair-pool")
+@Data
+@Component
+public class KeyPairPoolProperties {
+
+    /**
+     * Whether key pairs are pre-generated in background (otherwise always generated inline)
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Key specs that may be pooled, formatted as {@code ALGORITHM:KEY_SIZE}, other specs are always generated inline
+     */
+    private List<String> specs = new ArrayList<>(List.of("RSA:2048", "RSA:3072", "RSA:4096", "EC:256", "EC:384", "EC:521", "Ed25519:256"));
+
+    /**
+     * Key specs filled on startup, must be in {@code specs}, formatted as {@code ALGORITHM:KEY_SIZE}, e.g. {@code RSA:2048}
+     */
+    private List<String> prewarm = new ArrayList<>(List.of("RSA:2048", "RSA:4096", "EC:256"));
+
+    /**
+     * Min idle key pairs kept per key spec once it has been requested
+     */
+    private Integer minIdle = 2;
+
+    /**
+     * Max idle key pairs kept per key spec
+     */
+    private Integer maxIdle = 32;
+
+    /**
+     * Idle target covers the observed demand over this window
+     */
+    private Duration demandWindow = Duration.ofMinutes(1);
+
+    /**
+     * Key specs not requested for this long are drained to {@code 0}
+     */
+    private Duration idleExpiry = Duration.ofHours(1);
+
+    /**
+     * Consecutive background generation failures after which a key spec is no longer pooled,
+     * failed attempts are retried with exponential backoff until then
+     */
+    private Integer maxFillFailures = 5;
+}
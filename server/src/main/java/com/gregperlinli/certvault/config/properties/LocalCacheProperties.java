@@ -0,0 +1,81 @@
+package com.gregperlinli.certvault.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Node-local (in-memory) Cache Properties
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code LocalCacheProperties}
+ * @date 2025/5/4 10:32
+ */
+@ConfigurationProperties(prefix = "local-cache")
+@Data
+@Component
+public class LocalCacheProperties {
+
+    /**
+     * Decrypted CA signing key cache
+     */
+    private Spec caSigningKey = new Spec(Duration.ofMinutes(10), 256);
+
+    /**
+     * Assembled CA certificate chains
+     */
+    private Spec caChain = new Spec(Duration.ofMinutes(30), 10000);
+
+    /**
+     * SSL certificate fingerprints for ETags, keyed by certificate UUID and modification time
+     */
+    private Spec certFingerprint = new Spec(Duration.ofHours(1), 100000);
+
+    /**
+     * CA hierarchy index ({@code ttl} is the full rebuild interval, {@code max-size} is not used)
+     */
+    private Spec caHierarchy = new Spec(Duration.ofMinutes(10), 0);
+
+    /**
+     * Resolved active users, keyed by username and id
+     */
+    private Spec user = new Spec(Duration.ofMinutes(5), 10000);
+
+    /**
+     * Verified session profiles, keyed by session ID ({@code ttl} bounds the delay of a missed invalidation)
+     */
+    private Spec session = new Spec(Duration.ofSeconds(10), 10000);
+
+    /**
+     * Cache specification
+     */
+    @Data
+    public static class Spec {
+
+        /**
+         * Whether the cache is enabled
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Time to live after write
+         */
+        private Duration ttl;
+
+        /**
+         * Max entries
+         */
+        private Long maxSize;
+
+        public Spec() {
+        }
+
+        public Spec(Duration ttl, long maxSize) {
+            this.ttl = ttl;
+            this.maxSize = maxSize;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.gregperlinli.certvault.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Asynchronous Login Record Pipeline Properties
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code LoginRecordProperties}
+ * @date 2025/5/10 09:40
+ */
+@ConfigurationProperties(prefix = "login-record")
+@Data
+@Component
+public class LoginRecordProperties {
+
+    /**
+     * Whether login records are queued and persisted in background (otherwise written on the request thread)
+     */
+    private Boolean async = true;
+
+    /**
+     * Max queued login records, further records are dropped
+     */
+    private Integer queueCapacity = 10000;
+
+    /**
+     * How long a login waits for queue space before its record is dropped
+     */
+    private Duration offerTimeout = Duration.ZERO;
+
+    /**
+     * Max rows per INSERT statement
+     */
+    private Integer batchSize = 200;
+
+    /**
+     * Max time a record waits in the queue for its batch to fill
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+}
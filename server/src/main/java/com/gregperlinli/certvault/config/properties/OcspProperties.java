@@ -0,0 +1,77 @@
+package com.gregperlinli.certvault.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * OCSP Responder Properties
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code OcspProperties}
+ * @date 2025/5/17 10:10
+ */
+@ConfigurationProperties(prefix = "ocsp")
+@Data
+@Component
+public class OcspProperties {
+
+    /**
+     * Validity of a response ({@code nextUpdate - thisUpdate})
+     */
+    private Duration validity = Duration.ofHours(1);
+
+    /**
+     * Cached responses are re-signed when they expire within this window
+     */
+    private Duration refreshAhead = Duration.ofMinutes(15);
+
+    /**
+     * Interval of the background refresh scan
+     */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+    /**
+     * Responses per re-signing batch
+     */
+    private Integer refreshBatchSize = 256;
+
+    /**
+     * Re-signing threads ({@code 0} for the number of available processors)
+     */
+    private Integer parallelism = 0;
+
+    /**
+     * Max certificates in one request, larger requests are rejected as malformed
+     */
+    private Integer maxRequestCerts = 16;
+
+    /**
+     * Whether to cache pre-signed responses, every request is signed when disabled
+     */
+    private Boolean cacheEnabled = true;
+
+    /**
+     * Max cached responses
+     */
+    private Long maxSize = 100000L;
+
+    /**
+     * Cached responses not requested for this long are dropped instead of re-signed
+     */
+    private Duration idleExpiry = Duration.ofHours(2);
+
+    /**
+     * Whether to sign responses with a delegated OCSP signing certificate issued by the CA,
+     * otherwise every response is signed with the CA key
+     */
+    private Boolean delegatedSigner = true;
+
+    /**
+     * Validity of a delegated OCSP signing certificate, reissued when half of it has elapsed
+     */
+    private Duration delegatedSignerValidity = Duration.ofDays(7);
+}
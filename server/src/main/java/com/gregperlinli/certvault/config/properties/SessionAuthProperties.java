@@ -0,0 +1,51 @@
+package com.gregperlinli.certvault.config.properties;
+
+import com.gregperlinli.certvault.config.serializer.UserProfileRedisSerializer;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Session Auth Filter Properties
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code SessionAuthProperties}
+ * @date 2025/5/8 14:10
+ */
+@ConfigurationProperties(prefix = "session-auth")
+@Data
+@Component
+public class SessionAuthProperties {
+
+    /**
+     * Ant-style paths that skip session verification (resources that need no authentication)
+     */
+    private List<String> bypassPaths = new ArrayList<>(List.of(
+            "/api/v1/auth/login",
+            "/api/v1/auth/oauth/**",
+            "/api/v1/pki/**",
+            "/actuator/**",
+            "/swagger-ui/**",
+            "/v3/api-docs/**",
+            "/assets/**",
+            "/favicon.ico"
+    ));
+
+    /**
+     * Whether to merge the flags {@code Eg$xe} into {@code notify-keyspace-events} of the Redis server at startup <br/>
+     * (Off by default: {@code CONFIG SET} changes a server-wide setting shared with other applications and is often forbidden.
+     * Set the flags on the server instead, e.g. {@code notify-keyspace-events Eg$xe} in {@code redis.conf};
+     * without them the session near cache is only invalidated by its TTL)
+     */
+    private Boolean configureKeyspaceNotifications = false;
+
+    /**
+     * Write format of session profiles in the {@code user:} keyspace ({@code binary} or {@code json}),
+     * values in either format are always readable
+     */
+    private UserProfileRedisSerializer.Mode serializer = UserProfileRedisSerializer.Mode.BINARY;
+}
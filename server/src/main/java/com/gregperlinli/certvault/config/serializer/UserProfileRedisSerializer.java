@@ -0,0 +1,157 @@
+package com.gregperlinli.certvault.config.serializer;
+
+import com.gregperlinli.certvault.domain.dto.UserProfileDTO;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Session Profile Redis Serializer
+ *
+ * <p>
+ * {@code user:} 键空间专用的 {@link UserProfileDTO} 序列化器. {@link Mode#BINARY} 模式下使用紧凑的手写二进制格式:
+ * </p>
+ * <pre>
+ * magic(0xC5) | version(1) | role | isPasswordInitialized | username | displayName | email
+ * </pre>
+ * <p>
+ * 其中 role 为 varint(role + 1), isPasswordInitialized 为 0 (null) / 1 (false) / 2 (true),
+ * 字符串为 varint(UTF-8 长度 + 1) 加 UTF-8 字节, 0 表示 null.
+ * 反序列化时按首字节识别格式, 旧的 JSON 值 (以 '{' 开头) 交由 JSON 序列化器读取, 因此切换模式无需迁移已有会话.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code UserProfileRedisSerializer}
+ * @date 2025/5/9 10:20
+ */
+public class UserProfileRedisSerializer implements RedisSerializer<UserProfileDTO> {
+
+    private static final byte MAGIC = (byte) 0xC5;
+
+    private static final byte VERSION = 1;
+
+    private final Mode mode;
+
+    private final RedisSerializer<Object> jsonSerializer;
+
+    /**
+     * @param mode           write format
+     * @param jsonSerializer serializer of the previous JSON format (used for {@link Mode#JSON} and for reading JSON values)
+     */
+    public UserProfileRedisSerializer(Mode mode, RedisSerializer<Object> jsonSerializer) {
+        this.mode = mode;
+        this.jsonSerializer = jsonSerializer;
+    }
+
+    @Override
+    public byte[] serialize(UserProfileDTO profile) throws SerializationException {
+        if ( profile == null ) {
+            return null;
+        }
+        if ( mode == Mode.JSON ) {
+            return jsonSerializer.serialize(profile);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarInt(out, profile.getRole() == null ? 0 : profile.getRole() + 1);
+        out.write(profile.getIsPasswordInitialized() == null ? 0 : profile.getIsPasswordInitialized() ? 2 : 1);
+        writeString(out, profile.getUsername());
+        writeString(out, profile.getDisplayName());
+        writeString(out, profile.getEmail());
+        return out.toByteArray();
+    }
+
+    @Override
+    public UserProfileDTO deserialize(byte[] bytes) throws SerializationException {
+        if ( bytes == null || bytes.length == 0 ) {
+            return null;
+        }
+        if ( bytes[0] != MAGIC ) {
+            Object value = jsonSerializer.deserialize(bytes);
+            if ( value != null && !(value instanceof UserProfileDTO) ) {
+                throw new SerializationException("Unexpected session value type: " + value.getClass().getName());
+            }
+            return (UserProfileDTO) value;
+        }
+        if ( bytes.length < 2 || bytes[1] != VERSION ) {
+            throw new SerializationException("Unsupported session profile format version");
+        }
+        try {
+            int[] position = {2};
+            UserProfileDTO profile = new UserProfileDTO();
+            int role = readVarInt(bytes, position);
+            profile.setRole(role == 0 ? null : role - 1);
+            int passwordInitialized = bytes[position[0]++];
+            profile.setIsPasswordInitialized(passwordInitialized == 0 ? null : passwordInitialized == 2);
+            profile.setUsername(readString(bytes, position));
+            profile.setDisplayName(readString(bytes, position));
+            profile.setEmail(readString(bytes, position));
+            return profile;
+        } catch (IndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated session profile", e);
+        }
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return UserProfileDTO.class;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if ( value == null ) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(byte[] bytes, int[] position) {
+        int length = readVarInt(bytes, position);
+        if ( length == 0 ) {
+            return null;
+        }
+        String value = new String(bytes, position[0], length - 1, StandardCharsets.UTF_8);
+        position[0] += length - 1;
+        return value;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ( (value & ~0x7F) != 0 ) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(byte[] bytes, int[] position) {
+        int value = 0;
+        for ( int shift = 0; shift < 32; shift += 7 ) {
+            byte b = bytes[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ( (b & 0x80) == 0 ) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint in session profile");
+    }
+
+    /**
+     * Write format of session profiles
+     */
+    public enum Mode {
+        /**
+         * Jackson JSON with default typing (previous format)
+         */
+        JSON,
+        /**
+         * Compact binary format
+         */
+        BINARY
+    }
+}
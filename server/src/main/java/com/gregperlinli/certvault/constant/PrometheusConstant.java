@@ -18,6 +18,41 @@ public enum PrometheusConstant {
      */
     PROMETHEUS_METRICS("api.request.count", "Prometheus指标项名称"),
 
+    /**
+     * API请求耗时
+     */
+    API_REQUEST_DURATION("api.request.duration", "API请求耗时"),
+
+    /**
+     * 证书签发耗时 (CA 与 SSL 证书的生成、续期)
+     */
+    CERT_ISSUANCE("certificate.issuance", "证书签发耗时"),
+
+    /**
+     * 证书密钥对生成耗时 (含从预生成池中获取)
+     */
+    CERT_KEYGEN("certificate.issuance.keygen", "证书密钥对生成耗时"),
+
+    /**
+     * 证书签名耗时
+     */
+    CERT_SIGN("certificate.issuance.sign", "证书签名耗时"),
+
+    /**
+     * 私钥加解密耗时
+     */
+    PRIVKEY_CRYPTO("privkey.crypto", "私钥加解密耗时"),
+
+    /**
+     * 证书格式转换耗时
+     */
+    CERT_CONVERSION("certificate.conversion", "证书格式转换耗时"),
+
+    /**
+     * GeoIP 查询耗时
+     */
+    GEOIP_LOOKUP("geoip.lookup", "GeoIP 查询耗时"),
+
     /**
      * API请求码
      */
@@ -41,7 +76,32 @@ public enum PrometheusConstant {
     /**
      * API请求结果码
      */
-    CODE("code", "API请求结果码");
+    CODE("code", "API请求结果码"),
+
+    /**
+     * 证书类型 (ca / ssl)
+     */
+    TYPE("type", "证书类型"),
+
+    /**
+     * 操作类型
+     */
+    OPERATION("operation", "操作类型"),
+
+    /**
+     * 密钥算法
+     */
+    ALGORITHM("algorithm", "密钥算法"),
+
+    /**
+     * 数据来源
+     */
+    SOURCE("source", "数据来源"),
+
+    /**
+     * 执行结果 (success / failure)
+     */
+    RESULT("result", "执行结果");
 
 
 
@@ -15,7 +15,43 @@ public enum RedisKeyConstant {
     /**
      * 存放已登录用户的key值
      */
-    USER("user:", "用户");
+    USER("user:", "用户"),
+    /**
+     * CA 层级索引变更通知频道
+     */
+    CA_INDEX_CHANNEL("channel:ca-index", "CA 层级索引变更"),
+    /**
+     * CA 层级索引版本号, 每次变更递增
+     */
+    CA_INDEX_VERSION("version:ca-index", "CA 层级索引版本"),
+    /**
+     * 用户缓存失效通知频道
+     */
+    USER_CACHE_CHANNEL("channel:user-cache", "用户缓存失效"),
+    /**
+     * 证书吊销通知频道
+     */
+    CRL_CHANNEL("channel:crl", "证书吊销"),
+    /**
+     * 到期索引变更通知频道
+     */
+    EXPIRY_INDEX_CHANNEL("channel:expiry-index", "到期索引变更"),
+    /**
+     * OCSP 签名者与响应缓存失效通知频道
+     */
+    OCSP_CHANNEL("channel:ocsp", "OCSP 缓存失效"),
+    /**
+     * CA 证书链缓存失效通知频道
+     */
+    CA_CHAIN_CHANNEL("channel:ca-chain", "CA 证书链缓存失效"),
+    /**
+     * CA 签名密钥缓存失效通知频道
+     */
+    CA_SIGNING_KEY_CHANNEL("channel:ca-signing-key", "CA 签名密钥缓存失效"),
+    /**
+     * 自动续期 CA 租约
+     */
+    RENEWAL_LEASE("lease:renewal:", "自动续期租约");
 
     final String keyPrefix;
     final String keyPrefixName;
@@ -32,7 +68,7 @@ public enum RedisKeyConstant {
      * @param key 需要拼接的key
      * @return 拼接后的key
      */
-    public String joinLoginPrefix(String key)
+    public String join(String key)
     {
         return keyPrefix + key;
     }
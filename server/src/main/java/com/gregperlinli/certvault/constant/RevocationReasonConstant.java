@@ -0,0 +1,70 @@
+package com.gregperlinli.certvault.constant;
+
+import lombok.Getter;
+
+/**
+ * 证书吊销原因 (RFC 5280 CRLReason)
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className RevocationReasonConstant
+ * @date 2025/5/16 10:05
+ */
+@Getter
+public enum RevocationReasonConstant {
+    /**
+     * 未指定
+     */
+    UNSPECIFIED(0, "unspecified"),
+    /**
+     * 私钥泄露
+     */
+    KEY_COMPROMISE(1, "keyCompromise"),
+    /**
+     * CA 私钥泄露
+     */
+    CA_COMPROMISE(2, "cACompromise"),
+    /**
+     * 从属关系变更
+     */
+    AFFILIATION_CHANGED(3, "affiliationChanged"),
+    /**
+     * 已被替换
+     */
+    SUPERSEDED(4, "superseded"),
+    /**
+     * 停止使用
+     */
+    CESSATION_OF_OPERATION(5, "cessationOfOperation"),
+    /**
+     * 权限撤销
+     */
+    PRIVILEGE_WITHDRAWN(9, "privilegeWithdrawn");
+
+    final int reason;
+
+    final String reasonName;
+
+    RevocationReasonConstant(int reason, String reasonName) {
+        this.reason = reason;
+        this.reasonName = reasonName;
+    }
+
+    /**
+     * 按名称查找吊销原因 (不区分大小写)
+     *
+     * @param reasonName 吊销原因名称, 为空时返回 {@link #UNSPECIFIED}
+     * @return 吊销原因, 名称未知时返回 {@code null}
+     */
+    public static RevocationReasonConstant of(String reasonName) {
+        if ( reasonName == null || reasonName.isEmpty() ) {
+            return UNSPECIFIED;
+        }
+        for ( RevocationReasonConstant value : values() ) {
+            if ( value.reasonName.equalsIgnoreCase(reasonName) ) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
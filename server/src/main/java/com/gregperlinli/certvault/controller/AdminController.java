@@ -8,7 +8,9 @@ import com.gregperlinli.certvault.domain.vo.ResultVO;
 import com.gregperlinli.certvault.service.interfaces.ICaBindingService;
 import com.gregperlinli.certvault.service.interfaces.ICaService;
 import com.gregperlinli.certvault.service.interfaces.ICertificateService;
+import com.gregperlinli.certvault.service.interfaces.IRenewalPolicyService;
 import com.gregperlinli.certvault.service.interfaces.IUserService;
+import com.gregperlinli.certvault.utils.EtagUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -20,6 +22,7 @@ import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -52,6 +55,9 @@ public class AdminController {
     @Resource
     ICertificateService certificateService;
 
+    @Resource
+    IRenewalPolicyService renewalPolicyService;
+
     /**
      * Get users
      *
@@ -93,6 +99,8 @@ public class AdminController {
      * @param limit the limit of the page
      * @param orderBy the order by field
      * @param isAsc the ascending or descending
+     * @param cursor the cursor of the previous page
+     * @param withTotal whether to count the total in cursor pagination
      * @param request the request
      * @return the result
      */
@@ -113,9 +121,44 @@ public class AdminController {
                                                    @RequestParam(value = "orderBy", required = false) String orderBy,
                                                @Parameter(name = "isAsc", description = "Ascending or descending", example = "true")
                                                    @RequestParam(value = "isAsc", required = false, defaultValue = "true") Boolean isAsc,
+                                               @Parameter(name = "cursor", description = "Cursor of the previous page, enables cursor pagination (empty for the first page)", example = "")
+                                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                               @Parameter(name = "withTotal", description = "Whether to count the total in cursor pagination", example = "false")
+                                                   @RequestParam(value = "withTotal", required = false, defaultValue = "false") Boolean withTotal,
                                                HttpServletRequest request) {
         PageDTO<CaInfoDTO> result = caService.getCas(keyword,
-                ((UserProfileDTO) request.getSession().getAttribute("account")).getUsername(), page, limit, isAsc, orderBy);
+                ((UserProfileDTO) request.getSession().getAttribute("account")).getUsername(), page, limit, isAsc, orderBy, cursor, withTotal);
+        if ( result != null && result.getList() != null ) {
+            return new ResultVO<>(ResultStatusCodeConstant.SUCCESS.getResultCode(), "Success", result);
+        }
+        return new ResultVO<>(ResultStatusCodeConstant.NOT_FIND.getResultCode(), "No data", result);
+    }
+
+    /**
+     * Get CA certificates expiring soon
+     *
+     * @param days the days from now
+     * @param page the page number
+     * @param limit the limit of the page
+     * @param request the request
+     * @return the result
+     */
+    @Operation(
+            summary = "Get expiring CA information",
+            description = "Retrieve the CAs under this username expiring within the given days, soonest first (paged)"
+    )
+    @NoDataListApiResponse
+    @SuccessApiResponse
+    @GetMapping(value = "/cert/ca/expiring")
+    public ResultVO<PageDTO<CaInfoDTO>> getExpiringCas(@Parameter(name = "days", description = "Days from now", example = "30")
+                                                           @RequestParam(value = "days", defaultValue = "30") Integer days,
+                                                       @Parameter(name = "page", description = "Page number", example = "1")
+                                                           @RequestParam(value = "page", defaultValue = "1") Integer page,
+                                                       @Parameter(name = "limit", description = "Page limit", example = "10")
+                                                           @RequestParam(value = "limit", defaultValue = "10") Integer limit,
+                                                       HttpServletRequest request) {
+        PageDTO<CaInfoDTO> result = caService.getExpiringCas(
+                ((UserProfileDTO) request.getSession().getAttribute("account")).getUsername(), days, page, limit);
         if ( result != null && result.getList() != null ) {
             return new ResultVO<>(ResultStatusCodeConstant.SUCCESS.getResultCode(), "Success", result);
         }
@@ -219,7 +262,8 @@ public class AdminController {
      * @param uuid the uuid of the CA
      * @param isChain whether to get the certificate chain
      * @param request the request
-     * @return the result
+     * @param webRequest the request (conditional GET)
+     * @return the result, {@code null} with {@code 304} if not modified
      */
     @Operation(
             summary = "Get CA Certificate",
@@ -235,7 +279,14 @@ public class AdminController {
                                           @RequestParam(value = "isChain", defaultValue = "false", required = false) Boolean isChain,
                                       @Parameter(name = "needRootCa", description = "Whether to get the root CA certificate in the chain", example = "true")
                                           @RequestParam(value = "needRootCa", defaultValue = "true", required = false) Boolean needRootCa,
-                                      HttpServletRequest request) {
+                                      HttpServletRequest request,
+                                      ServletWebRequest webRequest) {
+        // 客户端已持有相同证书时直接返回 304
+        String etag = caService.getCaCertEtag(uuid,
+                ((UserProfileDTO) request.getSession().getAttribute("account")).getUsername(), isChain, needRootCa);
+        if ( EtagUtils.checkNotModified(webRequest, etag) ) {
+            return null;
+        }
         String result = null;
         if ( isChain ) {
             result = caService.getCaCertChain(uuid,
@@ -611,6 +662,89 @@ public class AdminController {
         return new ResultVO<>(ResultStatusCodeConstant.FAILED.getResultCode(), "Failed");
     }
 
+    /**
+     * Get the automatic renewal policy of a CA
+     *
+     * @param uuid CA uuid
+     * @param request {@link HttpServletRequest} Request
+     * @return {@link ResultVO} Result
+     */
+    @Operation(
+            summary = "Get CA Renewal Policy",
+            description = "Get the automatic renewal policy of a CA"
+    )
+    @NotYourResourceApiResponse
+    @DoesNotExistApiResponse
+    @NoDataApiResponse
+    @SuccessApiResponse
+    @GetMapping(value = "/cert/ca/{uuid}/renewal")
+    public ResultVO<RenewalPolicyDTO> getCaRenewalPolicy(@Parameter(name = "uuid", description = "CA UUID", example = "bf35ecb1-9b67-4083-9476-e264ba153188")
+                                                          @PathVariable("uuid") String uuid,
+                                                      HttpServletRequest request) {
+        RenewalPolicyDTO result = renewalPolicyService.getCaPolicy(uuid,
+                ((UserProfileDTO) request.getSession().getAttribute("account")).getUsername());
+        if ( result != null ) {
+            return new ResultVO<>(ResultStatusCodeConstant.SUCCESS.getResultCode(), "Success", result);
+        }
+        return new ResultVO<>(ResultStatusCodeConstant.NOT_FIND.getResultCode(), "No data");
+    }
+
+    /**
+     * Set the automatic renewal policy of a CA
+     *
+     * @param uuid CA uuid
+     * @param policy {@link RenewalPolicyDTO} Renewal policy
+     * @param request {@link HttpServletRequest} Request
+     * @return {@link ResultVO} Result
+     */
+    @Operation(
+            summary = "Set CA Renewal Policy",
+            description = "Create or replace the automatic renewal policy of a CA, applied to every certificate issued by the CA"
+    )
+    @NotYourResourceApiResponse
+    @DoesNotExistApiResponse
+    @NullSuccessApiResponse
+    @FailedApiResponse
+    @PutMapping(value = "/cert/ca/{uuid}/renewal")
+    public ResultVO<Void> setCaRenewalPolicy(@Parameter(name = "uuid", description = "CA UUID", example = "bf35ecb1-9b67-4083-9476-e264ba153188")
+                                                  @PathVariable("uuid") String uuid,
+                                              @RequestBody RenewalPolicyDTO policy,
+                                              HttpServletRequest request) {
+        Boolean result = renewalPolicyService.setCaPolicy(uuid, policy,
+                ((UserProfileDTO) request.getSession().getAttribute("account")).getUsername());
+        if ( result ) {
+            return new ResultVO<>(ResultStatusCodeConstant.SUCCESS.getResultCode(), "Success");
+        }
+        return new ResultVO<>(ResultStatusCodeConstant.FAILED.getResultCode(), "Failed");
+    }
+
+    /**
+     * Delete the automatic renewal policy of a CA
+     *
+     * @param uuid CA uuid
+     * @param request {@link HttpServletRequest} Request
+     * @return {@link ResultVO} Result
+     */
+    @Operation(
+            summary = "Delete CA Renewal Policy",
+            description = "Delete the automatic renewal policy of a CA"
+    )
+    @NotYourResourceApiResponse
+    @DoesNotExistApiResponse
+    @NullSuccessApiResponse
+    @FailedApiResponse
+    @DeleteMapping(value = "/cert/ca/{uuid}/renewal")
+    public ResultVO<Void> deleteCaRenewalPolicy(@Parameter(name = "uuid", description = "CA UUID", example = "bf35ecb1-9b67-4083-9476-e264ba153188")
+                                                     @PathVariable("uuid") String uuid,
+                                                 HttpServletRequest request) {
+        Boolean result = renewalPolicyService.deleteCaPolicy(uuid,
+                ((UserProfileDTO) request.getSession().getAttribute("account")).getUsername());
+        if ( result ) {
+            return new ResultVO<>(ResultStatusCodeConstant.SUCCESS.getResultCode(), "Success");
+        }
+        return new ResultVO<>(ResultStatusCodeConstant.FAILED.getResultCode(), "Failed");
+    }
+
     /**
      * Bind a CA certificate to a user
      *
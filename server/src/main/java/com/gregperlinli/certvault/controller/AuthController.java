@@ -1,11 +1,9 @@
 package com.gregperlinli.certvault.controller;
 
-import cn.hutool.http.useragent.UserAgent;
-import cn.hutool.http.useragent.UserAgentUtil;
 import com.gregperlinli.certvault.annotation.NoValidSessionApiResponse;
+import com.gregperlinli.certvault.async.LoginRecordPipeline;
 import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
 import com.gregperlinli.certvault.domain.dto.LoginDTO;
-import com.gregperlinli.certvault.domain.dto.LoginRecordDTO;
 import com.gregperlinli.certvault.domain.dto.UserProfileDTO;
 import com.gregperlinli.certvault.domain.vo.ResultVO;
 import com.gregperlinli.certvault.service.interfaces.ILoginRecordService;
@@ -26,10 +24,6 @@ import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.UUID;
-
 /**
  * Authentication Controller
  *
@@ -51,6 +45,9 @@ public class AuthController {
     @Resource
     ILoginRecordService loginRecordService;
 
+    @Resource
+    LoginRecordPipeline loginRecordPipeline;
+
     /**
      * Login
      *
@@ -103,33 +100,17 @@ public class AuthController {
                     )
             );
             String userAgent = request.getHeader("User-Agent");
-            UserAgent ua = UserAgentUtil.parse(userAgent);
             log.info("User-Agent: {}", userAgent);
-            log.info("User: [{}|{}], Session ID: {} login with IP: {}, Browser: {}, OS: {}, Platform: {}",
+            log.info("User: [{}|{}], Session ID: {} login with IP: {}",
                     loginResult.getUsername(),
                     AuthUtils.roleIdToRoleName(loginResult.getRole()),
+                    request.getSession().getId(),
+                    IpUtils.getIpAddress());
+            // User-Agent 解析、GeoIP 查询与入库在后台完成
+            loginRecordPipeline.submit(loginResult.getUsername(),
                     request.getSession().getId(),
                     IpUtils.getIpAddress(),
-                    ua.getBrowser().getName(),
-                    ua.getOs().getName(),
-                    ua.getPlatform().getName());
-            Map<String, String> location = IpUtils.getLocation(IpUtils.getIpAddress());
-            loginRecordService.addLoginRecord(
-                    new LoginRecordDTO(
-                            UUID.randomUUID().toString(),
-                            loginResult.getUsername(),
-                            IpUtils.getIpAddress(),
-                            location.get("region"),
-                            location.get("province"),
-                            location.get("city"),
-                            ua.getBrowser().getName(),
-                            ua.getOs().getName(),
-                            ua.getPlatform().getName(),
-                            LocalDateTime.now(),
-                            true
-                    ),
-                    request.getSession().getId()
-            );
+                    userAgent);
             return new ResultVO<>(ResultStatusCodeConstant.SUCCESS.getResultCode(),
                     "Login Success!",
                     loginResult);
@@ -1,13 +1,11 @@
 package com.gregperlinli.certvault.controller;
 
-import cn.hutool.http.useragent.UserAgent;
-import cn.hutool.http.useragent.UserAgentUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gregperlinli.certvault.annotation.OidcDisabledApiResponse;
+import com.gregperlinli.certvault.async.LoginRecordPipeline;
 import com.gregperlinli.certvault.config.properties.OidcProperties;
 import com.gregperlinli.certvault.constant.RedisKeyConstant;
 import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
-import com.gregperlinli.certvault.domain.dto.LoginRecordDTO;
 import com.gregperlinli.certvault.domain.dto.OidcProviderDTO;
 import com.gregperlinli.certvault.domain.dto.UserProfileDTO;
 import com.gregperlinli.certvault.domain.vo.ResultVO;
@@ -46,7 +44,6 @@ import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 
@@ -78,7 +75,10 @@ public class OidcAuthController {
     ILoginRecordService loginRecordService;
 
     @Resource
-    RedisTemplate<String, UserProfileDTO> redisTemplate;
+    LoginRecordPipeline loginRecordPipeline;
+
+    @Resource
+    RedisTemplate<String, UserProfileDTO> sessionRedisTemplate;
 
     @Resource
     OidcProperties oidcProperties;
@@ -321,36 +321,20 @@ public class OidcAuthController {
         }
 
         request.getSession().setAttribute("account", userProfileDTO);
-        redisTemplate.opsForValue().set(RedisKeyConstant.USER.joinLoginPrefix(request.getSession().getId()), userProfileDTO, 60, TimeUnit.MINUTES);
+        sessionRedisTemplate.opsForValue().set(RedisKeyConstant.USER.join(request.getSession().getId()), userProfileDTO, 60, TimeUnit.MINUTES);
 
         String userAgent = request.getHeader("User-Agent");
-        UserAgent ua = UserAgentUtil.parse(userAgent);
         log.info("User-Agent: {}", userAgent);
-        log.info("User: [{}|{}], Session ID: {} login with IP: {}, Browser: {}, OS: {}, Platform: {}",
+        log.info("User: [{}|{}], Session ID: {} login with IP: {}",
                 userProfileDTO.getUsername(),
                 AuthUtils.roleIdToRoleName(userProfileDTO.getRole()),
+                request.getSession().getId(),
+                IpUtils.getIpAddress());
+        // User-Agent 解析、GeoIP 查询与入库在后台完成
+        loginRecordPipeline.submit(userProfileDTO.getUsername(),
                 request.getSession().getId(),
                 IpUtils.getIpAddress(),
-                ua.getBrowser().getName(),
-                ua.getOs().getName(),
-                ua.getPlatform().getName());
-        Map<String, String> location = IpUtils.getLocation(IpUtils.getIpAddress());
-        loginRecordService.addLoginRecord(
-                new LoginRecordDTO(
-                        UUID.randomUUID().toString(),
-                        userProfileDTO.getUsername(),
-                        IpUtils.getIpAddress(),
-                        location.get("region"),
-                        location.get("province"),
-                        location.get("city"),
-                        ua.getBrowser().getName(),
-                        ua.getOs().getName(),
-                        ua.getPlatform().getName(),
-                        LocalDateTime.now(),
-                        true
-                ),
-                request.getSession().getId()
-        );
+                userAgent);
 
         response.sendRedirect("/");
         return new ResultVO<>(ResultStatusCodeConstant.REDIRECT.getResultCode(), "OIDC login successful.", userProfileDTO);
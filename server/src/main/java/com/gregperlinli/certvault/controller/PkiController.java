@@ -0,0 +1,136 @@
+package com.gregperlinli.certvault.controller;
+
+import com.gregperlinli.certvault.domain.entities.CaCrl;
+import com.gregperlinli.certvault.revocation.CrlPublisher;
+import com.gregperlinli.certvault.revocation.OcspResponder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Base64;
+
+/**
+ * Public PKI Controller <br/>
+ * (Revocation information for relying parties, no session required)
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code PkiController}
+ * @date 2025/5/16 14:30
+ */
+@Tag(name = "PKI", description = "Public PKI API")
+@RequestMapping("/api/v1/pki")
+@CrossOrigin
+@RestController
+public class PkiController {
+
+    private static final MediaType PKIX_CRL = MediaType.parseMediaType("application/pkix-crl");
+
+    private static final MediaType OCSP_RESPONSE = MediaType.parseMediaType("application/ocsp-response");
+
+    /**
+     * CRLs are public, caches may store them but must revalidate to pick up new revocations
+     */
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    @Resource
+    CrlPublisher crlPublisher;
+
+    @Resource
+    OcspResponder ocspResponder;
+
+    /**
+     * Get the full CRL of a CA
+     *
+     * @param uuid CA UUID
+     * @return DER encoded CRL
+     */
+    @Operation(
+            summary = "Get CRL",
+            description = "Get the full certificate revocation list (DER) of a CA"
+    )
+    @GetMapping(value = "/crl/{uuid}")
+    public ResponseEntity<byte[]> getCrl(@Parameter(name = "uuid", description = "CA UUID", example = "3885be11-4084-4538-9fa0-70ffe4c4cbe0")
+                                             @PathVariable("uuid") String uuid) {
+        CaCrl crl = crlPublisher.get(uuid);
+        if ( crl == null ) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(PKIX_CRL)
+                .cacheControl(CACHE_CONTROL)
+                .lastModified(crl.getFullThisUpdate())
+                .body(crl.getFull());
+    }
+
+    /**
+     * Get the delta CRL of a CA
+     *
+     * @param uuid CA UUID
+     * @return DER encoded delta CRL
+     */
+    @Operation(
+            summary = "Get Delta CRL",
+            description = "Get the delta certificate revocation list (DER) of a CA, based on the current full CRL"
+    )
+    @GetMapping(value = "/crl/{uuid}/delta")
+    public ResponseEntity<byte[]> getDeltaCrl(@Parameter(name = "uuid", description = "CA UUID", example = "3885be11-4084-4538-9fa0-70ffe4c4cbe0")
+                                                  @PathVariable("uuid") String uuid) {
+        CaCrl crl = crlPublisher.get(uuid);
+        if ( crl == null ) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(PKIX_CRL)
+                .cacheControl(CACHE_CONTROL)
+                .lastModified(crl.getDeltaThisUpdate())
+                .body(crl.getDelta());
+    }
+
+    /**
+     * Answer an OCSP request sent by POST
+     *
+     * @param request DER encoded OCSP request
+     * @return DER encoded OCSP response
+     */
+    @Operation(
+            summary = "OCSP (POST)",
+            description = "Check the revocation status of certificates (RFC 6960)"
+    )
+    @PostMapping(value = "/ocsp", consumes = "application/ocsp-request")
+    public ResponseEntity<byte[]> ocsp(@RequestBody byte[] request) {
+        return ResponseEntity.ok()
+                .contentType(OCSP_RESPONSE)
+                .body(ocspResponder.respond(request));
+    }
+
+    /**
+     * Answer an OCSP request sent by GET
+     *
+     * @param request URL encoded base64 of the DER encoded OCSP request
+     * @return DER encoded OCSP response
+     */
+    @Operation(
+            summary = "OCSP (GET)",
+            description = "Check the revocation status of certificates (RFC 6960), the request is base64 encoded in the path"
+    )
+    @GetMapping(value = "/ocsp/{*request}")
+    public ResponseEntity<byte[]> ocsp(@Parameter(name = "request", description = "Base64 encoded OCSP request")
+                                       @PathVariable("request") String request) {
+        byte[] der;
+        try {
+            // 路径变量已经过 URL 解码, 去掉开头的 '/'
+            der = Base64.getDecoder().decode(request.startsWith("/") ? request.substring(1) : request);
+        } catch (IllegalArgumentException e) {
+            der = new byte[0];
+        }
+        return ResponseEntity.ok()
+                .contentType(OCSP_RESPONSE)
+                .body(ocspResponder.respond(der));
+    }
+}
@@ -58,6 +58,8 @@ public class SuperadminController {
      * @param status the status of the login record (-1: all, 0: offline, 1: online)
      * @param page the page number
      * @param limit the number of records per page
+     * @param cursor the cursor of the previous page
+     * @param withTotal whether to count the total in cursor pagination
      * @param request the request
      * @return login records
      */
@@ -80,8 +82,12 @@ public class SuperadminController {
                                                                  @RequestParam(value = "orderBy", required = false) String orderBy,
                                                              @Parameter(name = "isAsc", description = "Ascending or descending", example = "true")
                                                                  @RequestParam(value = "isAsc", required = false, defaultValue = "true") Boolean isAsc,
+                                                             @Parameter(name = "cursor", description = "Cursor of the previous page, enables cursor pagination (empty for the first page)", example = "")
+                                                                 @RequestParam(value = "cursor", required = false) String cursor,
+                                                             @Parameter(name = "withTotal", description = "Whether to count the total in cursor pagination", example = "false")
+                                                                 @RequestParam(value = "withTotal", required = false, defaultValue = "false") Boolean withTotal,
                                                              HttpServletRequest request) {
-        PageDTO<LoginRecordDTO> result = loginRecordService.getLoginRecords(keyword, status, request.getSession().getId(), page, limit, isAsc, orderBy);
+        PageDTO<LoginRecordDTO> result = loginRecordService.getLoginRecords(keyword, status, request.getSession().getId(), page, limit, isAsc, orderBy, cursor, withTotal);
         if ( result != null && result.getList() != null ) {
             return new ResultVO<>(ResultStatusCodeConstant.SUCCESS.getResultCode(), "Success", result);
         }
@@ -0,0 +1,126 @@
+package com.gregperlinli.certvault.crypto;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.springframework.stereotype.Component;
+
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.Security;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Crypto Provider Bootstrap
+ *
+ * <p>
+ * BouncyCastle 提供者只在类初始化时构造一次 (已注册则复用已有实例), 由 {@link #bootstrap()} 注册, 之后统一按 {@link Provider}
+ * 对象而不是名称获取算法实现, 避免每次调用构造 {@code BouncyCastleProvider} 与按名称查找提供者.
+ * </p>
+ * <p>
+ * 证书转换器、PEM 密钥转换器与签名器构建器 (按签名算法) 都是无状态且线程安全的, 全局共享.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CryptoBootstrap}
+ * @date 2025/5/13 10:15
+ */
+@Component
+@Slf4j
+public class CryptoBootstrap {
+
+    private static final Provider PROVIDER;
+
+    private static final JcaX509CertificateConverter CERTIFICATE_CONVERTER;
+
+    private static final JcaPEMKeyConverter PEM_KEY_CONVERTER;
+
+    private static final Map<String, JcaContentSignerBuilder> SIGNER_BUILDERS = new ConcurrentHashMap<>();
+
+    static {
+        Provider registered = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        PROVIDER = registered == null ? new BouncyCastleProvider() : registered;
+        bootstrap();
+        CERTIFICATE_CONVERTER = new JcaX509CertificateConverter().setProvider(PROVIDER);
+        PEM_KEY_CONVERTER = new JcaPEMKeyConverter().setProvider(PROVIDER);
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("Crypto provider {} {} registered", PROVIDER.getName(), PROVIDER.getVersionStr());
+    }
+
+    /**
+     * Make sure the BouncyCastle provider is registered, so that lookups by name ({@code "BC"}) or through the default providers find it <br/>
+     * (Registers the shared instance again if it was removed from {@link Security}, a no-op lookup otherwise)
+     */
+    public static void bootstrap() {
+        if ( Security.getProvider(PROVIDER.getName()) == null ) {
+            Security.addProvider(PROVIDER);
+        }
+    }
+
+    /**
+     * Registered BouncyCastle provider
+     *
+     * @return {@link Provider}
+     */
+    public static Provider provider() {
+        return PROVIDER;
+    }
+
+    /**
+     * Shared certificate converter using the BouncyCastle provider
+     *
+     * @return {@link JcaX509CertificateConverter}
+     */
+    public static JcaX509CertificateConverter certificateConverter() {
+        return CERTIFICATE_CONVERTER;
+    }
+
+    /**
+     * Shared PEM key converter using the BouncyCastle provider
+     *
+     * @return {@link JcaPEMKeyConverter}
+     */
+    public static JcaPEMKeyConverter pemKeyConverter() {
+        return PEM_KEY_CONVERTER;
+    }
+
+    /**
+     * Build a content signer with a cached builder of the signature algorithm
+     *
+     * @param signatureAlgorithm signature algorithm, e.g. {@code SHA256withECDSA}
+     * @param privateKey         signing key
+     * @return {@link ContentSigner}
+     * @throws OperatorCreationException if the signer cannot be created
+     */
+    public static ContentSigner contentSigner(String signatureAlgorithm, PrivateKey privateKey) throws OperatorCreationException {
+        return SIGNER_BUILDERS.computeIfAbsent(signatureAlgorithm,
+                algorithm -> new JcaContentSignerBuilder(algorithm).setProvider(PROVIDER)).build(privateKey);
+    }
+
+    /**
+     * Build a content signer with the default signature algorithm of the key
+     *
+     * @param privateKey signing key ({@code RSA}, {@code EC} or {@code Ed25519})
+     * @return {@link ContentSigner}
+     * @throws OperatorCreationException if the signer cannot be created
+     */
+    public static ContentSigner contentSigner(PrivateKey privateKey) throws OperatorCreationException {
+        String signatureAlgorithm = switch (privateKey.getAlgorithm()) {
+            case "RSA" -> "SHA256WithRSAEncryption";
+            case "EC", "ECDSA" -> "SHA256withECDSA";
+            case "Ed25519", "EdDSA" -> "Ed25519";
+            default -> throw new IllegalArgumentException("Unsupported algorithm: " + privateKey.getAlgorithm());
+        };
+        return contentSigner(signatureAlgorithm, privateKey);
+    }
+}
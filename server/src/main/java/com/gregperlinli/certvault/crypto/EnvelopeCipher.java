@@ -0,0 +1,141 @@
+package com.gregperlinli.certvault.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Hybrid envelope cipher (RSA wrapped AES-GCM data key)
+ *
+ * <p>
+ * 每条记录使用独立的 AES-256 数据密钥进行 GCM 加密, 数据密钥再由主 RSA 公钥包裹,
+ * 解密时只需一次 RSA 私钥运算. 存储格式:
+ * </p>
+ * <pre>
+ * $v2$ + Base64( wrappedKeyLength(2) | wrappedKey | iv(12) | ciphertext | tag(16) )
+ * </pre>
+ * <p>
+ * 不带版本前缀的密文视为旧版分段 RSA 格式, 直接交由 {@link RsaCipherEngine} 解密.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code EnvelopeCipher}
+ * @date 2025/5/3 15:20
+ */
+public class EnvelopeCipher {
+
+    /**
+     * Envelope version prefix, '$' is not part of the Base64 alphabet
+     */
+    public static final String V2_PREFIX = "$v2$";
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private static final int DATA_KEY_LENGTH = 32;
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_BITS = 128;
+
+    private static final byte[] AAD = V2_PREFIX.getBytes(StandardCharsets.US_ASCII);
+
+    private final RsaCipherEngine engine;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final ThreadLocal<Cipher> aesCipher = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM is not available", e);
+        }
+    });
+
+    public EnvelopeCipher(RsaCipherEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Encrypt text into the v2 envelope format
+     *
+     * @param plainText to be encrypted
+     * @return envelope text
+     * @throws GeneralSecurityException if there is an error
+     */
+    public String encrypt(String plainText) throws GeneralSecurityException {
+        byte[] dataKey = new byte[DATA_KEY_LENGTH];
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(dataKey);
+        secureRandom.nextBytes(iv);
+        try {
+            byte[] plain = plainText.getBytes(StandardCharsets.UTF_8);
+            byte[] wrappedKey = engine.encrypt(dataKey);
+            Cipher cipher = aesCipher.get();
+            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(dataKey, "AES"), new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(AAD);
+            int headerLength = 2 + wrappedKey.length + IV_LENGTH;
+            byte[] out = new byte[headerLength + cipher.getOutputSize(plain.length)];
+            ByteBuffer.wrap(out)
+                    .putShort((short) wrappedKey.length)
+                    .put(wrappedKey)
+                    .put(iv);
+            int length = headerLength + cipher.doFinal(plain, 0, plain.length, out, headerLength);
+            return V2_PREFIX + Base64.getEncoder().encodeToString(length == out.length ? out : Arrays.copyOf(out, length));
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
+        }
+    }
+
+    /**
+     * Decrypt envelope text, legacy chunked RSA text is also accepted
+     *
+     * @param encryptedText to be decrypted
+     * @return plain text
+     * @throws GeneralSecurityException if there is an error
+     */
+    public String decrypt(String encryptedText) throws GeneralSecurityException {
+        if ( !isEnvelope(encryptedText) ) {
+            return engine.decryptFromBase64(encryptedText);
+        }
+        byte[] envelope = Base64.getDecoder().decode(encryptedText.substring(V2_PREFIX.length()));
+        ByteBuffer buffer = ByteBuffer.wrap(envelope);
+        int wrappedKeyLength = Short.toUnsignedInt(buffer.getShort());
+        if ( wrappedKeyLength <= 0 || 2 + wrappedKeyLength + IV_LENGTH > envelope.length ) {
+            throw new GeneralSecurityException("Malformed envelope header");
+        }
+        byte[] wrappedKey = new byte[wrappedKeyLength];
+        buffer.get(wrappedKey);
+        byte[] dataKey = engine.decrypt(wrappedKey);
+        try {
+            int offset = 2 + wrappedKeyLength;
+            Cipher cipher = aesCipher.get();
+            cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(dataKey, "AES"), new GCMParameterSpec(TAG_BITS, envelope, offset, IV_LENGTH));
+            cipher.updateAAD(AAD);
+            offset += IV_LENGTH;
+            // 原地解密, 明文长度不会超过密文长度
+            int length = cipher.doFinal(envelope, offset, envelope.length - offset, envelope, 0);
+            String plainText = new String(envelope, 0, length, StandardCharsets.UTF_8);
+            Arrays.fill(envelope, (byte) 0);
+            return plainText;
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
+        }
+    }
+
+    /**
+     * Whether the text is in the v2 envelope format
+     *
+     * @param encryptedText encrypted text
+     * @return {@code true} if it is an envelope
+     */
+    public static boolean isEnvelope(String encryptedText) {
+        return encryptedText != null && encryptedText.startsWith(V2_PREFIX);
+    }
+}
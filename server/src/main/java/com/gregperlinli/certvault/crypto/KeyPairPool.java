@@ -0,0 +1,414 @@
+package com.gregperlinli.certvault.crypto;
+
+import com.gregperlinli.certvault.config.properties.KeyPairPoolProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.jcajce.spec.EdDSAParameterSpec;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-generated Key Pair Pool
+ *
+ * <p>
+ * 按 (算法, 密钥长度) 维护预先生成的密钥对, 由一个低优先级后台线程补充, 签发证书时直接取用,
+ * RSA 3072/4096 的密钥生成不再占用请求线程. 每个密钥对只会被取出一次.
+ * </p>
+ * <p>
+ * 每个规格的目标库存按 {@code keypair-pool.demand-window} 内观察到的取用速率 (指数加权) 自适应调整,
+ * 限制在 {@code [min-idle, max-idle]} 之间; 长时间未被请求的规格会被清空.
+ * 池为空或未启用时回退为在调用线程上直接生成.
+ * 只有 {@code keypair-pool.specs} 中配置的规格会被池化, 其它规格始终直接生成;
+ * 后台生成失败时按指数退避重试, 连续失败 {@code keypair-pool.max-fill-failures} 次后不再池化该规格.
+ * </p>
+ * <p>
+ * 指标: {@code keypair_pool_size}, {@code keypair_pool_target}, {@code keypair_pool_acquire_total{result}},
+ * {@code keypair_pool_generate_seconds}.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code KeyPairPool}
+ * @date 2025/5/12 10:30
+ */
+@Component
+@Slf4j
+public class KeyPairPool {
+
+    private static final long MIN_FILL_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long MAX_FILL_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static volatile KeyPairPool instance;
+
+    private final KeyPairPoolProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Spec> specs = new ConcurrentHashMap<>();
+
+    /**
+     * Keys of the specs that may be pooled
+     */
+    private final Set<String> pooled = new HashSet<>();
+
+    private final Object signal = new Object();
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    public KeyPairPool(KeyPairPoolProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        if ( !Boolean.TRUE.equals(properties.getEnabled()) ) {
+            return;
+        }
+        for ( String configured : properties.getSpecs() ) {
+            String key = parseKey(configured);
+            if ( key == null ) {
+                log.warn("Invalid key pair pool spec: {}", configured);
+                continue;
+            }
+            pooled.add(key);
+        }
+        for ( String prewarm : properties.getPrewarm() ) {
+            String key = parseKey(prewarm);
+            if ( key == null || !pooled.contains(key) ) {
+                log.warn("Invalid or not pooled key pair pool prewarm spec: {}", prewarm);
+                continue;
+            }
+            String[] parts = key.split(":");
+            spec(parts[0], Integer.parseInt(parts[1])).prewarm = true;
+        }
+        running = true;
+        worker = new Thread(this::run, "keypair-pool");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+        instance = this;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        instance = null;
+        running = false;
+        if ( worker != null ) {
+            worker.interrupt();
+        }
+        specs.values().forEach(spec -> spec.idle.clear());
+    }
+
+    /**
+     * Take a key pair from the pool, or generate one inline if the pool is empty or not running
+     *
+     * @param algorithm {@code RSA}, {@code EC} or {@code Ed25519}
+     * @param keySize   key size, normalized by {@link #normalizeKeySize(String, int)}
+     * @return an unused key pair
+     * @throws GeneralSecurityException if the key pair cannot be generated
+     */
+    public static KeyPair acquire(String algorithm, int keySize) throws GeneralSecurityException {
+        KeyPairPool pool = instance;
+        if ( pool == null ) {
+            return generate(algorithm, normalizeKeySize(algorithm, keySize));
+        }
+        return pool.take(algorithm, keySize);
+    }
+
+    /**
+     * Normalize the requested key size to one the algorithm supports
+     *
+     * @param algorithm {@code RSA}, {@code EC} or {@code Ed25519}
+     * @param keySize   requested key size
+     * @return {@code 256} for Ed25519, {@code 256}, {@code 384} or {@code 521} for EC, otherwise unchanged
+     */
+    public static int normalizeKeySize(String algorithm, int keySize) {
+        if ( "Ed25519".equals(algorithm) ) {
+            // Ed25519 固定密钥长度为256位
+            return 256;
+        }
+        if ( "EC".equals(algorithm) ) {
+            // 使用ECC算法，初始化密钥长度只能为 256、384 或 521，不支持其他值
+            if ( keySize < 320 ) {
+                return 256;
+            } else if ( keySize <= 452 ) {
+                return 384;
+            } else {
+                return 521;
+            }
+        }
+        return keySize;
+    }
+
+    /**
+     * Generate a key pair on the calling thread
+     *
+     * @param algorithm {@code RSA}, {@code EC} or {@code Ed25519}
+     * @param keySize   normalized key size
+     * @return a new key pair
+     * @throws GeneralSecurityException if the key pair cannot be generated
+     */
+    public static KeyPair generate(String algorithm, int keySize) throws GeneralSecurityException {
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance(algorithm, CryptoBootstrap.provider());
+        if ( "Ed25519".equals(algorithm) ) {
+            keyGen.initialize(new EdDSAParameterSpec("Ed25519"));
+        } else {
+            keyGen.initialize(keySize, new SecureRandom());
+        }
+        return keyGen.generateKeyPair();
+    }
+
+    KeyPair take(String algorithm, int keySize) throws GeneralSecurityException {
+        int normalized = normalizeKeySize(algorithm, keySize);
+        if ( !pooled.contains(key(algorithm, normalized)) ) {
+            // 未配置的规格不创建库存与指标
+            return generate(algorithm, normalized);
+        }
+        Spec spec = spec(algorithm, normalized);
+        spec.demand.incrementAndGet();
+        spec.lastDemand = System.nanoTime();
+        spec.demanded = true;
+        KeyPair keyPair = spec.idle.poll();
+        if ( keyPair != null ) {
+            spec.size.decrementAndGet();
+            spec.hits.increment();
+        } else {
+            spec.misses.increment();
+        }
+        // 唤醒后台线程补充库存
+        synchronized ( signal ) {
+            signal.notifyAll();
+        }
+        return keyPair != null ? keyPair : generate(algorithm, normalized);
+    }
+
+    /**
+     * Current idle key pairs of a key spec
+     */
+    int size(String algorithm, int keySize) {
+        Spec spec = specs.get(key(algorithm, normalizeKeySize(algorithm, keySize)));
+        return spec == null ? 0 : spec.size.get();
+    }
+
+    private Spec spec(String algorithm, int keySize) {
+        return specs.computeIfAbsent(key(algorithm, keySize), key -> new Spec(algorithm, keySize));
+    }
+
+    private void run() {
+        long windowNanos = properties.getDemandWindow().toNanos();
+        long windowStart = System.nanoTime();
+        while ( running ) {
+            try {
+                // 1. 每个窗口结束时更新各规格的取用速率
+                long now = System.nanoTime();
+                if ( now - windowStart >= windowNanos ) {
+                    specs.values().forEach(Spec::roll);
+                    windowStart = now;
+                }
+                // 2. 选出缺口最大的规格补充一个密钥对, 跳过退避中的规格
+                Spec neediest = null;
+                int maxDeficit = 0;
+                for ( Spec spec : specs.values() ) {
+                    int deficit = spec.target() - spec.size.get();
+                    if ( deficit < 0 ) {
+                        spec.trim();
+                    } else if ( deficit > maxDeficit && now - spec.retryAt >= 0 ) {
+                        neediest = spec;
+                        maxDeficit = deficit;
+                    }
+                }
+                if ( neediest != null ) {
+                    try {
+                        neediest.fill();
+                    } catch (GeneralSecurityException | RuntimeException e) {
+                        neediest.failed(e);
+                    }
+                    continue;
+                }
+                // 3. 库存充足时等待下一次取用或窗口结束
+                synchronized ( signal ) {
+                    signal.wait(Math.max(1, (windowNanos - (System.nanoTime() - windowStart)) / 1_000_000));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Key pair pool error: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static String key(String algorithm, int keySize) {
+        return algorithm + ":" + keySize;
+    }
+
+    /**
+     * Parse a configured {@code ALGORITHM:KEY_SIZE} spec
+     *
+     * @return normalized key, {@code null} if invalid or not supported
+     */
+    private static String parseKey(String spec) {
+        String[] parts = spec.split(":");
+        if ( parts.length != 2 ) {
+            return null;
+        }
+        String algorithm = parts[0].trim();
+        int keySize;
+        try {
+            keySize = Integer.parseInt(parts[1].trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        boolean supported = switch ( algorithm ) {
+            case "RSA" -> keySize >= 2048 && keySize <= 8192 && keySize % 1024 == 0;
+            case "EC" -> keySize == 256 || keySize == 384 || keySize == 521;
+            case "Ed25519" -> true;
+            default -> false;
+        };
+        return supported ? key(algorithm, normalizeKeySize(algorithm, keySize)) : null;
+    }
+
+    /**
+     * Idle key pairs and demand statistics of one (algorithm, key size)
+     */
+    private final class Spec {
+
+        private final String algorithm;
+
+        private final int keySize;
+
+        private final Queue<KeyPair> idle = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        /**
+         * Acquisitions in the current window
+         */
+        private final AtomicLong demand = new AtomicLong();
+
+        private final Counter hits;
+
+        private final Counter misses;
+
+        private final Timer generateTimer;
+
+        /**
+         * Exponentially weighted acquisitions per window
+         */
+        private volatile double rate;
+
+        private volatile long lastDemand;
+
+        private volatile boolean demanded;
+
+        private volatile boolean prewarm;
+
+        /**
+         * Consecutive background generation failures
+         */
+        private int failures;
+
+        /**
+         * No background generation before this {@link System#nanoTime()}
+         */
+        private volatile long retryAt = System.nanoTime();
+
+        /**
+         * Whether the spec is no longer pooled after repeated failures
+         */
+        private volatile boolean dropped;
+
+        Spec(String algorithm, int keySize) {
+            this.algorithm = algorithm;
+            this.keySize = keySize;
+            String size = String.valueOf(keySize);
+            Gauge.builder("keypair.pool.size", this.size, AtomicInteger::get)
+                    .description("Idle pre-generated key pairs")
+                    .tags("algorithm", algorithm, "key_size", size)
+                    .register(meterRegistry);
+            Gauge.builder("keypair.pool.target", this, Spec::target)
+                    .description("Target idle pre-generated key pairs")
+                    .tags("algorithm", algorithm, "key_size", size)
+                    .register(meterRegistry);
+            this.hits = Counter.builder("keypair.pool.acquire")
+                    .description("Key pairs acquired from the pool or generated inline")
+                    .tags("algorithm", algorithm, "key_size", size, "result", "hit")
+                    .register(meterRegistry);
+            this.misses = Counter.builder("keypair.pool.acquire")
+                    .description("Key pairs acquired from the pool or generated inline")
+                    .tags("algorithm", algorithm, "key_size", size, "result", "miss")
+                    .register(meterRegistry);
+            this.generateTimer = Timer.builder("keypair.pool.generate")
+                    .description("Time to generate one pooled key pair in background")
+                    .tags("algorithm", algorithm, "key_size", size)
+                    .register(meterRegistry);
+        }
+
+        int target() {
+            if ( dropped ) {
+                return 0;
+            }
+            boolean expired = !demanded || System.nanoTime() - lastDemand > properties.getIdleExpiry().toNanos();
+            if ( !prewarm && expired ) {
+                return 0;
+            }
+            // 当前窗口的突发取用同样计入
+            long expected = (long) Math.ceil(Math.max(rate, demand.get()));
+            return (int) Math.min(properties.getMaxIdle(), Math.max(properties.getMinIdle(), expected));
+        }
+
+        void roll() {
+            rate = rate * 0.5 + demand.getAndSet(0) * 0.5;
+        }
+
+        void fill() throws GeneralSecurityException {
+            long start = System.nanoTime();
+            KeyPair keyPair = generate(algorithm, keySize);
+            generateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            idle.offer(keyPair);
+            size.incrementAndGet();
+            failures = 0;
+        }
+
+        void failed(Exception e) {
+            failures++;
+            if ( failures >= properties.getMaxFillFailures() ) {
+                dropped = true;
+                log.error("Key pair pool stopped pooling {}:{} after {} failures: {}", algorithm, keySize, failures, e.getMessage());
+                return;
+            }
+            long backoff = Math.min(MAX_FILL_BACKOFF_NANOS, MIN_FILL_BACKOFF_NANOS << Math.min(failures - 1, 16));
+            retryAt = System.nanoTime() + backoff;
+            log.warn("Failed to pre-generate {}:{} key pair, retry in {} ms: {}", algorithm, keySize,
+                    TimeUnit.NANOSECONDS.toMillis(backoff), e.getMessage());
+        }
+
+        void trim() {
+            while ( size.get() > target() && idle.poll() != null ) {
+                size.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.gregperlinli.certvault.crypto;
+
+import javax.crypto.Cipher;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * RSA master key cipher engine
+ *
+ * <p>
+ * 主密钥仅在构造时解析一次, 每个线程持有各自已初始化的 {@link Cipher},
+ * 加解密过程直接写入预分配的输出数组, 不再经过 {@code ByteArrayOutputStream}.
+ * 密文格式与旧版 {@code RSA/ECB/PKCS1Padding} 分段加密保持一致.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code RsaCipherEngine}
+ * @date 2025/5/2 10:12
+ */
+public class RsaCipherEngine {
+
+    private static final String TRANSFORMATION = "RSA/ECB/PKCS1Padding";
+
+    private static final Provider PROVIDER = CryptoBootstrap.provider();
+
+    private final PublicKey publicKey;
+
+    private final PrivateKey privateKey;
+
+    private final ThreadLocal<Cipher> encryptCipher;
+
+    private final ThreadLocal<Cipher> decryptCipher;
+
+    /**
+     * Max plain bytes per RSA block
+     */
+    private final int plainBlockSize;
+
+    /**
+     * Encrypted bytes per RSA block
+     */
+    private final int cipherBlockSize;
+
+    /**
+     * Create engine from Base64 encoded master keys
+     *
+     * @param base64PublicKey public key in base64 (X.509)
+     * @param base64PrivateKey private key in base64 (PKCS#8)
+     * @throws GeneralSecurityException if the keys cannot be parsed
+     */
+    public RsaCipherEngine(String base64PublicKey, String base64PrivateKey) throws GeneralSecurityException {
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA", PROVIDER);
+        this.publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(base64PublicKey)));
+        this.privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(base64PrivateKey)));
+        this.encryptCipher = ThreadLocal.withInitial(() -> newCipher(Cipher.ENCRYPT_MODE));
+        this.decryptCipher = ThreadLocal.withInitial(() -> newCipher(Cipher.DECRYPT_MODE));
+        Cipher cipher = encryptCipher.get();
+        this.plainBlockSize = cipher.getBlockSize();
+        this.cipherBlockSize = cipher.getOutputSize(plainBlockSize);
+    }
+
+    /**
+     * Encrypt bytes
+     *
+     * @param plain plain bytes
+     * @return encrypted bytes
+     * @throws GeneralSecurityException if there is an error
+     */
+    public byte[] encrypt(byte[] plain) throws GeneralSecurityException {
+        Cipher cipher = encryptCipher.get();
+        int blocks = (plain.length + plainBlockSize - 1) / plainBlockSize;
+        byte[] out = new byte[blocks * cipherBlockSize];
+        int outOffset = 0;
+        // 对数据分段加密
+        for ( int offset = 0; offset < plain.length; offset += plainBlockSize ) {
+            outOffset += cipher.doFinal(plain, offset, Math.min(plainBlockSize, plain.length - offset), out, outOffset);
+        }
+        return outOffset == out.length ? out : Arrays.copyOf(out, outOffset);
+    }
+
+    /**
+     * Decrypt bytes
+     *
+     * @param encrypted encrypted bytes
+     * @return plain bytes
+     * @throws GeneralSecurityException if there is an error
+     */
+    public byte[] decrypt(byte[] encrypted) throws GeneralSecurityException {
+        byte[] out = new byte[maxPlainLength(encrypted.length)];
+        int length = decrypt(encrypted, out);
+        return length == out.length ? out : Arrays.copyOf(out, length);
+    }
+
+    /**
+     * Decrypt bytes into the given buffer
+     *
+     * @param encrypted encrypted bytes
+     * @param out output buffer, at least {@link #maxPlainLength(int)} bytes
+     * @return number of plain bytes written
+     * @throws GeneralSecurityException if there is an error
+     */
+    public int decrypt(byte[] encrypted, byte[] out) throws GeneralSecurityException {
+        Cipher cipher = decryptCipher.get();
+        int outOffset = 0;
+        // 对数据分段解密
+        for ( int offset = 0; offset < encrypted.length; offset += cipherBlockSize ) {
+            outOffset += cipher.doFinal(encrypted, offset, Math.min(cipherBlockSize, encrypted.length - offset), out, outOffset);
+        }
+        return outOffset;
+    }
+
+    /**
+     * Encrypt text and encode as Base64
+     *
+     * @param plainText to be encrypted
+     * @return encrypted text in base64
+     * @throws GeneralSecurityException if there is an error
+     */
+    public String encryptToBase64(String plainText) throws GeneralSecurityException {
+        return Base64.getEncoder().encodeToString(encrypt(plainText.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Decrypt Base64 encoded text
+     *
+     * @param encryptedText encrypted text in base64
+     * @return plain text
+     * @throws GeneralSecurityException if there is an error
+     */
+    public String decryptFromBase64(String encryptedText) throws GeneralSecurityException {
+        byte[] encrypted = Base64.getDecoder().decode(encryptedText);
+        byte[] out = new byte[maxPlainLength(encrypted.length)];
+        int length = decrypt(encrypted, out);
+        return new String(out, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Upper bound of plain bytes for an encrypted payload
+     *
+     * @param encryptedLength encrypted length
+     * @return max plain length
+     */
+    public int maxPlainLength(int encryptedLength) {
+        return ((encryptedLength + cipherBlockSize - 1) / cipherBlockSize) * plainBlockSize;
+    }
+
+    /**
+     * Master public key
+     *
+     * @return public key
+     */
+    public PublicKey getPublicKey() {
+        return publicKey;
+    }
+
+    /**
+     * Master private key
+     *
+     * @return private key
+     */
+    public PrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    private Cipher newCipher(int mode) {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION, PROVIDER);
+            cipher.init(mode, mode == Cipher.ENCRYPT_MODE ? publicKey : privateKey);
+            return cipher;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialize master key cipher", e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.gregperlinli.certvault.crypto;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.domain.entities.SerialIndex;
+import com.gregperlinli.certvault.domain.entities.StoredCertificate;
+import com.gregperlinli.certvault.initializer.DataMigration;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import com.gregperlinli.certvault.mapper.SerialIndexMapper;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Serial Index Backfill <br/>
+ * (Register the serial numbers of certificates issued before {@code serial_index} existed)
+ *
+ * <p>
+ * {@code serial_index} 只登记 {@link SerialNumberService} 分配的序列号, 升级前已签发的 CA 与 SSL 证书需要从
+ * {@code ca}/{@code certificate} 表中解析颁发者与序列号后补录, 否则唯一性检查与 OCSP 状态查询都看不到这些证书.
+ * 作为版本 {@value #VERSION} 的数据迁移在启动时执行一次; 已登记的序列号跳过, 解析失败的行记录警告后跳过.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code SerialIndexBackfill}
+ * @date 2025/5/18 18:20
+ */
+@Component
+@Slf4j
+public class SerialIndexBackfill implements DataMigration {
+
+    private static final int VERSION = 4;
+
+    private static final int BATCH_SIZE = 500;
+
+    private final CaMapper caMapper;
+
+    private final CertificateMapper certificateMapper;
+
+    private final SerialIndexMapper serialIndexMapper;
+
+    public SerialIndexBackfill(CaMapper caMapper, CertificateMapper certificateMapper, SerialIndexMapper serialIndexMapper) {
+        this.caMapper = caMapper;
+        this.certificateMapper = certificateMapper;
+        this.serialIndexMapper = serialIndexMapper;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public String getDescription() {
+        return "serial index backfill";
+    }
+
+    @Override
+    public void migrate() {
+        int caCount = backfill(caMapper, "ca", queryWrapper -> {}, Ca::getId, Ca::getCreatedAt);
+        int certCount = backfill(certificateMapper, "certificate", queryWrapper -> {}, Certificate::getId, Certificate::getCreatedAt);
+        log.info("Serial Index Backfill: Registered {} CA and {} SSL certificate serial numbers", caCount, certCount);
+    }
+
+    /**
+     * Register the serial numbers of all certificates issued by a CA
+     *
+     * @param caUuid UUID of the issuing CA
+     * @return number of newly registered serial numbers
+     */
+    public int backfill(String caUuid) {
+        return backfill(caMapper, "ca", queryWrapper -> queryWrapper.eq("parent_ca", caUuid), Ca::getId, Ca::getCreatedAt)
+                + backfill(certificateMapper, "certificate", queryWrapper -> queryWrapper.eq("ca_uuid", caUuid),
+                Certificate::getId, Certificate::getCreatedAt);
+    }
+
+    private <T extends StoredCertificate> int backfill(BaseMapper<T> mapper, String table, Consumer<QueryWrapper<T>> filter,
+                                                       Function<T, Integer> idGetter, Function<T, LocalDateTime> createdAtGetter) {
+        int backfilled = 0;
+        int lastId = 0;
+        while ( true ) {
+            // 1. 按 id 递增分批读取证书, 只查询证书内容与创建时间
+            QueryWrapper<T> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id", "cert", "cert_der", "created_at").gt("id", lastId);
+            filter.accept(queryWrapper);
+            queryWrapper.orderByAsc("id");
+            List<T> rows = mapper.selectPage(new Page<>(1, BATCH_SIZE, false), queryWrapper).getRecords();
+            if ( rows.isEmpty() ) {
+                return backfilled;
+            }
+            // 2. 解析颁发者与序列号
+            Map<String, SerialIndex> pending = new LinkedHashMap<>();
+            for ( T row : rows ) {
+                lastId = idGetter.apply(row);
+                if ( !CertStorageUtils.hasCert(row) ) {
+                    continue;
+                }
+                try {
+                    X509CertificateHolder holder = CertStorageUtils.toCertificateHolder(row);
+                    SerialIndex serialIndex = new SerialIndex();
+                    serialIndex.setIssuer(SerialNumberService.issuerHash(holder.getIssuer()));
+                    serialIndex.setSerial(holder.getSerialNumber().toString(16));
+                    serialIndex.setCreatedAt(Objects.requireNonNullElseGet(createdAtGetter.apply(row), LocalDateTime::now));
+                    pending.put(key(serialIndex), serialIndex);
+                } catch (Exception e) {
+                    log.warn("Serial Index Backfill: Skip {} row {}: {}", table, lastId, e.getMessage());
+                }
+            }
+            if ( pending.isEmpty() ) {
+                continue;
+            }
+            // 3. 跳过已登记的序列号, 其余逐条写入, 并发登记的重复忽略
+            serialIndexMapper.selectList(new QueryWrapper<SerialIndex>()
+                            .select("issuer", "serial")
+                            .in("serial", pending.values().stream().map(SerialIndex::getSerial).toList()))
+                    .forEach(serialIndex -> pending.remove(key(serialIndex)));
+            for ( SerialIndex serialIndex : pending.values() ) {
+                try {
+                    serialIndexMapper.insert(serialIndex);
+                    backfilled++;
+                } catch (DuplicateKeyException e) {
+                    log.debug("Serial Index Backfill: Serial number {} already registered", serialIndex.getSerial());
+                }
+            }
+        }
+    }
+
+    private static String key(SerialIndex serialIndex) {
+        return serialIndex.getIssuer() + ":" + serialIndex.getSerial();
+    }
+}
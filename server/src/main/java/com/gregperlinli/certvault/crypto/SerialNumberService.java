@@ -0,0 +1,125 @@
+package com.gregperlinli.certvault.crypto;
+
+import com.gregperlinli.certvault.domain.entities.SerialIndex;
+import com.gregperlinli.certvault.mapper.SerialIndexMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Certificate Serial Number Service
+ *
+ * <p>
+ * 证书序列号只需唯一且不可预测, 不需要是素数: 使用进程内共享的 {@link SecureRandom} 生成 128 位正整数,
+ * 代替每次新建 {@code SecureRandom} 并执行 Miller-Rabin 素性检测的 {@code BigInteger.probablePrime}.
+ * </p>
+ * <p>
+ * 每个序列号写入 {@code serial_index} (颁发者 DN 的 SHA-256 + 序列号唯一约束) 进行登记,
+ * 同一颁发者下出现重复时重新生成, 保证同一颁发者签发的序列号不重复.
+ * 升级前已签发证书的序列号由 {@link SerialIndexBackfill} 补录.
+ * 未启动 Spring 容器时 (如单元测试) 只生成随机序列号, 不登记.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code SerialNumberService}
+ * @date 2025/5/12 16:20
+ */
+@Component
+@Slf4j
+public class SerialNumberService {
+
+    /**
+     * Serial number length, RFC 5280 allows up to 20 octets
+     */
+    private static final int SERIAL_BYTES = 16;
+
+    private static final int MAX_ATTEMPTS = 8;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private static volatile SerialNumberService instance;
+
+    private final SerialIndexMapper serialIndexMapper;
+
+    public SerialNumberService(SerialIndexMapper serialIndexMapper) {
+        this.serialIndexMapper = serialIndexMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        instance = this;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        instance = null;
+    }
+
+    /**
+     * Allocate a serial number for a certificate, unique per issuer
+     *
+     * @param issuer issuer of the certificate (the subject itself for a self-signed CA)
+     * @return positive serial number
+     */
+    public static BigInteger next(X500Name issuer) {
+        SerialNumberService service = instance;
+        return service == null ? random() : service.allocate(issuer);
+    }
+
+    /**
+     * Generate a random positive serial number without registering it
+     *
+     * @return positive serial number of at most {@value #SERIAL_BYTES} bytes of entropy
+     */
+    public static BigInteger random() {
+        byte[] bytes = new byte[SERIAL_BYTES];
+        SECURE_RANDOM.nextBytes(bytes);
+        BigInteger serial = new BigInteger(1, bytes);
+        // 序列号必须为正整数
+        return serial.signum() == 0 ? BigInteger.ONE : serial;
+    }
+
+    BigInteger allocate(X500Name issuer) {
+        String issuerHash = issuerHash(issuer);
+        for ( int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++ ) {
+            BigInteger serial = random();
+            SerialIndex serialIndex = new SerialIndex();
+            serialIndex.setIssuer(issuerHash);
+            serialIndex.setSerial(serial.toString(16));
+            serialIndex.setCreatedAt(LocalDateTime.now());
+            try {
+                serialIndexMapper.insert(serialIndex);
+                return serial;
+            } catch (DuplicateKeyException e) {
+                log.warn("Serial number {} of issuer {} already allocated, retry {}", serialIndex.getSerial(), issuer, attempt);
+            }
+        }
+        throw new IllegalStateException("Failed to allocate a unique serial number for " + issuer);
+    }
+
+    /**
+     * Issuer key of {@code serial_index}, the SHA-256 of the encoded issuer DN
+     *
+     * @param issuer issuer of the certificate
+     * @return lowercase hex SHA-256
+     */
+    public static String issuerHash(X500Name issuer) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(issuer.getEncoded()));
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException("Failed to hash issuer " + issuer, e);
+        }
+    }
+}
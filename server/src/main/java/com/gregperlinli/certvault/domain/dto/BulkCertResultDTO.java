@@ -0,0 +1,77 @@
+package com.gregperlinli.certvault.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * Bulk Request SSL Certificate Result DTO
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code BulkCertResultDTO}
+ * @date 2025/5/12 14:15
+ */
+@Schema(
+        name = "Bulk Certificate Result DTO",
+        description = "Result of one item of a bulk SSL certificate request"
+)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Data
+public class BulkCertResultDTO {
+
+    /**
+     * Index of the item in the request
+     */
+    @Schema(
+            name = "index",
+            description = "Index of the item in the request",
+            example = "0",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            type = "integer"
+    )
+    private Integer index;
+
+    /**
+     * Whether the certificate was issued and saved
+     */
+    @Schema(
+            name = "success",
+            description = "Whether the certificate was issued and saved",
+            example = "true",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            type = "boolean"
+    )
+    private Boolean success;
+
+    /**
+     * Issued certificate (only if succeeded)
+     */
+    @Schema(
+            name = "cert",
+            description = "Issued certificate",
+            implementation = ResponseCertDTO.class
+    )
+    private ResponseCertDTO cert;
+
+    /**
+     * Error message (only if failed)
+     */
+    @Schema(
+            name = "message",
+            description = "Error message",
+            example = "Certificate expiry cannot exceed CA expiry",
+            type = "string"
+    )
+    private String message;
+
+    public static BulkCertResultDTO success(int index, ResponseCertDTO cert) {
+        return new BulkCertResultDTO(index, true, cert, null);
+    }
+
+    public static BulkCertResultDTO failure(int index, String message) {
+        return new BulkCertResultDTO(index, false, null, message);
+    }
+}
@@ -0,0 +1,51 @@
+package com.gregperlinli.certvault.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Bulk Request SSL Certificate DTO
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code BulkRequestCertDTO}
+ * @date 2025/5/12 14:10
+ */
+@Schema(
+        name = "Bulk Request Certificate DTO",
+        description = "Data transfer object for requesting multiple SSL certificates from one CA"
+)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Data
+public class BulkRequestCertDTO {
+
+    /**
+     * CA UUID (overrides {@code caUuid} of every item)
+     */
+    @Schema(
+            name = "caUuid",
+            description = "CA UUID",
+            example = "3885be11-4084-4538-9fa0-70ffe4c4cbe0",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            type = "string"
+    )
+    private String caUuid;
+
+    /**
+     * Certificate requests
+     */
+    @ArraySchema(
+            schema = @Schema(implementation = RequestCertDTO.class),
+            arraySchema = @Schema(
+                    name = "certs",
+                    description = "Certificate requests, issued in parallel"
+            )
+    )
+    private List<RequestCertDTO> certs;
+}
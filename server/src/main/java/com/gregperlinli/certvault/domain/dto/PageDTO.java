@@ -1,5 +1,6 @@
 package com.gregperlinli.certvault.domain.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 
@@ -42,4 +43,22 @@ public class PageDTO<T> {
             type = "array"
     )
     private List<T> list;
+
+    /**
+     * Cursor of the next page
+     */
+    @Schema(
+            name = "nextCursor",
+            description = "Cursor of the next page (only in cursor pagination, absent on the last page)",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED,
+            type = "string",
+            examples = "c3RhdHVzCnRydWUKMTIKMjAyNi0wMS0wMVQwMDowMA"
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    public PageDTO(Long total, List<T> list) {
+        this.total = total;
+        this.list = list;
+    }
 }
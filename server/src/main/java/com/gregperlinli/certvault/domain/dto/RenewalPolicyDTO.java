@@ -0,0 +1,68 @@
+package com.gregperlinli.certvault.domain.dto;
+
+import com.gregperlinli.certvault.domain.entities.RenewalPolicy;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * Automatic Renewal Policy DTO
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code RenewalPolicyDTO}
+ * @date 2025/5/17 18:30
+ */
+@Schema(
+        name = "Renewal Policy DTO",
+        description = "Data transfer object for the automatic renewal policy of a CA or a certificate"
+)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Data
+public class RenewalPolicyDTO {
+
+    /**
+     * Days before expiry to renew
+     */
+    @Schema(
+            name = "renewBeforeDays",
+            description = "Renew the certificate when it expires within this many days",
+            example = "7",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            type = "integer"
+    )
+    private Integer renewBeforeDays;
+
+    /**
+     * Validity of the renewed certificate in days
+     */
+    @Schema(
+            name = "validityDays",
+            description = "Validity of the renewed certificate in days, keeps the current validity if empty",
+            example = "30",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED,
+            type = "integer"
+    )
+    private Integer validityDays;
+
+    /**
+     * Whether the policy is enabled
+     */
+    @Schema(
+            name = "enabled",
+            description = "Whether the policy is enabled, a disabled certificate policy opts the certificate out of its CA policy",
+            example = "true",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED,
+            type = "boolean"
+    )
+    private Boolean enabled;
+
+    public RenewalPolicyDTO(RenewalPolicy policy) {
+        this.renewBeforeDays = policy.getRenewBeforeDays();
+        this.validityDays = policy.getValidityDays();
+        this.enabled = policy.getEnabled();
+    }
+
+}
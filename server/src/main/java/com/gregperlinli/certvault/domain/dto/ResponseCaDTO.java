@@ -2,6 +2,7 @@ package com.gregperlinli.certvault.domain.dto;
 
 import com.gregperlinli.certvault.domain.entities.Ca;
 import com.gregperlinli.certvault.domain.entities.GenResponse;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 
@@ -175,7 +176,7 @@ public class ResponseCaDTO {
         this.algorithm = ca.getAlgorithm();
         this.keySize = ca.getKeySize();
         this.privkey = ca.getPrivkey();
-        this.cert = ca.getCert();
+        this.cert = CertStorageUtils.toBase64(ca);
         this.parentCa = ca.getParentCa();
         this.allowSubCa = ca.getAllowSubCa();
         this.notBefore = ca.getNotBefore();
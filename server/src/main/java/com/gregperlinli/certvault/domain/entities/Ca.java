@@ -24,7 +24,7 @@ import lombok.ToString;
 @Setter
 @ToString
 @TableName("ca")
-public class Ca implements Serializable {
+public class Ca implements Serializable, StoredCertificate {
 
     @Serial
     private static final long serialVersionUID = 1L;
@@ -60,11 +60,18 @@ public class Ca implements Serializable {
     private String privkey;
 
     /**
-     * CA 证书
+     * CA 证书 (Base64 编码的 PEM, 旧存储格式)
      */
     @TableField("cert")
     private String cert;
 
+    /**
+     * CA 证书 (DER)
+     */
+    @ToString.Exclude
+    @TableField("cert_der")
+    private byte[] certDer;
+
     /**
      * 父 CA UUID
      */
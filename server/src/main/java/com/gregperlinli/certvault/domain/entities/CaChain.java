@@ -0,0 +1,49 @@
+package com.gregperlinli.certvault.domain.entities;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * Assembled CA Certificate Chain
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CaChain}
+ * @date 2025/5/5 14:10
+ */
+@Accessors(chain = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Data
+public class CaChain {
+
+    /**
+     * UUIDs of the CA and its ancestors, from the CA itself up to the root
+     */
+    private List<String> uuids;
+
+    /**
+     * PEM certificates in the same order as {@code uuids}
+     */
+    private List<String> pems;
+
+    /**
+     * SHA-256 fingerprints of the certificates in the same order as {@code pems}
+     */
+    private List<String> fingerprints;
+
+    /**
+     * Chain with root CA (PEM joined and BASE64 encoded)
+     */
+    private String chainWithRoot;
+
+    /**
+     * Chain without root CA (PEM joined and BASE64 encoded)
+     */
+    private String chainWithoutRoot;
+
+}
@@ -0,0 +1,106 @@
+package com.gregperlinli.certvault.domain.entities;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Signed Full and Delta CRLs of a CA
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CaCrl}
+ * @date 2025/5/16 10:20
+ */
+@Accessors(chain = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Data
+public class CaCrl {
+
+    /**
+     * CA UUID
+     */
+    private String caUuid;
+
+    /**
+     * CRL number of the full CRL, the base of the delta CRL
+     */
+    private BigInteger fullNumber;
+
+    /**
+     * Full CRL (DER)
+     */
+    @ToString.Exclude
+    private byte[] full;
+
+    /**
+     * {@code thisUpdate} of the full CRL
+     */
+    private Instant fullThisUpdate;
+
+    /**
+     * Revocation IDs included in the full CRL
+     */
+    @ToString.Exclude
+    private Set<Long> fullIds;
+
+    /**
+     * Latest {@code revoked_at} included in the full CRL, {@code null} if empty
+     */
+    private LocalDateTime fullCursor;
+
+    /**
+     * CRL number of the delta CRL, full and delta CRLs share one sequence
+     */
+    private BigInteger deltaNumber;
+
+    /**
+     * Delta CRL (DER)
+     */
+    @ToString.Exclude
+    private byte[] delta;
+
+    /**
+     * {@code thisUpdate} of the delta CRL
+     */
+    private Instant deltaThisUpdate;
+
+    /**
+     * Revocations after the full CRL, in revocation time order
+     */
+    private List<RevokedCertificate> deltaEntries;
+
+    /**
+     * Whether a revocation is included in the full or the delta CRL
+     *
+     * @param id revocation ID
+     * @return {@code true} if included
+     */
+    public boolean includes(Long id) {
+        return fullIds.contains(id) || deltaEntries.stream().anyMatch(entry -> entry.getId().equals(id));
+    }
+
+    /**
+     * Latest {@code revoked_at} included in the full or the delta CRL
+     *
+     * @return revocation time, {@code null} if both are empty
+     */
+    public LocalDateTime getCursor() {
+        LocalDateTime cursor = fullCursor;
+        for ( RevokedCertificate entry : deltaEntries ) {
+            if ( cursor == null || entry.getRevokedAt().isAfter(cursor) ) {
+                cursor = entry.getRevokedAt();
+            }
+        }
+        return cursor;
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.gregperlinli.certvault.domain.entities;
 
+import com.gregperlinli.certvault.utils.CertStorageUtils;
 import com.gregperlinli.certvault.utils.EncryptAndDecryptUtils;
 import lombok.*;
 import lombok.experimental.Accessors;
@@ -64,7 +65,7 @@ public class CaRenewRequest {
         this.uuid = ca.getUuid();
         this.allowSubCa = ca.getAllowSubCa();
         this.oldPrivkey = EncryptAndDecryptUtils.decrypt(ca.getPrivkey());
-        this.oldCert = ca.getCert();
+        this.oldCert = CertStorageUtils.toBase64(ca);
         this.newExpiry = newExpiry;
         this.comment = ca.getComment();
     }
@@ -0,0 +1,48 @@
+package com.gregperlinli.certvault.domain.entities;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+import org.bouncycastle.cert.X509CertificateHolder;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * Parsed CA Signing Key Material
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CaSigningKey}
+ * @date 2025/5/4 10:15
+ */
+@Accessors(chain = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Data
+public class CaSigningKey {
+
+    /**
+     * CA Private Key
+     */
+    @ToString.Exclude
+    private PrivateKey privateKey;
+
+    /**
+     * CA Public Key
+     */
+    private PublicKey publicKey;
+
+    /**
+     * CA Certificate
+     */
+    private X509CertificateHolder certHolder;
+
+    /**
+     * DER of the stored certificate this material was parsed from
+     */
+    @ToString.Exclude
+    private byte[] sourceCert;
+
+}
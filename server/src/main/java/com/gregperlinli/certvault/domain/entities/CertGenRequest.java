@@ -33,6 +33,12 @@ public class CertGenRequest {
      */
     private String ca;
 
+    /**
+     * Parsed CA signing key, takes precedence over {@code caKey} and {@code ca} if present
+     */
+    @ToString.Exclude
+    private CaSigningKey caSigningKey;
+
     /**
      * Key Size
      */
@@ -105,4 +111,9 @@ public class CertGenRequest {
         this.comment = requestCertDTO.getComment();
     }
 
+    public CertGenRequest(RequestCertDTO requestCertDTO, CaSigningKey caSigningKey, String emailAddress) {
+        this(requestCertDTO, null, null, emailAddress);
+        this.caSigningKey = caSigningKey;
+    }
+
 }
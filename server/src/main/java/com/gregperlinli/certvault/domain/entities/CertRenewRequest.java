@@ -30,6 +30,12 @@ public class CertRenewRequest {
      */
     private String ca;
 
+    /**
+     * Parsed CA signing key, takes precedence over {@code caKey} and {@code ca} if present
+     */
+    @ToString.Exclude
+    private CaSigningKey caSigningKey;
+
     /**
      * The UUID of the old certificate
      */
@@ -23,7 +23,7 @@ import lombok.ToString;
 @Setter
 @ToString
 @TableName("certificate")
-public class Certificate implements Serializable {
+public class Certificate implements Serializable, StoredCertificate {
 
     @Serial
     private static final long serialVersionUID = 1L;
@@ -59,11 +59,18 @@ public class Certificate implements Serializable {
     private String privkey;
 
     /**
-     * 证书
+     * 证书 (Base64 编码的 PEM, 旧存储格式)
      */
     @TableField("cert")
     private String cert;
 
+    /**
+     * 证书 (DER)
+     */
+    @ToString.Exclude
+    @TableField("cert_der")
+    private byte[] certDer;
+
     /**
      * CA UUID
      */
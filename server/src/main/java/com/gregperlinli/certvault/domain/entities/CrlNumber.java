@@ -0,0 +1,48 @@
+package com.gregperlinli.certvault.domain.entities;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+/**
+ * <p>
+ * CRL 编号序列
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @since 2025-05-16
+ */
+@Getter
+@Setter
+@ToString
+@TableName("crl_number")
+public class CrlNumber implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * CA UUID
+     */
+    @TableId(value = "ca_uuid", type = IdType.INPUT)
+    private String caUuid;
+
+    /**
+     * 最近分配的 CRL 编号 (完整与增量 CRL 共用)
+     */
+    @TableField("last_number")
+    private Long lastNumber;
+
+    /**
+     * 修改时间
+     */
+    @TableField("modified_at")
+    private LocalDateTime modifiedAt;
+}
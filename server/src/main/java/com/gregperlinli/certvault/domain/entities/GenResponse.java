@@ -1,5 +1,6 @@
 package com.gregperlinli.certvault.domain.entities;
 
+import com.gregperlinli.certvault.utils.CertStorageUtils;
 import com.gregperlinli.certvault.utils.EncryptAndDecryptUtils;
 import lombok.*;
 import lombok.experimental.Accessors;
@@ -70,7 +71,7 @@ public class GenResponse {
         ca.setAlgorithm(this.getAlgorithm());
         ca.setKeySize(this.getKeySize());
         ca.setPrivkey(EncryptAndDecryptUtils.encrypt(this.getPrivkey()));
-        ca.setCert(this.getCert());
+        CertStorageUtils.store(ca, this.getCert());
         ca.setOwner(userId);
         ca.setComment(this.getComment());
         ca.setAvailable(true);
@@ -89,7 +90,7 @@ public class GenResponse {
         ca.setAlgorithm(this.getAlgorithm());
         ca.setKeySize(this.getKeySize());
         ca.setPrivkey(EncryptAndDecryptUtils.encrypt(this.getPrivkey()));
-        ca.setCert(this.getCert());
+        CertStorageUtils.store(ca, this.getCert());
         ca.setParentCa(parentCa);
         ca.setAllowSubCa(allowSubCa);
         ca.setOwner(userId);
@@ -110,7 +111,7 @@ public class GenResponse {
         certificate.setAlgorithm(this.getAlgorithm());
         certificate.setKeySize(this.getKeySize());
         certificate.setPrivkey(EncryptAndDecryptUtils.encrypt(this.getPrivkey()));
-        certificate.setCert(this.getCert());
+        CertStorageUtils.store(certificate, this.getCert());
         certificate.setCaUuid(caUuid);
         certificate.setOwner(userId);
         certificate.setComment(this.getComment());
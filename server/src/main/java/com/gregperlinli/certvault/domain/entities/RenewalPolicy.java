@@ -0,0 +1,84 @@
+package com.gregperlinli.certvault.domain.entities;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+/**
+ * <p>
+ * 自动续期策略
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @since 2025-05-16
+ */
+@Getter
+@Setter
+@ToString
+@TableName("renewal_policy")
+public class RenewalPolicy implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * CA UUID（自动续期该 CA 签发的全部证书）
+     */
+    @TableField("ca_uuid")
+    private String caUuid;
+
+    /**
+     * 证书 UUID（仅作用于该证书, 优先于 CA 策略）
+     */
+    @TableField("cert_uuid")
+    private String certUuid;
+
+    /**
+     * 到期前多少天续期
+     */
+    @TableField("renew_before_days")
+    private Integer renewBeforeDays;
+
+    /**
+     * 续期后的有效期（天）, 为空时沿用原有效期
+     */
+    @TableField("validity_days")
+    private Integer validityDays;
+
+    /**
+     * 是否启用
+     */
+    @TableField("enabled")
+    private Boolean enabled;
+
+    /**
+     * 创建者
+     */
+    @TableField("owner")
+    private Integer owner;
+
+    /**
+     * 创建时间
+     */
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * 修改时间
+     */
+    @TableField("modified_at")
+    private LocalDateTime modifiedAt;
+}
@@ -0,0 +1,66 @@
+package com.gregperlinli.certvault.domain.entities;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+/**
+ * <p>
+ * 已吊销证书
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @since 2025-05-16
+ */
+@Getter
+@Setter
+@ToString
+@TableName("revoked_certificate")
+public class RevokedCertificate implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 颁发者 CA UUID
+     */
+    @TableField("ca_uuid")
+    private String caUuid;
+
+    /**
+     * 证书 UUID
+     */
+    @TableField("cert_uuid")
+    private String certUuid;
+
+    /**
+     * 证书序列号（十六进制）
+     */
+    @TableField("serial")
+    private String serial;
+
+    /**
+     * 吊销原因 (RFC 5280 CRLReason)
+     */
+    @TableField("reason")
+    private Integer reason;
+
+    /**
+     * 吊销时间
+     */
+    @TableField("revoked_at")
+    private LocalDateTime revokedAt;
+}
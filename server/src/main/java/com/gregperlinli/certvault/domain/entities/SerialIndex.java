@@ -0,0 +1,54 @@
+package com.gregperlinli.certvault.domain.entities;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+/**
+ * <p>
+ * 已分配证书序列号
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @since 2025-05-12
+ */
+@Getter
+@Setter
+@ToString
+@TableName("serial_index")
+public class SerialIndex implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 颁发者 DN 的 SHA-256
+     */
+    @TableField("issuer")
+    private String issuer;
+
+    /**
+     * 证书序列号（十六进制）
+     */
+    @TableField("serial")
+    private String serial;
+
+    /**
+     * 分配时间
+     */
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+}
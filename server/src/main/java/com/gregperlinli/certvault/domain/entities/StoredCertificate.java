@@ -0,0 +1,21 @@
+package com.gregperlinli.certvault.domain.entities;
+
+/**
+ * Entity storing a certificate, either as BASE64 encoded PEM ({@code cert}, legacy) or as raw DER ({@code cert_der})
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code StoredCertificate}
+ * @date 2025/5/15 10:10
+ */
+public interface StoredCertificate {
+
+    String getCert();
+
+    void setCert(String cert);
+
+    byte[] getCertDer();
+
+    void setCertDer(byte[] certDer);
+
+}
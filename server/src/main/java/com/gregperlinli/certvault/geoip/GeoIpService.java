@@ -0,0 +1,280 @@
+package com.gregperlinli.certvault.geoip;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gregperlinli.certvault.config.properties.GeoIpProperties;
+import com.gregperlinli.certvault.constant.PrometheusConstant;
+import com.gregperlinli.certvault.utils.MetricsUtils;
+import com.maxmind.db.CHMCache;
+import com.maxmind.geoip2.DatabaseReader;
+import com.maxmind.geoip2.model.CityResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * GeoIP Resolution Service
+ *
+ * <p>
+ * 将 IP 地址解析为 国家 / 省份 / 城市, 支持 MaxMind mmdb 与 ip-api.com 两种数据源:
+ * </p>
+ * <ul>
+ *     <li>解析结果按 IP (或 /24 网段) 缓存, 命中率通过 {@code cache_gets_total{cache="geoip"}} 导出</li>
+ *     <li>同一地址的并发查询合并为一次解析</li>
+ *     <li>ip-api.com 使用带连接与请求超时的异步 HTTP 客户端, 调用方最长等待 {@code geoip.lookup-timeout}</li>
+ *     <li>内网与保留地址不发起查询, 网络错误的结果不会被缓存</li>
+ * </ul>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code GeoIpService}
+ * @date 2025/5/11 14:40
+ */
+@Component
+@Slf4j
+public class GeoIpService {
+
+    public static final String CACHE_NAME = "geoip";
+
+    public static final String UNKNOWN = "Unknown";
+
+    private static final Map<String, String> UNKNOWN_LOCATION = location(null, null, null);
+
+    private static final Pattern IPV4_LITERAL = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    private static final Pattern IPV6_LITERAL = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private final GeoIpProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private AsyncCache<String, Map<String, String>> cache;
+
+    private HttpClient httpClient;
+
+    private DatabaseReader reader;
+
+    public GeoIpService(GeoIpProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        GeoIpProperties.Cache cacheProperties = properties.getCache();
+        if ( Boolean.TRUE.equals(cacheProperties.getEnabled()) ) {
+            cache = Caffeine.newBuilder()
+                    .expireAfterWrite(cacheProperties.getTtl())
+                    .maximumSize(cacheProperties.getMaxSize())
+                    .recordStats()
+                    .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        }
+        if ( isMmdb() ) {
+            reader = openDatabase();
+        } else {
+            httpClient = HttpClient.newBuilder()
+                    .connectTimeout(properties.getIpApi().getConnectTimeout())
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .build();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        if ( reader != null ) {
+            reader.close();
+        }
+    }
+
+    /**
+     * Resolve the location of an IP address, waiting at most {@code geoip.lookup-timeout}
+     *
+     * @param ip IP address
+     * @return {@code region}, {@code province} and {@code city}, {@code Unknown} if not resolvable
+     */
+    public Map<String, String> getLocation(String ip) {
+        try {
+            return resolve(ip).get(properties.getLookupTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return UNKNOWN_LOCATION;
+        } catch (Exception e) {
+            log.debug("Failed to get location information of {}: {}", ip, e.getMessage());
+            return UNKNOWN_LOCATION;
+        }
+    }
+
+    /**
+     * Resolve the location of an IP address asynchronously
+     *
+     * @param ip IP address
+     * @return future of {@code region}, {@code province} and {@code city},
+     * completes exceptionally when the data source is not reachable
+     */
+    public CompletableFuture<Map<String, String>> resolve(String ip) {
+        InetAddress address = parseLiteral(ip);
+        if ( address == null || isPrivate(address) ) {
+            return CompletableFuture.completedFuture(UNKNOWN_LOCATION);
+        }
+        if ( cache == null ) {
+            return lookup(address, null);
+        }
+        // 同一键的并发请求共享同一个 future, 失败的 future 会被自动移出缓存
+        return cache.get(cacheKey(address), (key, executor) -> lookup(address, executor));
+    }
+
+    private CompletableFuture<Map<String, String>> lookup(InetAddress address, Executor executor) {
+        if ( reader != null ) {
+            return executor == null
+                    ? CompletableFuture.completedFuture(lookupDatabase(address))
+                    : CompletableFuture.supplyAsync(() -> lookupDatabase(address), executor);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(properties.getIpApi().getBaseUrl() + address.getHostAddress()))
+                .timeout(properties.getIpApi().getRequestTimeout())
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if ( response.statusCode() != 200 ) {
+                        throw new IllegalStateException("ip-api.com responded with HTTP " + response.statusCode());
+                    }
+                    return parseIpApi(response.body());
+                })
+                .whenComplete((location, error) -> record("ip-api", start, error == null));
+    }
+
+    private Map<String, String> lookupDatabase(InetAddress address) {
+        long start = System.nanoTime();
+        try {
+            CityResponse response = reader.city(address);
+            log.debug("Get location information from geo-ip: {}", response.toJson());
+            record("database", start, true);
+            return location(response.getCountry().getName(),
+                    response.getLeastSpecificSubdivision().getName(),
+                    response.getCity().getName());
+        } catch (Exception e) {
+            // 数据库中不存在的地址同样缓存为 Unknown
+            log.debug("Failed to get location information from geo-ip");
+            record("database", start, false);
+            return UNKNOWN_LOCATION;
+        }
+    }
+
+    private void record(String source, long startNanos, boolean success) {
+        Timer.builder(PrometheusConstant.GEOIP_LOOKUP.getName())
+                .description(PrometheusConstant.GEOIP_LOOKUP.getDescription())
+                .tags(PrometheusConstant.SOURCE.getName(), source,
+                        PrometheusConstant.RESULT.getName(), success ? MetricsUtils.SUCCESS : MetricsUtils.FAILURE)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Map<String, String> parseIpApi(String body) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            if ( "success".equals(json.path("status").asText()) ) {
+                log.debug("Get location information from ip-api.com: {}", body);
+                return location(json.path("country").asText(null),
+                        json.path("regionName").asText(null),
+                        json.path("city").asText(null));
+            }
+            // 保留地址等查询失败的结果是确定的, 可以缓存
+            return UNKNOWN_LOCATION;
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed ip-api.com response", e);
+        }
+    }
+
+    private String cacheKey(InetAddress address) {
+        if ( !"prefix".equalsIgnoreCase(properties.getCache().getKey()) ) {
+            return address.getHostAddress();
+        }
+        byte[] bytes = address.getAddress();
+        // IPv4 保留 /24, IPv6 保留 /64
+        Arrays.fill(bytes, bytes.length == 4 ? 3 : 8, bytes.length, (byte) 0);
+        try {
+            return InetAddress.getByAddress(bytes).getHostAddress() + (bytes.length == 4 ? "/24" : "/64");
+        } catch (UnknownHostException e) {
+            return address.getHostAddress();
+        }
+    }
+
+    private boolean isMmdb() {
+        return "mmdb".equals(properties.getType());
+    }
+
+    private DatabaseReader openDatabase() {
+        try {
+            return new DatabaseReader.Builder(new File(properties.getFilePath())).withCache(new CHMCache()).build();
+        } catch (Exception e) {
+            log.warn("Failed to load GeoIP database, fallback to use local geo-ip data");
+            try ( InputStream inputStream = GeoIpService.class.getClassLoader().getResourceAsStream("geoip/GeoLite2-City.mmdb") ) {
+                if ( inputStream == null ) {
+                    throw new IOException("geoip/GeoLite2-City.mmdb is not on the classpath");
+                }
+                return new DatabaseReader.Builder(inputStream).withCache(new CHMCache()).build();
+            } catch (IOException ex) {
+                throw new RuntimeException("Failed to load GeoIP database", ex);
+            }
+        }
+    }
+
+    /**
+     * Private, loopback, link-local or unspecified address, never in the GeoIP data <br/>
+     * ({@link InetAddress#isSiteLocalAddress()} only knows the deprecated IPv6 {@code fec0::/10}, unique local {@code fc00::/7} is checked here)
+     */
+    private static boolean isPrivate(InetAddress address) {
+        return address.isLoopbackAddress() || address.isSiteLocalAddress()
+                || address.isLinkLocalAddress() || address.isAnyLocalAddress()
+                || ( address instanceof Inet6Address && ( address.getAddress()[0] & 0xfe ) == 0xfc );
+    }
+
+    /**
+     * Parse an IP literal without DNS resolution
+     */
+    private static InetAddress parseLiteral(String ip) {
+        if ( ip == null || !( IPV4_LITERAL.matcher(ip).matches() || IPV6_LITERAL.matcher(ip).matches() ) ) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(ip);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> location(String region, String province, String city) {
+        return Map.of(
+                "region", region == null || region.isEmpty() ? UNKNOWN : region,
+                "province", province == null || province.isEmpty() ? UNKNOWN : province,
+                "city", city == null || city.isEmpty() ? UNKNOWN : city
+        );
+    }
+}
@@ -0,0 +1,37 @@
+package com.gregperlinli.certvault.initializer;
+
+import com.gregperlinli.certvault.cache.CaHierarchyIndex;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * CA Hierarchy Index Initializer <br/>
+ * (Load the whole CA tree into memory on startup)
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CaHierarchyIndexInitializer}
+ * @date 2025/5/6 21:30
+ */
+@Component
+@Order
+@Slf4j
+public class CaHierarchyIndexInitializer implements ApplicationRunner {
+
+    @Resource
+    CaHierarchyIndex caHierarchyIndex;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            caHierarchyIndex.rebuild();
+        } catch (Exception e) {
+            // 索引未预热时按需从数据库加载, 不影响启动
+            log.warn("CA Hierarchy Index Initializer: Preload failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.gregperlinli.certvault.initializer;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.domain.entities.StoredCertificate;
+import com.gregperlinli.certvault.service.interfaces.ICaService;
+import com.gregperlinli.certvault.service.interfaces.ICertificateService;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Certificate DER Migrate Initializer <br/>
+ * (Move legacy BASE64 PEM certificates to the DER column in background)
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CertDerMigrateInitializer}
+ * @date 2025/5/15 11:00
+ */
+@Component
+@Order
+@Slf4j
+public class CertDerMigrateInitializer implements ApplicationRunner {
+
+    @Value("${cert-storage.migrate:true}")
+    private Boolean migrate;
+
+    @Value("${cert-storage.migrate-batch-size:500}")
+    private Integer batchSize;
+
+    @Resource
+    ICaService caService;
+
+    @Resource
+    ICertificateService certificateService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if ( !CertStorageUtils.isDerEnabled() || !Boolean.TRUE.equals(migrate) ) {
+            return;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                int caCount = migrate(caService, "ca", Ca::getId, batchSize);
+                int certCount = migrate(certificateService, "certificate", Certificate::getId, batchSize);
+                log.info("Certificate DER Migrate Initializer: Migrated {} CA and {} SSL certificates to DER", caCount, certCount);
+            } catch (Exception e) {
+                log.error("Certificate DER Migrate Initializer: Migration aborted: {}", e.getMessage());
+            }
+        }, "cert-der-migrate");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    /**
+     * Migrate all legacy rows of a table
+     *
+     * @param service   table service
+     * @param table     table name (for logging)
+     * @param idGetter  id getter
+     * @param batchSize rows per batch
+     * @return number of migrated rows
+     * @param <T> entity type
+     */
+    static <T extends StoredCertificate> int migrate(IService<T> service, String table,
+                                                     Function<T, Integer> idGetter, int batchSize) {
+        int migrated = 0;
+        int lastId = 0;
+        while ( true ) {
+            // 1. 按 id 递增分批读取旧格式证书, 只查询 id 与 cert 两列
+            QueryWrapper<T> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id", "cert")
+                    .gt("id", lastId)
+                    .isNotNull("cert")
+                    .isNull("cert_der")
+                    .orderByAsc("id");
+            List<T> rows = service.page(new Page<>(1, batchSize, false), queryWrapper).getRecords();
+            if ( rows.isEmpty() ) {
+                return migrated;
+            }
+            for ( T row : rows ) {
+                lastId = idGetter.apply(row);
+                byte[] der;
+                try {
+                    // 2. 去掉 Base64 与 PEM 两层编码
+                    der = CertStorageUtils.toDer(row.getCert());
+                } catch (Exception e) {
+                    log.warn("Certificate DER Migrate Initializer: Skip {} row {}: {}", table, lastId, e.getMessage());
+                    continue;
+                }
+                // 3. 仅当该行证书未被并发更新为 DER 时才写入
+                UpdateWrapper<T> updateWrapper = new UpdateWrapper<>();
+                updateWrapper.eq("id", lastId)
+                        .isNull("cert_der")
+                        .set("cert_der", der)
+                        .setSql("cert = NULL");
+                if ( service.update(updateWrapper) ) {
+                    migrated++;
+                }
+            }
+            log.debug("Certificate DER Migrate Initializer: {} rows of {} migrated", migrated, table);
+        }
+    }
+}
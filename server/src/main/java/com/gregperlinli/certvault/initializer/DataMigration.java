@@ -0,0 +1,39 @@
+package com.gregperlinli.certvault.initializer;
+
+/**
+ * Versioned Data Migration <br/>
+ * (Migrations that cannot be expressed in SQL, applied by {@link SchemaMigrationInitializer} in version order with the scripts)
+ *
+ * <p>
+ * 与 {@code V{version}__{description}.sql} 共用版本号序列与 {@code schema_migration} 记录, 版本号不能与脚本重复.
+ * 迁移失败时版本不会被登记, 下次启动重新执行, 因此实现必须可重复执行.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code DataMigration}
+ * @date 2025/5/18 18:10
+ */
+public interface DataMigration {
+
+    /**
+     * Version of the migration
+     *
+     * @return version, unique among the migration scripts of every platform
+     */
+    int getVersion();
+
+    /**
+     * Description recorded in {@code schema_migration}
+     *
+     * @return description
+     */
+    String getDescription();
+
+    /**
+     * Apply the migration
+     *
+     * @throws Exception if the migration fails, it is retried on the next startup
+     */
+    void migrate() throws Exception;
+}
@@ -0,0 +1,37 @@
+package com.gregperlinli.certvault.initializer;
+
+import com.gregperlinli.certvault.cache.ExpiryIndex;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expiry Index Initializer <br/>
+ * (Load the expiry of all CAs and SSL certificates into memory on startup)
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code ExpiryIndexInitializer}
+ * @date 2025/5/17 17:00
+ */
+@Component
+@Order
+@Slf4j
+public class ExpiryIndexInitializer implements ApplicationRunner {
+
+    @Resource
+    ExpiryIndex expiryIndex;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            expiryIndex.rebuild();
+        } catch (Exception e) {
+            // 全量重建任务会再次加载, 不影响启动
+            log.warn("Expiry Index Initializer: Preload failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.gregperlinli.certvault.initializer;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.gregperlinli.certvault.crypto.EnvelopeCipher;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.service.interfaces.ICaService;
+import com.gregperlinli.certvault.service.interfaces.ICertificateService;
+import com.gregperlinli.certvault.utils.EncryptAndDecryptUtils;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Private Key Re-Encrypt Initializer <br/>
+ * (Migrate legacy chunked RSA private keys to the v2 envelope format in background)
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code PrivkeyReEncryptInitializer}
+ * @date 2025/5/3 16:40
+ */
+@Component
+@Order
+@Slf4j
+public class PrivkeyReEncryptInitializer implements ApplicationRunner {
+
+    @Value("${encrypt.envelope.enabled:true}")
+    private Boolean envelopeEnabled;
+
+    @Value("${encrypt.envelope.migrate:true}")
+    private Boolean migrate;
+
+    @Value("${encrypt.envelope.migrate-batch-size:500}")
+    private Integer batchSize;
+
+    @Resource
+    ICaService caService;
+
+    @Resource
+    ICertificateService certificateService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if ( !Boolean.TRUE.equals(envelopeEnabled) || !Boolean.TRUE.equals(migrate) ) {
+            return;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                Result caResult = reEncrypt(caService, "ca", Ca::getId, Ca::getPrivkey);
+                Result certResult = reEncrypt(certificateService, "certificate", Certificate::getId, Certificate::getPrivkey);
+                log.info("Private Key Re-Encrypt Initializer: Migrated {} CA and {} certificate private keys to envelope format",
+                        caResult.migrated(), certResult.migrated());
+                if ( caResult.failed() > 0 || certResult.failed() > 0 ) {
+                    log.warn("Private Key Re-Encrypt Initializer: Failed to migrate {} CA and {} certificate private keys, they stay in legacy format",
+                            caResult.failed(), certResult.failed());
+                }
+            } catch (Exception e) {
+                log.error("Private Key Re-Encrypt Initializer: Migration aborted: {}", e.getMessage());
+            }
+        }, "privkey-re-encrypt");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    /**
+     * Re-encrypt all legacy rows of a table, a row that fails is logged and skipped
+     *
+     * @param service  table service
+     * @param table    table name (for logging)
+     * @param idGetter id getter
+     * @param privkeyGetter private key getter
+     * @return numbers of migrated and failed rows
+     * @param <T> entity type
+     */
+    private <T> Result reEncrypt(IService<T> service, String table,
+                                 Function<T, Integer> idGetter, Function<T, String> privkeyGetter) {
+        int migrated = 0;
+        int failed = 0;
+        int lastId = 0;
+        while ( true ) {
+            // 1. 按 id 递增分批读取旧格式私钥, 只查询 id 与 privkey 两列
+            QueryWrapper<T> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id", "privkey")
+                    .gt("id", lastId)
+                    .isNotNull("privkey")
+                    .notLikeRight("privkey", EnvelopeCipher.V2_PREFIX)
+                    .orderByAsc("id");
+            List<T> rows = service.page(new Page<>(1, batchSize, false), queryWrapper).getRecords();
+            if ( rows.isEmpty() ) {
+                return new Result(migrated, failed);
+            }
+            for ( T row : rows ) {
+                String privkey = privkeyGetter.apply(row);
+                lastId = idGetter.apply(row);
+                try {
+                    // 2. 解密旧格式并以信封格式重新加密
+                    String reEncrypted = EncryptAndDecryptUtils.encrypt(EncryptAndDecryptUtils.decrypt(privkey));
+                    // 3. 仅当该行私钥未被并发修改时才更新
+                    UpdateWrapper<T> updateWrapper = new UpdateWrapper<>();
+                    updateWrapper.eq("id", lastId)
+                            .eq("privkey", privkey)
+                            .set("privkey", reEncrypted);
+                    if ( service.update(updateWrapper) ) {
+                        migrated++;
+                    }
+                } catch (Exception e) {
+                    // 单行失败 (如私钥损坏) 不影响其余行, 游标已越过该行
+                    failed++;
+                    log.warn("Private Key Re-Encrypt Initializer: Skip {} row {}: {}", table, lastId, e.getMessage());
+                }
+            }
+            log.debug("Private Key Re-Encrypt Initializer: {} rows of {} migrated, {} failed", migrated, table, failed);
+        }
+    }
+
+    /**
+     * Re-encrypt result of a table
+     *
+     * @param migrated number of migrated rows
+     * @param failed   number of rows that failed to migrate
+     */
+    private record Result(int migrated, int failed) {
+    }
+}
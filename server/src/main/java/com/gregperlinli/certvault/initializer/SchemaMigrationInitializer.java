@@ -0,0 +1,240 @@
+package com.gregperlinli.certvault.initializer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Schema Migration Initializer <br/>
+ * (Apply versioned migration scripts on startup)
+ *
+ * <p>
+ * {@code schema-*.sql} 只负责建表, 之后的结构变更 (如索引) 放在 {@code sql/migration/{platform}/V{version}__{description}.sql},
+ * 按版本号顺序执行, 已执行的版本记录在 {@code schema_migration} 表中, 每个版本只执行一次.
+ * 无法用 SQL 表达的数据迁移 (如需要解析证书) 实现 {@link DataMigration}, 与脚本共用版本号并按顺序执行.
+ * 迁移失败时终止启动.
+ * 整个迁移过程持有数据库级锁 (MySQL {@code GET_LOCK}, PostgreSQL {@code pg_advisory_lock}, H2 为进程内锁),
+ * 多个节点同时启动时只有一个节点执行迁移, 其它节点等待后跳过已执行的版本.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code SchemaMigrationInitializer}
+ * @date 2025/5/13 14:20
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class SchemaMigrationInitializer implements ApplicationRunner {
+
+    private static final Pattern MIGRATION_PATTERN = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private static final String LOCK_NAME = "certvault_schema_migration";
+
+    private static final int LOCK_TIMEOUT_SECONDS = 600;
+
+    /**
+     * 嵌入式 H2 只在本进程内访问, 用进程内锁代替数据库锁
+     */
+    private static final ReentrantLock LOCAL_LOCK = new ReentrantLock();
+
+    private final DataSource dataSource;
+
+    private final String platform;
+
+    private final String migrationTable;
+
+    private final List<DataMigration> dataMigrations;
+
+    public SchemaMigrationInitializer(DataSource dataSource, String platform) {
+        this(dataSource, platform, List.of());
+    }
+
+    @Autowired
+    public SchemaMigrationInitializer(DataSource dataSource,
+                                      @Value("${spring.sql.init.platform:mysql}") String platform,
+                                      List<DataMigration> dataMigrations) {
+        this.dataSource = dataSource;
+        this.platform = platform;
+        this.dataMigrations = dataMigrations;
+        // H2 的表名为带引号的小写
+        this.migrationTable = "h2".equals(platform) ? "\"schema_migration\"" : "schema_migration";
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<Integer> applied = migrate();
+        if ( !applied.isEmpty() ) {
+            log.info("Schema Migration Initializer: Applied migrations {} on {}", applied, platform);
+        }
+    }
+
+    /**
+     * Apply all pending migrations of the platform in version order
+     *
+     * @return versions applied by this call
+     * @throws IOException  if the migration scripts cannot be listed
+     * @throws SQLException if a migration fails, the failed migration is rolled back where the database supports it
+     */
+    List<Integer> migrate() throws IOException, SQLException {
+        // 1. 扫描迁移脚本与数据迁移
+        SortedMap<Integer, Object> migrations = new TreeMap<>();
+        Resource[] resources = new PathMatchingResourcePatternResolver()
+                .getResources("classpath*:/sql/migration/" + platform + "/V*__*.sql");
+        for ( Resource resource : resources ) {
+            Matcher matcher = MIGRATION_PATTERN.matcher(Objects.requireNonNull(resource.getFilename()));
+            if ( !matcher.matches() ) {
+                throw new IllegalStateException("Invalid migration script name: " + resource.getFilename());
+            }
+            if ( migrations.put(Integer.parseInt(matcher.group(1)), resource) != null ) {
+                throw new IllegalStateException("Duplicate migration version: " + resource.getFilename());
+            }
+        }
+        for ( DataMigration dataMigration : dataMigrations ) {
+            if ( migrations.put(dataMigration.getVersion(), dataMigration) != null ) {
+                throw new IllegalStateException("Duplicate migration version: " + dataMigration.getVersion());
+            }
+        }
+        List<Integer> applied = new ArrayList<>();
+        try ( Connection connection = dataSource.getConnection() ) {
+            // 2. 获取迁移锁, 锁内读取已执行的版本, 其它节点执行完毕后这里不会重复执行
+            lock(connection);
+            try {
+                applied.addAll(migrate(connection, migrations));
+            } finally {
+                unlock(connection);
+            }
+        }
+        return applied;
+    }
+
+    private List<Integer> migrate(Connection connection, SortedMap<Integer, Object> migrations) throws SQLException {
+        List<Integer> applied = new ArrayList<>();
+        // 3. 跳过已执行的版本
+        Set<Integer> installed = installedVersions(connection);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for ( Map.Entry<Integer, Object> migration : migrations.entrySet() ) {
+                if ( installed.contains(migration.getKey()) ) {
+                    continue;
+                }
+                // 4. 执行脚本并登记版本, 支持事务性 DDL 的数据库 (PostgreSQL, H2) 失败时整体回滚
+                //    数据迁移使用自己的连接, 失败时不登记版本
+                String description;
+                try {
+                    if ( migration.getValue() instanceof DataMigration dataMigration ) {
+                        description = dataMigration.getDescription();
+                        dataMigration.migrate();
+                    } else {
+                        Resource resource = (Resource) migration.getValue();
+                        description = description(resource);
+                        ScriptUtils.executeSqlScript(connection, new EncodedResource(resource, StandardCharsets.UTF_8));
+                    }
+                    record(connection, migration.getKey(), description);
+                    connection.commit();
+                } catch (Exception e) {
+                    connection.rollback();
+                    throw new SQLException("Migration " + migration.getKey() + " failed", e);
+                }
+                applied.add(migration.getKey());
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return applied;
+    }
+
+    /**
+     * Acquire the session level migration lock on the connection
+     *
+     * @param connection connection the migrations run on
+     * @throws SQLException if the lock cannot be acquired in time
+     */
+    private void lock(Connection connection) throws SQLException {
+        switch ( platform ) {
+            case "mysql" -> {
+                try ( PreparedStatement statement = connection.prepareStatement("select get_lock(?, ?)") ) {
+                    statement.setString(1, LOCK_NAME);
+                    statement.setInt(2, LOCK_TIMEOUT_SECONDS);
+                    try ( ResultSet resultSet = statement.executeQuery() ) {
+                        if ( !resultSet.next() || resultSet.getInt(1) != 1 ) {
+                            throw new SQLException("Timed out waiting for the schema migration lock " + LOCK_NAME);
+                        }
+                    }
+                }
+            }
+            case "postgresql" -> {
+                try ( PreparedStatement statement = connection.prepareStatement("select pg_advisory_lock(hashtext(?))") ) {
+                    statement.setString(1, LOCK_NAME);
+                    statement.execute();
+                }
+            }
+            default -> LOCAL_LOCK.lock();
+        }
+    }
+
+    private void unlock(Connection connection) {
+        String sql = switch ( platform ) {
+            case "mysql" -> "select release_lock(?)";
+            case "postgresql" -> "select pg_advisory_unlock(hashtext(?))";
+            default -> null;
+        };
+        if ( sql == null ) {
+            LOCAL_LOCK.unlock();
+            return;
+        }
+        try ( PreparedStatement statement = connection.prepareStatement(sql) ) {
+            statement.setString(1, LOCK_NAME);
+            statement.execute();
+        } catch (SQLException e) {
+            // 会话级锁在数据库会话结束时释放
+            log.warn("Schema Migration Initializer: Failed to release migration lock: {}", e.getMessage());
+        }
+    }
+
+    private Set<Integer> installedVersions(Connection connection) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try ( Statement statement = connection.createStatement();
+              ResultSet resultSet = statement.executeQuery("select version from " + migrationTable) ) {
+            while ( resultSet.next() ) {
+                versions.add(resultSet.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    private String description(Resource resource) {
+        Matcher matcher = MIGRATION_PATTERN.matcher(Objects.requireNonNull(resource.getFilename()));
+        return matcher.matches() ? matcher.group(2).replace('_', ' ') : resource.getFilename();
+    }
+
+    private void record(Connection connection, int version, String description) throws SQLException {
+        try ( PreparedStatement statement = connection.prepareStatement(
+                "insert into " + migrationTable + " (version, description, installed_at) values (?, ?, ?)") ) {
+            statement.setInt(1, version);
+            statement.setString(2, description);
+            statement.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            statement.executeUpdate();
+        }
+    }
+}
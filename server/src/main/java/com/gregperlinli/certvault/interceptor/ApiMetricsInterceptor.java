@@ -0,0 +1,77 @@
+package com.gregperlinli.certvault.interceptor;
+
+import com.gregperlinli.certvault.constant.PrometheusConstant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API Metrics Interceptor
+ *
+ * <p>
+ * 为每个控制器接口记录请求次数 ({@code api.request.count}) 与耗时 ({@code api.request.duration}),
+ * 标签取自 {@link PrometheusConstant}: HTTP 状态码、控制器类、路径模板、请求方法与 {@code ResultVO} 结果码.
+ * 结果码由 {@link ApiMetricsResponseAdvice} 在写出响应体前记录, 非 {@code ResultVO} 响应 (如文件下载) 为 {@code none}.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code ApiMetricsInterceptor}
+ * @date 2025/5/17 20:30
+ */
+@Component
+public class ApiMetricsInterceptor implements HandlerInterceptor {
+
+    static final String START_ATTRIBUTE = ApiMetricsInterceptor.class.getName() + ".start";
+
+    static final String CODE_ATTRIBUTE = ApiMetricsInterceptor.class.getName() + ".code";
+
+    private final MeterRegistry meterRegistry;
+
+    public ApiMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if ( !( handler instanceof HandlerMethod handlerMethod ) || !( request.getAttribute(START_ATTRIBUTE) instanceof Long start ) ) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Object code = request.getAttribute(CODE_ATTRIBUTE);
+        // 未处理的异常在此之后才会被转换为 500
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+        Tags tags = Tags.of(
+                PrometheusConstant.API_CODE.getName(), String.valueOf(status),
+                PrometheusConstant.CONTROLLER.getName(), handlerMethod.getBeanType().getSimpleName(),
+                PrometheusConstant.PATH.getName(), pattern == null ? "UNKNOWN" : pattern.toString(),
+                PrometheusConstant.METHOD.getName(), request.getMethod(),
+                PrometheusConstant.CODE.getName(), code == null ? "none" : code.toString()
+        );
+        Counter.builder(PrometheusConstant.PROMETHEUS_METRICS.getName())
+                .description(PrometheusConstant.PROMETHEUS_METRICS.getDescription())
+                .tags(tags)
+                .register(meterRegistry)
+                .increment();
+        Timer.builder(PrometheusConstant.API_REQUEST_DURATION.getName())
+                .description(PrometheusConstant.API_REQUEST_DURATION.getDescription())
+                .tags(tags)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,43 @@
+package com.gregperlinli.certvault.interceptor;
+
+import com.gregperlinli.certvault.domain.vo.ResultVO;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * API Metrics Response Advice
+ *
+ * <p>
+ * 在写出响应体前记录 {@link ResultVO} 的结果码, 供 {@link ApiMetricsInterceptor} 作为 {@code code} 标签使用.
+ * 全局异常处理返回的 {@code ResultVO} 同样会被记录.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code ApiMetricsResponseAdvice}
+ * @date 2025/5/17 20:35
+ */
+@RestControllerAdvice
+public class ApiMetricsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if ( body instanceof ResultVO<?> resultVO && request instanceof ServletServerHttpRequest servletRequest ) {
+            servletRequest.getServletRequest().setAttribute(ApiMetricsInterceptor.CODE_ATTRIBUTE, resultVO.getCode());
+        }
+        return body;
+    }
+}
@@ -1,7 +1,13 @@
 package com.gregperlinli.certvault.mapper;
 
 import com.gregperlinli.certvault.domain.entities.Ca;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 
 /**
@@ -14,5 +20,32 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface CaMapper extends BaseMapper<Ca> {
 
-}
+    /**
+     * Select the CA and all of its ancestors in one recursive query <br/>
+     * (Only {@code uuid}, {@code parent_ca}, {@code cert} and {@code cert_der} are populated, ordered from the CA itself up to the root)
+     *
+     * @param uuid CA UUID
+     * @param maxDepth max number of hops, guards against cyclic parent references
+     * @return CA chain
+     */
+    List<Ca> selectCaChain(@Param("uuid") String uuid, @Param("maxDepth") Integer maxDepth);
+
+    /**
+     * Select a page of CAs for list views <br/>
+     * (The heavy {@code privkey} and {@code cert} columns are not loaded and left {@code null})
+     *
+     * @param page page, {@code COUNT} is executed unless disabled on the page
+     * @param queryWrapper conditions and ordering
+     * @return page of CAs
+     * @param <P> page type
+     */
+    <P extends IPage<Ca>> P selectInfoPage(P page, @Param(Constants.WRAPPER) Wrapper<Ca> queryWrapper);
 
+    /**
+     * Whether the {@code pg_trgm} extension is installed (PostgreSQL only)
+     *
+     * @return {@code true} if installed
+     */
+    Boolean selectTrigramAvailable();
+
+}
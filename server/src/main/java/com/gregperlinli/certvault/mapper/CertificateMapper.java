@@ -1,7 +1,11 @@
 package com.gregperlinli.certvault.mapper;
 
 import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import org.apache.ibatis.annotations.Param;
 
 
 /**
@@ -14,5 +18,16 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface CertificateMapper extends BaseMapper<Certificate> {
 
+    /**
+     * Select a page of SSL certificates for list views <br/>
+     * (The heavy {@code privkey} and {@code cert} columns are not loaded and left {@code null})
+     *
+     * @param page page, {@code COUNT} is executed unless disabled on the page
+     * @param queryWrapper conditions and ordering
+     * @return page of SSL certificates
+     * @param <P> page type
+     */
+    <P extends IPage<Certificate>> P selectInfoPage(P page, @Param(Constants.WRAPPER) Wrapper<Certificate> queryWrapper);
+
 }
 
@@ -0,0 +1,17 @@
+package com.gregperlinli.certvault.mapper;
+
+import com.gregperlinli.certvault.domain.entities.CrlNumber;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+
+/**
+ * <p>
+ * CRL 编号序列 Mapper 接口
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @since 2025-05-16
+ */
+public interface CrlNumberMapper extends BaseMapper<CrlNumber> {
+
+}
@@ -2,7 +2,9 @@ package com.gregperlinli.certvault.mapper;
 
 import com.gregperlinli.certvault.domain.entities.LoginRecord;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
 
 /**
  * <p>
@@ -14,5 +16,13 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface LoginRecordMapper extends BaseMapper<LoginRecord> {
 
+    /**
+     * Insert login records with one multi-row INSERT statement
+     *
+     * @param records login records
+     * @return number of inserted rows
+     */
+    int insertBatch(@Param("records") List<LoginRecord> records);
+
 }
 
@@ -0,0 +1,17 @@
+package com.gregperlinli.certvault.mapper;
+
+import com.gregperlinli.certvault.domain.entities.RenewalPolicy;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+
+/**
+ * <p>
+ * 自动续期策略 Mapper 接口
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @since 2025-05-16
+ */
+public interface RenewalPolicyMapper extends BaseMapper<RenewalPolicy> {
+
+}
@@ -0,0 +1,17 @@
+package com.gregperlinli.certvault.mapper;
+
+import com.gregperlinli.certvault.domain.entities.RevokedCertificate;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+
+/**
+ * <p>
+ * 已吊销证书 Mapper 接口
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @since 2025-05-16
+ */
+public interface RevokedCertificateMapper extends BaseMapper<RevokedCertificate> {
+
+}
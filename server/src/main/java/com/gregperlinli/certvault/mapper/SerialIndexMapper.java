@@ -0,0 +1,17 @@
+package com.gregperlinli.certvault.mapper;
+
+import com.gregperlinli.certvault.domain.entities.SerialIndex;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+
+/**
+ * <p>
+ * 已分配证书序列号 Mapper 接口
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @since 2025-05-12
+ */
+public interface SerialIndexMapper extends BaseMapper<SerialIndex> {
+
+}
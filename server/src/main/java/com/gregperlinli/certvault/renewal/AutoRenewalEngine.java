@@ -0,0 +1,388 @@
+package com.gregperlinli.certvault.renewal;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.gregperlinli.certvault.async.BulkCertIssuer;
+import com.gregperlinli.certvault.cache.CaSigningKeyCache;
+import com.gregperlinli.certvault.cache.ExpiryIndex;
+import com.gregperlinli.certvault.config.properties.AutoRenewalProperties;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.domain.entities.*;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import com.gregperlinli.certvault.mapper.RenewalPolicyMapper;
+import com.gregperlinli.certvault.mapper.RevokedCertificateMapper;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Automatic SSL Certificate Renewal Engine
+ *
+ * <p>
+ * 按 {@code auto-renewal.interval} 定期从 {@link ExpiryIndex} 中挑选进入续期窗口的证书,
+ * 证书策略优先于其签发 CA 的策略 (已禁用的证书策略表示不参与 CA 策略).
+ * 到期证书按签发 CA 分组, 每组先获取 Redis 租约, 保证集群中只有一个节点处理该 CA;
+ * 每组只解密一次 CA 私钥, 通过 {@link BulkCertIssuer} 并行续期, 每 {@code auto-renewal.commit-batch-size} 张证书续约租约并提交一次事务,
+ * 租约已失效时放弃该批结果.
+ * 续期前会重新读取证书, 已删除、已吊销或已被其它途径续期的证书将被跳过;
+ * 提交时以读取到的到期时间为条件更新, 并排除期间被删除或吊销的证书.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code AutoRenewalEngine}
+ * @date 2025/5/17 18:40
+ */
+@Component
+@Slf4j
+public class AutoRenewalEngine {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private static final RedisScript<Long> EXTEND_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RenewalPolicyMapper renewalPolicyMapper;
+
+    private final CaMapper caMapper;
+
+    private final CertificateMapper certificateMapper;
+
+    private final RevokedCertificateMapper revokedCertificateMapper;
+
+    private final CaSigningKeyCache caSigningKeyCache;
+
+    private final ExpiryIndex expiryIndex;
+
+    private final BulkCertIssuer bulkCertIssuer;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AutoRenewalProperties properties;
+
+    private ScheduledExecutorService scheduler;
+
+    public AutoRenewalEngine(RenewalPolicyMapper renewalPolicyMapper,
+                             CaMapper caMapper,
+                             CertificateMapper certificateMapper,
+                             RevokedCertificateMapper revokedCertificateMapper,
+                             CaSigningKeyCache caSigningKeyCache,
+                             ExpiryIndex expiryIndex,
+                             BulkCertIssuer bulkCertIssuer,
+                             StringRedisTemplate stringRedisTemplate,
+                             TransactionTemplate transactionTemplate,
+                             AutoRenewalProperties properties) {
+        this.renewalPolicyMapper = renewalPolicyMapper;
+        this.caMapper = caMapper;
+        this.certificateMapper = certificateMapper;
+        this.revokedCertificateMapper = revokedCertificateMapper;
+        this.caSigningKeyCache = caSigningKeyCache;
+        this.expiryIndex = expiryIndex;
+        this.bulkCertIssuer = bulkCertIssuer;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void init() {
+        if ( !Boolean.TRUE.equals(properties.getEnabled()) ) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auto-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                run();
+            } catch (Exception e) {
+                log.warn("Automatic renewal failed: {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if ( scheduler != null ) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Renew all certificates due according to their policies
+     *
+     * @return number of renewed certificates
+     */
+    public synchronized int run() {
+        // 1. 加载策略
+        Map<String, RenewalPolicy> caPolicies = new HashMap<>();
+        Map<String, RenewalPolicy> certPolicies = new HashMap<>();
+        int maxRenewBeforeDays = 0;
+        for ( RenewalPolicy policy : renewalPolicyMapper.selectList(null) ) {
+            if ( policy.getCertUuid() != null ) {
+                certPolicies.put(policy.getCertUuid(), policy);
+            } else if ( policy.getCaUuid() != null ) {
+                caPolicies.put(policy.getCaUuid(), policy);
+            }
+            if ( Boolean.TRUE.equals(policy.getEnabled()) ) {
+                maxRenewBeforeDays = Math.max(maxRenewBeforeDays, policy.getRenewBeforeDays());
+            }
+        }
+        if ( maxRenewBeforeDays <= 0 ) {
+            return 0;
+        }
+        Policies policies = new Policies(caPolicies, certPolicies);
+
+        // 2. 从到期索引中挑选到期证书并按签发 CA 分组
+        long now = System.currentTimeMillis();
+        Map<String, List<String>> groups = expiryIndex.expiring(ExpiryIndex.Target.CERTIFICATE, Duration.ofDays(maxRenewBeforeDays),
+                        entry -> isDue(policies.of(entry.getUuid(), entry.getCaUuid()), entry.getNotAfter(), now))
+                .stream()
+                .filter(entry -> entry.getCaUuid() != null)
+                .collect(Collectors.groupingBy(ExpiryIndex.Entry::getCaUuid, LinkedHashMap::new,
+                        Collectors.mapping(ExpiryIndex.Entry::getUuid, Collectors.toList())));
+
+        // 3. 每个 CA 持有租约后续期
+        int renewed = 0;
+        for ( Map.Entry<String, List<String>> group : groups.entrySet() ) {
+            String leaseKey = RedisKeyConstant.RENEWAL_LEASE.join(group.getKey());
+            if ( !acquire(leaseKey) ) {
+                log.debug("Renewal of CA {} is leased by another node, skipped.", group.getKey());
+                continue;
+            }
+            try {
+                renewed += renewGroup(group.getKey(), group.getValue(), policies, leaseKey);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Automatic renewal of CA {} failed: {}", group.getKey(), e.getMessage());
+            } finally {
+                release(leaseKey);
+            }
+        }
+        if ( renewed > 0 ) {
+            log.info("Automatically renewed {} certificates of {} CAs.", renewed, groups.size());
+        }
+        return renewed;
+    }
+
+    private int renewGroup(String caUuid, List<String> uuids, Policies policies, String leaseKey) throws Exception {
+        QueryWrapper<Ca> caQueryWrapper = new QueryWrapper<>();
+        caQueryWrapper.eq("uuid", caUuid)
+                .eq("available", true)
+                .eq("deleted", false);
+        Ca ca = caMapper.selectOne(caQueryWrapper);
+        if ( ca == null ) {
+            log.warn("CA {} is unavailable, {} certificates are not renewed.", caUuid, uuids.size());
+            return 0;
+        }
+        // 每组只解密一次 CA 私钥
+        CaSigningKey caSigningKey = caSigningKeyCache.get(ca);
+        long caNotAfter = caSigningKey.getCertHolder().getNotAfter().getTime();
+        int batchSize = Math.max(1, properties.getCommitBatchSize());
+        int renewed = 0;
+        for ( int from = 0; from < uuids.size(); from += batchSize ) {
+            List<String> batch = uuids.subList(from, Math.min(from + batchSize, uuids.size()));
+            long now = System.currentTimeMillis();
+
+            // 1. 重新读取证书, 跳过已删除、已吊销或已不在续期窗口内的证书
+            QueryWrapper<Certificate> certificateQueryWrapper = new QueryWrapper<>();
+            certificateQueryWrapper.eq("ca_uuid", caUuid)
+                    .in("uuid", batch)
+                    .eq("deleted", false);
+            Set<String> revoked = revoked(caUuid, batch);
+            List<Certificate> due = new ArrayList<>();
+            List<CertRenewRequest> requests = new ArrayList<>();
+            for ( Certificate certificate : certificateMapper.selectList(certificateQueryWrapper) ) {
+                RenewalPolicy policy = policies.of(certificate.getUuid(), caUuid);
+                if ( revoked.contains(certificate.getUuid()) || !isDue(policy, toMillis(certificate.getNotAfter()), now) ) {
+                    continue;
+                }
+                int validityDays = validityDays(policy, certificate, now, caNotAfter);
+                if ( validityDays < 1 ) {
+                    log.warn("CA {} expires too soon to renew certificate {}.", caUuid, certificate.getUuid());
+                    continue;
+                }
+                due.add(certificate);
+                requests.add(new CertRenewRequest()
+                        .setCaSigningKey(caSigningKey)
+                        .setUuid(certificate.getUuid())
+                        .setOldCert(CertStorageUtils.toBase64(certificate))
+                        .setNewExpiry(validityDays)
+                        .setComment(certificate.getComment()));
+            }
+            if ( requests.isEmpty() ) {
+                continue;
+            }
+
+            // 2. 并行续期
+            GenResponse[] results = new GenResponse[requests.size()];
+            bulkCertIssuer.renew(requests, (index, genResponse, error) -> {
+                if ( error != null ) {
+                    log.warn("Failed to renew certificate {}: {}", requests.get(index).getUuid(), error.getMessage());
+                } else {
+                    results[index] = genResponse;
+                }
+            });
+
+            // 3. 提交前续约, 租约已失效时放弃本批并停止处理该 CA
+            if ( !extend(leaseKey) ) {
+                log.warn("Renewal lease of CA {} was lost, the remaining certificates are left to the next run.", caUuid);
+                break;
+            }
+
+            // 4. 批量提交
+            renewed += commit(caUuid, due, results);
+        }
+        return renewed;
+    }
+
+    private int commit(String caUuid, List<Certificate> due, GenResponse[] results) {
+        List<String> renewedUuids = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            // 签发期间被吊销的证书不再更新
+            Set<String> revoked = revoked(caUuid, due.stream().map(Certificate::getUuid).toList());
+            for ( int i = 0; i < results.length; i++ ) {
+                if ( results[i] == null ) {
+                    continue;
+                }
+                if ( revoked.contains(due.get(i).getUuid()) ) {
+                    log.info("Certificate {} was revoked during renewal, skipped.", due.get(i).getUuid());
+                    continue;
+                }
+                Certificate certificate = new Certificate();
+                CertStorageUtils.store(certificate, results[i].getCert());
+                certificate.setNotBefore(results[i].getNotBefore());
+                certificate.setNotAfter(results[i].getNotAfter());
+                certificate.setModifiedAt(now);
+                // 仅当证书仍为读取时的版本且未被删除时更新
+                UpdateWrapper<Certificate> certificateUpdateWrapper = new UpdateWrapper<>();
+                certificateUpdateWrapper.eq("uuid", due.get(i).getUuid())
+                        .eq("not_after", due.get(i).getNotAfter())
+                        .eq("deleted", false);
+                CertStorageUtils.clearUnused(certificateUpdateWrapper, certificate);
+                if ( certificateMapper.update(certificate, certificateUpdateWrapper) > 0 ) {
+                    renewedUuids.add(due.get(i).getUuid());
+                } else {
+                    log.info("Certificate {} was changed or deleted during renewal, skipped.", due.get(i).getUuid());
+                }
+            }
+        });
+        expiryIndex.refresh(ExpiryIndex.Target.CERTIFICATE, renewedUuids);
+        return renewedUuids.size();
+    }
+
+    /**
+     * UUIDs of the certificates of a CA that are revoked
+     */
+    private Set<String> revoked(String caUuid, Collection<String> uuids) {
+        if ( uuids.isEmpty() ) {
+            return Set.of();
+        }
+        QueryWrapper<RevokedCertificate> revokedQueryWrapper = new QueryWrapper<>();
+        revokedQueryWrapper.select("cert_uuid")
+                .eq("ca_uuid", caUuid)
+                .in("cert_uuid", uuids);
+        return revokedCertificateMapper.selectList(revokedQueryWrapper).stream()
+                .map(RevokedCertificate::getCertUuid)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Validity of the renewed certificate, the policy or the current validity, capped at the expiry of the CA
+     */
+    private static int validityDays(RenewalPolicy policy, Certificate certificate, long now, long caNotAfter) {
+        long days = policy.getValidityDays() != null
+                ? policy.getValidityDays()
+                : Math.max(1, ( toMillis(certificate.getNotAfter()) - toMillis(certificate.getNotBefore()) ) / DAY_MILLIS);
+        return (int) Math.min(days, ( caNotAfter - now ) / DAY_MILLIS);
+    }
+
+    private static boolean isDue(RenewalPolicy policy, long notAfter, long now) {
+        return policy != null &&
+                Boolean.TRUE.equals(policy.getEnabled()) &&
+                notAfter > now &&
+                notAfter <= now + policy.getRenewBeforeDays() * DAY_MILLIS;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private boolean acquire(String leaseKey) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(leaseKey, nodeId, properties.getLeaseTtl()));
+        } catch (Exception e) {
+            log.warn("Failed to acquire renewal lease {}: {}", leaseKey, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean extend(String leaseKey) {
+        try {
+            Long result = stringRedisTemplate.execute(EXTEND_SCRIPT, List.of(leaseKey), nodeId,
+                    String.valueOf(properties.getLeaseTtl().toMillis()));
+            return result != null && result > 0;
+        } catch (Exception e) {
+            log.warn("Failed to extend renewal lease {}: {}", leaseKey, e.getMessage());
+            return false;
+        }
+    }
+
+    private void release(String leaseKey) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey), nodeId);
+        } catch (Exception e) {
+            // 租约到期后自动释放
+            log.warn("Failed to release renewal lease {}: {}", leaseKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Policies of one run, a certificate policy takes precedence over the policy of its CA
+     */
+    private static final class Policies {
+
+        private final Map<String, RenewalPolicy> caPolicies;
+
+        private final Map<String, RenewalPolicy> certPolicies;
+
+        Policies(Map<String, RenewalPolicy> caPolicies, Map<String, RenewalPolicy> certPolicies) {
+            this.caPolicies = caPolicies;
+            this.certPolicies = certPolicies;
+        }
+
+        RenewalPolicy of(String certUuid, String caUuid) {
+            RenewalPolicy policy = certPolicies.get(certUuid);
+            return policy != null ? policy : caPolicies.get(caUuid);
+        }
+    }
+}
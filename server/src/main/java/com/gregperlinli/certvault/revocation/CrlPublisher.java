@@ -0,0 +1,380 @@
+package com.gregperlinli.certvault.revocation;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.gregperlinli.certvault.cache.CaHierarchyIndex;
+import com.gregperlinli.certvault.cache.CaSigningKeyCache;
+import com.gregperlinli.certvault.config.properties.CrlProperties;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.CaCrl;
+import com.gregperlinli.certvault.domain.entities.CaSigningKey;
+import com.gregperlinli.certvault.domain.entities.CrlNumber;
+import com.gregperlinli.certvault.domain.entities.RevokedCertificate;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CrlNumberMapper;
+import com.gregperlinli.certvault.mapper.RevokedCertificateMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.asn1.x509.*;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Certificate Revocation List Publisher
+ *
+ * <p>
+ * 按 CA 在内存中保存已签名的完整 CRL 与增量 CRL (DER), 获取 CRL 时直接返回预编码的字节, 不访问数据库.
+ * 完整 CRL 按 {@code crl.full-interval} 从 {@code revoked_certificate} 重新加载并签名;
+ * 新的吊销只重新签名一个增量 CRL (包含完整 CRL 之后的所有吊销), 增量过大时改为重新签名完整 CRL.
+ * 吊销通过 Redis pub/sub 通知其它节点, 其它节点按吊销时间增量加载: 每次回看 {@code crl.revocation-lookback},
+ * 并按吊销 ID 去重, 事务提交顺序与 ID 顺序不一致的吊销不会被跳过 (超出回看窗口的由下一次完整 CRL 包含).
+ * CRL 编号从数据库 {@code crl_number} 按 CA 分配, 集群中单调递增, 完整与增量 CRL 共用同一序列.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CrlPublisher}
+ * @date 2025/5/16 10:40
+ */
+@Component
+@Slf4j
+public class CrlPublisher implements MessageListener {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, CaCrl> crls = new ConcurrentHashMap<>();
+
+    private final CaMapper caMapper;
+
+    private final RevokedCertificateMapper revokedCertificateMapper;
+
+    private final CrlNumberMapper crlNumberMapper;
+
+    private final CaSigningKeyCache caSigningKeyCache;
+
+    private final CaHierarchyIndex caHierarchyIndex;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CrlProperties properties;
+
+    public CrlPublisher(CaMapper caMapper,
+                        RevokedCertificateMapper revokedCertificateMapper,
+                        CrlNumberMapper crlNumberMapper,
+                        CaSigningKeyCache caSigningKeyCache,
+                        CaHierarchyIndex caHierarchyIndex,
+                        StringRedisTemplate stringRedisTemplate,
+                        RedisMessageListenerContainer listenerContainer,
+                        TransactionTemplate transactionTemplate,
+                        CrlProperties properties) {
+        this.caMapper = caMapper;
+        this.revokedCertificateMapper = revokedCertificateMapper;
+        this.crlNumberMapper = crlNumberMapper;
+        this.caSigningKeyCache = caSigningKeyCache;
+        this.caHierarchyIndex = caHierarchyIndex;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(RedisKeyConstant.CRL_CHANNEL.getKeyPrefix()));
+    }
+
+    /**
+     * Get the current CRLs of a CA, signed on the first fetch and when due
+     *
+     * @param caUuid CA UUID
+     * @return {@link CaCrl}, or {@code null} if the CA does not exist
+     */
+    public CaCrl get(String caUuid) {
+        CaCrl crl = crls.get(caUuid);
+        if ( crl != null && !isFullDue(crl) && !isDeltaDue(crl) ) {
+            return crl;
+        }
+        if ( caHierarchyIndex.get(caUuid) == null ) {
+            crls.remove(caUuid);
+            return null;
+        }
+        return refreshIfDue(caUuid);
+    }
+
+    /**
+     * Publish a revocation made by this node, after the current transaction commits
+     *
+     * @param caUuid CA UUID
+     * @param serial serial number of the revoked certificate (hex)
+     */
+    public void revoked(String caUuid, String serial) {
+        Runnable task = () -> {
+            try {
+                update(caUuid);
+            } catch (Exception e) {
+                // 下一次完整 CRL 会包含该吊销
+                log.error("Failed to sign delta CRL of CA {}: {}", caUuid, e.getMessage());
+            }
+            publish(caUuid, serial);
+        };
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Drop the CRLs of a CA, they are signed again on the next fetch
+     *
+     * @param caUuid CA UUID
+     */
+    public void invalidate(String caUuid) {
+        if ( caUuid != null ) {
+            crls.remove(caUuid);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if ( separator < 0 || nodeId.equals(body.substring(0, separator)) ) {
+            return;
+        }
+        // 消息格式: nodeId|caUuid|serial
+        String payload = body.substring(separator + 1);
+        int serialSeparator = payload.indexOf('|');
+        String caUuid = serialSeparator < 0 ? payload : payload.substring(0, serialSeparator);
+        try {
+            update(caUuid);
+        } catch (Exception e) {
+            log.warn("Failed to sign delta CRL of CA {}: {}", caUuid, e.getMessage());
+            crls.remove(caUuid);
+        }
+    }
+
+    /**
+     * Append the revocations not yet included to the delta CRL
+     *
+     * @param caUuid CA UUID
+     * @throws Exception if the CRL cannot be signed
+     */
+    synchronized void update(String caUuid) throws Exception {
+        CaCrl crl = crls.get(caUuid);
+        if ( crl == null ) {
+            // 尚未生成过 CRL, 首次获取时会完整加载
+            return;
+        }
+        LocalDateTime cursor = crl.getCursor();
+        List<RevokedCertificate> added = loadRevocations(caUuid, cursor == null ? null : cursor.minus(properties.getRevocationLookback()))
+                .stream()
+                .filter(entry -> !crl.includes(entry.getId()))
+                .toList();
+        if ( added.isEmpty() ) {
+            return;
+        }
+        if ( crl.getDeltaEntries().size() + added.size() > properties.getDeltaMaxEntries() ) {
+            signFull(caUuid);
+            return;
+        }
+        List<RevokedCertificate> deltaEntries = new ArrayList<>(crl.getDeltaEntries());
+        deltaEntries.addAll(added);
+        signDelta(crl, deltaEntries);
+    }
+
+    private synchronized CaCrl refreshIfDue(String caUuid) {
+        CaCrl crl = crls.get(caUuid);
+        try {
+            if ( crl == null || isFullDue(crl) ) {
+                return signFull(caUuid);
+            }
+            if ( isDeltaDue(crl) ) {
+                return signDelta(crl, crl.getDeltaEntries());
+            }
+            return crl;
+        } catch (Exception e) {
+            log.error("Failed to sign CRL of CA {}: {}", caUuid, e.getMessage());
+            // 签名失败时继续提供未过期的旧 CRL
+            return crl;
+        }
+    }
+
+    private CaCrl signFull(String caUuid) throws Exception {
+        CaSigningKey signingKey = loadSigningKey(caUuid);
+        if ( signingKey == null ) {
+            crls.remove(caUuid);
+            return null;
+        }
+        // 1. 加载该 CA 的全部吊销记录
+        List<RevokedCertificate> entries = loadRevocations(caUuid, null);
+        Set<Long> fullIds = new HashSet<>();
+        entries.forEach(entry -> fullIds.add(entry.getId()));
+        LocalDateTime fullCursor = entries.isEmpty() ? null : entries.get(entries.size() - 1).getRevokedAt();
+        // 2. 签名完整 CRL
+        Instant thisUpdate = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        BigInteger fullNumber = nextNumber(caUuid);
+        X509v2CRLBuilder builder = builder(signingKey.getCertHolder(), thisUpdate, properties.getFullValidity().toMillis(), fullNumber);
+        if ( properties.getBaseUrl() != null && !properties.getBaseUrl().isEmpty() ) {
+            // 指向增量 CRL
+            GeneralNames deltaUrl = new GeneralNames(new GeneralName(GeneralName.uniformResourceIdentifier,
+                    properties.getBaseUrl().replaceAll("/+$", "") + "/api/v1/pki/crl/" + caUuid + "/delta"));
+            builder.addExtension(Extension.freshestCRL, false,
+                    new CRLDistPoint(new DistributionPoint[]{new DistributionPoint(new DistributionPointName(deltaUrl), null, null)}));
+        }
+        addEntries(builder, entries);
+        byte[] full = builder.build(CryptoBootstrap.contentSigner(signingKey.getPrivateKey())).getEncoded();
+        // 3. 签名空的增量 CRL
+        CaCrl crl = new CaCrl(caUuid, fullNumber, full, thisUpdate, Set.copyOf(fullIds), fullCursor, fullNumber, null, null, List.of());
+        CaCrl signed = signDelta(crl, List.of(), signingKey);
+        log.debug("Full CRL {} of CA {} signed with {} entries", fullNumber, caUuid, entries.size());
+        return signed;
+    }
+
+    private CaCrl signDelta(CaCrl crl, List<RevokedCertificate> deltaEntries) throws Exception {
+        CaSigningKey signingKey = loadSigningKey(crl.getCaUuid());
+        if ( signingKey == null ) {
+            crls.remove(crl.getCaUuid());
+            return null;
+        }
+        return signDelta(crl, deltaEntries, signingKey);
+    }
+
+    private CaCrl signDelta(CaCrl crl, List<RevokedCertificate> deltaEntries, CaSigningKey signingKey) throws Exception {
+        Instant thisUpdate = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        BigInteger deltaNumber = nextNumber(crl.getCaUuid());
+        X509v2CRLBuilder builder = builder(signingKey.getCertHolder(), thisUpdate, properties.getDeltaValidity().toMillis(), deltaNumber);
+        builder.addExtension(Extension.deltaCRLIndicator, true, new CRLNumber(crl.getFullNumber()));
+        addEntries(builder, deltaEntries);
+        byte[] delta = builder.build(CryptoBootstrap.contentSigner(signingKey.getPrivateKey())).getEncoded();
+        CaCrl signed = new CaCrl(crl.getCaUuid(), crl.getFullNumber(), crl.getFull(), crl.getFullThisUpdate(), crl.getFullIds(),
+                crl.getFullCursor(), deltaNumber, delta, thisUpdate, List.copyOf(deltaEntries));
+        crls.put(crl.getCaUuid(), signed);
+        return signed;
+    }
+
+    private CaSigningKey loadSigningKey(String caUuid) throws Exception {
+        Ca ca = caMapper.selectOne(new QueryWrapper<Ca>()
+                .select("uuid", "privkey", "cert", "cert_der")
+                .eq("uuid", caUuid)
+                .eq("deleted", false));
+        return ca == null ? null : caSigningKeyCache.get(ca);
+    }
+
+    /**
+     * Load the revocations of a CA in revocation time order
+     *
+     * @param caUuid CA UUID
+     * @param since  earliest {@code revoked_at} to load, {@code null} for all
+     * @return revocations
+     */
+    private List<RevokedCertificate> loadRevocations(String caUuid, LocalDateTime since) {
+        return revokedCertificateMapper.selectList(new QueryWrapper<RevokedCertificate>()
+                .select("id", "serial", "reason", "revoked_at")
+                .eq("ca_uuid", caUuid)
+                .ge(since != null, "revoked_at", since)
+                .orderByAsc("revoked_at", "id"));
+    }
+
+    /**
+     * Allocate the next CRL number of a CA from {@code crl_number}, monotonic across all nodes
+     *
+     * @param caUuid CA UUID
+     * @return CRL number
+     */
+    private BigInteger nextNumber(String caUuid) {
+        while ( true ) {
+            // 1. 行锁内递增并读取
+            Long number = transactionTemplate.execute(status -> {
+                UpdateWrapper<CrlNumber> crlNumberUpdateWrapper = new UpdateWrapper<>();
+                crlNumberUpdateWrapper.eq("ca_uuid", caUuid)
+                        .setSql("last_number = last_number + 1")
+                        .set("modified_at", LocalDateTime.now());
+                if ( crlNumberMapper.update(crlNumberUpdateWrapper) == 0 ) {
+                    return null;
+                }
+                return crlNumberMapper.selectById(caUuid).getLastNumber();
+            });
+            if ( number != null ) {
+                return BigInteger.valueOf(number);
+            }
+            // 2. 首个编号使用毫秒时间戳, 大于此前按时间戳分配的编号
+            CrlNumber crlNumber = new CrlNumber();
+            crlNumber.setCaUuid(caUuid);
+            crlNumber.setLastNumber(System.currentTimeMillis());
+            crlNumber.setModifiedAt(LocalDateTime.now());
+            try {
+                crlNumberMapper.insert(crlNumber);
+                return BigInteger.valueOf(crlNumber.getLastNumber());
+            } catch (DuplicateKeyException e) {
+                // 其它节点同时插入, 重新递增
+            }
+        }
+    }
+
+    private boolean isFullDue(CaCrl crl) {
+        return !Instant.now().isBefore(crl.getFullThisUpdate().plus(properties.getFullInterval()));
+    }
+
+    private boolean isDeltaDue(CaCrl crl) {
+        // 在有效期过半时重新签名, 依赖方不会拿到过期的增量 CRL
+        return !Instant.now().isBefore(crl.getDeltaThisUpdate().plus(properties.getDeltaValidity().dividedBy(2)));
+    }
+
+    private void publish(String caUuid, String serial) {
+        try {
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.CRL_CHANNEL.getKeyPrefix(), nodeId + "|" + caUuid + "|" + serial);
+        } catch (Exception e) {
+            log.warn("Failed to publish revocation of CA {}: {}", caUuid, e.getMessage());
+        }
+    }
+
+    private static X509v2CRLBuilder builder(X509CertificateHolder caCert, Instant thisUpdate, long validityMillis,
+                                            BigInteger crlNumber) throws Exception {
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(caCert.getSubject(), Date.from(thisUpdate));
+        builder.setNextUpdate(new Date(thisUpdate.toEpochMilli() + validityMillis));
+        builder.addExtension(Extension.cRLNumber, false, new CRLNumber(crlNumber));
+        builder.addExtension(Extension.authorityKeyIdentifier, false,
+                new JcaX509ExtensionUtils().createAuthorityKeyIdentifier(caCert.getSubjectPublicKeyInfo()));
+        return builder;
+    }
+
+    private static void addEntries(X509v2CRLBuilder builder, List<RevokedCertificate> entries) {
+        for ( RevokedCertificate entry : entries ) {
+            builder.addCRLEntry(new BigInteger(entry.getSerial(), 16),
+                    Date.from(entry.getRevokedAt().atZone(ZoneId.systemDefault()).toInstant()),
+                    entry.getReason() == null ? CRLReason.unspecified : entry.getReason());
+        }
+    }
+}
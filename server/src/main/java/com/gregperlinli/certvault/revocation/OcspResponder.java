@@ -0,0 +1,671 @@
+package com.gregperlinli.certvault.revocation;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gregperlinli.certvault.cache.CaSigningKeyCache;
+import com.gregperlinli.certvault.certificate.CaGenerator;
+import com.gregperlinli.certvault.config.properties.OcspProperties;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
+import com.gregperlinli.certvault.crypto.KeyPairPool;
+import com.gregperlinli.certvault.crypto.SerialIndexBackfill;
+import com.gregperlinli.certvault.crypto.SerialNumberService;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.CaSigningKey;
+import com.gregperlinli.certvault.domain.entities.RevokedCertificate;
+import com.gregperlinli.certvault.domain.entities.SerialIndex;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.RevokedCertificateMapper;
+import com.gregperlinli.certvault.mapper.SerialIndexMapper;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.ocsp.*;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * OCSP Responder (RFC 6960)
+ *
+ * <p>
+ * 每个证书 (CA + 序列号 + 请求中的摘要算法) 的响应预先签名并以 DER 缓存在内存中, 命中时直接返回预编码的字节, 不访问数据库也不签名.
+ * 后台任务按 {@code ocsp.refresh-interval} 扫描缓存, 将 {@code nextUpdate} 落在 {@code ocsp.refresh-ahead} 之内的响应
+ * 分批并行重新签名 (每批一次查询吊销状态); 超过 {@code ocsp.idle-expiry} 未被请求的响应直接丢弃.
+ * 响应默认由 CA 签发的委托 OCSP 签名证书 (EC P-256, 带 {@code id-pkix-ocsp-nocheck}) 签名, CA 私钥只在签发委托证书时使用.
+ * 吊销后立即清除对应序列号的缓存, 并通过 CRL 频道通知其它节点; CA 续期或删除时通过 OCSP 频道通知其它节点丢弃该 CA 的签名者与响应.
+ * 未在 {@code serial_index} 中登记的序列号回答 {@code unknown}, 且不缓存, 避免任意序列号占满缓存;
+ * 回答之前, 每个 CA 首次出现未登记的序列号时先由 {@link SerialIndexBackfill} 补录该 CA 已签发的证书再重新查询,
+ * 保证启动补录完成前升级前签发的证书不被误答为 {@code unknown}.
+ * 为了能缓存响应, 请求中的 nonce 被忽略 (RFC 5019); 包含多个证书的请求每次单独签名, 证书数不超过 {@code ocsp.max-request-certs}.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code OcspResponder}
+ * @date 2025/5/17 10:30
+ */
+@Component
+@Slf4j
+public class OcspResponder implements MessageListener {
+
+    public static final String CACHE_NAME = "ocsp_response";
+
+    /**
+     * Minimum interval between issuer table reloads triggered by unknown issuers
+     */
+    private static final long ISSUER_RELOAD_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Digest algorithms accepted in {@code CertID}, by OID
+     */
+    private static final Map<String, String> HASH_ALGORITHMS = Map.of(
+            CertificateID.HASH_SHA1.getAlgorithm().getId(), "SHA-1",
+            "2.16.840.1.101.3.4.2.1", "SHA-256",
+            "2.16.840.1.101.3.4.2.2", "SHA-384",
+            "2.16.840.1.101.3.4.2.3", "SHA-512");
+
+    private static final byte[] MALFORMED_REQUEST = errorResponse(OCSPRespBuilder.MALFORMED_REQUEST);
+
+    private static final byte[] INTERNAL_ERROR = errorResponse(OCSPRespBuilder.INTERNAL_ERROR);
+
+    private static final byte[] UNAUTHORIZED = errorResponse(OCSPRespBuilder.UNAUTHORIZED);
+
+    private static final CertificateStatus UNKNOWN = new UnknownStatus();
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Cache<String, CachedResponse> cache;
+
+    private final Map<String, Signer> signers = new ConcurrentHashMap<>();
+
+    /**
+     * {@code hashAlgOid:issuerKeyHash} → CA UUID
+     */
+    private volatile Map<String, String> issuers = Map.of();
+
+    /**
+     * CA UUID → {@code serial_index} issuer of the certificates it signs
+     */
+    private volatile Map<String, String> issuerHashes = Map.of();
+
+    private volatile long issuersLoadedAt;
+
+    /**
+     * CA UUIDs whose issued certificates have been backfilled into {@code serial_index} by this node
+     */
+    private final Set<String> backfilledCas = ConcurrentHashMap.newKeySet();
+
+    private final DigestCalculatorProvider digestCalculatorProvider;
+
+    private final CaMapper caMapper;
+
+    private final RevokedCertificateMapper revokedCertificateMapper;
+
+    private final SerialIndexMapper serialIndexMapper;
+
+    private final SerialIndexBackfill serialIndexBackfill;
+
+    private final CaSigningKeyCache caSigningKeyCache;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final OcspProperties properties;
+
+    private ScheduledExecutorService refreshExecutor;
+
+    private ExecutorService signExecutor;
+
+    public OcspResponder(CaMapper caMapper,
+                         RevokedCertificateMapper revokedCertificateMapper,
+                         SerialIndexMapper serialIndexMapper,
+                         SerialIndexBackfill serialIndexBackfill,
+                         CaSigningKeyCache caSigningKeyCache,
+                         StringRedisTemplate stringRedisTemplate,
+                         RedisMessageListenerContainer listenerContainer,
+                         OcspProperties properties,
+                         MeterRegistry meterRegistry) throws Exception {
+        this.caMapper = caMapper;
+        this.revokedCertificateMapper = revokedCertificateMapper;
+        this.serialIndexMapper = serialIndexMapper;
+        this.serialIndexBackfill = serialIndexBackfill;
+        this.caSigningKeyCache = caSigningKeyCache;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.properties = properties;
+        this.digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder().build();
+        this.cache = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleExpiry())
+                .maximumSize(properties.getMaxSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, List.of(
+                new ChannelTopic(RedisKeyConstant.CRL_CHANNEL.getKeyPrefix()),
+                new ChannelTopic(RedisKeyConstant.OCSP_CHANNEL.getKeyPrefix())));
+        if ( !Boolean.TRUE.equals(properties.getCacheEnabled()) ) {
+            return;
+        }
+        int parallelism = properties.getParallelism() == null || properties.getParallelism() <= 0
+                ? Runtime.getRuntime().availableProcessors() : properties.getParallelism();
+        signExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "ocsp-signer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ocsp-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getRefreshInterval().toMillis();
+        refreshExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                log.warn("OCSP response refresh failed: {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if ( refreshExecutor != null ) {
+            refreshExecutor.shutdownNow();
+        }
+        if ( signExecutor != null ) {
+            signExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Answer an OCSP request
+     *
+     * @param request DER encoded {@code OCSPRequest}
+     * @return DER encoded {@code OCSPResponse}, an error response if the request cannot be answered
+     */
+    public byte[] respond(byte[] request) {
+        Req[] requests;
+        try {
+            requests = new OCSPReq(request).getRequestList();
+        } catch (IOException | RuntimeException e) {
+            return MALFORMED_REQUEST;
+        }
+        if ( requests.length == 0 || requests.length > properties.getMaxRequestCerts() ) {
+            return MALFORMED_REQUEST;
+        }
+        try {
+            if ( requests.length == 1 ) {
+                return respond(requests[0].getCertID());
+            }
+            return respond(Arrays.stream(requests).map(Req::getCertID).toList());
+        } catch (Exception e) {
+            log.error("Failed to sign OCSP response: {}", e.getMessage());
+            return INTERNAL_ERROR;
+        }
+    }
+
+    /**
+     * Drop the cached responses of a revoked certificate on this node, after the current transaction commits
+     * (Other nodes are notified by {@link CrlPublisher#revoked(String, String)})
+     *
+     * @param caUuid CA UUID
+     * @param serial serial number of the revoked certificate (hex)
+     */
+    public void revoked(String caUuid, String serial) {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(caUuid, serial);
+                }
+            });
+        } else {
+            evict(caUuid, serial);
+        }
+    }
+
+    /**
+     * Drop the signer and all cached responses of a CA after it is renewed or deleted,
+     * on this node after the current transaction commits, then notify other nodes
+     *
+     * @param caUuid CA UUID
+     */
+    public void invalidate(String caUuid) {
+        if ( caUuid == null ) {
+            return;
+        }
+        Runnable task = () -> {
+            invalidateLocal(caUuid);
+            try {
+                stringRedisTemplate.convertAndSend(RedisKeyConstant.OCSP_CHANNEL.getKeyPrefix(), nodeId + "|" + caUuid);
+            } catch (Exception e) {
+                log.warn("Failed to publish OCSP invalidation of CA {}: {}", caUuid, e.getMessage());
+            }
+        };
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    private void invalidateLocal(String caUuid) {
+        signers.remove(caUuid);
+        String prefix = caUuid + "|";
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        // 续期后 CA 公钥可能变化, 下一次请求重新加载签发者
+        issuersLoadedAt = 0L;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // 吊销消息格式: nodeId|caUuid|serial, 本节点的吊销已在提交后清除, 重复清除无副作用
+        // CA 失效消息格式: nodeId|caUuid
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|");
+        boolean caInvalidated = RedisKeyConstant.OCSP_CHANNEL.getKeyPrefix().equals(new String(message.getChannel(), StandardCharsets.UTF_8));
+        if ( !caInvalidated && parts.length == 3 ) {
+            evict(parts[1], parts[2]);
+        } else if ( caInvalidated && parts.length == 2 && !nodeId.equals(parts[0]) ) {
+            invalidateLocal(parts[1]);
+        }
+    }
+
+    /**
+     * Re-sign the cached responses that expire within {@code ocsp.refresh-ahead}, in parallel batches
+     *
+     * @throws InterruptedException if interrupted while waiting for the batches
+     */
+    void refresh() throws InterruptedException {
+        Instant threshold = Instant.now().plus(properties.getRefreshAhead());
+        // 1. 遍历缓存不计入访问, 长时间未被请求的响应仍会过期
+        List<CachedResponse> due = cache.asMap().values().stream()
+                .filter(cached -> cached.nextUpdate.isBefore(threshold))
+                .sorted(Comparator.comparing(cached -> cached.caUuid))
+                .toList();
+        if ( due.isEmpty() ) {
+            return;
+        }
+        // 2. 分批并行重新签名
+        int batchSize = Math.max(1, properties.getRefreshBatchSize());
+        List<Callable<Void>> batches = new ArrayList<>();
+        for ( int i = 0; i < due.size(); i += batchSize ) {
+            List<CachedResponse> batch = due.subList(i, Math.min(due.size(), i + batchSize));
+            batches.add(() -> {
+                resign(batch);
+                return null;
+            });
+        }
+        for ( Future<Void> future : signExecutor.invokeAll(batches) ) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                log.warn("Failed to re-sign OCSP responses: {}", e.getCause().getMessage());
+            }
+        }
+        log.debug("Re-signed {} OCSP responses in {} batches", due.size(), batches.size());
+    }
+
+    private byte[] respond(CertificateID certId) throws Exception {
+        String caUuid = resolveIssuer(certId);
+        if ( caUuid == null ) {
+            return UNAUTHORIZED;
+        }
+        String serial = certId.getSerialNumber().toString(16);
+        if ( !Boolean.TRUE.equals(properties.getCacheEnabled()) ) {
+            CachedResponse response = sign(caUuid, serial, certId, status(caUuid, List.of(serial)).get(serial));
+            return response == null ? UNAUTHORIZED : response.response;
+        }
+        String key = key(caUuid, serial, certId);
+        CachedResponse cached = cache.getIfPresent(key);
+        if ( cached == null || !cached.nextUpdate.isAfter(Instant.now()) ) {
+            // 并发的未命中只签名一次, unknown 响应不放入缓存
+            CachedResponse[] uncached = new CachedResponse[1];
+            cached = cache.asMap().compute(key, (k, current) -> {
+                if ( current != null && current.nextUpdate.isAfter(Instant.now()) ) {
+                    return current;
+                }
+                try {
+                    CertificateStatus status = status(caUuid, List.of(serial)).get(serial);
+                    CachedResponse signed = sign(caUuid, serial, certId, status);
+                    if ( status == UNKNOWN ) {
+                        uncached[0] = signed;
+                        return null;
+                    }
+                    return signed;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            });
+            if ( cached == null ) {
+                cached = uncached[0];
+            }
+        }
+        return cached == null ? UNAUTHORIZED : cached.response;
+    }
+
+    private byte[] respond(List<CertificateID> certIds) throws Exception {
+        // 所有证书必须由同一个 CA 签发, 才能使用同一个签名者
+        String caUuid = null;
+        for ( CertificateID certId : certIds ) {
+            String issuer = resolveIssuer(certId);
+            if ( issuer == null || (caUuid != null && !caUuid.equals(issuer)) ) {
+                return UNAUTHORIZED;
+            }
+            caUuid = issuer;
+        }
+        Signer signer = signer(caUuid);
+        if ( signer == null ) {
+            return UNAUTHORIZED;
+        }
+        Map<String, CertificateStatus> statuses = status(caUuid,
+                certIds.stream().map(certId -> certId.getSerialNumber().toString(16)).toList());
+        Instant thisUpdate = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant nextUpdate = nextUpdate(signer, thisUpdate);
+        BasicOCSPRespBuilder builder = signer.builder(digestCalculatorProvider);
+        for ( CertificateID certId : certIds ) {
+            builder.addResponse(certId, statuses.get(certId.getSerialNumber().toString(16)),
+                    Date.from(thisUpdate), Date.from(nextUpdate), null);
+        }
+        return signer.sign(builder, thisUpdate);
+    }
+
+    private void resign(List<CachedResponse> batch) throws Exception {
+        Map<String, List<CachedResponse>> byCa = batch.stream()
+                .collect(Collectors.groupingBy(cached -> cached.caUuid, LinkedHashMap::new, Collectors.toList()));
+        for ( Map.Entry<String, List<CachedResponse>> entry : byCa.entrySet() ) {
+            Map<String, CertificateStatus> statuses = status(entry.getKey(),
+                    entry.getValue().stream().map(cached -> cached.serial).distinct().toList());
+            for ( CachedResponse cached : entry.getValue() ) {
+                CertificateStatus status = statuses.get(cached.serial);
+                CachedResponse resigned = status == UNKNOWN ? null : sign(cached.caUuid, cached.serial, cached.certId, status);
+                String key = key(cached.caUuid, cached.serial, cached.certId);
+                if ( resigned == null ) {
+                    cache.asMap().remove(key, cached);
+                } else {
+                    // 期间被吊销清除的响应不再放回
+                    cache.asMap().replace(key, cached, resigned);
+                }
+            }
+        }
+    }
+
+    private CachedResponse sign(String caUuid, String serial, CertificateID certId, CertificateStatus status) throws Exception {
+        Signer signer = signer(caUuid);
+        if ( signer == null ) {
+            return null;
+        }
+        Instant thisUpdate = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant nextUpdate = nextUpdate(signer, thisUpdate);
+        BasicOCSPRespBuilder builder = signer.builder(digestCalculatorProvider);
+        builder.addResponse(certId, status, Date.from(thisUpdate), Date.from(nextUpdate), null);
+        return new CachedResponse(caUuid, serial, certId, signer.sign(builder, thisUpdate), nextUpdate);
+    }
+
+    private Instant nextUpdate(Signer signer, Instant thisUpdate) {
+        Instant nextUpdate = thisUpdate.plus(properties.getValidity());
+        return nextUpdate.isAfter(signer.notAfter) ? signer.notAfter : nextUpdate;
+    }
+
+    /**
+     * Get the signer of a CA, the delegated signing certificate is reissued when half of its validity has elapsed
+     *
+     * @param caUuid CA UUID
+     * @return signer, {@code null} if the CA does not exist
+     */
+    private Signer signer(String caUuid) throws Exception {
+        Signer signer = signers.get(caUuid);
+        if ( signer != null && Instant.now().isBefore(signer.renewAt) ) {
+            return signer;
+        }
+        synchronized ( signers ) {
+            signer = signers.get(caUuid);
+            if ( signer != null && Instant.now().isBefore(signer.renewAt) ) {
+                return signer;
+            }
+            Ca ca = caMapper.selectOne(new QueryWrapper<Ca>()
+                    .select("uuid", "privkey", "cert", "cert_der")
+                    .eq("uuid", caUuid)
+                    .eq("deleted", false));
+            if ( ca == null ) {
+                signers.remove(caUuid);
+                return null;
+            }
+            CaSigningKey caSigningKey = caSigningKeyCache.get(ca);
+            Instant caNotAfter = caSigningKey.getCertHolder().getNotAfter().toInstant();
+            if ( Boolean.TRUE.equals(properties.getDelegatedSigner()) ) {
+                KeyPair keyPair = KeyPairPool.acquire("EC", 256);
+                X509CertificateHolder signerCert = CaGenerator.generateOcspSigningCertificate(caSigningKey,
+                        keyPair.getPublic(), properties.getDelegatedSignerValidity());
+                Instant notBefore = signerCert.getNotBefore().toInstant();
+                Instant notAfter = signerCert.getNotAfter().toInstant();
+                signer = new Signer(keyPair.getPrivate(), signerCert.getSubjectPublicKeyInfo(),
+                        new X509CertificateHolder[]{signerCert}, notAfter,
+                        notBefore.plus(Duration.between(notBefore, notAfter).dividedBy(2)));
+            } else {
+                signer = new Signer(caSigningKey.getPrivateKey(), caSigningKey.getCertHolder().getSubjectPublicKeyInfo(),
+                        null, caNotAfter, caNotAfter);
+            }
+            signers.put(caUuid, signer);
+            return signer;
+        }
+    }
+
+    /**
+     * Find the CA of a {@code CertID} by its issuer key hash, reload the issuers on miss
+     *
+     * @param certId requested certificate
+     * @return CA UUID, {@code null} if not issued by a CA of this instance
+     */
+    private String resolveIssuer(CertificateID certId) {
+        String key = certId.getHashAlgOID().getId() + ":" + HexFormat.of().formatHex(certId.getIssuerKeyHash());
+        String caUuid = issuers.get(key);
+        if ( caUuid != null || !HASH_ALGORITHMS.containsKey(certId.getHashAlgOID().getId()) ) {
+            return caUuid;
+        }
+        synchronized ( this ) {
+            if ( System.currentTimeMillis() - issuersLoadedAt >= ISSUER_RELOAD_INTERVAL ) {
+                loadIssuers();
+            }
+        }
+        return issuers.get(key);
+    }
+
+    private void loadIssuers() {
+        Map<String, String> loaded = new HashMap<>();
+        Map<String, String> loadedHashes = new HashMap<>();
+        for ( Ca ca : caMapper.selectList(new QueryWrapper<Ca>()
+                .select("uuid", "cert", "cert_der")
+                .eq("deleted", false)) ) {
+            try {
+                X509CertificateHolder caCert = CertStorageUtils.toCertificateHolder(ca);
+                byte[] publicKey = caCert.getSubjectPublicKeyInfo().getPublicKeyData().getBytes();
+                for ( Map.Entry<String, String> algorithm : HASH_ALGORITHMS.entrySet() ) {
+                    loaded.put(algorithm.getKey() + ":" + HexFormat.of().formatHex(
+                            MessageDigest.getInstance(algorithm.getValue()).digest(publicKey)), ca.getUuid());
+                }
+                loadedHashes.put(ca.getUuid(), SerialNumberService.issuerHash(caCert.getSubject()));
+            } catch (Exception e) {
+                log.warn("Skipping CA {} in OCSP issuers: {}", ca.getUuid(), e.getMessage());
+            }
+        }
+        issuerHashes = loadedHashes;
+        issuers = loaded;
+        issuersLoadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Status of serial numbers of a CA, {@code unknown} if not registered in {@code serial_index}
+     */
+    private Map<String, CertificateStatus> status(String caUuid, List<String> serials) {
+        Map<String, CertificateStatus> statuses = new HashMap<>();
+        String issuerHash = issuerHashes.get(caUuid);
+        Set<String> issued = issued(issuerHash, serials);
+        // 升级前签发的证书可能尚未补录, 每个 CA 补录一次后重新查询
+        if ( issuerHash != null && issued.size() < serials.size() && backfill(caUuid) ) {
+            issued = issued(issuerHash, serials);
+        }
+        for ( String serial : serials ) {
+            statuses.put(serial, issued.contains(serial) ? CertificateStatus.GOOD : UNKNOWN);
+        }
+        // 已吊销的记录优先于登记状态
+        for ( RevokedCertificate revoked : revokedCertificateMapper.selectList(new QueryWrapper<RevokedCertificate>()
+                .select("serial", "reason", "revoked_at")
+                .eq("ca_uuid", caUuid)
+                .in("serial", serials)) ) {
+            statuses.put(revoked.getSerial(), certificateStatus(revoked));
+        }
+        return statuses;
+    }
+
+    private Set<String> issued(String issuerHash, List<String> serials) {
+        if ( issuerHash == null ) {
+            return Set.of();
+        }
+        return serialIndexMapper.selectList(new QueryWrapper<SerialIndex>()
+                        .select("serial")
+                        .eq("issuer", issuerHash)
+                        .in("serial", serials))
+                .stream()
+                .map(SerialIndex::getSerial)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Backfill the serial numbers of the certificates issued by a CA, once per CA on this node
+     *
+     * @param caUuid UUID of the CA
+     * @return whether any serial number was newly registered
+     */
+    private boolean backfill(String caUuid) {
+        if ( !backfilledCas.add(caUuid) ) {
+            return false;
+        }
+        try {
+            return serialIndexBackfill.backfill(caUuid) > 0;
+        } catch (Exception e) {
+            backfilledCas.remove(caUuid);
+            log.warn("OCSP Responder: Failed to backfill serial numbers of CA {}: {}", caUuid, e.getMessage());
+            return false;
+        }
+    }
+
+    private void evict(String caUuid, String serial) {
+        String prefix = caUuid + "|" + serial + "|";
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static CertificateStatus certificateStatus(RevokedCertificate revoked) {
+        return new RevokedStatus(Date.from(revoked.getRevokedAt().atZone(ZoneId.systemDefault()).toInstant()),
+                revoked.getReason() == null ? CRLReason.unspecified : revoked.getReason());
+    }
+
+    private static String key(String caUuid, String serial, CertificateID certId) {
+        return caUuid + "|" + serial + "|" + certId.getHashAlgOID().getId();
+    }
+
+    private static byte[] errorResponse(int status) {
+        try {
+            return new OCSPRespBuilder().build(status, null).getEncoded();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Pre-signed response of one certificate
+     */
+    private static final class CachedResponse {
+
+        private final String caUuid;
+
+        private final String serial;
+
+        private final CertificateID certId;
+
+        private final byte[] response;
+
+        private final Instant nextUpdate;
+
+        private CachedResponse(String caUuid, String serial, CertificateID certId, byte[] response, Instant nextUpdate) {
+            this.caUuid = caUuid;
+            this.serial = serial;
+            this.certId = certId;
+            this.response = response;
+            this.nextUpdate = nextUpdate;
+        }
+    }
+
+    /**
+     * Response signing key of a CA, either a delegated OCSP signer or the CA key itself
+     */
+    private static final class Signer {
+
+        private final PrivateKey privateKey;
+
+        private final SubjectPublicKeyInfo publicKeyInfo;
+
+        private final X509CertificateHolder[] chain;
+
+        private final Instant notAfter;
+
+        private final Instant renewAt;
+
+        private Signer(PrivateKey privateKey, SubjectPublicKeyInfo publicKeyInfo, X509CertificateHolder[] chain,
+                       Instant notAfter, Instant renewAt) {
+            this.privateKey = privateKey;
+            this.publicKeyInfo = publicKeyInfo;
+            this.chain = chain;
+            this.notAfter = notAfter;
+            this.renewAt = renewAt;
+        }
+
+        private BasicOCSPRespBuilder builder(DigestCalculatorProvider digestCalculatorProvider) throws Exception {
+            // ResponderID 使用公钥摘要
+            return new BasicOCSPRespBuilder(publicKeyInfo, digestCalculatorProvider.get(CertificateID.HASH_SHA1));
+        }
+
+        private byte[] sign(BasicOCSPRespBuilder builder, Instant producedAt) throws Exception {
+            BasicOCSPResp basic = builder.build(CryptoBootstrap.contentSigner(privateKey), chain, Date.from(producedAt));
+            return new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL, basic).getEncoded();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.gregperlinli.certvault.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyword Search
+ *
+ * <p>
+ * 关键字按子串匹配 UUID / 备注 / CA UUID ({@code LIKE '%keyword%'}), 根据数据库选择可用的索引:
+ * </p>
+ * <ul>
+ *     <li>PostgreSQL: {@code pg_trgm} GIN 索引直接服务 {@code LIKE}, 按 {@code similarity} 排序 (未安装扩展时按 完全匹配 / 前缀匹配 / 子串匹配 排序)</li>
+ *     <li>MySQL: ngram 全文索引 ({@code MATCH ... AGAINST} 短语) 缩小范围后再用 {@code LIKE} 精确过滤, 按相关度排序</li>
+ *     <li>H2: 进程内三元组索引给出候选 ID 后再用 {@code LIKE} 精确过滤, 按 完全匹配 / 前缀匹配 / 子串匹配 排序</li>
+ * </ul>
+ * <p>
+ * 无论使用哪种索引, 结果集都与原先的 {@code LIKE} 查询一致.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code KeywordSearch}
+ * @date 2025/5/14 10:40
+ */
+@Component
+@Slf4j
+public class KeywordSearch {
+
+    /**
+     * MySQL {@code ngram_token_size} default
+     */
+    private static final int MYSQL_NGRAM_SIZE = 2;
+
+    /**
+     * Above this number of candidates the in-process index no longer narrows the query usefully
+     */
+    private static final int MAX_CANDIDATES = 10_000;
+
+    /**
+     * Rows modified within this window before the last sync are indexed again (transactions committed late)
+     */
+    private static final int SYNC_OVERLAP_SECONDS = 60;
+
+    private static final String KEYWORD_PARAM = "searchKeyword";
+
+    private static final String PREFIX_PARAM = "searchPrefix";
+
+    private static final String PHRASE_PARAM = "searchPhrase";
+
+    private enum Dialect { POSTGRE_SQL, MYSQL, H2 }
+
+    private final Dialect dialect;
+
+    private final CertificateMapper certificateMapper;
+
+    private final CaMapper caMapper;
+
+    private final Map<SearchTarget, NgramIndex> ngramIndexes = new EnumMap<>(SearchTarget.class);
+
+    /**
+     * Whether {@code pg_trgm} is installed, checked on first use
+     */
+    private volatile Boolean trigramAvailable;
+
+    public KeywordSearch(@Value("${spring.datasource.driver-class-name}") String driverClassName,
+                         CertificateMapper certificateMapper,
+                         CaMapper caMapper) {
+        if ( "org.postgresql.Driver".equals(driverClassName) ) {
+            this.dialect = Dialect.POSTGRE_SQL;
+        } else if ( "org.h2.Driver".equals(driverClassName) ) {
+            this.dialect = Dialect.H2;
+        } else {
+            this.dialect = Dialect.MYSQL;
+        }
+        this.certificateMapper = certificateMapper;
+        this.caMapper = caMapper;
+        for ( SearchTarget target : SearchTarget.values() ) {
+            ngramIndexes.put(target, new NgramIndex());
+        }
+    }
+
+    /**
+     * Restrict the query to rows matching the keyword
+     *
+     * @param wrapper query wrapper
+     * @param target  search target
+     * @param keyword search keyword
+     * @param <T>     entity type
+     */
+    public <T> void match(QueryWrapper<T> wrapper, SearchTarget target, String keyword) {
+        List<String> columns = target.getColumns();
+        // 1. 使用索引缩小范围
+        switch (dialect) {
+            case MYSQL -> {
+                String phrase = phrase(keyword);
+                if ( phrase != null ) {
+                    wrapper.apply("MATCH(" + String.join(", ", columns) + ") AGAINST ({0} IN BOOLEAN MODE)", phrase);
+                }
+            }
+            case H2 -> {
+                int[] candidates = candidates(target, keyword);
+                if ( candidates != null && candidates.length == 0 ) {
+                    wrapper.apply("1 = 0");
+                } else if ( candidates != null && candidates.length <= MAX_CANDIDATES ) {
+                    wrapper.in("id", Arrays.stream(candidates).boxed().toList());
+                }
+            }
+            // PostgreSQL 的三元组索引可直接用于 LIKE
+            case POSTGRE_SQL -> { }
+        }
+        // 2. 子串精确匹配
+        wrapper.and(condition -> {
+            for ( int i = 0; i < columns.size(); i++ ) {
+                if ( i > 0 ) {
+                    condition.or();
+                }
+                condition.like(columns.get(i), keyword);
+            }
+        });
+    }
+
+    /**
+     * Order the query by relevance to the keyword, best match first <br/>
+     * (The ranking binds parameters in {@code ORDER BY}, which the automatic page COUNT cannot strip: count before ranking)
+     *
+     * @param wrapper query wrapper, should already be restricted by {@link #match}
+     * @param target  search target
+     * @param keyword search keyword
+     * @param <T>     entity type
+     */
+    public <T> void rank(QueryWrapper<T> wrapper, SearchTarget target, String keyword) {
+        List<String> columns = target.getColumns();
+        String phrase = phrase(keyword);
+        if ( dialect == Dialect.POSTGRE_SQL && trigramAvailable() ) {
+            String param = param(wrapper, KEYWORD_PARAM, keyword);
+            wrapper.orderByDesc("greatest(" + String.join(", ",
+                    columns.stream().map(column -> "similarity(" + column + ", " + param + ")").toList()) + ")");
+        } else if ( dialect == Dialect.MYSQL && phrase != null ) {
+            wrapper.orderByDesc("MATCH(" + String.join(", ", columns) + ") AGAINST (" + param(wrapper, PHRASE_PARAM, phrase) + " IN BOOLEAN MODE)");
+        } else {
+            String param = param(wrapper, KEYWORD_PARAM, keyword);
+            String prefix = param(wrapper, PREFIX_PARAM, keyword + "%");
+            wrapper.orderByAsc("CASE WHEN " + String.join(" OR ", columns.stream().map(column -> column + " = " + param).toList())
+                    + " THEN 0 WHEN " + String.join(" OR ", columns.stream().map(column -> column + " LIKE " + prefix).toList())
+                    + " THEN 1 ELSE 2 END");
+        }
+        wrapper.orderByAsc("id");
+    }
+
+    /**
+     * Whether {@code similarity} can be used, the migration skips {@code pg_trgm} without the privilege to create it
+     */
+    private boolean trigramAvailable() {
+        Boolean available = trigramAvailable;
+        if ( available == null ) {
+            try {
+                available = Boolean.TRUE.equals(caMapper.selectTrigramAvailable());
+            } catch (Exception e) {
+                log.warn("Keyword Search: Failed to check pg_trgm extension: {}", e.getMessage());
+                return false;
+            }
+            if ( !available ) {
+                log.warn("Keyword Search: pg_trgm extension is not installed, ranking by exact / prefix / substring match");
+            }
+            trigramAvailable = available;
+        }
+        return available;
+    }
+
+    /**
+     * Bind a named parameter of the wrapper for use in a raw SQL fragment such as {@code ORDER BY}
+     */
+    private static String param(QueryWrapper<?> wrapper, String name, Object value) {
+        wrapper.getParamNameValuePairs().put(name, value);
+        return "#{" + Constants.WRAPPER + Constants.WRAPPER_PARAM_MIDDLE + name + "}";
+    }
+
+    /**
+     * MySQL boolean mode phrase of the keyword, {@code null} if shorter than an ngram token or not expressible as a phrase
+     */
+    private static String phrase(String keyword) {
+        return keyword.length() < MYSQL_NGRAM_SIZE || keyword.contains("\"") ? null : "\"" + keyword + "\"";
+    }
+
+    private int[] candidates(SearchTarget target, String keyword) {
+        if ( NgramIndex.grams(keyword).isEmpty() ) {
+            return null;
+        }
+        NgramIndex index = ngramIndexes.get(target);
+        synchronized (index) {
+            sync(target, index);
+            return index.candidates(keyword);
+        }
+    }
+
+    /**
+     * Index rows created or modified since the last sync
+     */
+    private void sync(SearchTarget target, NgramIndex index) {
+        LocalDateTime now = LocalDateTime.now();
+        int maxId = index.getMaxId();
+        LocalDateTime since = index.getSyncedAt() == null ? null : index.getSyncedAt().minusSeconds(SYNC_OVERLAP_SECONDS);
+        switch (target) {
+            case CERTIFICATE -> certificateMapper.selectList(changed(new QueryWrapper<Certificate>(), target, maxId, since))
+                    .forEach(certificate -> index.add(certificate.getId(), certificate.getUuid(), certificate.getComment(), certificate.getCaUuid()));
+            case CA -> caMapper.selectList(changed(new QueryWrapper<Ca>(), target, maxId, since))
+                    .forEach(ca -> index.add(ca.getId(), ca.getUuid(), ca.getComment()));
+        }
+        if ( index.getSyncedAt() == null ) {
+            log.info("Keyword Search: Indexed {} up to ID {}", target, index.getMaxId());
+        }
+        index.setSyncedAt(now);
+    }
+
+    private static <T> QueryWrapper<T> changed(QueryWrapper<T> wrapper, SearchTarget target, int maxId, LocalDateTime since) {
+        List<String> columns = new ArrayList<>();
+        columns.add("id");
+        columns.addAll(target.getColumns());
+        wrapper.select(columns.toArray(String[]::new))
+                .gt("id", maxId);
+        if ( since != null ) {
+            wrapper.or().ge("created_at", since)
+                    .or().ge("modified_at", since);
+        }
+        return wrapper;
+    }
+}
@@ -0,0 +1,135 @@
+package com.gregperlinli.certvault.search;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * In-process trigram index
+ *
+ * <p>
+ * 记录每个三元组 (小写) 出现在哪些行 ID 中, 关键字的所有三元组的交集即为候选行.
+ * 候选行是实际匹配的超集 (修改前的旧内容不会移除), 调用方仍需用 {@code LIKE} 精确过滤.
+ * 倒排表为追加写入的 {@code int} 数组, 查询时按需排序去重.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code NgramIndex}
+ * @date 2025/5/14 10:20
+ */
+class NgramIndex {
+
+    static final int GRAM_SIZE = 3;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private int maxId;
+
+    private LocalDateTime syncedAt;
+
+    /**
+     * Index the values of a row
+     *
+     * @param id     row ID
+     * @param values searched column values, {@code null} values are skipped
+     */
+    synchronized void add(int id, String... values) {
+        for ( String value : values ) {
+            for ( String gram : grams(value) ) {
+                postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+            }
+        }
+        maxId = Math.max(maxId, id);
+    }
+
+    /**
+     * Candidate rows of a keyword
+     *
+     * @param keyword search keyword
+     * @return sorted candidate row IDs, {@code null} if the keyword is too short to use the index
+     */
+    synchronized int[] candidates(String keyword) {
+        Set<String> grams = grams(keyword);
+        if ( grams.isEmpty() ) {
+            return null;
+        }
+        List<int[]> lists = new ArrayList<>(grams.size());
+        for ( String gram : grams ) {
+            Postings posting = postings.get(gram);
+            if ( posting == null ) {
+                return new int[0];
+            }
+            lists.add(posting.sorted());
+        }
+        // 从最短的倒排表开始求交集
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        int[] result = lists.get(0);
+        for ( int i = 1; i < lists.size() && result.length > 0; i++ ) {
+            int[] other = lists.get(i);
+            result = Arrays.stream(result).filter(id -> Arrays.binarySearch(other, id) >= 0).toArray();
+        }
+        return result;
+    }
+
+    synchronized int getMaxId() {
+        return maxId;
+    }
+
+    synchronized LocalDateTime getSyncedAt() {
+        return syncedAt;
+    }
+
+    synchronized void setSyncedAt(LocalDateTime syncedAt) {
+        this.syncedAt = syncedAt;
+    }
+
+    static Set<String> grams(String value) {
+        if ( value == null || value.length() < GRAM_SIZE ) {
+            return Set.of();
+        }
+        String lower = value.toLowerCase(Locale.ROOT);
+        Set<String> grams = new HashSet<>();
+        for ( int i = 0; i + GRAM_SIZE <= lower.length(); i++ ) {
+            grams.add(lower.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+
+        private int size;
+
+        private boolean sorted = true;
+
+        void add(int id) {
+            if ( size > 0 && ids[size - 1] >= id ) {
+                if ( ids[size - 1] == id ) {
+                    return;
+                }
+                sorted = false;
+            }
+            if ( size == ids.length ) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        int[] sorted() {
+            if ( !sorted ) {
+                // 行被修改后重新索引时会追加较小的 ID, 排序后去重
+                Arrays.sort(ids, 0, size);
+                int unique = 0;
+                for ( int i = 0; i < size; i++ ) {
+                    if ( unique == 0 || ids[unique - 1] != ids[i] ) {
+                        ids[unique++] = ids[i];
+                    }
+                }
+                size = unique;
+                sorted = true;
+            }
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.gregperlinli.certvault.search;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Keyword search target
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code SearchTarget}
+ * @date 2025/5/14 10:05
+ */
+@Getter
+public enum SearchTarget {
+
+    /**
+     * SSL certificates, searched by UUID, comment and CA UUID
+     */
+    CERTIFICATE(List.of("uuid", "comment", "ca_uuid")),
+
+    /**
+     * CA certificates, searched by UUID and comment
+     */
+    CA(List.of("uuid", "comment"));
+
+    /**
+     * Searched columns, in the same order as the MySQL fulltext index
+     */
+    private final List<String> columns;
+
+    SearchTarget(List<String> columns) {
+        this.columns = columns;
+    }
+}
@@ -1,5 +1,8 @@
 package com.gregperlinli.certvault.security;
 
+import com.gregperlinli.certvault.cache.SessionNearCache;
+import com.gregperlinli.certvault.cache.UserCache;
+import com.gregperlinli.certvault.config.properties.SessionAuthProperties;
 import com.gregperlinli.certvault.domain.dto.UserProfileDTO;
 import com.gregperlinli.certvault.service.interfaces.ILoginRecordService;
 import com.gregperlinli.certvault.service.interfaces.IUserService;
@@ -11,11 +14,13 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -38,15 +43,42 @@ public class SessionAuthFilter extends OncePerRequestFilter {
     @Resource
     ILoginRecordService loginRecordService;
 
+    @Resource
+    UserCache userCache;
+
+    @Resource
+    SessionNearCache sessionNearCache;
+
+    @Resource
+    SessionAuthProperties sessionAuthProperties;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // 预检请求与无需认证的资源不做会话校验
+        if ( HttpMethod.OPTIONS.matches(request.getMethod()) ) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for ( String pattern : sessionAuthProperties.getBypassPaths() ) {
+            if ( pathMatcher.match(pattern, path) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        // 获取现有Session
-        HttpSession session = request.getSession();
+        // 获取现有Session, 没有Session的请求无需访问Redis
+        HttpSession session = request.getSession(false);
         if (session != null) {
             String sessionId = session.getId();
-            UserProfileDTO redisProfile = userService.loginVerify(sessionId);
+            // 先查本地近端缓存, 未命中再访问Redis
+            UserProfileDTO redisProfile = sessionNearCache.get(sessionId, userService::loginVerify);
             UserProfileDTO sessionProfile = (UserProfileDTO) session.getAttribute("account");
 
             if ( redisProfile != null && sessionProfile != null ) {
@@ -69,6 +101,8 @@ public class SessionAuthFilter extends OncePerRequestFilter {
 
                     // 将认证信息存入Security上下文
                     SecurityContextHolder.getContext().setAuthentication(auth);
+                    // 预先解析当前用户, 本次请求内的服务方法直接从请求作用域获取
+                    userCache.getActive(redisProfile.getUsername());
                 } else {
                     log.warn("Session verification failed, the info in session and redis are not match");
                     log.warn("Session Info ==> {}", session.getAttribute("account").toString());
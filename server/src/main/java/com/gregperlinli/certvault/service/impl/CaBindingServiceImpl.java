@@ -1,6 +1,8 @@
 package com.gregperlinli.certvault.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.gregperlinli.certvault.cache.CaHierarchyIndex;
+import com.gregperlinli.certvault.cache.UserCache;
 import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
 import com.gregperlinli.certvault.domain.dto.CaBindingDTO;
 import com.gregperlinli.certvault.domain.entities.CaBinding;
@@ -35,14 +37,17 @@ public class CaBindingServiceImpl extends ServiceImpl<CaBindingMapper, CaBinding
     @Resource
     IUserService userService;
 
+    @Resource
+    UserCache userCache;
+
+    @Resource
+    CaHierarchyIndex caHierarchyIndex;
+
     private static final int BATCH_SIZE = 500;
 
     @Override
     public Boolean newBinding(CaBindingDTO caBindingDTO) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", caBindingDTO.getUsername())
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(caBindingDTO.getUsername());
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -50,7 +55,9 @@ public class CaBindingServiceImpl extends ServiceImpl<CaBindingMapper, CaBinding
         caBinding.setCaUuid(caBindingDTO.getCaUuid());
         caBinding.setUid(user.getId());
         caBinding.setCreatedAt(LocalDateTime.now());
-        return this.save(caBinding);
+        boolean result = this.save(caBinding);
+        caHierarchyIndex.refresh(caBinding.getCaUuid());
+        return result;
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -125,23 +132,25 @@ public class CaBindingServiceImpl extends ServiceImpl<CaBindingMapper, CaBinding
         // 5. 批量插入（分批次处理）
         BatchProcessingUtils.batchProcess(bindings, BATCH_SIZE, this::saveBatch);
 
+        // 6. 提交后刷新 CA 层级索引
+        caHierarchyIndex.refresh(bindings.stream().map(CaBinding::getCaUuid).distinct().toArray(String[]::new));
+
         return true;
 
     }
 
     @Override
     public Boolean deleteBinding(CaBindingDTO caBindingDTO) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", caBindingDTO.getUsername())
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(caBindingDTO.getUsername());
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
         QueryWrapper<CaBinding> caBindingQueryWrapper = new QueryWrapper<>();
         caBindingQueryWrapper.eq("ca_uuid", caBindingDTO.getCaUuid())
                             .eq("uid", user.getId());
-        return this.remove(caBindingQueryWrapper);
+        boolean result = this.remove(caBindingQueryWrapper);
+        caHierarchyIndex.refresh(caBindingDTO.getCaUuid());
+        return result;
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -214,15 +223,15 @@ public class CaBindingServiceImpl extends ServiceImpl<CaBindingMapper, CaBinding
             return true;
         });
 
+        // 6. 提交后刷新 CA 层级索引
+        caHierarchyIndex.refresh(deleteConditions.stream().map(CaBinding::getCaUuid).distinct().toArray(String[]::new));
+
         return true;
     }
 
     @Override
     public Long countBoundCa(String username) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", username)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(username);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -3,8 +3,14 @@ package com.gregperlinli.certvault.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.gregperlinli.certvault.cache.CaChainCache;
+import com.gregperlinli.certvault.cache.CaHierarchyIndex;
+import com.gregperlinli.certvault.cache.CaSigningKeyCache;
+import com.gregperlinli.certvault.cache.ExpiryIndex;
+import com.gregperlinli.certvault.cache.UserCache;
 import com.gregperlinli.certvault.certificate.CaGenerator;
 import com.gregperlinli.certvault.certificate.CertAnalyzer;
+import com.gregperlinli.certvault.config.properties.ExpiryIndexProperties;
 import com.gregperlinli.certvault.constant.AccountTypeConstant;
 import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
 import com.gregperlinli.certvault.domain.dto.*;
@@ -12,17 +18,26 @@ import com.gregperlinli.certvault.domain.entities.*;
 import com.gregperlinli.certvault.domain.exception.LoginException;
 import com.gregperlinli.certvault.domain.exception.ParamValidateException;
 import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.revocation.CrlPublisher;
+import com.gregperlinli.certvault.revocation.OcspResponder;
+import com.gregperlinli.certvault.search.KeywordSearch;
+import com.gregperlinli.certvault.search.SearchTarget;
 import com.gregperlinli.certvault.service.interfaces.ICaBindingService;
 import com.gregperlinli.certvault.service.interfaces.ICaService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.gregperlinli.certvault.service.interfaces.IUserService;
 import com.gregperlinli.certvault.utils.AuthUtils;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
 import com.gregperlinli.certvault.utils.CertUtils;
+import com.gregperlinli.certvault.utils.CursorPageUtils;
+import com.gregperlinli.certvault.utils.CursorPageUtils.SortKey;
 import com.gregperlinli.certvault.utils.EncryptAndDecryptUtils;
+import com.gregperlinli.certvault.utils.EtagUtils;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -38,20 +53,53 @@ import java.util.stream.Collectors;
 @Service
 public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaService {
 
+    /**
+     * Sort keys of cursor pagination, same as the {@code orderBy} options of page number pagination
+     */
+    private static final Map<String, SortKey<Ca>> CA_SORT_KEYS = Map.of(
+            "uuid", SortKey.<Ca>by().string("uuid", Ca::getUuid),
+            "comment", SortKey.<Ca>by().string("comment", Ca::getComment),
+            "owner", SortKey.<Ca>by().integer("owner", Ca::getOwner),
+            "status", SortKey.<Ca>by().bool("available", Ca::getAvailable).dateTime("not_after", Ca::getNotAfter)
+    );
+
     @Resource
     IUserService userService;
 
+    @Resource
+    UserCache userCache;
+
     @Resource
     ICaBindingService caBindingService;
 
+    @Resource
+    CaSigningKeyCache caSigningKeyCache;
+
+    @Resource
+    CaChainCache caChainCache;
+
+    @Resource
+    CaHierarchyIndex caHierarchyIndex;
+
+    @Resource
+    KeywordSearch keywordSearch;
+
+    @Resource
+    CrlPublisher crlPublisher;
+
+    @Resource
+    OcspResponder ocspResponder;
+
+    @Resource
+    ExpiryIndex expiryIndex;
+
+    @Resource
+    ExpiryIndexProperties expiryIndexProperties;
+
     @Override
-    public PageDTO<CaInfoDTO> getCas(String keyword, String owner, Integer page, Integer limit, Boolean isAsc, String orderBy) {
-        Page<Ca> caPage = new Page<>(page, limit);
-        Page<Ca> resultPage;
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+    public PageDTO<CaInfoDTO> getCas(String keyword, String owner, Integer page, Integer limit, Boolean isAsc, String orderBy, String cursor, Boolean withTotal) {
+        PageDTO<Ca> resultPage;
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -64,42 +112,102 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
                         .eq("deleted", false);
             }
         } else {
+            keywordSearch.match(caQueryWrapper, SearchTarget.CA, keyword);
             if ( Objects.equals( AccountTypeConstant.SUPERADMIN.getAccountType(), user.getRole() ) ) {
-                caQueryWrapper.and(wrapper -> wrapper
-                                .like("uuid", keyword)
-                                .or()
-                                .like("comment", keyword))
-                        .eq("deleted", false);
+                caQueryWrapper.eq("deleted", false);
             } else {
-                caQueryWrapper.and(wrapper -> wrapper
-                                .like("uuid", keyword)
-                                .or()
-                                .like("comment", keyword))
-                        .eq("owner", user.getId())
+                caQueryWrapper.eq("owner", user.getId())
                         .eq("deleted", false);
             }
         }
-        if ( orderBy != null && !orderBy.isEmpty() ) {
-            if ( isAsc == null ) {
-                isAsc = true;
-            }
-            switch (orderBy) {
-                case "uuid" -> caQueryWrapper.orderBy(true, isAsc,"uuid");
-                case "comment" -> caQueryWrapper.orderBy(true, isAsc,"comment");
-                case "owner" -> caQueryWrapper.orderBy(true, isAsc,"owner");
-                case "status" -> caQueryWrapper.orderBy(true, isAsc,"available", "not_after");
+        if ( cursor != null ) {
+            resultPage = CursorPageUtils.page(this, baseMapper::selectInfoPage, caQueryWrapper, CA_SORT_KEYS, Ca::getId, orderBy, isAsc, cursor, limit, withTotal);
+        } else {
+            Page<Ca> caPage = new Page<>(page, limit);
+            if ( orderBy != null && !orderBy.isEmpty() ) {
+                if ( isAsc == null ) {
+                    isAsc = true;
+                }
+                switch (orderBy) {
+                    case "uuid" -> caQueryWrapper.orderBy(true, isAsc,"uuid");
+                    case "comment" -> caQueryWrapper.orderBy(true, isAsc,"comment");
+                    case "owner" -> caQueryWrapper.orderBy(true, isAsc,"owner");
+                    case "status" -> caQueryWrapper.orderBy(true, isAsc,"available", "not_after");
+                }
+            } else if ( keyword != null && !keyword.isEmpty() ) {
+                // 未指定排序时按关键字相关度排序, 相关度排序带参数, 总数在排序前单独统计
+                caPage.setSearchCount(false);
+                caPage.setTotal(this.count(caQueryWrapper));
+                keywordSearch.rank(caQueryWrapper, SearchTarget.CA, keyword);
             }
+            // 列表只需要基本信息, 不加载私钥与证书
+            caPage = baseMapper.selectInfoPage(caPage, caQueryWrapper);
+            resultPage = new PageDTO<>(caPage.getTotal(), caPage.getRecords());
         }
-        resultPage = this.page(caPage, caQueryWrapper);
-        if ( resultPage.getSize() == 0 || resultPage.getRecords() == null || resultPage.getRecords().isEmpty() ) {
+        if ( resultPage.getList() == null || resultPage.getList().isEmpty() ) {
             return new PageDTO<>(resultPage.getTotal(), null);
         }
-        Set<Integer> ownerIds = resultPage.getRecords().stream()
+        Set<Integer> ownerIds = resultPage.getList().stream()
                 .map(Ca::getOwner).collect(Collectors.toSet());
         Map<Integer, String> userMap = userService.listByIds(ownerIds)
                 .stream().collect(Collectors.toMap(User::getId, User::getUsername));
         return new PageDTO<>(resultPage.getTotal(),
-                resultPage.getRecords().stream().map(ca -> {
+                resultPage.getList().stream().map(ca -> {
+                    CaInfoDTO dto = new CaInfoDTO();
+                    dto.setUuid(ca.getUuid());
+                    dto.setAlgorithm(ca.getAlgorithm());
+                    dto.setKeySize(ca.getKeySize());
+                    dto.setParentCa(ca.getParentCa());
+                    dto.setAllowSubCa(ca.getAllowSubCa());
+                    dto.setComment(ca.getComment());
+                    dto.setAvailable(ca.getAvailable());
+                    dto.setNotBefore(ca.getNotBefore());
+                    dto.setNotAfter(ca.getNotAfter());
+                    dto.setCreatedAt(ca.getCreatedAt());
+                    dto.setModifiedAt(ca.getModifiedAt());
+                    dto.setOwner(userMap.getOrDefault(ca.getOwner(), "Unknown"));
+                    return dto;
+                }).toList(),
+                resultPage.getNextCursor());
+    }
+
+    @Override
+    public PageDTO<CaInfoDTO> getExpiringCas(String owner, Integer days, Integer page, Integer limit) {
+        User user = userCache.getActive(owner);
+        if ( user == null ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
+        }
+        if ( days == null || days < 1 || days > expiryIndexProperties.getMaxDays() ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(),
+                    "Days must be between 1 and " + expiryIndexProperties.getMaxDays() + ".");
+        }
+        if ( page == null || page < 1 ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(), "The page number must be positive.");
+        }
+        if ( limit == null || limit < 1 || limit > expiryIndexProperties.getMaxLimit() ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(),
+                    "The page limit must be between 1 and " + expiryIndexProperties.getMaxLimit() + ".");
+        }
+        // 1. 从到期索引中筛选, 不扫描数据表
+        List<ExpiryIndex.Entry> entries = expiryIndex.expiring(ExpiryIndex.Target.CA, Duration.ofDays(days),
+                Objects.equals( AccountTypeConstant.SUPERADMIN.getAccountType(), user.getRole() )
+                        ? null
+                        : entry -> Objects.equals(entry.getOwner(), user.getId()));
+        int from = (int) Math.min(entries.size(), (long) (page - 1) * limit);
+        List<String> uuids = entries.subList(from, Math.min(entries.size(), from + limit)).stream()
+                .map(ExpiryIndex.Entry::getUuid).toList();
+        if ( uuids.isEmpty() ) {
+            return new PageDTO<>((long) entries.size(), null);
+        }
+        // 2. 按主键加载当前页的基本信息, 保持到期顺序
+        Map<String, Ca> cas = baseMapper.selectInfoPage(new Page<>(1, uuids.size(), false),
+                        new QueryWrapper<Ca>().in("uuid", uuids).eq("deleted", false))
+                .getRecords().stream().collect(Collectors.toMap(Ca::getUuid, ca -> ca));
+        List<Ca> records = uuids.stream().map(cas::get).filter(Objects::nonNull).toList();
+        Map<Integer, String> userMap = records.isEmpty() ? Map.of() : userService.listByIds(records.stream().map(Ca::getOwner).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(User::getId, User::getUsername));
+        return new PageDTO<>((long) entries.size(),
+                records.stream().map(ca -> {
                     CaInfoDTO dto = new CaInfoDTO();
                     dto.setUuid(ca.getUuid());
                     dto.setAlgorithm(ca.getAlgorithm());
@@ -121,10 +229,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
     public PageDTO<CaInfoDTO> getBoundCas(String keyword, String username, Integer page, Integer limit, Boolean isAsc, String orderBy) {
         Page<Ca> caPage = new Page<>(page, limit);
         Page<Ca> resultPage;
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", username)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(username);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -158,7 +263,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
                 case "status" -> caQueryWrapper.orderBy(true, isAsc,"available", "not_after");
             }
         }
-        resultPage = this.page(caPage, caQueryWrapper);
+        resultPage = baseMapper.selectInfoPage(caPage, caQueryWrapper);
         if ( resultPage.getSize() == 0 || resultPage.getRecords() == null || resultPage.getRecords().isEmpty() ) {
             return new PageDTO<>(resultPage.getTotal(), null);
         }
@@ -189,10 +294,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
     public PageDTO<UserProfileDTO> getBoundUsers(String keyword, String uuid, String owner, Integer page, Integer limit, Boolean isAsc, String orderBy) {
         Page<User> userPage = new Page<>(page, limit);
         Page<User> resultPage;
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -215,7 +317,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
         if ( caBindings.isEmpty() ) {
             return new PageDTO<>(0L, null);
         }
-        userQueryWrapper.clear();
+        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
         if ( keyword == null || keyword.isEmpty() ) {
             userQueryWrapper.in("id", caBindings.stream().map(CaBinding::getUid).toList())
                     .eq("deleted", false);
@@ -252,10 +354,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
     public PageDTO<UserProfileDTO> getNotBoundUsers(String keyword, String uuid, String owner, Integer page, Integer limit, Boolean isAsc, String orderBy) {
         Page<User> userPage = new Page<>(page, limit);
         Page<User> resultPage;
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -276,7 +375,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
         caBindingQueryWrapper.eq("ca_uuid", uuid);
         List<CaBinding> caBindings = caBindingService.list(caBindingQueryWrapper);
         Set<Integer> uids = caBindings.stream().map(CaBinding::getUid).collect(Collectors.toSet());
-        userQueryWrapper.clear();
+        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
         if ( keyword == null || keyword.isEmpty() ) {
             userQueryWrapper.eq("deleted", false);
         } else {
@@ -312,118 +411,87 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
 
     @Override
     public String getCaCert(String uuid, String owner) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        checkCaCertAccess(uuid, owner);
+        // CA 自身证书为证书链的第一个 (按 CA UUID 缓存)
+        List<String> pems = caChainCache.get(uuid).getPems();
+        return pems.isEmpty() ? null : CaChainCache.encodeChain(pems.subList(0, 1));
+    }
+
+    @Override
+    public String getCaCertChain(String uuid, String owner, Boolean needRootCa) {
+        checkCaCertChainAccess(uuid, owner);
+        // 一次递归查询获取整条证书链 (按 CA UUID 缓存)
+        CaChain caChain = caChainCache.get(uuid);
+        return needRootCa ? caChain.getChainWithRoot() : caChain.getChainWithoutRoot();
+    }
+
+    @Override
+    public String getCaCertEtag(String uuid, String owner, Boolean isChain, Boolean needRootCa) {
+        // 权限校验与下载接口一致, 指纹随证书链缓存, 命中时不读取证书内容
+        if ( isChain ) {
+            checkCaCertChainAccess(uuid, owner);
+        } else {
+            checkCaCertAccess(uuid, owner);
+        }
+        List<String> fingerprints = caChainCache.get(uuid).getFingerprints();
+        if ( fingerprints.isEmpty() ) {
+            return null;
+        }
+        if ( !isChain ) {
+            return EtagUtils.of(fingerprints.subList(0, 1));
+        }
+        return EtagUtils.of(needRootCa ? fingerprints : fingerprints.subList(0, fingerprints.size() - 1));
+    }
+
+    /**
+     * Check the permission to download a CA certificate, answered by the CA hierarchy index
+     *
+     * @param uuid  ca certificate uuid
+     * @param owner requesting user
+     */
+    private void checkCaCertAccess(String uuid, String owner) {
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
-        QueryWrapper<Ca> caQueryWrapper = new QueryWrapper<>();
-        caQueryWrapper.eq("uuid", uuid)
-                    .eq("deleted", false);
-        Ca ca = this.getOne(caQueryWrapper);
-        if ( ca == null) {
+        CaHierarchyIndex.CaNode node = caHierarchyIndex.get(uuid);
+        if ( node == null) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The CA does not exist.");
         }
-        QueryWrapper<CaBinding> caBindingQueryWrapper = new QueryWrapper<>();
-        caBindingQueryWrapper.eq("uid", user.getId())
-                            .eq("ca_uuid", uuid);
-        if (
-                ( caBindingService.getOne(caBindingQueryWrapper) != null && ca.getAvailable() ) ||
-                Objects.equals( ca.getOwner(), user.getId() ) ||
-                user.getRole() == AccountTypeConstant.SUPERADMIN.getAccountType()
-        ) {
-            return ca.getCert();
+        if ( caHierarchyIndex.canUse(node, user) ) {
+            return;
         }
         throw new ParamValidateException(ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The CA is not yours.");
     }
 
-    @Override
-    public String getCaCertChain(String uuid, String owner, Boolean needRootCa) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+    /**
+     * Check the permission to download a CA certificate chain, answered by the CA hierarchy index
+     *
+     * @param uuid  ca certificate uuid
+     * @param owner requesting user
+     */
+    private void checkCaCertChainAccess(String uuid, String owner) {
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
-        QueryWrapper<Ca> caQueryWrapper = new QueryWrapper<>();
-        caQueryWrapper.eq("uuid", uuid)
-                .eq("deleted", false);
-        Ca currentCa = this.getOne(caQueryWrapper);
+        CaHierarchyIndex.CaNode currentCa = caHierarchyIndex.get(uuid);
         if ( currentCa == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The certificate does not exist.");
         }
         if ( !Objects.equals( currentCa.getOwner(), user.getId() ) &&
-                !(caBindingService.exists( new QueryWrapper<CaBinding>()
-                                .eq("ca_uuid", currentCa.getParentCa())
-                                .eq("uid", user.getId())) ) &&
+                !caHierarchyIndex.isBound(currentCa.getParentCa(), user.getId()) &&
                 user.getRole() != AccountTypeConstant.SUPERADMIN.getAccountType()
         ) {
             throw new ParamValidateException(
                     ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The certificate is not yours."
             );
         }
-        // 收集证书链（处理二次编码）
-        List<String> certChain = new ArrayList<>();
-        // 处理当前证书
-        String certBase64 = currentCa.getCert();
-        if (certBase64 != null && !certBase64.isEmpty()) {
-            try {
-                // 解码二次编码的PEM字符串（原始PEM内容）
-                String pemContent = new String(
-                        Base64.getDecoder().decode(certBase64),
-                        StandardCharsets.UTF_8
-                );
-                certChain.add(pemContent);
-            } catch (IllegalArgumentException e) {
-                throw new ParamValidateException(
-                        ResultStatusCodeConstant.FAILED.getResultCode(),
-                        "Invalid certificate format in database."
-                );
-            }
-        }
-        // 向上查找CA链
-        String currentCaUuid = currentCa.getParentCa();
-        while (currentCaUuid != null && !currentCaUuid.isEmpty()) {
-            Ca ca = this.getOne(new QueryWrapper<Ca>()
-                    .eq("uuid", currentCaUuid)
-                    .eq("deleted", false));
-            if (ca == null) {
-                break;
-            }
-            String caCertBase64 = ca.getCert();
-            if (caCertBase64 != null && !caCertBase64.isEmpty()) {
-                try {
-                    String pemContent = new String(
-                            Base64.getDecoder().decode(caCertBase64),
-                            StandardCharsets.UTF_8
-                    );
-                    certChain.add(pemContent);
-                } catch (IllegalArgumentException e) {
-                    throw new ParamValidateException(
-                            ResultStatusCodeConstant.FAILED.getResultCode(),
-                            "Invalid CA certificate format in database."
-                    );
-                }
-            }
-            currentCaUuid = ca.getParentCa();
-        }
-        // 根据needRootCa参数决定是否移除根CA
-        if (!needRootCa && !certChain.isEmpty()) {
-            // 根CA是最后一个添加的证书，移除它
-            certChain.remove(certChain.size() - 1);
-        }
-        // 拼接证书链并Base64编码
-        String chainContent = String.join("\n", certChain);
-        return Base64.getEncoder().encodeToString(
-                chainContent.getBytes(StandardCharsets.UTF_8)
-        );
     }
 
     @Override
     public String getCaPrivKey(String uuid, String confirmPassword, String owner) throws Exception {
+        // 校验密码需要密码哈希, 不走用户缓存
         QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
         userQueryWrapper.eq("username", owner)
                         .eq("deleted", false);
@@ -452,10 +520,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
 
     @Override
     public Boolean updateCaComment(String uuid, String owner, String comment) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -479,10 +544,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
 
     @Override
     public Boolean modifyCaAvailability(String uuid, String owner) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -501,6 +563,8 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
             caUpdateWrapper.eq("uuid", uuid)
                         .set("available", !ca.getAvailable());
             boolean result = this.update(caUpdateWrapper);
+            caSigningKeyCache.evict(uuid);
+            caHierarchyIndex.refresh(uuid);
             if ( result ) {
                 return !ca.getAvailable();
             }
@@ -511,10 +575,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
 
     @Override
     public ResponseCaDTO importCa(ImportCertDTO importCertDTO, String owner) throws Exception {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -551,7 +612,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
         ca.setAlgorithm(algorithm);
         ca.setKeySize(keySize);
         ca.setPrivkey(EncryptAndDecryptUtils.encrypt(importCertDTO.getPrivkey()));
-        ca.setCert(importCertDTO.getCertificate());
+        CertStorageUtils.store(ca, importCertDTO.getCertificate());
         ca.setAllowSubCa(true);
         ca.setOwner(user.getId());
         ca.setComment(importCertDTO.getComment());
@@ -567,6 +628,8 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
             caBinding.setCaUuid(ca.getUuid());
             caBinding.setCreatedAt(now);
             caBindingService.save(caBinding);
+            caHierarchyIndex.refresh(ca.getUuid());
+            expiryIndex.refresh(ExpiryIndex.Target.CA, ca.getUuid());
             ca.setPrivkey(null);
             return new ResponseCaDTO(ca);
         }
@@ -575,10 +638,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
 
     @Override
     public ResponseCaDTO requestCa(RequestCertDTO requestCertDTO, String owner) throws Exception {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -589,26 +649,24 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
             genResponse = CaGenerator.generateCaCertificate(new CaGenRequest(requestCertDTO, user.getEmail()));
             result = this.save(genResponse.toCa(user.getId(), now, now));
         } else {
-            QueryWrapper<Ca> caQueryWrapper = new QueryWrapper<>();
-            caQueryWrapper.eq("uuid", requestCertDTO.getCaUuid())
-                    .eq("available", true)
-                    .eq("deleted", false);
-            Ca ca = this.getOne(caQueryWrapper);
-            if ( ca == null ) {
+            // 存在性、可用性与授权由 CA 树索引回答, 通过后才读取签发所需的私钥与证书
+            CaHierarchyIndex.CaNode node = caHierarchyIndex.get(requestCertDTO.getCaUuid());
+            if ( node == null || !Boolean.TRUE.equals(node.getAvailable()) ) {
                 throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The CA does not exist.");
             }
-            if ( !ca.getAllowSubCa() ) {
+            if ( !Boolean.TRUE.equals(node.getAllowSubCa()) ) {
                 throw new ParamValidateException(ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The CA does not allow sub CA.");
             }
-            QueryWrapper<CaBinding> caBindingQueryWrapper = new QueryWrapper<>();
-            caBindingQueryWrapper.eq("uid", user.getId())
-                    .eq("ca_uuid", requestCertDTO.getCaUuid());
-            if (
-                    ( caBindingService.getOne(caBindingQueryWrapper) != null && ca.getAvailable() ) ||
-                    Objects.equals( ca.getOwner(), user.getId() ) ||
-                    user.getRole() == AccountTypeConstant.SUPERADMIN.getAccountType()
-            ) {
-                genResponse = CaGenerator.generateCaCertificate(new CaGenRequest(requestCertDTO, EncryptAndDecryptUtils.decrypt(ca.getPrivkey()), ca.getCert(), requestCertDTO.getAllowSubCa(), user.getEmail()));
+            if ( caHierarchyIndex.canUse(node, user) ) {
+                QueryWrapper<Ca> caQueryWrapper = new QueryWrapper<>();
+                caQueryWrapper.eq("uuid", requestCertDTO.getCaUuid())
+                        .eq("available", true)
+                        .eq("deleted", false);
+                Ca ca = this.getOne(caQueryWrapper);
+                if ( ca == null ) {
+                    throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The CA does not exist.");
+                }
+                genResponse = CaGenerator.generateCaCertificate(new CaGenRequest(requestCertDTO, EncryptAndDecryptUtils.decrypt(ca.getPrivkey()), CertStorageUtils.toBase64(ca), requestCertDTO.getAllowSubCa(), user.getEmail()));
                 result = this.save(genResponse.toIntCa(ca.getUuid(), requestCertDTO.getAllowSubCa(), user.getId(), now, now));
             } else {
                 throw new ParamValidateException(ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The CA is not yours.");
@@ -620,6 +678,8 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
             caBinding.setUid(user.getId());
             caBinding.setCreatedAt(now);
             caBindingService.save(caBinding);
+            caHierarchyIndex.refresh(genResponse.getUuid());
+            expiryIndex.refresh(ExpiryIndex.Target.CA, genResponse.getUuid());
             return new ResponseCaDTO(genResponse, requestCertDTO.getCaUuid(), requestCertDTO.getAllowSubCa());
         }
         return null;
@@ -627,10 +687,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
 
     @Override
     public ResponseCaDTO renewCa(String oldCaUuid, Integer expiry, String owner) throws Exception {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -655,17 +712,23 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
             if ( parentCa == null ) {
                 throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The parent CA does not exist.");
             }
-            caRenewRequest.setParentCa(parentCa.getCert());
+            caRenewRequest.setParentCa(CertStorageUtils.toBase64(parentCa));
             caRenewRequest.setParentCaPrivkey(EncryptAndDecryptUtils.decrypt(parentCa.getPrivkey()));
         }
         GenResponse genResponse = CaGenerator.renewCaCertificate(caRenewRequest);
-        ca.setCert(genResponse.getCert());
+        CertStorageUtils.store(ca, genResponse.getCert());
         ca.setNotBefore(genResponse.getNotBefore());
         ca.setNotAfter(genResponse.getNotAfter());
         ca.setModifiedAt(LocalDateTime.now());
         UpdateWrapper<Ca> caUpdateWrapper = new UpdateWrapper<>();
         caUpdateWrapper.eq("uuid", oldCaUuid);
+        CertStorageUtils.clearUnused(caUpdateWrapper, ca);
         boolean result = this.update(ca, caUpdateWrapper);
+        caSigningKeyCache.evict(oldCaUuid);
+        caChainCache.invalidate(oldCaUuid);
+        crlPublisher.invalidate(oldCaUuid);
+        ocspResponder.invalidate(oldCaUuid);
+        expiryIndex.refresh(ExpiryIndex.Target.CA, oldCaUuid);
         if ( result ) {
             genResponse.setPrivkey(null);
             return new ResponseCaDTO(genResponse, ca.getParentCa(), ca.getAllowSubCa());
@@ -675,10 +738,7 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
 
     @Override
     public Boolean deleteCa(String uuid, String owner) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -695,17 +755,21 @@ public class CaServiceImpl extends ServiceImpl<CaMapper, Ca> implements ICaServi
         ) {
             ca.setModifiedAt(LocalDateTime.now());
             ca.setDeleted(true);
-            return this.update(ca, caQueryWrapper);
+            boolean result = this.update(ca, caQueryWrapper);
+            caSigningKeyCache.evict(uuid);
+            caChainCache.invalidate(uuid);
+            crlPublisher.invalidate(uuid);
+            ocspResponder.invalidate(uuid);
+            caHierarchyIndex.refresh(uuid);
+            expiryIndex.refresh(ExpiryIndex.Target.CA, uuid);
+            return result;
         }
         throw new ParamValidateException(ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The CA is not yours.");
     }
 
     @Override
     public Long countCa(String owner, Integer status) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
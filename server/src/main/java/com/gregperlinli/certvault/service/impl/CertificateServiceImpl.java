@@ -3,28 +3,54 @@ package com.gregperlinli.certvault.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.gregperlinli.certvault.async.BulkCertIssuer;
+import com.gregperlinli.certvault.cache.CaChainCache;
+import com.gregperlinli.certvault.cache.CaHierarchyIndex;
+import com.gregperlinli.certvault.cache.CaSigningKeyCache;
+import com.gregperlinli.certvault.cache.CertFingerprintCache;
+import com.gregperlinli.certvault.cache.ExpiryIndex;
+import com.gregperlinli.certvault.cache.UserCache;
 import com.gregperlinli.certvault.certificate.SslCertGenerator;
+import com.gregperlinli.certvault.config.properties.BulkIssuanceProperties;
+import com.gregperlinli.certvault.config.properties.ExpiryIndexProperties;
 import com.gregperlinli.certvault.constant.AccountTypeConstant;
 import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
+import com.gregperlinli.certvault.constant.RevocationReasonConstant;
 import com.gregperlinli.certvault.domain.dto.*;
 import com.gregperlinli.certvault.domain.entities.*;
 import com.gregperlinli.certvault.domain.exception.LoginException;
 import com.gregperlinli.certvault.domain.exception.ParamValidateException;
 import com.gregperlinli.certvault.mapper.CaMapper;
 import com.gregperlinli.certvault.mapper.CertificateMapper;
-import com.gregperlinli.certvault.service.interfaces.ICaBindingService;
+import com.gregperlinli.certvault.mapper.RevokedCertificateMapper;
+import com.gregperlinli.certvault.revocation.CrlPublisher;
+import com.gregperlinli.certvault.revocation.OcspResponder;
+import com.gregperlinli.certvault.search.KeywordSearch;
+import com.gregperlinli.certvault.search.SearchTarget;
 import com.gregperlinli.certvault.service.interfaces.ICaService;
 import com.gregperlinli.certvault.service.interfaces.ICertificateService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.gregperlinli.certvault.service.interfaces.IUserService;
 import com.gregperlinli.certvault.utils.AuthUtils;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
+import com.gregperlinli.certvault.utils.CursorPageUtils;
+import com.gregperlinli.certvault.utils.CursorPageUtils.SortKey;
 import com.gregperlinli.certvault.utils.EncryptAndDecryptUtils;
+import com.gregperlinli.certvault.utils.EtagUtils;
 import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -34,28 +60,71 @@ import java.util.stream.Collectors;
  * @since 2025-03-03
  */
 @Service
+@Slf4j
 public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certificate> implements ICertificateService {
 
+    /**
+     * Sort keys of cursor pagination, same as the {@code orderBy} options of page number pagination
+     */
+    private static final Map<String, SortKey<Certificate>> CERTIFICATE_SORT_KEYS = Map.of(
+            "uuid", SortKey.<Certificate>by().string("uuid", Certificate::getUuid),
+            "comment", SortKey.<Certificate>by().nullableString("comment", Certificate::getComment),
+            "owner", SortKey.<Certificate>by().integer("owner", Certificate::getOwner),
+            "status", SortKey.<Certificate>by().dateTime("not_after", Certificate::getNotAfter)
+    );
+
     @Resource
     IUserService userService;
 
     @Resource
-    ICaService caService;
+    UserCache userCache;
 
     @Resource
-    ICaBindingService caBindingService;
+    ICaService caService;
 
     @Resource
     CaMapper caMapper;
 
+    @Resource
+    CaSigningKeyCache caSigningKeyCache;
+
+    @Resource
+    CaChainCache caChainCache;
+
+    @Resource
+    CaHierarchyIndex caHierarchyIndex;
+
+    @Resource
+    BulkCertIssuer bulkCertIssuer;
+
+    @Resource
+    BulkIssuanceProperties bulkIssuanceProperties;
+
+    @Resource
+    KeywordSearch keywordSearch;
+
+    @Resource
+    CertFingerprintCache certFingerprintCache;
+
+    @Resource
+    RevokedCertificateMapper revokedCertificateMapper;
+
+    @Resource
+    CrlPublisher crlPublisher;
+
+    @Resource
+    OcspResponder ocspResponder;
+
+    @Resource
+    ExpiryIndex expiryIndex;
+
+    @Resource
+    ExpiryIndexProperties expiryIndexProperties;
+
     @Override
-    public PageDTO<CertInfoDTO> getCertificates(String keyword, String owner, Integer page, Integer limit, Boolean isAsc, String orderBy) {
-        Page<Certificate> certificatePage = new Page<>(page, limit);
-        Page<Certificate> resultPage;
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+    public PageDTO<CertInfoDTO> getCertificates(String keyword, String owner, Integer page, Integer limit, Boolean isAsc, String orderBy, String cursor, Boolean withTotal) {
+        PageDTO<Certificate> resultPage;
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -90,58 +159,121 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
                                 .eq("deleted", false)
                 );
                 List<String> caUuids = uuids.stream().map(Object::toString).toList();
-                certificateQueryWrapper.and(wrapper -> wrapper
-                                .like("uuid", keyword)
-                                .or()
-                                .like("comment", keyword)
-                                .or()
-                                .like("ca_uuid", keyword)
-                                )
-                        .in("ca_uuid", caUuids)
+                keywordSearch.match(certificateQueryWrapper, SearchTarget.CERTIFICATE, keyword);
+                certificateQueryWrapper.in("ca_uuid", caUuids)
                         .eq("deleted", false);
                 if ( caUuids.isEmpty() ) {
                     throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The admin user does not have any CA.");
                 }
             } else if ( Objects.equals( AccountTypeConstant.SUPERADMIN.getAccountType(), user.getRole() ) ) {
-                certificateQueryWrapper.and(wrapper -> wrapper
-                                .like("uuid", keyword)
-                                .or()
-                                .like("comment", keyword)
-                                .or()
-                                .like("ca_uuid", keyword))
-                        .eq("deleted", false);
+                keywordSearch.match(certificateQueryWrapper, SearchTarget.CERTIFICATE, keyword);
+                certificateQueryWrapper.eq("deleted", false);
             } else {
-                certificateQueryWrapper.and(wrapper -> wrapper
-                                .like("uuid", keyword)
-                                .or()
-                                .like("comment", keyword)
-                                .or()
-                                .like("ca_uuid", keyword))
-                        .eq("owner", user.getId())
+                keywordSearch.match(certificateQueryWrapper, SearchTarget.CERTIFICATE, keyword);
+                certificateQueryWrapper.eq("owner", user.getId())
                         .eq("deleted", false);
             }
         }
-        if ( orderBy != null && !orderBy.isEmpty() ) {
-            if ( isAsc == null ) {
-                isAsc = true;
-            }
-            switch (orderBy) {
-                case "uuid" -> certificateQueryWrapper.orderBy(true, isAsc,"uuid");
-                case "comment" -> certificateQueryWrapper.orderBy(true, isAsc,"comment");
-                case "owner" -> certificateQueryWrapper.orderBy(true, isAsc,"owner");
-                case "status" -> certificateQueryWrapper.orderBy(true, isAsc,"not_after");
+        if ( cursor != null ) {
+            resultPage = CursorPageUtils.page(this, baseMapper::selectInfoPage, certificateQueryWrapper, CERTIFICATE_SORT_KEYS, Certificate::getId, orderBy, isAsc, cursor, limit, withTotal);
+        } else {
+            Page<Certificate> certificatePage = new Page<>(page, limit);
+            if ( orderBy != null && !orderBy.isEmpty() ) {
+                if ( isAsc == null ) {
+                    isAsc = true;
+                }
+                switch (orderBy) {
+                    case "uuid" -> certificateQueryWrapper.orderBy(true, isAsc,"uuid");
+                    case "comment" -> certificateQueryWrapper.orderBy(true, isAsc,"comment");
+                    case "owner" -> certificateQueryWrapper.orderBy(true, isAsc,"owner");
+                    case "status" -> certificateQueryWrapper.orderBy(true, isAsc,"not_after");
+                }
+            } else if ( keyword != null && !keyword.isEmpty() ) {
+                // 未指定排序时按关键字相关度排序, 相关度排序带参数, 总数在排序前单独统计
+                certificatePage.setSearchCount(false);
+                certificatePage.setTotal(this.count(certificateQueryWrapper));
+                keywordSearch.rank(certificateQueryWrapper, SearchTarget.CERTIFICATE, keyword);
             }
+            // 列表只需要基本信息, 不加载私钥与证书
+            certificatePage = baseMapper.selectInfoPage(certificatePage, certificateQueryWrapper);
+            resultPage = new PageDTO<>(certificatePage.getTotal(), certificatePage.getRecords());
         }
-        resultPage = this.page(certificatePage, certificateQueryWrapper);
-        if ( resultPage.getSize() == 0 || resultPage.getRecords() == null || resultPage.getRecords().isEmpty() ) {
+        if ( resultPage.getList() == null || resultPage.getList().isEmpty() ) {
             return new PageDTO<>(resultPage.getTotal(), null);
         }
-        Set<Integer> ownerIds = resultPage.getRecords().stream()
+        Set<Integer> ownerIds = resultPage.getList().stream()
                 .map(Certificate::getOwner).collect(Collectors.toSet());
         Map<Integer, String> userMap = userService.listByIds(ownerIds)
                 .stream().collect(Collectors.toMap(User::getId, User::getUsername));
         return new PageDTO<>(resultPage.getTotal(),
-                resultPage.getRecords().stream().map(certificate -> {
+                resultPage.getList().stream().map(certificate -> {
+                    CertInfoDTO dto = new CertInfoDTO();
+                    dto.setUuid(certificate.getUuid());
+                    dto.setAlgorithm(certificate.getAlgorithm());
+                    dto.setKeySize(certificate.getKeySize());
+                    dto.setCaUuid(certificate.getCaUuid());
+                    dto.setComment(certificate.getComment());
+                    dto.setNotBefore(certificate.getNotBefore());
+                    dto.setNotAfter(certificate.getNotAfter());
+                    dto.setCreatedAt(certificate.getCreatedAt());
+                    dto.setModifiedAt(certificate.getModifiedAt());
+                    dto.setOwner(userMap.getOrDefault(certificate.getOwner(), "Unknown"));
+                    return dto;
+                }).toList(),
+                resultPage.getNextCursor());
+    }
+
+    @Override
+    public PageDTO<CertInfoDTO> getExpiringCertificates(String owner, Integer days, Integer page, Integer limit) {
+        User user = userCache.getActive(owner);
+        if ( user == null ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
+        }
+        if ( days == null || days < 1 || days > expiryIndexProperties.getMaxDays() ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(),
+                    "Days must be between 1 and " + expiryIndexProperties.getMaxDays() + ".");
+        }
+        if ( page == null || page < 1 ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(), "The page number must be positive.");
+        }
+        if ( limit == null || limit < 1 || limit > expiryIndexProperties.getMaxLimit() ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(),
+                    "The page limit must be between 1 and " + expiryIndexProperties.getMaxLimit() + ".");
+        }
+        // 1. 与证书列表相同的可见范围: 管理员为自己 CA 签发的证书, 超级管理员为全部, 普通用户为自己的证书
+        Predicate<ExpiryIndex.Entry> filter;
+        if ( Objects.equals(AccountTypeConstant.ADMIN.getAccountType(), user.getRole()) ) {
+            Set<String> caUuids = caMapper.selectObjs(new QueryWrapper<Ca>()
+                            .select("uuid")
+                            .eq("owner", user.getId())
+                            .eq("deleted", false))
+                    .stream().map(Object::toString).collect(Collectors.toSet());
+            if ( caUuids.isEmpty() ) {
+                throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The admin user does not have any CA.");
+            }
+            filter = entry -> caUuids.contains(entry.getCaUuid());
+        } else if ( Objects.equals(AccountTypeConstant.SUPERADMIN.getAccountType(), user.getRole()) ) {
+            filter = null;
+        } else {
+            filter = entry -> Objects.equals(entry.getOwner(), user.getId());
+        }
+        // 2. 从到期索引中筛选, 不扫描数据表
+        List<ExpiryIndex.Entry> entries = expiryIndex.expiring(ExpiryIndex.Target.CERTIFICATE, Duration.ofDays(days), filter);
+        int from = (int) Math.min(entries.size(), (long) (page - 1) * limit);
+        List<String> uuids = entries.subList(from, Math.min(entries.size(), from + limit)).stream()
+                .map(ExpiryIndex.Entry::getUuid).toList();
+        if ( uuids.isEmpty() ) {
+            return new PageDTO<>((long) entries.size(), null);
+        }
+        // 3. 按 UUID 加载当前页的基本信息, 保持到期顺序
+        Map<String, Certificate> certificates = baseMapper.selectInfoPage(new Page<>(1, uuids.size(), false),
+                        new QueryWrapper<Certificate>().in("uuid", uuids).eq("deleted", false))
+                .getRecords().stream().collect(Collectors.toMap(Certificate::getUuid, certificate -> certificate));
+        List<Certificate> records = uuids.stream().map(certificates::get).filter(Objects::nonNull).toList();
+        Map<Integer, String> userMap = records.isEmpty() ? Map.of() : userService.listByIds(records.stream().map(Certificate::getOwner).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(User::getId, User::getUsername));
+        return new PageDTO<>((long) entries.size(),
+                records.stream().map(certificate -> {
                     CertInfoDTO dto = new CertInfoDTO();
                     dto.setUuid(certificate.getUuid());
                     dto.setAlgorithm(certificate.getAlgorithm());
@@ -158,15 +290,105 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
     }
 
     @Override
-    public String getCertificateCert(String uuid, String owner) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+    public String downloadCertificateCert(String uuid, String owner, Boolean isChain, Boolean needRootCa,
+                                          boolean conditional, Predicate<String> notModified) {
+        // 1. 权限检查, 非条件请求必然返回内容, 同一次查询读取证书内容
+        Certificate certificate = checkCertificateAccess(uuid, owner, !conditional);
+        AtomicReference<StoredCertificate> content = new AtomicReference<>(conditional ? null : certificate);
+        if ( content.get() != null ) {
+            certFingerprintCache.put(certificate.getUuid(), certificate.getModifiedAt(), content.get());
+        }
+        // 2. 指纹按 UUID + 修改时间 缓存, 命中时不读取证书内容
+        String fingerprint = certFingerprintCache.get(certificate.getUuid(), certificate.getModifiedAt(),
+                () -> {
+                    StoredCertificate loaded = loadCertificateContent(certificate);
+                    content.set(loaded);
+                    return loaded;
+                });
+        List<String> fingerprints = new ArrayList<>();
+        if ( fingerprint != null ) {
+            fingerprints.add(fingerprint);
+        }
+        CaChain caChain = isChain ? caChainCache.get(certificate.getCaUuid()) : null;
+        if ( caChain != null ) {
+            fingerprints.addAll(caChain.getFingerprints());
+            if ( !needRootCa && !fingerprints.isEmpty() ) {
+                fingerprints.remove(fingerprints.size() - 1);
+            }
+        }
+        // 3. 客户端已持有相同证书时不再读取证书内容
+        if ( notModified.test(EtagUtils.of(fingerprints)) ) {
+            return null;
+        }
+        StoredCertificate stored = content.get() != null ? content.get() : loadCertificateContent(certificate);
+        if ( caChain == null ) {
+            return CertStorageUtils.toBase64(stored);
+        }
+        // 收集证书链
+        List<String> certChain = new ArrayList<>();
+        if ( CertStorageUtils.hasCert(stored) ) {
+            certChain.add(CertStorageUtils.toPem(stored));
+        }
+        // 一次递归查询获取签发CA的证书链 (按 CA UUID 缓存)
+        certChain.addAll(caChain.getPems());
+        // 根据needRootCa参数决定是否移除根CA
+        if (!needRootCa && !certChain.isEmpty()) {
+            // 根CA是最后一个添加的证书，移除它
+            certChain.remove(certChain.size() - 1);
+        }
+        // 拼接证书链并Base64编码
+        return CaChainCache.encodeChain(certChain);
+    }
+
+    @Override
+    public Boolean revokeCert(String uuid, String reason, String owner) {
+        RevocationReasonConstant revocationReason = RevocationReasonConstant.of(reason);
+        if ( revocationReason == null ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(), "Unknown revocation reason.");
+        }
+        Certificate certificate = checkCertificateAccess(uuid, owner, true);
+        BigInteger serial;
+        try {
+            serial = CertStorageUtils.toCertificateHolder(certificate).getSerialNumber();
+        } catch (IOException e) {
+            throw new ParamValidateException(ResultStatusCodeConstant.FAILED.getResultCode(), "Invalid certificate format in database.");
+        }
+        RevokedCertificate revokedCertificate = new RevokedCertificate();
+        revokedCertificate.setCaUuid(certificate.getCaUuid());
+        revokedCertificate.setCertUuid(certificate.getUuid());
+        revokedCertificate.setSerial(serial.toString(16));
+        revokedCertificate.setReason(revocationReason.getReason());
+        revokedCertificate.setRevokedAt(LocalDateTime.now());
+        try {
+            revokedCertificateMapper.insert(revokedCertificate);
+        } catch (DuplicateKeyException e) {
+            throw new ParamValidateException(ResultStatusCodeConstant.FAILED.getResultCode(), "The certificate is already revoked.");
+        }
+        // 只重新签名增量 CRL, 并清除该证书已签名的 OCSP 响应
+        crlPublisher.revoked(certificate.getCaUuid(), revokedCertificate.getSerial());
+        ocspResponder.revoked(certificate.getCaUuid(), revokedCertificate.getSerial());
+        return true;
+    }
+
+    /**
+     * Check the permission to download an SSL certificate, only the columns needed for the check are loaded
+     *
+     * @param uuid        Certificate UUID
+     * @param owner       Requesting user
+     * @param withContent Whether the certificate content is loaded in the same query
+     * @return {@link Certificate}, with certificate content only if requested
+     */
+    private Certificate checkCertificateAccess(String uuid, String owner, boolean withContent) {
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
         QueryWrapper<Certificate> certificateQueryWrapper = new QueryWrapper<>();
+        if ( withContent ) {
+            certificateQueryWrapper.select("id", "uuid", "owner", "ca_uuid", "modified_at", "cert", "cert_der");
+        } else {
+            certificateQueryWrapper.select("id", "uuid", "owner", "ca_uuid", "modified_at");
+        }
         certificateQueryWrapper.eq("uuid", uuid)
                             .eq("deleted", false);
         Certificate certificate = this.getOne(certificateQueryWrapper);
@@ -177,103 +399,36 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
                 Objects.equals(certificate.getOwner(), user.getId()) ||
                 (
                         user.getRole() == AccountTypeConstant.ADMIN.getAccountType() &&
-                        caBindingService.exists(new QueryWrapper<CaBinding>()
-                                .eq("ca_uuid", certificate.getCaUuid())
-                                .eq("uid", user.getId()))
+                        caHierarchyIndex.isBound(certificate.getCaUuid(), user.getId())
                 ) ||
                 user.getRole() == AccountTypeConstant.SUPERADMIN.getAccountType()
         ) {
-            return certificate.getCert();
+            return certificate;
         }
         throw new ParamValidateException(ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The certificate is not yours.");
     }
 
-    @Override
-    public String getCertificateCertChain(String uuid, String owner, Boolean needRootCa) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
-        if ( user == null ) {
-            throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
-        }
+    /**
+     * Load the certificate content of a checked certificate and record its fingerprint
+     *
+     * @param certificate certificate returned by {@link #checkCertificateAccess}
+     * @return {@link StoredCertificate} with the certificate content
+     */
+    private StoredCertificate loadCertificateContent(Certificate certificate) {
         QueryWrapper<Certificate> certificateQueryWrapper = new QueryWrapper<>();
-        certificateQueryWrapper.eq("uuid", uuid)
-                .eq("deleted", false);
-        Certificate certificate = this.getOne(certificateQueryWrapper);
-        if ( certificate == null ) {
+        certificateQueryWrapper.select("cert", "cert_der")
+                            .eq("id", certificate.getId());
+        Certificate content = this.getOne(certificateQueryWrapper);
+        if ( content == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The certificate does not exist.");
         }
-        if ( !Objects.equals( certificate.getOwner(), user.getId() ) &&
-             !( user.getRole() == AccountTypeConstant.ADMIN.getAccountType() &&
-                     caBindingService.exists( new QueryWrapper<CaBinding>()
-                             .eq("ca_uuid", certificate.getCaUuid())
-                             .eq("uid", user.getId())) ) &&
-             user.getRole() != AccountTypeConstant.SUPERADMIN.getAccountType()
-        ) {
-            throw new ParamValidateException(
-                    ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The certificate is not yours."
-            );
-        }
-        // 收集证书链（处理二次编码）
-        List<String> certChain = new ArrayList<>();
-        // 处理当前证书
-        String certBase64 = certificate.getCert();
-        if (certBase64 != null && !certBase64.isEmpty()) {
-            try {
-                // 解码二次编码的PEM字符串（原始PEM内容）
-                String pemContent = new String(
-                        Base64.getDecoder().decode(certBase64),
-                        StandardCharsets.UTF_8
-                );
-                certChain.add(pemContent);
-            } catch (IllegalArgumentException e) {
-                throw new ParamValidateException(
-                        ResultStatusCodeConstant.FAILED.getResultCode(),
-                        "Invalid certificate format in database."
-                );
-            }
-        }
-        // 向上查找CA链
-        String currentCaUuid = certificate.getCaUuid();
-        while (currentCaUuid != null && !currentCaUuid.isEmpty()) {
-            Ca ca = caService.getOne(new QueryWrapper<Ca>()
-                    .eq("uuid", currentCaUuid)
-                    .eq("deleted", false));
-            if (ca == null) {
-                break;
-            }
-            String caCertBase64 = ca.getCert();
-            if (caCertBase64 != null && !caCertBase64.isEmpty()) {
-                try {
-                    String pemContent = new String(
-                            Base64.getDecoder().decode(caCertBase64),
-                            StandardCharsets.UTF_8
-                    );
-                    certChain.add(pemContent);
-                } catch (IllegalArgumentException e) {
-                    throw new ParamValidateException(
-                            ResultStatusCodeConstant.FAILED.getResultCode(),
-                            "Invalid CA certificate format in database."
-                    );
-                }
-            }
-            currentCaUuid = ca.getParentCa();
-        }
-        // 根据needRootCa参数决定是否移除根CA
-        if (!needRootCa && !certChain.isEmpty()) {
-            // 根CA是最后一个添加的证书，移除它
-            certChain.remove(certChain.size() - 1);
-        }
-        // 拼接证书链并Base64编码
-        String chainContent = String.join("\n", certChain);
-        return Base64.getEncoder().encodeToString(
-                chainContent.getBytes(StandardCharsets.UTF_8)
-        );
+        certFingerprintCache.put(certificate.getUuid(), certificate.getModifiedAt(), content);
+        return content;
     }
 
     @Override
     public String getCertificatePrivkey(String uuid, String confirmPassword, String owner) throws Exception {
+        // 校验密码需要密码哈希, 不走用户缓存
         QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
         userQueryWrapper.eq("username", owner)
                         .eq("deleted", false);
@@ -295,9 +450,7 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
                 Objects.equals(certificate.getOwner(), user.getId()) ||
                 (
                         user.getRole() == AccountTypeConstant.ADMIN.getAccountType() &&
-                        caBindingService.exists(new QueryWrapper<CaBinding>()
-                                .eq("ca_uuid", certificate.getCaUuid())
-                                .eq("uid", user.getId()))
+                        caHierarchyIndex.isBound(certificate.getCaUuid(), user.getId())
                 ) ||
                 user.getRole() == AccountTypeConstant.SUPERADMIN.getAccountType()
         ) {
@@ -308,10 +461,7 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
 
     @Override
     public Boolean updateCertComment(String uuid, String comment, String owner) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -326,9 +476,7 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
                 Objects.equals(certificate.getOwner(), user.getId()) ||
                 (
                         user.getRole() == AccountTypeConstant.ADMIN.getAccountType() &&
-                        caBindingService.exists(new QueryWrapper<CaBinding>()
-                                .eq("ca_uuid", certificate.getCaUuid())
-                                .eq("uid", user.getId()))
+                        caHierarchyIndex.isBound(certificate.getCaUuid(), user.getId())
                 ) ||
                 user.getRole() == AccountTypeConstant.SUPERADMIN.getAccountType()
         ) {
@@ -341,46 +489,119 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
 
     @Override
     public ResponseCertDTO requestCert(RequestCertDTO requestCertDTO, String owner) throws Exception {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
+        Ca ca = getIssuingCa(requestCertDTO.getCaUuid(), user);
+        GenResponse genResponse = SslCertGenerator.generateSslCertificate(new CertGenRequest(requestCertDTO, caSigningKeyCache.get(ca), user.getEmail()));
+        LocalDateTime now = LocalDateTime.now();
+        Certificate certificate = genResponse.toCert(ca.getUuid(), user.getId(), now, now);
+        if ( this.save(certificate) ) {
+            expiryIndex.refresh(ExpiryIndex.Target.CERTIFICATE, certificate.getUuid());
+            return new ResponseCertDTO(genResponse, ca.getUuid());
+        }
+        return null;
+    }
+
+    @Override
+    public void requestCerts(BulkRequestCertDTO bulkRequestCertDTO, String owner, Consumer<BulkCertResultDTO> consumer) throws Exception {
+        // 1. 校验请求与 CA 权限 (在输出任何结果之前)
+        User user = userCache.getActive(owner);
+        if ( user == null ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
+        }
+        List<RequestCertDTO> requests = bulkRequestCertDTO.getCerts();
+        if ( requests == null || requests.isEmpty() ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(), "The certificate requests cannot be empty.");
+        }
+        if ( requests.size() > bulkIssuanceProperties.getMaxItems() ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(),
+                    "Too many certificate requests, the maximum is " + bulkIssuanceProperties.getMaxItems() + ".");
+        }
+        Ca ca = getIssuingCa(bulkRequestCertDTO.getCaUuid(), user);
+
+        // 2. CA 私钥只解密解析一次, 所有证书并行生成
+        CaSigningKey caSigningKey = caSigningKeyCache.get(ca);
+        int insertBatchSize = bulkIssuanceProperties.getInsertBatchSize();
+        List<GenResponse> pending = new ArrayList<>(insertBatchSize);
+        List<Integer> pendingIndexes = new ArrayList<>(insertBatchSize);
+        Runnable flush = () -> {
+            if ( pending.isEmpty() ) {
+                return;
+            }
+            // 3. 成功的证书批量写入后再输出结果
+            LocalDateTime now = LocalDateTime.now();
+            boolean saved;
+            try {
+                List<Certificate> certificates = new ArrayList<>(pending.size());
+                for ( GenResponse genResponse : pending ) {
+                    certificates.add(genResponse.toCert(ca.getUuid(), user.getId(), now, now));
+                }
+                saved = this.saveBatch(certificates, insertBatchSize);
+                if ( saved ) {
+                    expiryIndex.refresh(ExpiryIndex.Target.CERTIFICATE, certificates.stream().map(Certificate::getUuid).toList());
+                }
+            } catch (Exception e) {
+                log.error("Failed to save {} certificates of bulk request: {}", pending.size(), e.getMessage());
+                saved = false;
+            }
+            for ( int i = 0; i < pending.size(); i++ ) {
+                consumer.accept(saved
+                        ? BulkCertResultDTO.success(pendingIndexes.get(i), new ResponseCertDTO(pending.get(i), ca.getUuid()))
+                        : BulkCertResultDTO.failure(pendingIndexes.get(i), "Failed to save the certificate."));
+            }
+            pending.clear();
+            pendingIndexes.clear();
+        };
+        bulkCertIssuer.issue(requests, caSigningKey, user.getEmail(), new BulkCertIssuer.Listener() {
+            @Override
+            public void onResult(int index, GenResponse genResponse, Exception error) {
+                if ( error != null ) {
+                    consumer.accept(BulkCertResultDTO.failure(index, error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName()));
+                    return;
+                }
+                pending.add(genResponse);
+                pendingIndexes.add(index);
+                if ( pending.size() >= insertBatchSize ) {
+                    flush.run();
+                }
+            }
+
+            @Override
+            public void onIdle() {
+                flush.run();
+            }
+        });
+        flush.run();
+    }
+
+    /**
+     * Get an available CA the user may issue certificates from <br/>
+     * (Authorized by the CA hierarchy index, the CA row with its private key is only loaded once allowed)
+     */
+    private Ca getIssuingCa(String caUuid, User user) {
+        CaHierarchyIndex.CaNode node = caHierarchyIndex.get(caUuid);
+        if ( node == null || !Boolean.TRUE.equals(node.getAvailable()) ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The CA does not exist.");
+        }
+        if ( !caHierarchyIndex.canUse(node, user) ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The CA is not yours.");
+        }
         QueryWrapper<Ca> caQueryWrapper = new QueryWrapper<>();
-        caQueryWrapper.eq("uuid", requestCertDTO.getCaUuid())
+        caQueryWrapper.eq("uuid", caUuid)
                     .eq("available", true)
                     .eq("deleted", false);
         Ca ca = caService.getOne(caQueryWrapper);
         if ( ca == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The CA does not exist.");
         }
-        QueryWrapper<CaBinding> caBindingQueryWrapper = new QueryWrapper<>();
-        caBindingQueryWrapper.eq("uid", user.getId())
-                .eq("ca_uuid", requestCertDTO.getCaUuid());
-        if (
-                ( caBindingService.getOne(caBindingQueryWrapper) != null && ca.getAvailable() ) ||
-                Objects.equals( ca.getOwner(), user.getId() ) ||
-                user.getRole() == AccountTypeConstant.SUPERADMIN.getAccountType()
-        ) {
-            GenResponse genResponse = SslCertGenerator.generateSslCertificate(new CertGenRequest(requestCertDTO, EncryptAndDecryptUtils.decrypt(ca.getPrivkey()), ca.getCert(), user.getEmail()));
-            LocalDateTime now = LocalDateTime.now();
-            Certificate certificate = genResponse.toCert(ca.getUuid(), user.getId(), now, now);
-            if ( this.save(certificate) ) {
-                return new ResponseCertDTO(genResponse, ca.getUuid());
-            }
-            return null;
-        }
-        throw new ParamValidateException(ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The CA is not yours.");
+        return ca;
     }
 
     @Override
     public ResponseCertDTO renewCert(String oldCertUuid, Integer expiry, String owner) throws Exception {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -395,12 +616,17 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
                 Objects.equals(certificate.getOwner(), user.getId()) ||
                 (
                         user.getRole() == AccountTypeConstant.ADMIN.getAccountType() &&
-                        caBindingService.exists(new QueryWrapper<CaBinding>()
-                                .eq("ca_uuid", certificate.getCaUuid())
-                                .eq("uid", user.getId()))
+                        caHierarchyIndex.isBound(certificate.getCaUuid(), user.getId())
                 ) ||
                 user.getRole() == AccountTypeConstant.SUPERADMIN.getAccountType()
         ) {
+            // 续期沿用原公钥, 已吊销 (含密钥泄露、被替换) 的证书不允许续期
+            QueryWrapper<RevokedCertificate> revokedQueryWrapper = new QueryWrapper<>();
+            revokedQueryWrapper.eq("ca_uuid", certificate.getCaUuid())
+                            .eq("cert_uuid", certificate.getUuid());
+            if ( revokedCertificateMapper.exists(revokedQueryWrapper) ) {
+                throw new ParamValidateException(ResultStatusCodeConstant.FAILED.getResultCode(), "The certificate has been revoked and cannot be renewed.");
+            }
             QueryWrapper<Ca> caQueryWrapper = new QueryWrapper<>();
             caQueryWrapper.eq("uuid", certificate.getCaUuid())
                         .eq("available", true)
@@ -409,22 +635,26 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
             if ( ca == null ) {
                 throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The CA does not exist.");
             }
-            QueryWrapper<CaBinding> caBindingQueryWrapper = new QueryWrapper<>();
-            caBindingQueryWrapper.eq("uid", user.getId())
-                    .eq("ca_uuid", ca.getUuid());
             if (
-                    ( caBindingService.getOne(caBindingQueryWrapper) != null && ca.getAvailable() ) ||
+                    ( caHierarchyIndex.isBound(ca.getUuid(), user.getId()) && ca.getAvailable() ) ||
                     Objects.equals( ca.getOwner(), user.getId() ) ||
                     user.getRole() == AccountTypeConstant.SUPERADMIN.getAccountType()
             ) {
-                GenResponse genResponse = SslCertGenerator.renewSslCertificate(new CertRenewRequest(EncryptAndDecryptUtils.decrypt(ca.getPrivkey()), ca.getCert(), oldCertUuid, EncryptAndDecryptUtils.decrypt(ca.getPrivkey()), certificate.getCert(), expiry, certificate.getComment()));
-                certificate.setCert(genResponse.getCert());
+                GenResponse genResponse = SslCertGenerator.renewSslCertificate(new CertRenewRequest()
+                        .setCaSigningKey(caSigningKeyCache.get(ca))
+                        .setUuid(oldCertUuid)
+                        .setOldCert(CertStorageUtils.toBase64(certificate))
+                        .setNewExpiry(expiry)
+                        .setComment(certificate.getComment()));
+                CertStorageUtils.store(certificate, genResponse.getCert());
                 certificate.setNotBefore(genResponse.getNotBefore());
                 certificate.setNotAfter(genResponse.getNotAfter());
                 certificate.setModifiedAt(LocalDateTime.now());
                 UpdateWrapper<Certificate> certificateUpdateWrapper = new UpdateWrapper<>();
                 certificateUpdateWrapper.eq("uuid", oldCertUuid);
+                CertStorageUtils.clearUnused(certificateUpdateWrapper, certificate);
                 boolean result = this.update(certificate, certificateUpdateWrapper);
+                expiryIndex.refresh(ExpiryIndex.Target.CERTIFICATE, oldCertUuid);
                 if (result) {
                     genResponse.setPrivkey(null);
                     return new ResponseCertDTO(genResponse, ca.getUuid());
@@ -438,10 +668,7 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
 
     @Override
     public Boolean deleteCert(String uuid, String owner) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                        .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -456,25 +683,22 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
                 Objects.equals( certificate.getOwner(), user.getId() ) ||
                 (
                         user.getRole() == AccountTypeConstant.ADMIN.getAccountType() &&
-                        caBindingService.exists(new QueryWrapper<CaBinding>()
-                                .eq("ca_uuid", certificate.getCaUuid())
-                                .eq("uid", user.getId()))
+                        caHierarchyIndex.isBound(certificate.getCaUuid(), user.getId())
                 ) ||
                 user.getRole() == AccountTypeConstant.SUPERADMIN.getAccountType()
         ) {
             certificate.setModifiedAt(LocalDateTime.now());
             certificate.setDeleted(true);
-            return this.updateById(certificate);
+            boolean result = this.updateById(certificate);
+            expiryIndex.refresh(ExpiryIndex.Target.CERTIFICATE, uuid);
+            return result;
         }
         throw new ParamValidateException(ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The certificate is not yours.");
     }
 
     @Override
     public Long countCertificates(String owner) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -488,10 +712,7 @@ public class CertificateServiceImpl extends ServiceImpl<CertificateMapper, Certi
 
     @Override
     public Long countCaSigned(String owner, String uuid, Boolean caOrSsl) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", owner)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(owner);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -4,6 +4,8 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.gregperlinli.certvault.async.LoginRecordPipeline;
+import com.gregperlinli.certvault.cache.UserCache;
 import com.gregperlinli.certvault.constant.AccountTypeConstant;
 import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
 import com.gregperlinli.certvault.domain.dto.LoginRecordDTO;
@@ -14,6 +16,8 @@ import com.gregperlinli.certvault.domain.exception.ParamValidateException;
 import com.gregperlinli.certvault.mapper.LoginRecordMapper;
 import com.gregperlinli.certvault.service.interfaces.ILoginRecordService;
 import com.gregperlinli.certvault.service.interfaces.IUserService;
+import com.gregperlinli.certvault.utils.CursorPageUtils;
+import com.gregperlinli.certvault.utils.CursorPageUtils.SortKey;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.session.SessionRegistry;
@@ -35,19 +39,38 @@ import java.util.stream.Collectors;
 @Slf4j
 public class LoginRecordServiceImpl extends ServiceImpl<LoginRecordMapper, LoginRecord> implements ILoginRecordService {
 
+    /**
+     * Sort keys of cursor pagination, same as the {@code orderBy} options of page number pagination
+     */
+    private static final Map<String, SortKey<LoginRecord>> LOGIN_RECORD_SORT_KEYS = Map.of(
+            "loginTime", SortKey.<LoginRecord>by().dateTime("login_time", LoginRecord::getLoginTime),
+            "ip", SortKey.<LoginRecord>by().nullableString("ip", LoginRecord::getIp),
+            "region", SortKey.<LoginRecord>by().nullableString("region", LoginRecord::getRegion),
+            "province", SortKey.<LoginRecord>by().nullableString("province", LoginRecord::getProvince),
+            "city", SortKey.<LoginRecord>by().nullableString("city", LoginRecord::getCity),
+            "platform", SortKey.<LoginRecord>by().nullableString("platform", LoginRecord::getPlatform),
+            "os", SortKey.<LoginRecord>by().nullableString("os", LoginRecord::getOs),
+            "browser", SortKey.<LoginRecord>by().nullableString("browser", LoginRecord::getBrowser)
+    );
+
     @Resource
     IUserService userService;
 
+    @Resource
+    UserCache userCache;
+
+    @Resource
+    LoginRecordPipeline loginRecordPipeline;
+
     @Resource
     SessionRegistry sessionRegistry;
 
     @Override
-    public PageDTO<LoginRecordDTO> getLoginRecords(String keyword, Integer status, String sessionId, Integer page, Integer limit, Boolean isAsc, String orderBy) {
+    public PageDTO<LoginRecordDTO> getLoginRecords(String keyword, Integer status, String sessionId, Integer page, Integer limit, Boolean isAsc, String orderBy, String cursor, Boolean withTotal) {
         if ( status == null ) {
             status = -1;
         }
-        Page<LoginRecord> loginRecordPage = new Page<>(page, limit);
-        Page<LoginRecord> resultPage;
+        PageDTO<LoginRecord> resultPage;
         QueryWrapper<LoginRecord> loginRecordQueryWrapper = new QueryWrapper<>();
         if ( status == 0 ) {
             loginRecordQueryWrapper.eq("online", false);
@@ -62,31 +85,36 @@ public class LoginRecordServiceImpl extends ServiceImpl<LoginRecordMapper, Login
             Set<Integer> uids = users.stream().map(User::getId).collect(Collectors.toSet());
             loginRecordQueryWrapper.in("uid", uids);
         }
-        if ( orderBy != null && !orderBy.isEmpty() ) {
-            if ( isAsc == null ) {
-                isAsc = true;
-            }
-            switch (orderBy) {
-                case "loginTime" -> loginRecordQueryWrapper.orderBy(true, isAsc,"login_time");
-                case "ip" -> loginRecordQueryWrapper.orderBy(true, isAsc,"ip");
-                case "region" -> loginRecordQueryWrapper.orderBy(true, isAsc,"region");
-                case "province" -> loginRecordQueryWrapper.orderBy(true, isAsc,"province");
-                case "city" -> loginRecordQueryWrapper.orderBy(true, isAsc,"city");
-                case "platform" -> loginRecordQueryWrapper.orderBy(true, isAsc,"platform");
-                case "os" -> loginRecordQueryWrapper.orderBy(true, isAsc,"os");
-                case "browser" -> loginRecordQueryWrapper.orderBy(true, isAsc,"browser");
+        if ( cursor != null ) {
+            resultPage = CursorPageUtils.page(this, loginRecordQueryWrapper, LOGIN_RECORD_SORT_KEYS, LoginRecord::getId, orderBy, isAsc, cursor, limit, withTotal);
+        } else {
+            if ( orderBy != null && !orderBy.isEmpty() ) {
+                if ( isAsc == null ) {
+                    isAsc = true;
+                }
+                switch (orderBy) {
+                    case "loginTime" -> loginRecordQueryWrapper.orderBy(true, isAsc,"login_time");
+                    case "ip" -> loginRecordQueryWrapper.orderBy(true, isAsc,"ip");
+                    case "region" -> loginRecordQueryWrapper.orderBy(true, isAsc,"region");
+                    case "province" -> loginRecordQueryWrapper.orderBy(true, isAsc,"province");
+                    case "city" -> loginRecordQueryWrapper.orderBy(true, isAsc,"city");
+                    case "platform" -> loginRecordQueryWrapper.orderBy(true, isAsc,"platform");
+                    case "os" -> loginRecordQueryWrapper.orderBy(true, isAsc,"os");
+                    case "browser" -> loginRecordQueryWrapper.orderBy(true, isAsc,"browser");
+                }
             }
+            Page<LoginRecord> loginRecordPage = this.page(new Page<>(page, limit), loginRecordQueryWrapper);
+            resultPage = new PageDTO<>(loginRecordPage.getTotal(), loginRecordPage.getRecords());
         }
-        resultPage = this.page(loginRecordPage, loginRecordQueryWrapper);
-        if ( resultPage.getSize() == 0 || resultPage.getRecords() == null || resultPage.getRecords().isEmpty() ) {
+        if ( resultPage.getList() == null || resultPage.getList().isEmpty() ) {
             return new PageDTO<>(resultPage.getTotal(), null);
         }
-        Set<Integer> uids = resultPage.getRecords().stream()
+        Set<Integer> uids = resultPage.getList().stream()
                 .map(LoginRecord::getUid).collect(Collectors.toSet());
         Map<Integer, String> userMap = userService.listByIds(uids)
                 .stream().collect(Collectors.toMap(User::getId, User::getUsername));
         return new PageDTO<>(resultPage.getTotal(),
-                resultPage.getRecords().stream().map(loginRecord -> {
+                resultPage.getList().stream().map(loginRecord -> {
                     LoginRecordDTO dto = new LoginRecordDTO();
                     dto.setUuid(loginRecord.getUuid());
                     dto.setUsername(userMap.getOrDefault(loginRecord.getUid(), "Unknown"));
@@ -103,7 +131,8 @@ public class LoginRecordServiceImpl extends ServiceImpl<LoginRecordMapper, Login
                         dto.setIsCurrentSession(true);
                     }
                     return dto;
-                }).toList());
+                }).toList(),
+                resultPage.getNextCursor());
     }
 
     @Override
@@ -113,10 +142,7 @@ public class LoginRecordServiceImpl extends ServiceImpl<LoginRecordMapper, Login
         }
         Page<LoginRecord> loginRecordPage = new Page<>(page, limit);
         Page<LoginRecord> resultPage;
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", username)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(username);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -169,10 +195,7 @@ public class LoginRecordServiceImpl extends ServiceImpl<LoginRecordMapper, Login
 
     @Override
     public void addLoginRecord(LoginRecordDTO loginRecordDTO, String sessionId) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", loginRecordDTO.getUsername())
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(loginRecordDTO.getUsername());
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -194,6 +217,7 @@ public class LoginRecordServiceImpl extends ServiceImpl<LoginRecordMapper, Login
 
     @Override
     public void setRecordOffline(String sessionId) {
+        loginRecordPipeline.markOffline(sessionId);
         UpdateWrapper<LoginRecord> loginRecordUpdateWrapper = new UpdateWrapper<>();
         loginRecordUpdateWrapper.eq("session_id", sessionId)
                 .set("online", false);
@@ -202,10 +226,7 @@ public class LoginRecordServiceImpl extends ServiceImpl<LoginRecordMapper, Login
 
     @Override
     public boolean sessionForceLogout(String username, String uuid) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", username)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(username);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -233,10 +254,7 @@ public class LoginRecordServiceImpl extends ServiceImpl<LoginRecordMapper, Login
 
     @Override
     public boolean userForceLogout(String username) {
-        QueryWrapper<User> userQueryWrapper = new QueryWrapper<>();
-        userQueryWrapper.eq("username", username)
-                .eq("deleted", false);
-        User user = userService.getOne(userQueryWrapper);
+        User user = userCache.getActive(username);
         if ( user == null ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
         }
@@ -244,6 +262,7 @@ public class LoginRecordServiceImpl extends ServiceImpl<LoginRecordMapper, Login
         loginRecordQueryWrapper.eq("uid", user.getId())
                 .eq("online", true);
         List<LoginRecord> loginRecords = this.list(loginRecordQueryWrapper);
+        loginRecordPipeline.markUserOffline(username);
         UpdateWrapper<LoginRecord> loginRecordUpdateWrapper = new UpdateWrapper<>();
         loginRecordUpdateWrapper.eq("uid", user.getId())
                 .eq("online", true)
@@ -0,0 +1,186 @@
+package com.gregperlinli.certvault.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.gregperlinli.certvault.cache.CaHierarchyIndex;
+import com.gregperlinli.certvault.cache.UserCache;
+import com.gregperlinli.certvault.config.properties.AutoRenewalProperties;
+import com.gregperlinli.certvault.constant.AccountTypeConstant;
+import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
+import com.gregperlinli.certvault.domain.dto.RenewalPolicyDTO;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.domain.entities.RenewalPolicy;
+import com.gregperlinli.certvault.domain.entities.User;
+import com.gregperlinli.certvault.domain.exception.ParamValidateException;
+import com.gregperlinli.certvault.mapper.RenewalPolicyMapper;
+import com.gregperlinli.certvault.service.interfaces.ICaService;
+import com.gregperlinli.certvault.service.interfaces.ICertificateService;
+import com.gregperlinli.certvault.service.interfaces.IRenewalPolicyService;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Automatic Renewal Policy Service Implementation Class
+ *
+ * @author gregPerlinLi
+ * @since 2025-05-16
+ */
+@Service
+public class RenewalPolicyServiceImpl extends ServiceImpl<RenewalPolicyMapper, RenewalPolicy> implements IRenewalPolicyService {
+
+    @Resource
+    ICaService caService;
+
+    @Resource
+    ICertificateService certificateService;
+
+    @Resource
+    UserCache userCache;
+
+    @Resource
+    CaHierarchyIndex caHierarchyIndex;
+
+    @Resource
+    AutoRenewalProperties autoRenewalProperties;
+
+    @Override
+    public RenewalPolicyDTO getCaPolicy(String caUuid, String owner) {
+        checkCa(caUuid, owner);
+        RenewalPolicy policy = this.getOne(caPolicyWrapper(caUuid));
+        return policy == null ? null : new RenewalPolicyDTO(policy);
+    }
+
+    @Override
+    public Boolean setCaPolicy(String caUuid, RenewalPolicyDTO policy, String owner) {
+        User user = checkCa(caUuid, owner);
+        RenewalPolicy renewalPolicy = this.getOne(caPolicyWrapper(caUuid));
+        if ( renewalPolicy == null ) {
+            renewalPolicy = new RenewalPolicy();
+            renewalPolicy.setCaUuid(caUuid);
+        }
+        return save(renewalPolicy, policy, user);
+    }
+
+    @Override
+    public Boolean deleteCaPolicy(String caUuid, String owner) {
+        checkCa(caUuid, owner);
+        return this.remove(caPolicyWrapper(caUuid));
+    }
+
+    @Override
+    public RenewalPolicyDTO getCertPolicy(String certUuid, String owner) {
+        checkCertificate(certUuid, owner);
+        RenewalPolicy policy = this.getOne(certPolicyWrapper(certUuid));
+        return policy == null ? null : new RenewalPolicyDTO(policy);
+    }
+
+    @Override
+    public Boolean setCertPolicy(String certUuid, RenewalPolicyDTO policy, String owner) {
+        User user = checkCertificate(certUuid, owner);
+        RenewalPolicy renewalPolicy = this.getOne(certPolicyWrapper(certUuid));
+        if ( renewalPolicy == null ) {
+            renewalPolicy = new RenewalPolicy();
+            renewalPolicy.setCertUuid(certUuid);
+        }
+        return save(renewalPolicy, policy, user);
+    }
+
+    @Override
+    public Boolean deleteCertPolicy(String certUuid, String owner) {
+        checkCertificate(certUuid, owner);
+        return this.remove(certPolicyWrapper(certUuid));
+    }
+
+    private Boolean save(RenewalPolicy renewalPolicy, RenewalPolicyDTO policy, User user) {
+        if (
+                policy == null || policy.getRenewBeforeDays() == null ||
+                policy.getRenewBeforeDays() < 1 || policy.getRenewBeforeDays() > autoRenewalProperties.getMaxRenewBeforeDays()
+        ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(),
+                    "The renew before days must be between 1 and " + autoRenewalProperties.getMaxRenewBeforeDays() + ".");
+        }
+        if ( policy.getValidityDays() != null && policy.getValidityDays() < 1 ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(), "The validity days must be positive.");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        renewalPolicy.setRenewBeforeDays(policy.getRenewBeforeDays());
+        renewalPolicy.setValidityDays(policy.getValidityDays());
+        renewalPolicy.setEnabled(policy.getEnabled() == null || policy.getEnabled());
+        renewalPolicy.setOwner(user.getId());
+        renewalPolicy.setModifiedAt(now);
+        if ( renewalPolicy.getId() == null ) {
+            renewalPolicy.setCreatedAt(now);
+            return this.save(renewalPolicy);
+        }
+        // validity_days 为空时也需要写入
+        UpdateWrapper<RenewalPolicy> renewalPolicyUpdateWrapper = new UpdateWrapper<>();
+        renewalPolicyUpdateWrapper.eq("id", renewalPolicy.getId())
+                                .set("validity_days", policy.getValidityDays());
+        return this.update(renewalPolicy, renewalPolicyUpdateWrapper);
+    }
+
+    private User checkCa(String caUuid, String owner) {
+        User user = userCache.getActive(owner);
+        if ( user == null ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
+        }
+        QueryWrapper<Ca> caQueryWrapper = new QueryWrapper<>();
+        caQueryWrapper.eq("uuid", caUuid)
+                    .eq("deleted", false);
+        Ca ca = caService.getOne(caQueryWrapper);
+        if ( ca == null ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The CA does not exist.");
+        }
+        if (
+                !Objects.equals( ca.getOwner(), user.getId() ) &&
+                user.getRole() != AccountTypeConstant.SUPERADMIN.getAccountType()
+        ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The CA is not yours.");
+        }
+        return user;
+    }
+
+    private User checkCertificate(String certUuid, String owner) {
+        User user = userCache.getActive(owner);
+        if ( user == null ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The user does not exist.");
+        }
+        QueryWrapper<Certificate> certificateQueryWrapper = new QueryWrapper<>();
+        certificateQueryWrapper.eq("uuid", certUuid)
+                            .eq("deleted", false);
+        Certificate certificate = certificateService.getOne(certificateQueryWrapper);
+        if ( certificate == null ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PAGE_NOT_FIND.getResultCode(), "The certificate does not exist.");
+        }
+        if (
+                !Objects.equals(certificate.getOwner(), user.getId()) &&
+                !(
+                        user.getRole() == AccountTypeConstant.ADMIN.getAccountType() &&
+                        caHierarchyIndex.isBound(certificate.getCaUuid(), user.getId())
+                ) &&
+                user.getRole() != AccountTypeConstant.SUPERADMIN.getAccountType()
+        ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.FORBIDDEN.getResultCode(), "The certificate is not yours.");
+        }
+        return user;
+    }
+
+    private static QueryWrapper<RenewalPolicy> caPolicyWrapper(String caUuid) {
+        QueryWrapper<RenewalPolicy> renewalPolicyQueryWrapper = new QueryWrapper<>();
+        renewalPolicyQueryWrapper.eq("ca_uuid", caUuid)
+                            .isNull("cert_uuid");
+        return renewalPolicyQueryWrapper;
+    }
+
+    private static QueryWrapper<RenewalPolicy> certPolicyWrapper(String certUuid) {
+        QueryWrapper<RenewalPolicy> renewalPolicyQueryWrapper = new QueryWrapper<>();
+        renewalPolicyQueryWrapper.eq("cert_uuid", certUuid);
+        return renewalPolicyQueryWrapper;
+    }
+
+}
@@ -3,6 +3,8 @@ package com.gregperlinli.certvault.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.gregperlinli.certvault.cache.SessionNearCache;
+import com.gregperlinli.certvault.cache.UserCache;
 import com.gregperlinli.certvault.constant.AccountTypeConstant;
 import com.gregperlinli.certvault.constant.RedisKeyConstant;
 import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
@@ -43,7 +45,13 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
     StringRedisTemplate stringRedisTemplate;
 
     @Resource
-    RedisTemplate<String, UserProfileDTO> redisTemplate;
+    RedisTemplate<String, UserProfileDTO> sessionRedisTemplate;
+
+    @Resource
+    UserCache userCache;
+
+    @Resource
+    SessionNearCache sessionNearCache;
 
     private static final int BATCH_SIZE = 500;
 
@@ -69,7 +77,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
             user = this.getOne(userQueryWrapper);
         }
         if ( user != null && AuthUtils.matchesPassword(password, user.getPassword()) ) {
-            redisTemplate.opsForValue().set(RedisKeyConstant.USER.joinLoginPrefix(sessionId), new UserProfileDTO(user), 60, TimeUnit.MINUTES);
+            sessionRedisTemplate.opsForValue().set(RedisKeyConstant.USER.join(sessionId), new UserProfileDTO(user), 60, TimeUnit.MINUTES);
             return new UserProfileDTO(user);
         }
         return null;
@@ -80,7 +88,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         if ( !GenericUtils.ofNullable(sessionId) ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(), "The parameter cannot be empty.");
         }
-        return (UserProfileDTO) redisTemplate.opsForValue().get(RedisKeyConstant.USER.joinLoginPrefix(sessionId));
+        return sessionRedisTemplate.opsForValue().get(RedisKeyConstant.USER.join(sessionId));
     }
 
     @Override
@@ -88,7 +96,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         if ( !GenericUtils.ofNullable(sessionId) ) {
             throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(), "The parameter cannot be empty.");
         }
-        redisTemplate.delete(RedisKeyConstant.USER.joinLoginPrefix(sessionId));
+        sessionRedisTemplate.delete(RedisKeyConstant.USER.join(sessionId));
+        sessionNearCache.evict(sessionId);
     }
 
     @Override
@@ -178,6 +187,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         return new UserProfileDTO(user);
     }
 
+    @Transactional(rollbackFor = Exception.class)
     @Override
     public Boolean updateUserProfile(String username, UpdateUserProfileDTO updateUserProfileDTO, boolean isSuperadmin) {
         QueryWrapper<User> queryWrapper = new QueryWrapper<>();
@@ -200,7 +210,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
             user.setEmail(updateUserProfileDTO.getEmail());
         }
         user.setModifiedAt(LocalDateTime.now());
-        return this.updateById(user);
+        boolean updated = this.updateById(user);
+        userCache.evict(username);
+        return updated;
     }
 
     //////////////////////////////////////////////////
@@ -327,6 +339,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         return true;
     }
 
+    @Transactional(rollbackFor = Exception.class)
     @Override
     public Boolean updateUserRole(UpdateRoleDTO updateRoleDTO, String requestUser) throws Exception {
         if ( !GenericUtils.allOfNullable(updateRoleDTO) ) {
@@ -344,7 +357,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         }
         user.setRole(updateRoleDTO.getRole());
         user.setModifiedAt(LocalDateTime.now());
-        return this.updateById(user);
+        boolean updated = this.updateById(user);
+        userCache.evict(user.getUsername());
+        return updated;
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -402,9 +417,13 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
 
             return update(uw);
         });
+
+        // 6. Evict resolved users
+        userCache.evict(existingUsernames);
         return true;
     }
 
+    @Transactional(rollbackFor = Exception.class)
     @Override
     public Boolean deleteUser(String username, String requestUser) {
         if ( !GenericUtils.ofNullable(username) ) {
@@ -422,7 +441,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         }
         user.setDeleted(true);
         user.setModifiedAt(LocalDateTime.now());
-        return this.updateById(user);
+        boolean updated = this.updateById(user);
+        userCache.evict(user.getUsername());
+        return updated;
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -480,6 +501,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
             return update(uw);
         });
 
+        // 6. Evict resolved users
+        userCache.evict(existingUsernames);
         return true;
     }
 
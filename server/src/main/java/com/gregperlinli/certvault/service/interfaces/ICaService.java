@@ -23,9 +23,22 @@ public interface ICaService extends IService<Ca> {
      * @param limit   page size
      * @param isAsc   ascending or descending
      * @param orderBy order by
+     * @param cursor  cursor of the previous page (empty for the first page), {@code null} to use page number
+     * @param withTotal whether to count the total in cursor pagination
      * @return ca certificates info
      */
-    PageDTO<CaInfoDTO> getCas(String keyword, String owner, Integer page, Integer limit, Boolean isAsc, String orderBy);
+    PageDTO<CaInfoDTO> getCas(String keyword, String owner, Integer page, Integer limit, Boolean isAsc, String orderBy, String cursor, Boolean withTotal);
+
+    /**
+     * Get ca certificates expiring within the given days, soonest first
+     *
+     * @param owner owner of the ca certificates
+     * @param days  days from now
+     * @param page  page number
+     * @param limit page size
+     * @return ca certificates info
+     */
+    PageDTO<CaInfoDTO> getExpiringCas(String owner, Integer days, Integer page, Integer limit);
 
     /**
      * Get all CA bindings of a user
@@ -87,6 +100,17 @@ public interface ICaService extends IService<Ca> {
      */
     String getCaCertChain(String uuid, String owner, Boolean needRootCa);
 
+    /**
+     * Get the ETag of a ca certificate or chain download, with the same permission check
+     *
+     * @param uuid       ca certificate uuid
+     * @param owner      owner of the ca certificate
+     * @param isChain    whether the chain is downloaded
+     * @param needRootCa whether to include root ca
+     * @return strong ETag, {@code null} if there is no certificate
+     */
+    String getCaCertEtag(String uuid, String owner, Boolean isChain, Boolean needRootCa);
+
     /**
      * Get ca private key
      *
@@ -4,6 +4,9 @@ import com.gregperlinli.certvault.domain.dto.*;
 import com.gregperlinli.certvault.domain.entities.Certificate;
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
 /**
  * SSL Certificate Service
  *
@@ -21,28 +24,47 @@ public interface ICertificateService extends IService<Certificate> {
      * @param limit   Number of certificates per page
      * @param isAsc   Ascending or descending
      * @param orderBy Order by field
+     * @param cursor  Cursor of the previous page (empty for the first page), {@code null} to use page number
+     * @param withTotal Whether to count the total in cursor pagination
      * @return {@link PageDTO<CertificateDetailsDTO>}
      */
-    PageDTO<CertInfoDTO> getCertificates(String keyword, String owner, Integer page, Integer limit, Boolean isAsc, String orderBy);
+    PageDTO<CertInfoDTO> getCertificates(String keyword, String owner, Integer page, Integer limit, Boolean isAsc, String orderBy, String cursor, Boolean withTotal);
 
     /**
-     * Get SSL Certificate
+     * Get SSL Certificates expiring within the given days, soonest first
      *
-     * @param uuid   Certificate UUID
-     * @param owner  Owner of the Certificate
-     * @return {@link String} BASE64 SSL Certificate
+     * @param owner Owner of the Certificate
+     * @param days  Days from now
+     * @param page  Page number
+     * @param limit Number of certificates per page
+     * @return {@link PageDTO<CertInfoDTO>}
      */
-    String getCertificateCert(String uuid, String owner);
+    PageDTO<CertInfoDTO> getExpiringCertificates(String owner, Integer days, Integer page, Integer limit);
 
     /**
-     * Get SSL Certificate Chain
+     * Download SSL Certificate or Chain, conditional GET aware <br/>
+     * (One permission check, the certificate content is only loaded when it is returned)
      *
-     * @param uuid  Certificate UUID
-     * @param owner Owner of the Certificate
+     * @param uuid        Certificate UUID
+     * @param owner       Owner of the Certificate
+     * @param isChain     Whether the chain is downloaded
      * @param needRootCa  Whether to include the root CA certificate
-     * @return {@link String} BASE64 SSL Certificate Chain
+     * @param conditional Whether the request carries {@code If-None-Match}, otherwise the content is loaded with the permission check
+     * @param notModified Checks the strong ETag ({@code null} if there is no certificate) against the request
+     * @return {@link String} BASE64 SSL Certificate or Chain, {@code null} if not modified
      */
-    String getCertificateCertChain(String uuid, String owner, Boolean needRootCa);
+    String downloadCertificateCert(String uuid, String owner, Boolean isChain, Boolean needRootCa,
+                                   boolean conditional, Predicate<String> notModified);
+
+    /**
+     * Revoke SSL Certificate, the certificate is listed in the CRLs of its CA
+     *
+     * @param uuid   Certificate UUID
+     * @param reason Revocation reason (RFC 5280 CRLReason name, empty for {@code unspecified})
+     * @param owner  Owner of the Certificate
+     * @return {@link Boolean} Revocation result
+     */
+    Boolean revokeCert(String uuid, String reason, String owner);
 
     /**
      * Get SSL Certificate Private Key
@@ -75,6 +97,21 @@ public interface ICertificateService extends IService<Certificate> {
      */
     ResponseCertDTO requestCert(RequestCertDTO requestCertDTO, String owner) throws Exception;
 
+    /**
+     * Request multiple SSL Certificates from one CA
+     *
+     * <p>
+     * The request is validated before any result is emitted, so validation failures are thrown as usual.
+     * Each item is reported after it has been saved, in completion order.
+     * </p>
+     *
+     * @param bulkRequestCertDTO Bulk Certificate Request DTO
+     * @param owner              Owner of the Certificates
+     * @param consumer           Receives the result of every item
+     * @throws Exception
+     */
+    void requestCerts(BulkRequestCertDTO bulkRequestCertDTO, String owner, Consumer<BulkCertResultDTO> consumer) throws Exception;
+
     /**
      * Renew a SSL Certificate
      *
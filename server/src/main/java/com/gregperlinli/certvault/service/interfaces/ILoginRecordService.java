@@ -23,9 +23,11 @@ public interface ILoginRecordService extends IService<LoginRecord> {
      * @param limit     limit
      * @param isAsc     ascending or descending
      * @param orderBy   the order by field
+     * @param cursor    cursor of the previous page (empty for the first page), {@code null} to use page number
+     * @param withTotal whether to count the total in cursor pagination
      * @return user login records
      */
-    PageDTO<LoginRecordDTO> getLoginRecords(String keyword, Integer status, String sessionId, Integer page, Integer limit, Boolean isAsc, String orderBy);
+    PageDTO<LoginRecordDTO> getLoginRecords(String keyword, Integer status, String sessionId, Integer page, Integer limit, Boolean isAsc, String orderBy, String cursor, Boolean withTotal);
 
     /**
      * Get user login records
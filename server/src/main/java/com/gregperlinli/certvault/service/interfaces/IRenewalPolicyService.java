@@ -0,0 +1,71 @@
+package com.gregperlinli.certvault.service.interfaces;
+
+import com.gregperlinli.certvault.domain.dto.RenewalPolicyDTO;
+import com.gregperlinli.certvault.domain.entities.RenewalPolicy;
+import com.baomidou.mybatisplus.extension.service.IService;
+
+/**
+ * Automatic Renewal Policy Service
+ *
+ * @author gregPerlinLi
+ * @since 2025-05-16
+ */
+public interface IRenewalPolicyService extends IService<RenewalPolicy> {
+
+    /**
+     * Get the renewal policy of a CA
+     *
+     * @param caUuid CA UUID
+     * @param owner  the username of the CA owner
+     * @return renewal policy, or {@code null} if not set
+     */
+    RenewalPolicyDTO getCaPolicy(String caUuid, String owner);
+
+    /**
+     * Create or replace the renewal policy of a CA, applied to every certificate issued by the CA
+     *
+     * @param caUuid CA UUID
+     * @param policy renewal policy
+     * @param owner  the username of the CA owner
+     * @return true if the policy is saved successfully
+     */
+    Boolean setCaPolicy(String caUuid, RenewalPolicyDTO policy, String owner);
+
+    /**
+     * Delete the renewal policy of a CA
+     *
+     * @param caUuid CA UUID
+     * @param owner  the username of the CA owner
+     * @return true if the policy is deleted successfully
+     */
+    Boolean deleteCaPolicy(String caUuid, String owner);
+
+    /**
+     * Get the renewal policy of a certificate
+     *
+     * @param certUuid certificate UUID
+     * @param owner    the username of the certificate owner
+     * @return renewal policy, or {@code null} if not set
+     */
+    RenewalPolicyDTO getCertPolicy(String certUuid, String owner);
+
+    /**
+     * Create or replace the renewal policy of a certificate, takes precedence over the policy of its CA
+     *
+     * @param certUuid certificate UUID
+     * @param policy   renewal policy
+     * @param owner    the username of the certificate owner
+     * @return true if the policy is saved successfully
+     */
+    Boolean setCertPolicy(String certUuid, RenewalPolicyDTO policy, String owner);
+
+    /**
+     * Delete the renewal policy of a certificate
+     *
+     * @param certUuid certificate UUID
+     * @param owner    the username of the certificate owner
+     * @return true if the policy is deleted successfully
+     */
+    Boolean deleteCertPolicy(String certUuid, String owner);
+
+}
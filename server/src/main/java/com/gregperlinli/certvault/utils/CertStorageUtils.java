@@ -0,0 +1,224 @@
+package com.gregperlinli.certvault.utils;
+
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
+import com.gregperlinli.certvault.domain.entities.StoredCertificate;
+import com.gregperlinli.certvault.domain.exception.ParamValidateException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.util.io.pem.PemObject;
+import org.bouncycastle.util.io.pem.PemReader;
+import org.bouncycastle.util.io.pem.PemWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Certificate Storage Utils
+ *
+ * <p>
+ * 证书以原始 DER 存储于 {@code cert_der} 列 ({@code der} 格式), 或以 Base64 编码的 PEM 存储于 {@code cert} 列 ({@code pem} 格式, 旧格式).
+ * 读取时两种格式均可识别, 优先使用 DER, Base64 PEM 仅在 API 返回时生成.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CertStorageUtils}
+ * @date 2025/5/15 10:20
+ */
+@Component
+@Slf4j
+public class CertStorageUtils {
+
+    public static final String FORMAT_DER = "der";
+
+    public static final String FORMAT_PEM = "pem";
+
+    private static final String PEM_TYPE = "CERTIFICATE";
+
+    @Value("${cert-storage.format:der}")
+    private String injectFormat;
+
+    private static boolean derEnabled = true;
+
+    @PostConstruct
+    public void init() {
+        if ( !FORMAT_DER.equalsIgnoreCase(injectFormat) && !FORMAT_PEM.equalsIgnoreCase(injectFormat) ) {
+            log.warn("Unknown certificate storage format '{}', use '{}'", injectFormat, FORMAT_DER);
+        }
+        derEnabled = !FORMAT_PEM.equalsIgnoreCase(injectFormat);
+    }
+
+    /**
+     * Whether new certificates are stored as DER
+     *
+     * @return {@code true} if the storage format is {@code der}
+     */
+    public static boolean isDerEnabled() {
+        return derEnabled;
+    }
+
+    /**
+     * Store a certificate in the configured format, the other column is cleared
+     *
+     * @param entity     entity to store the certificate in
+     * @param certBase64 certificate (BASE64 encoded PEM)
+     * @param <T>        entity type
+     * @return the entity
+     */
+    public static <T extends StoredCertificate> T store(T entity, String certBase64) {
+        if ( derEnabled ) {
+            entity.setCertDer(toDer(certBase64));
+            entity.setCert(null);
+        } else {
+            entity.setCert(certBase64);
+            entity.setCertDer(null);
+        }
+        return entity;
+    }
+
+    /**
+     * Clear the unused certificate column on update <br/>
+     * (Entity updates skip {@code null} fields, the column of the other format is set to {@code NULL} explicitly)
+     *
+     * @param updateWrapper update wrapper
+     * @param entity        entity the certificate was stored in by {@link #store}
+     */
+    public static void clearUnused(UpdateWrapper<?> updateWrapper, StoredCertificate entity) {
+        updateWrapper.setSql(entity.getCert() == null, "cert = NULL")
+                .setSql(entity.getCertDer() == null, "cert_der = NULL");
+    }
+
+    /**
+     * Whether the entity holds a certificate
+     *
+     * @param entity entity
+     * @return {@code true} if a certificate is stored in either format
+     */
+    public static boolean hasCert(StoredCertificate entity) {
+        return ( entity.getCertDer() != null && entity.getCertDer().length > 0 ) ||
+                ( entity.getCert() != null && !entity.getCert().isEmpty() );
+    }
+
+    /**
+     * DER of the stored certificate
+     *
+     * @param entity entity
+     * @return DER, {@code null} if no certificate is stored
+     */
+    public static byte[] toDer(StoredCertificate entity) {
+        if ( entity.getCertDer() != null ) {
+            return entity.getCertDer();
+        }
+        return entity.getCert() == null ? null : toDer(entity.getCert());
+    }
+
+    /**
+     * Parse the stored certificate, without the PEM round trip when stored as DER
+     *
+     * @param entity entity
+     * @return {@link X509CertificateHolder}
+     * @throws IOException if the certificate cannot be parsed
+     */
+    public static X509CertificateHolder toCertificateHolder(StoredCertificate entity) throws IOException {
+        return new X509CertificateHolder(toDer(entity));
+    }
+
+    /**
+     * PEM of the stored certificate
+     *
+     * @param entity entity
+     * @return PEM, {@code null} if no certificate is stored
+     */
+    public static String toPem(StoredCertificate entity) {
+        if ( entity.getCertDer() != null ) {
+            return toPem(entity.getCertDer());
+        }
+        return entity.getCert() == null ? null : new String(decodeBase64(entity.getCert()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * BASE64 encoded PEM of the stored certificate, the format returned by the API
+     *
+     * @param entity entity
+     * @return BASE64 encoded PEM, {@code null} if no certificate is stored
+     */
+    public static String toBase64(StoredCertificate entity) {
+        if ( entity.getCertDer() != null ) {
+            return Base64.getEncoder().encodeToString(toPem(entity.getCertDer()).getBytes(StandardCharsets.UTF_8));
+        }
+        return entity.getCert();
+    }
+
+    /**
+     * SHA-256 fingerprint of the stored certificate
+     *
+     * @param entity entity
+     * @return fingerprint in lower case hex, {@code null} if no certificate is stored
+     */
+    public static String fingerprint(StoredCertificate entity) {
+        byte[] der = toDer(entity);
+        if ( der == null ) {
+            return null;
+        }
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(der));
+        } catch (NoSuchAlgorithmException e) {
+            // 所有 JVM 均提供 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Convert a BASE64 encoded PEM certificate to DER
+     *
+     * @param certBase64 certificate (BASE64 encoded PEM)
+     * @return DER
+     */
+    public static byte[] toDer(String certBase64) {
+        String pem = new String(decodeBase64(certBase64), StandardCharsets.UTF_8);
+        try ( PemReader pemReader = new PemReader(new StringReader(pem)) ) {
+            PemObject pemObject = pemReader.readPemObject();
+            if ( pemObject == null ) {
+                throw new IOException("No PEM object found");
+            }
+            return pemObject.getContent();
+        } catch (IOException e) {
+            throw new ParamValidateException(ResultStatusCodeConstant.FAILED.getResultCode(), "Invalid certificate format in database.");
+        }
+    }
+
+    /**
+     * Render DER as PEM (same layout as certificates generated by {@link CertUtils#generatePemCertificate})
+     *
+     * @param der DER
+     * @return PEM
+     */
+    public static String toPem(byte[] der) {
+        StringWriter writer = new StringWriter();
+        try ( PemWriter pemWriter = new PemWriter(writer) ) {
+            pemWriter.writeObject(new PemObject(PEM_TYPE, der));
+        } catch (IOException e) {
+            // 写入内存不会失败
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    private static byte[] decodeBase64(String certBase64) {
+        try {
+            return Base64.getDecoder().decode(certBase64);
+        } catch (IllegalArgumentException e) {
+            throw new ParamValidateException(ResultStatusCodeConstant.FAILED.getResultCode(), "Invalid certificate format in database.");
+        }
+    }
+}
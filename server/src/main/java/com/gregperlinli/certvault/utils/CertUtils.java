@@ -1,11 +1,10 @@
 package com.gregperlinli.certvault.utils;
 
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
 import org.bouncycastle.asn1.x509.BasicConstraints;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.cert.X509CertificateHolder;
-import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
-import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
 import org.bouncycastle.util.io.pem.PemObject;
 import org.bouncycastle.util.io.pem.PemReader;
 import org.bouncycastle.util.io.pem.PemWriter;
@@ -104,7 +103,7 @@ public class CertUtils {
             }
             // 解析私钥的 DER 编码
             PrivateKeyInfo privateKeyInfo = PrivateKeyInfo.getInstance(pemObject.getContent());
-            return new JcaPEMKeyConverter().getPrivateKey(privateKeyInfo);
+            return CryptoBootstrap.pemKeyConverter().getPrivateKey(privateKeyInfo);
         }
     }
 
@@ -130,8 +129,7 @@ public class CertUtils {
      */
     public static String getCertificatePublicKeyAlgorithm(X509CertificateHolder cert) {
         try {
-            PublicKey publicKey = new JcaX509CertificateConverter()
-                    .setProvider("BC")
+            PublicKey publicKey = CryptoBootstrap.certificateConverter()
                     .getCertificate(cert)
                     .getPublicKey();
             return publicKey.getAlgorithm();
@@ -162,8 +160,7 @@ public class CertUtils {
      */
     public static Integer getCertificatePublicKeySize(X509CertificateHolder cert) {
         try {
-            PublicKey publicKey = new JcaX509CertificateConverter()
-                    .setProvider("BC")
+            PublicKey publicKey = CryptoBootstrap.certificateConverter()
                     .getCertificate(cert)
                     .getPublicKey();
             Integer keySize = null;
@@ -0,0 +1,241 @@
+package com.gregperlinli.certvault.utils;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
+import com.gregperlinli.certvault.domain.dto.PageDTO;
+import com.gregperlinli.certvault.domain.exception.ParamValidateException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) pagination
+ *
+ * <p>
+ * 以上一页最后一行的排序键与 ID 作为游标, 用行值比较 {@code WHERE (排序键, id) > (游标)} 代替 {@code OFFSET},
+ * 每页的查询代价与页码无关; 总数只在调用方要求时统计.
+ * 游标为 Base64URL 编码的 JSON 字符串数组 {@code [orderBy, isAsc, id, 排序键值...]}, 各分量独立编码, 值中可包含任意字符,
+ * 对调用方不透明, 与本次请求的排序方式不一致时拒绝.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CursorPageUtils}
+ * @date 2025/5/13 17:10
+ */
+public class CursorPageUtils {
+
+    private static final String ID_COLUMN = "id";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final TypeReference<List<String>> CURSOR_TYPE = new TypeReference<>() {};
+
+    /**
+     * Fetch one page after the cursor
+     *
+     * @param service   service of the entity
+     * @param wrapper   filter conditions, must not contain any order by
+     * @param sortKeys  supported {@code orderBy} values, without orderBy the page is sorted by ID only
+     * @param idGetter  ID of an entity
+     * @param orderBy   order by field
+     * @param isAsc     ascending or descending
+     * @param cursor    cursor returned by the previous page, empty for the first page
+     * @param limit     page limit
+     * @param withTotal whether to count the total
+     * @param <T>       entity type
+     * @return page of entities, {@code total} is {@code null} unless requested and {@code nextCursor} is {@code null} on the last page
+     */
+    public static <T> PageDTO<T> page(IService<T> service, QueryWrapper<T> wrapper, Map<String, SortKey<T>> sortKeys, Function<T, Integer> idGetter,
+                                      String orderBy, Boolean isAsc, String cursor, Integer limit, Boolean withTotal) {
+        return page(service, service::page, wrapper, sortKeys, idGetter, orderBy, isAsc, cursor, limit, withTotal);
+    }
+
+    /**
+     * Fetch one page after the cursor with a custom page query, such as a projection without heavy columns
+     *
+     * @param service   service of the entity, used for counting
+     * @param pageQuery page query, must select the sort key columns and ID
+     * @param wrapper   filter conditions, must not contain any order by
+     * @param sortKeys  supported {@code orderBy} values, without orderBy the page is sorted by ID only
+     * @param idGetter  ID of an entity
+     * @param orderBy   order by field
+     * @param isAsc     ascending or descending
+     * @param cursor    cursor returned by the previous page, empty for the first page
+     * @param limit     page limit
+     * @param withTotal whether to count the total
+     * @param <T>       entity type
+     * @return page of entities, {@code total} is {@code null} unless requested and {@code nextCursor} is {@code null} on the last page
+     */
+    public static <T> PageDTO<T> page(IService<T> service, BiFunction<Page<T>, Wrapper<T>, ? extends IPage<T>> pageQuery,
+                                      QueryWrapper<T> wrapper, Map<String, SortKey<T>> sortKeys, Function<T, Integer> idGetter,
+                                      String orderBy, Boolean isAsc, String cursor, Integer limit, Boolean withTotal) {
+        if ( limit == null || limit <= 0 ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(), "The page limit must be positive.");
+        }
+        boolean asc = isAsc == null || isAsc;
+        String sortName = orderBy == null ? "" : orderBy;
+        SortKey<T> sortKey = sortName.isEmpty() ? null : sortKeys.get(sortName);
+        if ( !sortName.isEmpty() && sortKey == null ) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(), "Unsupported order by field: " + orderBy);
+        }
+        List<String> columns = new ArrayList<>();
+        if ( sortKey != null ) {
+            columns.addAll(sortKey.columns);
+        }
+        columns.add(ID_COLUMN);
+        // 1. 总数按过滤条件统计, 与游标位置无关
+        Long total = Boolean.TRUE.equals(withTotal) ? service.count(wrapper) : null;
+        // 2. 定位到游标之后
+        if ( cursor != null && !cursor.isEmpty() ) {
+            List<Object> values = decode(cursor, sortName, asc, sortKey);
+            // (c1, c2, ..., id) > (v1, v2, ..., vid), 所有排序键同向, 可直接使用 (c1, c2, ..., id) 上的索引定位
+            StringJoiner placeholders = new StringJoiner(", ");
+            for ( int i = 0; i < values.size(); i++ ) {
+                placeholders.add("{" + i + "}");
+            }
+            wrapper.apply("(" + String.join(", ", columns) + ") " + (asc ? ">" : "<") + " (" + placeholders + ")", values.toArray());
+        }
+        columns.forEach(column -> wrapper.orderBy(true, asc, column));
+        // 3. 多取一行判断是否还有下一页, 不执行 COUNT
+        List<T> records = new ArrayList<>(pageQuery.apply(new Page<>(1, limit + 1, false), wrapper).getRecords());
+        String nextCursor = null;
+        if ( records.size() > limit ) {
+            records = records.subList(0, limit);
+            nextCursor = encode(records.get(limit - 1), sortName, asc, sortKey, idGetter);
+        }
+        return new PageDTO<>(total, records, nextCursor);
+    }
+
+    private static <T> String encode(T last, String sortName, boolean asc, SortKey<T> sortKey, Function<T, Integer> idGetter) {
+        List<String> parts = new ArrayList<>();
+        parts.add(sortName);
+        parts.add(String.valueOf(asc));
+        parts.add(String.valueOf(idGetter.apply(last)));
+        if ( sortKey != null ) {
+            for ( Function<T, Object> getter : sortKey.getters ) {
+                parts.add(String.valueOf(getter.apply(last)));
+            }
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(parts));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    private static <T> List<Object> decode(String cursor, String sortName, boolean asc, SortKey<T> sortKey) {
+        try {
+            List<String> parts = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), CURSOR_TYPE);
+            int sortColumns = sortKey == null ? 0 : sortKey.columns.size();
+            if ( parts == null || parts.size() != 3 + sortColumns || !sortName.equals(parts.get(0)) || !String.valueOf(asc).equals(parts.get(1)) ) {
+                throw new IllegalArgumentException("Cursor does not match the order");
+            }
+            List<Object> values = new ArrayList<>(sortColumns + 1);
+            for ( int i = 0; i < sortColumns; i++ ) {
+                values.add(sortKey.parsers.get(i).apply(Objects.requireNonNull(parts.get(3 + i))));
+            }
+            values.add(Integer.parseInt(parts.get(2)));
+            return values;
+        } catch (IOException | RuntimeException e) {
+            throw new ParamValidateException(ResultStatusCodeConstant.PARAM_VALIDATE_EXCEPTION.getResultCode(), "Invalid cursor, please start from the first page.");
+        }
+    }
+
+    /**
+     * Sort key of a cursor page, the entity ID is always appended as the last key
+     *
+     * @param <T> entity type
+     */
+    public static class SortKey<T> {
+
+        private final List<String> columns = new ArrayList<>();
+
+        private final List<Function<T, Object>> getters = new ArrayList<>();
+
+        private final List<Function<String, Object>> parsers = new ArrayList<>();
+
+        /**
+         * Start a sort key
+         *
+         * @param <T> entity type
+         * @return empty sort key
+         */
+        public static <T> SortKey<T> by() {
+            return new SortKey<>();
+        }
+
+        /**
+         * Non-null string column
+         *
+         * @param column column name
+         * @param getter value of an entity
+         * @return this sort key
+         */
+        public SortKey<T> string(String column, Function<T, String> getter) {
+            return add(column, getter::apply, value -> value);
+        }
+
+        /**
+         * Nullable string column, {@code null} values are sorted as empty strings
+         *
+         * @param column column name
+         * @param getter value of an entity
+         * @return this sort key
+         */
+        public SortKey<T> nullableString(String column, Function<T, String> getter) {
+            return add("coalesce(" + column + ", '')", entity -> Objects.requireNonNullElse(getter.apply(entity), ""), value -> value);
+        }
+
+        /**
+         * Non-null integer column
+         *
+         * @param column column name
+         * @param getter value of an entity
+         * @return this sort key
+         */
+        public SortKey<T> integer(String column, Function<T, Integer> getter) {
+            return add(column, getter::apply, Integer::parseInt);
+        }
+
+        /**
+         * Non-null boolean column
+         *
+         * @param column column name
+         * @param getter value of an entity
+         * @return this sort key
+         */
+        public SortKey<T> bool(String column, Function<T, Boolean> getter) {
+            return add(column, getter::apply, Boolean::parseBoolean);
+        }
+
+        /**
+         * Non-null date time column
+         *
+         * @param column column name
+         * @param getter value of an entity
+         * @return this sort key
+         */
+        public SortKey<T> dateTime(String column, Function<T, LocalDateTime> getter) {
+            return add(column, getter::apply, LocalDateTime::parse);
+        }
+
+        private SortKey<T> add(String column, Function<T, Object> getter, Function<String, Object> parser) {
+            columns.add(column);
+            getters.add(getter);
+            parsers.add(parser);
+            return this;
+        }
+    }
+
+}
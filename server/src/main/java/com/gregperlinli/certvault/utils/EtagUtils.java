@@ -0,0 +1,72 @@
+package com.gregperlinli.certvault.utils;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * ETag Utils <br/>
+ * (Conditional GET for certificate downloads)
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code EtagUtils}
+ * @date 2025/5/15 15:30
+ */
+public class EtagUtils {
+
+    /**
+     * The content of a UUID changes on renewal and the response depends on the session,
+     * so clients and proxies may store it but must revalidate, shared caches must not serve it to other users
+     */
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    /**
+     * Strong ETag of the certificates in a response
+     *
+     * @param fingerprints SHA-256 fingerprints of the certificates, in response order
+     * @return quoted ETag, {@code null} if there is no certificate
+     */
+    public static String of(List<String> fingerprints) {
+        if ( fingerprints == null || fingerprints.isEmpty() ) {
+            return null;
+        }
+        if ( fingerprints.size() == 1 ) {
+            return "\"" + fingerprints.get(0) + "\"";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.join(":", fingerprints).getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            // 所有 JVM 均提供 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Set the caching headers and check {@code If-None-Match} <br/>
+     * (The handler should return {@code null} when not modified, the response is then completed with {@code 304})
+     *
+     * @param webRequest current request
+     * @param etag       ETag of the response, {@code null} to skip the check
+     * @return {@code true} if the client already has this version
+     */
+    public static boolean checkNotModified(ServletWebRequest webRequest, String etag) {
+        HttpServletResponse response = webRequest.getResponse();
+        if ( etag == null ) {
+            return false;
+        }
+        if ( response != null ) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return webRequest.checkNotModified(etag);
+    }
+}
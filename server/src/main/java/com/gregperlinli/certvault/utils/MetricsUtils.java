@@ -0,0 +1,99 @@
+package com.gregperlinli.certvault.utils;
+
+import com.gregperlinli.certvault.constant.PrometheusConstant;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics Utils
+ *
+ * <p>
+ * 为静态的证书生成、私钥加解密与格式转换工具提供计时器, 指标名与标签名取自 {@link PrometheusConstant}.
+ * Spring 容器启动前 (如单元测试) 记录到 {@link Metrics#globalRegistry}.
+ * 直方图通过 {@code management.metrics.distribution.percentiles-histogram.<指标名前缀>} 按需开启.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code MetricsUtils}
+ * @date 2025/5/17 20:10
+ */
+@Component
+public class MetricsUtils {
+
+    public static final String SUCCESS = "success";
+
+    public static final String FAILURE = "failure";
+
+    private static volatile MeterRegistry registry = Metrics.globalRegistry;
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsUtils(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        registry = meterRegistry;
+    }
+
+    /**
+     * Record the time elapsed since {@code startNanos}
+     *
+     * @param metric     metric
+     * @param startNanos start time from {@link System#nanoTime()}
+     * @param tags       tag name and value pairs
+     */
+    public static void record(PrometheusConstant metric, long startNanos, String... tags) {
+        Timer.builder(metric.getName())
+                .description(metric.getDescription())
+                .tags(tags)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time a call, tagged with its {@code result}
+     *
+     * @param metric metric
+     * @param call   call to time
+     * @param tags   tag name and value pairs
+     * @param <T>    result type
+     * @param <E>    exception type
+     * @return result of the call
+     * @throws E if the call fails
+     */
+    public static <T, E extends Exception> T time(PrometheusConstant metric, ThrowingSupplier<T, E> call, String... tags) throws E {
+        long start = System.nanoTime();
+        String result = FAILURE;
+        try {
+            T value = call.get();
+            result = SUCCESS;
+            return value;
+        } finally {
+            String[] resultTags = Arrays.copyOf(tags, tags.length + 2);
+            resultTags[tags.length] = PrometheusConstant.RESULT.getName();
+            resultTags[tags.length + 1] = result;
+            record(metric, start, resultTags);
+        }
+    }
+
+    /**
+     * Supplier allowed to throw a checked exception
+     *
+     * @param <T> result type
+     * @param <E> exception type
+     */
+    @FunctionalInterface
+    public interface ThrowingSupplier<T, E extends Exception> {
+
+        T get() throws E;
+    }
+}
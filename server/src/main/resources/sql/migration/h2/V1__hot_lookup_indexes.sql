@@ -0,0 +1,26 @@
+-- Hot lookup indexes
+-- ca.uuid, certificate.uuid, ca_binding(ca_uuid, uid) and user.username are covered by their unique constraints
+
+-- CA list / count of an owner
+create index if not exists idx_ca_owner on "ca" (owner, deleted);
+
+-- Sub CA lookup of a parent CA
+create index if not exists idx_ca_parent_ca on "ca" (parent_ca, deleted);
+
+-- Certificate list / count of an owner
+create index if not exists idx_certificate_owner on "certificate" (owner, deleted);
+
+-- Certificates issued by a CA
+create index if not exists idx_certificate_ca_uuid on "certificate" (ca_uuid, deleted);
+
+-- CAs bound to a user
+create index if not exists idx_ca_binding_uid on "ca_binding" (uid);
+
+-- Login by email
+create index if not exists idx_user_email on "user" (email);
+
+-- Mark a session offline
+create index if not exists idx_login_record_session_id on "login_record" (session_id);
+
+-- Login records of a user
+create index if not exists idx_login_record_uid on "login_record" (uid, login_time);
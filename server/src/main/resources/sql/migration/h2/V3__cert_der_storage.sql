@@ -0,0 +1,8 @@
+-- Compact certificate storage
+-- New certificates are stored as raw DER in cert_der, legacy BASE64 PEM certificates stay in cert until migrated in background
+
+alter table "ca" alter column cert set null;
+alter table "ca" add column if not exists cert_der varbinary;
+
+alter table "certificate" alter column cert set null;
+alter table "certificate" add column if not exists cert_der varbinary;
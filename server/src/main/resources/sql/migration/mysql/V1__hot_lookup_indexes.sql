@@ -0,0 +1,60 @@
+-- Hot lookup indexes
+-- ca.uuid, certificate.uuid, ca_binding(ca_uuid, uid) and user.username are covered by their unique constraints
+-- MySQL has no CREATE INDEX IF NOT EXISTS and DDL is not transactional, each index is created only when information_schema
+-- does not list it yet, so a migration interrupted half way can be re-run
+
+-- CA list / count of an owner
+set @ddl = (select if(count(*) = 0, 'create index idx_ca_owner on ca (owner, deleted)', 'do 0') from information_schema.statistics
+            where table_schema = database() and table_name = 'ca' and index_name = 'idx_ca_owner');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- Sub CA lookup of a parent CA
+set @ddl = (select if(count(*) = 0, 'create index idx_ca_parent_ca on ca (parent_ca, deleted)', 'do 0') from information_schema.statistics
+            where table_schema = database() and table_name = 'ca' and index_name = 'idx_ca_parent_ca');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- Certificate list / count of an owner
+set @ddl = (select if(count(*) = 0, 'create index idx_certificate_owner on certificate (owner, deleted)', 'do 0') from information_schema.statistics
+            where table_schema = database() and table_name = 'certificate' and index_name = 'idx_certificate_owner');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- Certificates issued by a CA
+set @ddl = (select if(count(*) = 0, 'create index idx_certificate_ca_uuid on certificate (ca_uuid, deleted)', 'do 0') from information_schema.statistics
+            where table_schema = database() and table_name = 'certificate' and index_name = 'idx_certificate_ca_uuid');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- CAs bound to a user
+set @ddl = (select if(count(*) = 0, 'create index idx_ca_binding_uid on ca_binding (uid)', 'do 0') from information_schema.statistics
+            where table_schema = database() and table_name = 'ca_binding' and index_name = 'idx_ca_binding_uid');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- Login by email
+set @ddl = (select if(count(*) = 0, 'create index idx_user_email on `user` (email)', 'do 0') from information_schema.statistics
+            where table_schema = database() and table_name = 'user' and index_name = 'idx_user_email');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- Mark a session offline
+set @ddl = (select if(count(*) = 0, 'create index idx_login_record_session_id on login_record (session_id)', 'do 0') from information_schema.statistics
+            where table_schema = database() and table_name = 'login_record' and index_name = 'idx_login_record_session_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- Login records of a user
+set @ddl = (select if(count(*) = 0, 'create index idx_login_record_uid on login_record (uid, login_time)', 'do 0') from information_schema.statistics
+            where table_schema = database() and table_name = 'login_record' and index_name = 'idx_login_record_uid');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
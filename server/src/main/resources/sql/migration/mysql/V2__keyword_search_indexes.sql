@@ -0,0 +1,22 @@
+-- Keyword search indexes
+-- ngram fulltext indexes narrow LIKE '%keyword%' through MATCH ... AGAINST phrase search and rank by relevance
+-- Stopwords are disabled while building, otherwise every ngram containing a stopword (e.g. "a") is left out of the index
+-- Each index is created only when information_schema does not list it yet, so the migration can be re-run
+
+set session innodb_ft_enable_stopword = off;
+
+-- CA search by UUID / comment
+set @ddl = (select if(count(*) = 0, 'create fulltext index ft_ca_search on ca (uuid, comment) with parser ngram', 'do 0') from information_schema.statistics
+            where table_schema = database() and table_name = 'ca' and index_name = 'ft_ca_search');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- Certificate search by UUID / comment / CA UUID
+set @ddl = (select if(count(*) = 0, 'create fulltext index ft_certificate_search on certificate (uuid, comment, ca_uuid) with parser ngram', 'do 0') from information_schema.statistics
+            where table_schema = database() and table_name = 'certificate' and index_name = 'ft_certificate_search');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set session innodb_ft_enable_stopword = on;
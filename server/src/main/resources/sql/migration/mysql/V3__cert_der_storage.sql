@@ -0,0 +1,17 @@
+-- Compact certificate storage
+-- New certificates are stored as raw DER in cert_der, legacy BASE64 PEM certificates stay in cert until migrated in background
+-- cert_der is added only when information_schema does not list it yet, so the migration can be re-run
+
+alter table ca modify cert text null comment 'CA 证书 (Base64 编码的 PEM, 旧存储格式)';
+set @ddl = (select if(count(*) = 0, 'alter table ca add column cert_der mediumblob null comment ''CA 证书 (DER)'' after cert', 'do 0') from information_schema.columns
+            where table_schema = database() and table_name = 'ca' and column_name = 'cert_der');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+alter table certificate modify cert text null comment '证书 (Base64 编码的 PEM, 旧存储格式)';
+set @ddl = (select if(count(*) = 0, 'alter table certificate add column cert_der mediumblob null comment ''证书 (DER)'' after cert', 'do 0') from information_schema.columns
+            where table_schema = database() and table_name = 'certificate' and column_name = 'cert_der');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
@@ -0,0 +1,27 @@
+-- Hot lookup indexes
+-- ca.uuid, certificate.uuid, ca_binding(ca_uuid, uid) and user.username are covered by their unique constraints
+-- Soft deleted rows are never queried by these access paths, so they are left out of the partial indexes
+
+-- CA list / count of an owner
+CREATE INDEX IF NOT EXISTS idx_ca_owner ON ca (owner) WHERE deleted = FALSE;
+
+-- Sub CA lookup of a parent CA
+CREATE INDEX IF NOT EXISTS idx_ca_parent_ca ON ca (parent_ca) WHERE deleted = FALSE;
+
+-- Certificate list / count of an owner
+CREATE INDEX IF NOT EXISTS idx_certificate_owner ON certificate (owner) WHERE deleted = FALSE;
+
+-- Certificates issued by a CA
+CREATE INDEX IF NOT EXISTS idx_certificate_ca_uuid ON certificate (ca_uuid) WHERE deleted = FALSE;
+
+-- CAs bound to a user
+CREATE INDEX IF NOT EXISTS idx_ca_binding_uid ON ca_binding (uid);
+
+-- Login by email
+CREATE INDEX IF NOT EXISTS idx_user_email ON "user" (email);
+
+-- Mark a session offline
+CREATE INDEX IF NOT EXISTS idx_login_record_session_id ON login_record (session_id);
+
+-- Login records of a user
+CREATE INDEX IF NOT EXISTS idx_login_record_uid ON login_record (uid, login_time);
@@ -0,0 +1,26 @@
+-- Keyword search indexes
+-- Trigram GIN indexes serve LIKE '%keyword%' and similarity() ranking
+-- CREATE EXTENSION needs the CREATE privilege on the database (or a superuser for untrusted installs). Without it, or
+-- without the contrib package, the migration falls back to plain B-tree indexes and keyword search ranks without
+-- similarity(). A DBA can run CREATE EXTENSION pg_trgm later and create the trigram indexes below by hand
+-- The DO body is a single quoted literal so that the script splitter keeps it as one statement
+
+DO '
+BEGIN
+    BEGIN
+        CREATE EXTENSION IF NOT EXISTS pg_trgm;
+    EXCEPTION WHEN insufficient_privilege OR undefined_file THEN
+        RAISE WARNING ''pg_trgm cannot be created (%), keyword search falls back to plain indexes'', SQLERRM;
+    END;
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''pg_trgm'') THEN
+        CREATE INDEX IF NOT EXISTS idx_ca_uuid_trgm ON ca USING gin (uuid gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_ca_comment_trgm ON ca USING gin (comment gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_certificate_uuid_trgm ON certificate USING gin (uuid gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_certificate_comment_trgm ON certificate USING gin (comment gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_certificate_ca_uuid_trgm ON certificate USING gin (ca_uuid gin_trgm_ops);
+    ELSE
+        CREATE INDEX IF NOT EXISTS idx_ca_comment_pattern ON ca (comment text_pattern_ops);
+        CREATE INDEX IF NOT EXISTS idx_certificate_comment_pattern ON certificate (comment text_pattern_ops);
+    END IF;
+END
+';
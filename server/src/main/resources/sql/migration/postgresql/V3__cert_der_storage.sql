@@ -0,0 +1,10 @@
+-- Compact certificate storage
+-- New certificates are stored as raw DER in cert_der, legacy BASE64 PEM certificates stay in cert until migrated in background
+
+alter table ca alter column cert drop not null;
+alter table ca add column if not exists cert_der bytea;
+comment on column ca.cert_der is 'CA 证书 (DER)';
+
+alter table certificate alter column cert drop not null;
+alter table certificate add column if not exists cert_der bytea;
+comment on column certificate.cert_der is '证书 (DER)';
@@ -93,4 +93,53 @@ create table if not exists "login_record"
     login_time  timestamp        default '1970-01-01 00:00:00' not null,
     online      boolean          default true                null,
     constraint login_record_pk unique (uuid)
-);
\ No newline at end of file
+);
+
+create table if not exists "serial_index"
+(
+    id          bigint auto_increment primary key,
+    issuer      varchar(64)                                not null,
+    serial      varchar(64)                                not null,
+    created_at  timestamp   default '1970-01-01 00:00:00' null,
+    constraint serial_index_pk unique (issuer, serial)
+);
+
+create table if not exists "revoked_certificate"
+(
+    id          bigint auto_increment primary key,
+    ca_uuid     varchar(100)                               not null,
+    cert_uuid   varchar(100)                               not null,
+    serial      varchar(64)                                not null,
+    reason      int         default 0                      not null,
+    revoked_at  timestamp   default '1970-01-01 00:00:00' not null,
+    constraint revoked_certificate_pk unique (ca_uuid, serial)
+);
+
+create table if not exists "renewal_policy"
+(
+    id                bigint auto_increment primary key,
+    ca_uuid           varchar(100)                               null,
+    cert_uuid         varchar(100)                               null,
+    renew_before_days int         default 7                      not null,
+    validity_days     int                                        null,
+    enabled           boolean     default true                   not null,
+    owner             int                                        not null,
+    created_at        timestamp   default '1970-01-01 00:00:00' null,
+    modified_at       timestamp   default '1970-01-01 00:00:00' null,
+    constraint renewal_policy_ca_pk unique (ca_uuid),
+    constraint renewal_policy_cert_pk unique (cert_uuid)
+);
+
+create table if not exists "crl_number"
+(
+    ca_uuid     varchar(100)                               not null primary key,
+    last_number bigint                                     not null,
+    modified_at timestamp   default '1970-01-01 00:00:00' null
+);
+
+create table if not exists "schema_migration"
+(
+    version      int                                        not null primary key,
+    description  varchar(200)                               not null,
+    installed_at timestamp   default '1970-01-01 00:00:00'  null
+);
@@ -122,3 +122,71 @@ create table if not exists login_record
         unique (uuid)
 )
     comment '用户登录记录';
+
+-- Serial Index Table
+create table if not exists serial_index
+(
+    id          bigint auto_increment comment 'ID'
+        primary key,
+    issuer      varchar(64)                                 not null comment '颁发者 DN 的 SHA-256',
+    serial      varchar(64)                                 not null comment '证书序列号（十六进制）',
+    created_at  datetime    default '1970-01-01 00:00:00'   null comment '分配时间',
+    constraint serial_index_pk
+        unique (issuer, serial)
+)
+    comment '已分配证书序列号';
+
+-- Revoked Certificate Table
+create table if not exists revoked_certificate
+(
+    id          bigint auto_increment comment 'ID'
+        primary key,
+    ca_uuid     varchar(100)                                not null comment '颁发者 CA UUID',
+    cert_uuid   varchar(100)                                not null comment '证书 UUID',
+    serial      varchar(64)                                 not null comment '证书序列号（十六进制）',
+    reason      int         default 0                       not null comment '吊销原因 (RFC 5280 CRLReason)',
+    revoked_at  datetime    default '1970-01-01 00:00:00'   not null comment '吊销时间',
+    constraint revoked_certificate_pk
+        unique (ca_uuid, serial)
+)
+    comment '已吊销证书';
+
+-- Renewal Policy Table
+create table if not exists renewal_policy
+(
+    id                bigint auto_increment comment 'ID'
+        primary key,
+    ca_uuid           varchar(100)                                null comment 'CA UUID（自动续期该 CA 签发的全部证书）',
+    cert_uuid         varchar(100)                                null comment '证书 UUID（仅作用于该证书, 优先于 CA 策略）',
+    renew_before_days int         default 7                       not null comment '到期前多少天续期',
+    validity_days     int                                         null comment '续期后的有效期（天）, 为空时沿用原有效期',
+    enabled           tinyint(1)  default 1                       not null comment '是否启用',
+    owner             int                                         not null comment '创建者',
+    created_at        datetime    default '1970-01-01 00:00:00'   null comment '创建时间',
+    modified_at       datetime    default '1970-01-01 00:00:00'   null comment '修改时间',
+    constraint renewal_policy_ca_pk
+        unique (ca_uuid),
+    constraint renewal_policy_cert_pk
+        unique (cert_uuid)
+)
+    comment '自动续期策略';
+
+-- CRL Number Table
+create table if not exists crl_number
+(
+    ca_uuid     varchar(100)                                not null comment 'CA UUID'
+        primary key,
+    last_number bigint                                      not null comment '最近分配的 CRL 编号',
+    modified_at datetime    default '1970-01-01 00:00:00'   null comment '修改时间'
+)
+    comment 'CRL 编号序列 (完整与增量 CRL 共用)';
+
+-- Schema Migration Table
+create table if not exists schema_migration
+(
+    version      int                                         not null comment '迁移版本'
+        primary key,
+    description  varchar(200)                                not null comment '迁移描述',
+    installed_at datetime    default '1970-01-01 00:00:00'   null comment '执行时间'
+)
+    comment '已执行的数据库迁移';
@@ -157,3 +157,88 @@ COMMENT ON COLUMN login_record.os IS '操作系统';
 COMMENT ON COLUMN login_record.platform IS '平台';
 COMMENT ON COLUMN login_record.login_time IS '登录时间';
 COMMENT ON COLUMN login_record.online IS '是否在线';
+
+
+-- Serial Index Table
+CREATE TABLE IF NOT EXISTS serial_index (
+    id BIGSERIAL PRIMARY KEY,
+    issuer VARCHAR(64) NOT NULL,
+    serial VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP DEFAULT '1970-01-01 00:00:00.000000',
+    CONSTRAINT serial_index_pk UNIQUE (issuer, serial)
+    );
+
+COMMENT ON TABLE serial_index IS '已分配证书序列号';
+COMMENT ON COLUMN serial_index.id IS 'ID';
+COMMENT ON COLUMN serial_index.issuer IS '颁发者 DN 的 SHA-256';
+COMMENT ON COLUMN serial_index.serial IS '证书序列号（十六进制）';
+COMMENT ON COLUMN serial_index.created_at IS '分配时间';
+
+
+-- Revoked Certificate Table
+CREATE TABLE IF NOT EXISTS revoked_certificate (
+    id BIGSERIAL PRIMARY KEY,
+    ca_uuid VARCHAR(100) NOT NULL,
+    cert_uuid VARCHAR(100) NOT NULL,
+    serial VARCHAR(64) NOT NULL,
+    reason INT NOT NULL DEFAULT 0,
+    revoked_at TIMESTAMP NOT NULL DEFAULT '1970-01-01 00:00:00.000000',
+    CONSTRAINT revoked_certificate_pk UNIQUE (ca_uuid, serial)
+    );
+
+COMMENT ON TABLE revoked_certificate IS '已吊销证书';
+COMMENT ON COLUMN revoked_certificate.id IS 'ID';
+COMMENT ON COLUMN revoked_certificate.ca_uuid IS '颁发者 CA UUID';
+COMMENT ON COLUMN revoked_certificate.cert_uuid IS '证书 UUID';
+COMMENT ON COLUMN revoked_certificate.serial IS '证书序列号（十六进制）';
+COMMENT ON COLUMN revoked_certificate.reason IS '吊销原因 (RFC 5280 CRLReason)';
+COMMENT ON COLUMN revoked_certificate.revoked_at IS '吊销时间';
+
+CREATE TABLE IF NOT EXISTS renewal_policy (
+    id BIGSERIAL PRIMARY KEY,
+    ca_uuid VARCHAR(100) NULL,
+    cert_uuid VARCHAR(100) NULL,
+    renew_before_days INT NOT NULL DEFAULT 7,
+    validity_days INT NULL,
+    enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    owner INT NOT NULL,
+    created_at TIMESTAMP NULL DEFAULT '1970-01-01 00:00:00.000000',
+    modified_at TIMESTAMP NULL DEFAULT '1970-01-01 00:00:00.000000',
+    CONSTRAINT renewal_policy_ca_pk UNIQUE (ca_uuid),
+    CONSTRAINT renewal_policy_cert_pk UNIQUE (cert_uuid)
+    );
+
+COMMENT ON TABLE renewal_policy IS '自动续期策略';
+COMMENT ON COLUMN renewal_policy.id IS 'ID';
+COMMENT ON COLUMN renewal_policy.ca_uuid IS 'CA UUID（自动续期该 CA 签发的全部证书）';
+COMMENT ON COLUMN renewal_policy.cert_uuid IS '证书 UUID（仅作用于该证书, 优先于 CA 策略）';
+COMMENT ON COLUMN renewal_policy.renew_before_days IS '到期前多少天续期';
+COMMENT ON COLUMN renewal_policy.validity_days IS '续期后的有效期（天）, 为空时沿用原有效期';
+COMMENT ON COLUMN renewal_policy.enabled IS '是否启用';
+COMMENT ON COLUMN renewal_policy.owner IS '创建者';
+COMMENT ON COLUMN renewal_policy.created_at IS '创建时间';
+COMMENT ON COLUMN renewal_policy.modified_at IS '修改时间';
+
+CREATE TABLE IF NOT EXISTS crl_number (
+    ca_uuid VARCHAR(100) PRIMARY KEY,
+    last_number BIGINT NOT NULL,
+    modified_at TIMESTAMP NULL DEFAULT '1970-01-01 00:00:00.000000'
+    );
+
+COMMENT ON TABLE crl_number IS 'CRL 编号序列 (完整与增量 CRL 共用)';
+COMMENT ON COLUMN crl_number.ca_uuid IS 'CA UUID';
+COMMENT ON COLUMN crl_number.last_number IS '最近分配的 CRL 编号';
+COMMENT ON COLUMN crl_number.modified_at IS '修改时间';
+
+
+-- Schema Migration Table
+CREATE TABLE IF NOT EXISTS schema_migration (
+    version INT PRIMARY KEY,
+    description VARCHAR(200) NOT NULL,
+    installed_at TIMESTAMP DEFAULT '1970-01-01 00:00:00.000000'
+    );
+
+COMMENT ON TABLE schema_migration IS '已执行的数据库迁移';
+COMMENT ON COLUMN schema_migration.version IS '迁移版本';
+COMMENT ON COLUMN schema_migration.description IS '迁移描述';
+COMMENT ON COLUMN schema_migration.installed_at IS '执行时间';
@@ -0,0 +1,115 @@
+package com.gregperlinli.certvault.async;
+
+import com.gregperlinli.certvault.certificate.CaGenerator;
+import com.gregperlinli.certvault.certificate.SslCertGenerator;
+import com.gregperlinli.certvault.config.properties.BulkIssuanceProperties;
+import com.gregperlinli.certvault.domain.dto.RequestCertDTO;
+import com.gregperlinli.certvault.domain.entities.CaGenRequest;
+import com.gregperlinli.certvault.domain.entities.CaSigningKey;
+import com.gregperlinli.certvault.domain.entities.GenResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing parallel SSL certificate issuer
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code BulkCertIssuerTest}
+ * @date 2025/5/12 15:40
+ */
+public class BulkCertIssuerTest {
+
+    private static CaSigningKey caSigningKey;
+
+    private BulkCertIssuer bulkCertIssuer;
+
+    @BeforeAll
+    public static void setupCa() throws Exception {
+        CaGenRequest caGenRequest = new CaGenRequest();
+        caGenRequest.setAlgorithm("EC");
+        caGenRequest.setKeySize(256);
+        caGenRequest.setCountry("CN");
+        caGenRequest.setProvince("Guangdong");
+        caGenRequest.setCity("Guangzhou");
+        caGenRequest.setOrganization("CertVault");
+        caGenRequest.setOrganizationalUnit("CertVault");
+        caGenRequest.setCommonName("CertVault Bulk Test CA");
+        caGenRequest.setExpiry(30);
+        GenResponse ca = CaGenerator.generateCaCertificate(caGenRequest);
+        caSigningKey = SslCertGenerator.parseCaSigningKey(ca.getPrivkey(), ca.getCert());
+    }
+
+    @BeforeEach
+    public void setup() {
+        BulkIssuanceProperties properties = new BulkIssuanceProperties();
+        properties.setParallelism(3);
+        bulkCertIssuer = new BulkCertIssuer(properties);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        bulkCertIssuer.destroy();
+    }
+
+    private static RequestCertDTO request(String commonName, int expiry) {
+        RequestCertDTO request = new RequestCertDTO();
+        request.setKeySize(256);
+        request.setCountry("CN");
+        request.setProvince("Guangdong");
+        request.setCity("Guangzhou");
+        request.setOrganization("CertVault");
+        request.setOrganizationalUnit("CertVault");
+        request.setCommonName(commonName);
+        request.setExpiry(expiry);
+        return request;
+    }
+
+    @Test
+    public void testIssueAll() throws Exception {
+        List<RequestCertDTO> requests = new ArrayList<>();
+        for ( int i = 0; i < 25; i++ ) {
+            requests.add(request("bulk-" + i + ".certvault.local", 10));
+        }
+        Map<Integer, GenResponse> results = new ConcurrentHashMap<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        bulkCertIssuer.issue(requests, caSigningKey, null, (index, genResponse, error) -> {
+            assertNull(error);
+            assertNull(results.put(index, genResponse), "Item reported twice");
+            threads.add(Thread.currentThread().getName());
+        });
+        assertEquals(25, results.size());
+        assertEquals(25, results.values().stream().map(GenResponse::getUuid).distinct().count());
+        // 结果总是在调用线程上回调
+        assertEquals(Set.of(Thread.currentThread().getName()), threads);
+    }
+
+    @Test
+    public void testPerItemErrors() throws Exception {
+        List<RequestCertDTO> requests = Arrays.asList(
+                request("ok.certvault.local", 10),
+                request("too-long.certvault.local", 3650),
+                null
+        );
+        Map<Integer, Exception> errors = new HashMap<>();
+        List<Integer> succeeded = new ArrayList<>();
+        bulkCertIssuer.issue(requests, caSigningKey, null, (index, genResponse, error) -> {
+            if ( error != null ) {
+                errors.put(index, error);
+            } else {
+                succeeded.add(index);
+            }
+        });
+        assertEquals(List.of(0), succeeded);
+        assertEquals(Set.of(1, 2), errors.keySet());
+        assertEquals("Certificate expiry cannot exceed CA expiry", errors.get(1).getMessage());
+    }
+
+}
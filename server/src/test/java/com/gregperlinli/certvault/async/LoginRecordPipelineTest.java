@@ -0,0 +1,143 @@
+package com.gregperlinli.certvault.async;
+
+import com.gregperlinli.certvault.cache.UserCache;
+import com.gregperlinli.certvault.config.properties.LoginRecordProperties;
+import com.gregperlinli.certvault.domain.entities.LoginRecord;
+import com.gregperlinli.certvault.domain.entities.User;
+import com.gregperlinli.certvault.mapper.LoginRecordMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing asynchronous login record pipeline
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code LoginRecordPipelineTest}
+ * @date 2025/5/18 11:05
+ */
+public class LoginRecordPipelineTest {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0 Safari/537.36";
+
+    private LoginRecordMapper loginRecordMapper;
+
+    private UserCache userCache;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoginRecordPipeline pipeline;
+
+    @BeforeEach
+    public void setup() {
+        loginRecordMapper = mock(LoginRecordMapper.class);
+        userCache = mock(UserCache.class);
+        User user = new User();
+        user.setId(1);
+        user.setUsername("alice");
+        when(userCache.getActive("alice")).thenReturn(user);
+        when(userCache.getActive("broken")).thenThrow(new IllegalStateException("Cache unavailable"));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void cleanup() throws InterruptedException {
+        if ( pipeline != null ) {
+            pipeline.destroy();
+        }
+    }
+
+    private void start(int batchSize) {
+        LoginRecordProperties properties = new LoginRecordProperties();
+        properties.setBatchSize(batchSize);
+        properties.setFlushInterval(Duration.ofMillis(200));
+        pipeline = new LoginRecordPipeline(loginRecordMapper, userCache, properties, meterRegistry);
+        pipeline.init();
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private Map<?, ?> pending() {
+        return (Map<?, ?>) ReflectionTestUtils.getField(pipeline, "pending");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<LoginRecord>> insertedBatches() {
+        ArgumentCaptor<List<LoginRecord>> batches = ArgumentCaptor.forClass(List.class);
+        verify(loginRecordMapper, atLeastOnce()).insertBatch(batches.capture());
+        return batches.getAllValues();
+    }
+
+    @Test
+    public void testRecordsAreBatched() throws Exception {
+        start(2);
+        for ( int i = 0; i < 5; i++ ) {
+            pipeline.submit("alice", "session-" + i, "127.0.0.1", USER_AGENT);
+        }
+        pipeline.destroy();
+        List<List<LoginRecord>> batches = insertedBatches();
+        assertTrue(batches.size() >= 3, "Expected at least 3 batches: " + batches.size());
+        batches.forEach(batch -> assertTrue(batch.size() <= 2));
+        assertEquals(5, batches.stream().mapToInt(List::size).sum());
+        assertEquals(5, count("login.record.persisted"));
+        assertTrue(pending().isEmpty());
+    }
+
+    @Test
+    public void testPersistenceFailureIsCountedAndPipelineContinues() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        when(loginRecordMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            if ( calls.incrementAndGet() == 1 ) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            return ((List<?>) invocation.getArgument(0)).size();
+        });
+        start(10);
+        pipeline.submit("alice", "session-1", "127.0.0.1", USER_AGENT);
+        pipeline.submit("broken", "session-2", "127.0.0.1", USER_AGENT);
+        // 等待第一批写入失败后再提交第二批
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while ( calls.get() == 0 && System.nanoTime() < deadline ) {
+            Thread.sleep(10);
+        }
+        pipeline.submit("alice", "session-3", "127.0.0.1", USER_AGENT);
+        pipeline.destroy();
+        assertEquals(2, insertedBatches().size());
+        // 解析失败 1 条, 写入失败 1 条
+        assertEquals(2, count("login.record.failed"));
+        assertEquals(1, count("login.record.persisted"));
+        assertTrue(pending().isEmpty());
+        verify(loginRecordMapper, never()).update(any(), any());
+    }
+
+    @Test
+    public void testSessionOfflineDuringFlushIsUpdated() throws Exception {
+        when(loginRecordMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            // 写入过程中会话被下线
+            pipeline.markOffline("session-1");
+            return ((List<?>) invocation.getArgument(0)).size();
+        });
+        start(10);
+        pipeline.submit("alice", "session-1", "127.0.0.1", USER_AGENT);
+        pipeline.submit("alice", "session-2", "127.0.0.1", USER_AGENT);
+        pipeline.destroy();
+        verify(loginRecordMapper, times(1)).update(isNull(), any());
+        assertTrue(pending().isEmpty());
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.gregperlinli.certvault.cache;
+
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.BadSqlGrammarException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLSyntaxErrorException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing CA certificate chain cache
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CaChainCacheTest}
+ * @date 2025/5/18 10:20
+ */
+public class CaChainCacheTest {
+
+    private CaMapper caMapper;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private CaChainCache caChainCache;
+
+    @BeforeEach
+    public void setup() {
+        caMapper = mock(CaMapper.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        caChainCache = new CaChainCache(new LocalCacheProperties(), new SimpleMeterRegistry(), caMapper,
+                stringRedisTemplate, mock(RedisMessageListenerContainer.class));
+    }
+
+    private static Ca ca(String uuid, String parentCa) {
+        Ca ca = new Ca();
+        ca.setUuid(uuid);
+        ca.setParentCa(parentCa);
+        return ca;
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(RedisKeyConstant.CA_CHAIN_CHANNEL.getKeyPrefix().getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testInvalidateIsBroadcast() {
+        when(caMapper.selectCaChain(eq("int"), anyInt())).thenReturn(List.of(ca("int", "root"), ca("root", null)));
+        assertEquals(List.of("int", "root"), caChainCache.get("int").getUuids());
+        caChainCache.invalidate("root");
+        caChainCache.get("int");
+        verify(caMapper, times(2)).selectCaChain(eq("int"), anyInt());
+
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(RedisKeyConstant.CA_CHAIN_CHANNEL.getKeyPrefix()), body.capture());
+        assertTrue(body.getValue().endsWith("|root"));
+        // 本节点发出的消息不重复失效
+        caChainCache.onMessage(message(body.getValue()), null);
+        caChainCache.get("int");
+        verify(caMapper, times(2)).selectCaChain(eq("int"), anyInt());
+    }
+
+    @Test
+    public void testRemoteInvalidation() {
+        when(caMapper.selectCaChain(eq("int"), anyInt())).thenReturn(List.of(ca("int", "root"), ca("root", null)));
+        caChainCache.get("int");
+        caChainCache.onMessage(message("other-node|unrelated"), null);
+        caChainCache.get("int");
+        verify(caMapper, times(1)).selectCaChain(eq("int"), anyInt());
+        caChainCache.onMessage(message("other-node|root"), null);
+        caChainCache.get("int");
+        verify(caMapper, times(2)).selectCaChain(eq("int"), anyInt());
+        caChainCache.onMessage(message("other-node|*"), null);
+        caChainCache.get("int");
+        verify(caMapper, times(3)).selectCaChain(eq("int"), anyInt());
+    }
+
+    @Test
+    public void testTransientFailureKeepsRecursiveQuery() {
+        when(caMapper.selectCaChain(eq("root"), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("Connection reset"))
+                .thenReturn(List.of(ca("root", null)));
+        assertThrows(DataAccessResourceFailureException.class, () -> caChainCache.get("root"));
+        assertEquals(List.of("root"), caChainCache.get("root").getUuids());
+        verify(caMapper, times(2)).selectCaChain(eq("root"), anyInt());
+        verify(caMapper, never()).selectOne(any());
+    }
+
+    @Test
+    public void testSyntaxErrorFallsBackToPerHopLookup() {
+        when(caMapper.selectCaChain(anyString(), anyInt())).thenThrow(new BadSqlGrammarException("selectCaChain", "with recursive ...",
+                new SQLSyntaxErrorException("You have an error in your SQL syntax", "42000", 1064)));
+        when(caMapper.selectOne(any())).thenReturn(ca("int", "root"), ca("root", null));
+        assertEquals(List.of("int", "root"), caChainCache.get("int").getUuids());
+        caChainCache.invalidateAll();
+        when(caMapper.selectOne(any())).thenReturn(ca("root", null));
+        assertEquals(List.of("root"), caChainCache.get("root").getUuids());
+        verify(caMapper, times(1)).selectCaChain(anyString(), anyInt());
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.gregperlinli.certvault.cache;
+
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.constant.AccountTypeConstant;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.CaBinding;
+import com.gregperlinli.certvault.domain.entities.User;
+import com.gregperlinli.certvault.mapper.CaBindingMapper;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing in-memory CA hierarchy index synchronization
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CaHierarchyIndexTest}
+ * @date 2025/5/18 14:10
+ */
+public class CaHierarchyIndexTest {
+
+    private final List<CaBinding> bindings = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong version = new AtomicLong();
+
+    private CaMapper caMapper;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private CaHierarchyIndex caHierarchyIndex;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        Ca ca = new Ca();
+        ca.setUuid("ca");
+        ca.setOwner(1);
+        ca.setAvailable(true);
+        ca.setAllowSubCa(true);
+        caMapper = mock(CaMapper.class);
+        when(caMapper.selectList(any())).thenReturn(List.of(ca));
+        when(caMapper.selectOne(any())).thenReturn(ca);
+        CaBindingMapper caBindingMapper = mock(CaBindingMapper.class);
+        when(caBindingMapper.selectList(any())).thenAnswer(invocation -> List.copyOf(bindings));
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(valueOperations.get(RedisKeyConstant.CA_INDEX_VERSION.getKeyPrefix())).thenAnswer(invocation -> String.valueOf(version.get()));
+        when(valueOperations.increment(RedisKeyConstant.CA_INDEX_VERSION.getKeyPrefix())).thenAnswer(invocation -> version.incrementAndGet());
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        caHierarchyIndex = new CaHierarchyIndex(caMapper, caBindingMapper, stringRedisTemplate,
+                mock(RedisMessageListenerContainer.class), new LocalCacheProperties());
+        bind(7);
+        caHierarchyIndex.rebuild();
+    }
+
+    private void bind(int uid) {
+        CaBinding caBinding = new CaBinding();
+        caBinding.setCaUuid("ca");
+        caBinding.setUid(uid);
+        bindings.add(caBinding);
+    }
+
+    private void message(String body) {
+        caHierarchyIndex.onMessage(new DefaultMessage(RedisKeyConstant.CA_INDEX_CHANNEL.getKeyPrefix().getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    @Test
+    public void testRefreshBumpsVersionAndBroadcasts() {
+        bind(8);
+        caHierarchyIndex.refresh("ca");
+        assertTrue(caHierarchyIndex.isBound("ca", 8));
+        assertEquals(1, version.get());
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(RedisKeyConstant.CA_INDEX_CHANNEL.getKeyPrefix()), body.capture());
+        assertTrue(body.getValue().endsWith("|1|ca"), body.getValue());
+    }
+
+    @Test
+    public void testRemoteChangeIsReloaded() {
+        caHierarchyIndex.versionCheckIntervalNanos = 0;
+        bindings.clear();
+        version.set(1);
+        message("other-node|1|ca");
+        assertFalse(caHierarchyIndex.isBound("ca", 7));
+        // 版本连续, 读取时无需全量重建
+        verify(caMapper, times(1)).selectList(any());
+    }
+
+    @Test
+    public void testMissedChangeIsDetectedOnRead() {
+        assertTrue(caHierarchyIndex.isBound("ca", 7));
+        // 其它节点解除绑定, 但本节点没有收到通知
+        bindings.clear();
+        version.set(1);
+        assertTrue(caHierarchyIndex.isBound("ca", 7));
+        caHierarchyIndex.versionCheckIntervalNanos = 0;
+        assertFalse(caHierarchyIndex.isBound("ca", 7));
+        verify(caMapper, times(2)).selectList(any());
+    }
+
+    private static User user(int id, int role) {
+        User user = new User();
+        user.setId(id);
+        user.setRole(role);
+        return user;
+    }
+
+    @Test
+    public void testCanUse() {
+        CaHierarchyIndex.CaNode node = caHierarchyIndex.get("ca");
+        // 已绑定, 所有者, 超级管理员
+        assertTrue(caHierarchyIndex.canUse(node, user(7, AccountTypeConstant.USER.getAccountType())));
+        assertTrue(caHierarchyIndex.canUse(node, user(1, AccountTypeConstant.ADMIN.getAccountType())));
+        assertTrue(caHierarchyIndex.canUse(node, user(9, AccountTypeConstant.SUPERADMIN.getAccountType())));
+        assertFalse(caHierarchyIndex.canUse(node, user(9, AccountTypeConstant.USER.getAccountType())));
+        // 已禁用的 CA 只允许所有者与超级管理员使用
+        BitSet boundUids = new BitSet();
+        boundUids.set(7);
+        CaHierarchyIndex.CaNode unavailable = new CaHierarchyIndex.CaNode("ca", null, 1, false, true, boundUids);
+        assertFalse(caHierarchyIndex.canUse(unavailable, user(7, AccountTypeConstant.USER.getAccountType())));
+        assertTrue(caHierarchyIndex.canUse(unavailable, user(1, AccountTypeConstant.ADMIN.getAccountType())));
+    }
+
+    @Test
+    public void testOutOfOrderMessagesTriggerOneRebuild() {
+        caHierarchyIndex.versionCheckIntervalNanos = 0;
+        version.set(2);
+        message("other-node|2|ca");
+        message("other-node|1|ca");
+        caHierarchyIndex.get("ca");
+        verify(caMapper, times(2)).selectList(any());
+        // 重建后版本号追平, 之后的连续变更不再重建
+        version.set(3);
+        message("other-node|3|ca");
+        caHierarchyIndex.get("ca");
+        verify(caMapper, times(2)).selectList(any());
+    }
+
+}
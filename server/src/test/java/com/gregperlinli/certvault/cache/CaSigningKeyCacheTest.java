@@ -0,0 +1,135 @@
+package com.gregperlinli.certvault.cache;
+
+import com.gregperlinli.certvault.certificate.CaGenerator;
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.CaGenRequest;
+import com.gregperlinli.certvault.domain.entities.CaSigningKey;
+import com.gregperlinli.certvault.domain.entities.GenResponse;
+import com.gregperlinli.certvault.utils.EncryptAndDecryptUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing decrypted CA signing key cache
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CaSigningKeyCacheTest}
+ * @date 2025/5/18 15:30
+ */
+public class CaSigningKeyCacheTest {
+
+    private static Ca ca;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private CaSigningKeyCache caSigningKeyCache;
+
+    @BeforeAll
+    public static void setupCa() throws Exception {
+        // 主密钥
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA", CryptoBootstrap.provider());
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        EncryptAndDecryptUtils encryptAndDecryptUtils = new EncryptAndDecryptUtils();
+        ReflectionTestUtils.setField(encryptAndDecryptUtils, "injectPublicKeyString", Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        ReflectionTestUtils.setField(encryptAndDecryptUtils, "injectPrivateKeyString", Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+        ReflectionTestUtils.setField(encryptAndDecryptUtils, "injectEnvelopeEnabled", true);
+        encryptAndDecryptUtils.init();
+        // 加密存储的 CA
+        CaGenRequest caGenRequest = new CaGenRequest();
+        caGenRequest.setAlgorithm("EC");
+        caGenRequest.setKeySize(256);
+        caGenRequest.setCountry("CN");
+        caGenRequest.setProvince("Guangdong");
+        caGenRequest.setCity("Guangzhou");
+        caGenRequest.setOrganization("CertVault");
+        caGenRequest.setOrganizationalUnit("CertVault");
+        caGenRequest.setCommonName("CertVault Signing Key Cache Test CA");
+        caGenRequest.setExpiry(30);
+        GenResponse genResponse = CaGenerator.generateCaCertificate(caGenRequest);
+        ca = new Ca();
+        ca.setUuid(genResponse.getUuid());
+        ca.setPrivkey(EncryptAndDecryptUtils.encrypt(genResponse.getPrivkey()));
+        ca.setCert(genResponse.getCert());
+    }
+
+    @BeforeEach
+    public void setup() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        caSigningKeyCache = new CaSigningKeyCache(new LocalCacheProperties(), new SimpleMeterRegistry(),
+                stringRedisTemplate, mock(RedisMessageListenerContainer.class));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void message(String body) {
+        caSigningKeyCache.onMessage(new DefaultMessage(RedisKeyConstant.CA_SIGNING_KEY_CHANNEL.getKeyPrefix().getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    @Test
+    public void testEvictIsBroadcast() throws Exception {
+        CaSigningKey cached = caSigningKeyCache.get(ca);
+        assertSame(cached, caSigningKeyCache.get(ca));
+        caSigningKeyCache.evict(ca.getUuid());
+        assertNotSame(cached, caSigningKeyCache.get(ca));
+        verify(stringRedisTemplate).convertAndSend(eq(RedisKeyConstant.CA_SIGNING_KEY_CHANNEL.getKeyPrefix()), endsWith("|" + ca.getUuid()));
+    }
+
+    @Test
+    public void testRemoteEviction() throws Exception {
+        CaSigningKey cached = caSigningKeyCache.get(ca);
+        message("other-node|another-ca");
+        assertSame(cached, caSigningKeyCache.get(ca));
+        message("other-node|" + ca.getUuid());
+        CaSigningKey reloaded = caSigningKeyCache.get(ca);
+        assertNotSame(cached, reloaded);
+        message("other-node|*");
+        assertNotSame(reloaded, caSigningKeyCache.get(ca));
+    }
+
+    @Test
+    public void testStaleLoadBeforeCommitIsEvictedAfterCommit() throws Exception {
+        CaSigningKey cached = caSigningKeyCache.get(ca);
+        TransactionSynchronizationManager.initSynchronization();
+        caSigningKeyCache.evict(ca.getUuid());
+        // 提交前的并发签发重新加载并回填
+        CaSigningKey beforeCommit = caSigningKeyCache.get(ca);
+        assertNotSame(cached, beforeCommit);
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+        for ( TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations() ) {
+            synchronization.afterCommit();
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        assertNotSame(beforeCommit, caSigningKeyCache.get(ca));
+        verify(stringRedisTemplate).convertAndSend(eq(RedisKeyConstant.CA_SIGNING_KEY_CHANNEL.getKeyPrefix()), endsWith("|" + ca.getUuid()));
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.gregperlinli.certvault.cache;
+
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
+import com.gregperlinli.certvault.utils.EtagUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing certificate fingerprint cache and ETag conditional requests
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CertFingerprintCacheTest}
+ * @date 2025/5/15 16:20
+ */
+public class CertFingerprintCacheTest {
+
+    private CertFingerprintCache certFingerprintCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() {
+        certFingerprintCache = new CertFingerprintCache(new LocalCacheProperties(), new SimpleMeterRegistry());
+    }
+
+    private Certificate load(String der) {
+        loads.incrementAndGet();
+        Certificate certificate = new Certificate();
+        certificate.setCertDer(der.getBytes(StandardCharsets.UTF_8));
+        return certificate;
+    }
+
+    @Test
+    public void testFingerprintCachedByModification() {
+        LocalDateTime issued = LocalDateTime.of(2025, 5, 15, 10, 0);
+        String fingerprint = certFingerprintCache.get("cert-1", issued, () -> load("v1"));
+        assertEquals(CertStorageUtils.fingerprint(load("v1")), fingerprint);
+        loads.set(0);
+        assertEquals(fingerprint, certFingerprintCache.get("cert-1", issued, () -> load("v1")));
+        assertEquals(0, loads.get());
+        // 续期后修改时间变化, 重新计算指纹
+        String renewed = certFingerprintCache.get("cert-1", issued.plusDays(1), () -> load("v2"));
+        assertNotEquals(fingerprint, renewed);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testConditionalRequest() {
+        String etag = EtagUtils.of(List.of("aa", "bb"));
+        assertNotEquals(EtagUtils.of(List.of("aa")), etag);
+        assertNotEquals(EtagUtils.of(List.of("aa", "cc")), etag);
+        assertNull(EtagUtils.of(List.of()));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/user/cert/ssl/cert-1/cer");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(EtagUtils.checkNotModified(new ServletWebRequest(request, response), etag));
+        assertEquals(304, response.getStatus());
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("no-cache, private", response.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        response = new MockHttpServletResponse();
+        assertFalse(EtagUtils.checkNotModified(new ServletWebRequest(request, response), EtagUtils.of(List.of("aa"))));
+        assertEquals(200, response.getStatus());
+        assertEquals(EtagUtils.of(List.of("aa")), response.getHeader(HttpHeaders.ETAG));
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.gregperlinli.certvault.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.gregperlinli.certvault.config.properties.ExpiryIndexProperties;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Testing the in-memory expiry index on H2
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code ExpiryIndexTest}
+ * @date 2025/5/17 17:20
+ */
+public class ExpiryIndexTest {
+
+    private SqlSession sqlSession;
+
+    private CaMapper caMapper;
+
+    private CertificateMapper certificateMapper;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExpiryIndex expiryIndex;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        sqlSession = H2SqlSessions.open(CaMapper.class, CertificateMapper.class);
+        caMapper = sqlSession.getMapper(CaMapper.class);
+        certificateMapper = sqlSession.getMapper(CertificateMapper.class);
+        meterRegistry = new SimpleMeterRegistry();
+        expiryIndex = new ExpiryIndex(caMapper, certificateMapper, mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class), new ExpiryIndexProperties(), meterRegistry);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sqlSession.close();
+    }
+
+    private void insertCa(String uuid, int owner, long daysLeft) {
+        Ca ca = new Ca();
+        ca.setUuid(uuid);
+        ca.setPrivkey("privkey");
+        ca.setCert("cert");
+        ca.setOwner(owner);
+        ca.setComment(uuid);
+        ca.setNotBefore(LocalDateTime.now().minusDays(1));
+        ca.setNotAfter(LocalDateTime.now().plusDays(daysLeft));
+        caMapper.insert(ca);
+    }
+
+    private void insertCertificate(String uuid, int owner, String caUuid, long daysLeft) {
+        Certificate certificate = new Certificate();
+        certificate.setUuid(uuid);
+        certificate.setCert("cert");
+        certificate.setOwner(owner);
+        certificate.setCaUuid(caUuid);
+        certificate.setNotBefore(LocalDateTime.now().minusDays(1));
+        certificate.setNotAfter(LocalDateTime.now().plusDays(daysLeft));
+        certificateMapper.insert(certificate);
+    }
+
+    private double gauge(String type, String window) {
+        return meterRegistry.get(ExpiryIndex.METRIC_NAME).tag("type", type).tag("window", window).gauge().value();
+    }
+
+    private static List<String> uuids(List<ExpiryIndex.Entry> entries) {
+        return entries.stream().map(ExpiryIndex.Entry::getUuid).toList();
+    }
+
+    @Test
+    public void testExpiringWindows() {
+        insertCa("ca-1", 1, 20);
+        insertCa("ca-2", 2, 400);
+        insertCertificate("cert-1", 3, "ca-1", 10);
+        insertCertificate("cert-2", 3, "ca-1", 3);
+        insertCertificate("cert-3", 4, "ca-2", 60);
+        insertCertificate("cert-expired", 3, "ca-1", -2);
+        expiryIndex.rebuild();
+
+        // 已过期的证书不在窗口内, 结果按到期时间排序
+        assertEquals(List.of("cert-2", "cert-1"),
+                uuids(expiryIndex.expiring(ExpiryIndex.Target.CERTIFICATE, Duration.ofDays(30), null)));
+        assertEquals(List.of("cert-3"), uuids(expiryIndex.expiring(ExpiryIndex.Target.CERTIFICATE, Duration.ofDays(90),
+                entry -> entry.getOwner() == 4)));
+        assertEquals(List.of("ca-1"), uuids(expiryIndex.expiring(ExpiryIndex.Target.CA, Duration.ofDays(30), null)));
+        assertEquals("ca-1", expiryIndex.get(ExpiryIndex.Target.CERTIFICATE, "cert-1").getCaUuid());
+
+        assertEquals(1, gauge("certificate", "7d"));
+        assertEquals(2, gauge("certificate", "30d"));
+        assertEquals(3, gauge("certificate", "90d"));
+        assertEquals(1, gauge("ca", "90d"));
+    }
+
+    @Test
+    public void testRefreshOnRenewAndDelete() {
+        insertCertificate("cert-1", 1, "ca-1", 5);
+        insertCertificate("cert-2", 1, "ca-1", 6);
+        expiryIndex.rebuild();
+        assertEquals(2, expiryIndex.count(ExpiryIndex.Target.CERTIFICATE, Duration.ofDays(7)));
+
+        // 续期: 到期时间后移
+        Certificate renewed = new Certificate();
+        renewed.setNotAfter(LocalDateTime.now().plusDays(365));
+        certificateMapper.update(renewed, new QueryWrapper<Certificate>().eq("uuid", "cert-1"));
+        // 删除: 从索引中移除
+        Certificate deleted = new Certificate();
+        deleted.setDeleted(true);
+        certificateMapper.update(deleted, new QueryWrapper<Certificate>().eq("uuid", "cert-2"));
+        // 新签发
+        insertCertificate("cert-3", 1, "ca-1", 1);
+        expiryIndex.refresh(ExpiryIndex.Target.CERTIFICATE, "cert-1", "cert-2", "cert-3");
+
+        assertEquals(List.of("cert-3"), uuids(expiryIndex.expiring(ExpiryIndex.Target.CERTIFICATE, Duration.ofDays(7), null)));
+        assertEquals(List.of("cert-3", "cert-1"), uuids(expiryIndex.expiring(ExpiryIndex.Target.CERTIFICATE, Duration.ofDays(400), null)));
+        assertNull(expiryIndex.get(ExpiryIndex.Target.CERTIFICATE, "cert-2"));
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.gregperlinli.certvault.cache;
+
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.config.properties.SessionAuthProperties;
+import com.gregperlinli.certvault.domain.dto.UserProfileDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing verified session near cache
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code SessionNearCacheTest}
+ * @date 2025/5/8 15:02
+ */
+public class SessionNearCacheTest {
+
+    private SessionNearCache sessionNearCache;
+
+    private AtomicInteger loads;
+
+    private Function<String, UserProfileDTO> loader;
+
+    @BeforeEach
+    public void setup() {
+        sessionNearCache = new SessionNearCache(mock(StringRedisTemplate.class), mock(RedisMessageListenerContainer.class),
+                new LocalCacheProperties(), new SessionAuthProperties(), new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+        loader = sessionId -> {
+            loads.incrementAndGet();
+            return sessionId.startsWith("valid") ? new UserProfileDTO("alice", "Alice", "alice@example.com", 1, true) : null;
+        };
+    }
+
+    @Test
+    public void testOnlyVerifiedSessionsAreCached() {
+        assertNotNull(sessionNearCache.get("valid-1", loader));
+        assertNotNull(sessionNearCache.get("valid-1", loader));
+        assertNull(sessionNearCache.get("anonymous", loader));
+        assertNull(sessionNearCache.get("anonymous", loader));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testKeyspaceEventEvicts() {
+        sessionNearCache.get("valid-2", loader);
+        sessionNearCache.onMessage(new DefaultMessage("__keyevent@0__:del".getBytes(StandardCharsets.UTF_8),
+                "user:valid-2".getBytes(StandardCharsets.UTF_8)), null);
+        sessionNearCache.get("valid-2", loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testSubscribesToConfiguredDatabaseOnly() {
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        LettuceConnectionFactory connectionFactory = mock(LettuceConnectionFactory.class);
+        when(connectionFactory.getDatabase()).thenReturn(8);
+        when(stringRedisTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+        new SessionNearCache(stringRedisTemplate, listenerContainer,
+                new LocalCacheProperties(), new SessionAuthProperties(), new SimpleMeterRegistry()).init();
+
+        ArgumentCaptor<Topic> topics = ArgumentCaptor.forClass(Topic.class);
+        verify(listenerContainer, atLeastOnce()).addMessageListener(any(SessionNearCache.class), topics.capture());
+        assertFalse(topics.getAllValues().isEmpty());
+        topics.getAllValues().forEach(topic -> {
+            assertInstanceOf(ChannelTopic.class, topic);
+            assertTrue(topic.getTopic().startsWith("__keyevent@8__:"), topic.getTopic());
+        });
+        // 默认不修改服务器配置
+        verify(stringRedisTemplate, never()).execute(any(RedisCallback.class));
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.gregperlinli.certvault.cache;
+
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.domain.entities.User;
+import com.gregperlinli.certvault.mapper.UserMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing resolved user cache
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code UserCacheTest}
+ * @date 2025/5/7 11:02
+ */
+public class UserCacheTest {
+
+    private UserMapper userMapper;
+
+    private UserCache userCache;
+
+    @BeforeEach
+    public void setup() {
+        User user = new User();
+        user.setId(7);
+        user.setUsername("alice");
+        user.setRole(1);
+        user.setDeleted(false);
+        userMapper = mock(UserMapper.class);
+        when(userMapper.selectOne(any())).thenReturn(user);
+        userCache = new UserCache(userMapper, mock(StringRedisTemplate.class), mock(RedisMessageListenerContainer.class),
+                new LocalCacheProperties(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        RequestContextHolder.resetRequestAttributes();
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static User user(int role) {
+        User user = new User();
+        user.setId(7);
+        user.setUsername("alice");
+        user.setRole(role);
+        user.setDeleted(false);
+        return user;
+    }
+
+    @Test
+    public void testNodeLocalHit() {
+        assertEquals(7, userCache.getActive("alice").getId());
+        assertEquals("alice", userCache.getActiveById(7).getUsername());
+        verify(userMapper, times(1)).selectOne(any());
+    }
+
+    @Test
+    public void testReturnedCopyDoesNotPolluteCache() {
+        userCache.getActive("alice").setRole(3);
+        assertEquals(1, userCache.getActive("alice").getRole());
+    }
+
+    @Test
+    public void testEvict() {
+        userCache.getActive("alice");
+        userCache.evict("alice");
+        userCache.getActiveById(7);
+        verify(userMapper, times(2)).selectOne(any());
+    }
+
+    @Test
+    public void testRequestScope() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        userCache.getActive("alice");
+        userCache.evict("alice");
+        userCache.getActive("alice");
+        userCache.getActive("alice");
+        verify(userMapper, times(2)).selectOne(any());
+    }
+
+    @Test
+    public void testReadOverlappingEvictionIsNotCached() {
+        // 读取旧行期间, 另一线程提交角色变更并失效缓存
+        when(userMapper.selectOne(any()))
+                .thenAnswer(invocation -> {
+                    userCache.evict("alice");
+                    return user(1);
+                })
+                .thenReturn(user(2));
+        assertEquals(1, userCache.getActive("alice").getRole());
+        assertEquals(2, userCache.getActive("alice").getRole());
+        assertEquals(2, userCache.getActive("alice").getRole());
+        verify(userMapper, times(2)).selectOne(any());
+    }
+
+    @Test
+    public void testStaleReadBeforeCommitIsEvictedAfterCommit() {
+        when(userMapper.selectOne(any())).thenReturn(user(1), user(2));
+        TransactionSynchronizationManager.initSynchronization();
+        // 事务内写入后失效, 提交前的并发读仍读到旧角色
+        userCache.evict("alice");
+        assertEquals(1, userCache.getActive("alice").getRole());
+        for ( TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations() ) {
+            synchronization.afterCommit();
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        assertEquals(2, userCache.getActive("alice").getRole());
+        assertEquals(2, userCache.getActiveById(7).getRole());
+        verify(userMapper, times(2)).selectOne(any());
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.gregperlinli.certvault.config.serializer;
+
+import com.gregperlinli.certvault.config.RedisConfig;
+import com.gregperlinli.certvault.domain.dto.UserProfileDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the binary session profile format against the default-typed JSON format
+ *
+ * <p>
+ * Bytes per session of both formats are printed in {@link #main(String[])} before the run.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.gregperlinli.certvault.config.serializer.UserProfileRedisSerializerBenchmark}
+ * or from the IDE via {@link #main(String[])}.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code UserProfileRedisSerializerBenchmark}
+ * @date 2025/5/9 11:20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserProfileRedisSerializerBenchmark {
+
+    private Jackson2JsonRedisSerializer<Object> jsonSerializer;
+
+    private UserProfileRedisSerializer binarySerializer;
+
+    private UserProfileDTO profile;
+
+    private byte[] json;
+
+    private byte[] binary;
+
+    @Setup
+    public void setup() {
+        jsonSerializer = RedisConfig.jsonRedisSerializer();
+        binarySerializer = new UserProfileRedisSerializer(UserProfileRedisSerializer.Mode.BINARY, jsonSerializer);
+        profile = sampleProfile();
+        json = jsonSerializer.serialize(profile);
+        binary = binarySerializer.serialize(profile);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonSerializer.serialize(profile);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binarySerializer.serialize(profile);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return jsonSerializer.deserialize(json);
+    }
+
+    @Benchmark
+    public UserProfileDTO binaryDecode() {
+        return binarySerializer.deserialize(binary);
+    }
+
+    private static UserProfileDTO sampleProfile() {
+        return new UserProfileDTO("john.doe", "John Doe", "john.doe@example.com", 2, true);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        UserProfileDTO profile = sampleProfile();
+        Jackson2JsonRedisSerializer<Object> jsonSerializer = RedisConfig.jsonRedisSerializer();
+        System.out.printf("Bytes per session: json=%d, binary=%d%n",
+                jsonSerializer.serialize(profile).length,
+                new UserProfileRedisSerializer(UserProfileRedisSerializer.Mode.BINARY, jsonSerializer).serialize(profile).length);
+        Options options = new OptionsBuilder()
+                .include(UserProfileRedisSerializerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
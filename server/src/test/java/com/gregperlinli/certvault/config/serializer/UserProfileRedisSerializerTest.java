@@ -0,0 +1,57 @@
+package com.gregperlinli.certvault.config.serializer;
+
+import com.gregperlinli.certvault.config.RedisConfig;
+import com.gregperlinli.certvault.domain.dto.UserProfileDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing session profile Redis serializer
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code UserProfileRedisSerializerTest}
+ * @date 2025/5/9 11:05
+ */
+@Slf4j
+public class UserProfileRedisSerializerTest {
+
+    private final Jackson2JsonRedisSerializer<Object> jsonSerializer = RedisConfig.jsonRedisSerializer();
+
+    private final UserProfileRedisSerializer binarySerializer = new UserProfileRedisSerializer(UserProfileRedisSerializer.Mode.BINARY, jsonSerializer);
+
+    @Test
+    public void testBinaryRoundTrip() {
+        UserProfileDTO profile = new UserProfileDTO("张三", "Zhang San", "zhangsan@example.com", 3, false);
+        byte[] binary = binarySerializer.serialize(profile);
+        log.info("Binary: {} bytes, JSON: {} bytes", binary.length, jsonSerializer.serialize(profile).length);
+        assertEquals(profile, binarySerializer.deserialize(binary));
+    }
+
+    @Test
+    public void testNullFields() {
+        UserProfileDTO profile = new UserProfileDTO(null, null, null, null, null);
+        assertEquals(profile, binarySerializer.deserialize(binarySerializer.serialize(profile)));
+    }
+
+    @Test
+    public void testReadLegacyJson() {
+        UserProfileDTO profile = new UserProfileDTO("alice", "Alice", "alice@example.com", 1, true);
+        assertEquals(profile, binarySerializer.deserialize(jsonSerializer.serialize(profile)));
+        UserProfileRedisSerializer jsonMode = new UserProfileRedisSerializer(UserProfileRedisSerializer.Mode.JSON, jsonSerializer);
+        assertEquals(profile, jsonMode.deserialize(binarySerializer.serialize(profile)));
+    }
+
+    @Test
+    public void testTruncatedRejected() {
+        byte[] binary = binarySerializer.serialize(new UserProfileDTO("alice", "Alice", "alice@example.com", 1, true));
+        assertThrows(SerializationException.class, () -> binarySerializer.deserialize(Arrays.copyOf(binary, binary.length - 3)));
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.gregperlinli.certvault.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.Provider;
+import java.security.Security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing crypto provider bootstrap
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CryptoBootstrapTest}
+ * @date 2025/5/18 17:20
+ */
+public class CryptoBootstrapTest {
+
+    @Test
+    public void testProviderIsRegisteredOnce() {
+        CryptoBootstrap.bootstrap();
+        CryptoBootstrap.bootstrap();
+        assertSame(CryptoBootstrap.provider(), Security.getProvider(CryptoBootstrap.provider().getName()));
+        assertEquals(1, countRegistered());
+    }
+
+    @Test
+    public void testRemovedProviderIsRegisteredAgain() {
+        String name = CryptoBootstrap.provider().getName();
+        Security.removeProvider(name);
+        assertNull(Security.getProvider(name));
+        CryptoBootstrap.bootstrap();
+        assertSame(CryptoBootstrap.provider(), Security.getProvider(name));
+    }
+
+    private static int countRegistered() {
+        int count = 0;
+        for ( Provider provider : Security.getProviders() ) {
+            if ( provider.getName().equals(CryptoBootstrap.provider().getName()) ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.gregperlinli.certvault.crypto;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing hybrid envelope cipher
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code EnvelopeCipherTest}
+ * @date 2025/5/3 17:02
+ */
+@Slf4j
+public class EnvelopeCipherTest {
+
+    private static RsaCipherEngine engine;
+
+    private static EnvelopeCipher envelopeCipher;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA", "BC");
+        keyPairGenerator.initialize(1024);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        engine = new RsaCipherEngine(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+        envelopeCipher = new EnvelopeCipher(engine);
+    }
+
+    @Test
+    public void testEnvelopeRoundTrip() throws Exception {
+        String plainText = "z".repeat(3000);
+        String encrypted = envelopeCipher.encrypt(plainText);
+        log.info("Envelope length: {}, legacy length: {}", encrypted.length(), engine.encryptToBase64(plainText).length());
+        assertTrue(EnvelopeCipher.isEnvelope(encrypted));
+        assertEquals(plainText, envelopeCipher.decrypt(encrypted));
+    }
+
+    @Test
+    public void testDecryptLegacyFormat() throws Exception {
+        String plainText = "legacy-private-key";
+        assertEquals(plainText, envelopeCipher.decrypt(engine.encryptToBase64(plainText)));
+    }
+
+    @Test
+    public void testTamperedEnvelopeRejected() throws Exception {
+        String encrypted = envelopeCipher.encrypt("tamper");
+        byte[] raw = Base64.getDecoder().decode(encrypted.substring(EnvelopeCipher.V2_PREFIX.length()));
+        raw[raw.length - 1] ^= 1;
+        String tampered = EnvelopeCipher.V2_PREFIX + Base64.getEncoder().encodeToString(raw);
+        assertThrows(GeneralSecurityException.class, () -> envelopeCipher.decrypt(tampered));
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.gregperlinli.certvault.crypto;
+
+import com.gregperlinli.certvault.config.properties.KeyPairPoolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing pre-generated key pair pool
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code KeyPairPoolTest}
+ * @date 2025/5/12 11:20
+ */
+public class KeyPairPoolTest {
+
+    private KeyPairPool pool;
+
+    @AfterEach
+    public void cleanup() {
+        if ( pool != null ) {
+            pool.destroy();
+        }
+    }
+
+    private KeyPairPool newPool(List<String> prewarm, int minIdle, int maxIdle) {
+        KeyPairPoolProperties properties = new KeyPairPoolProperties();
+        properties.setPrewarm(prewarm);
+        properties.setMinIdle(minIdle);
+        properties.setMaxIdle(maxIdle);
+        properties.setDemandWindow(Duration.ofMillis(200));
+        pool = new KeyPairPool(properties, new SimpleMeterRegistry());
+        pool.init();
+        return pool;
+    }
+
+    private static void awaitSize(KeyPairPool pool, String algorithm, int keySize, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ( pool.size(algorithm, keySize) < size ) {
+            assertTrue(System.currentTimeMillis() < deadline, "Pool was not filled in time");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testPrewarmedKeyPairsAreTakenOnce() throws Exception {
+        newPool(List.of("EC:256"), 4, 8);
+        awaitSize(pool, "EC", 256, 4);
+        Set<Object> publicKeys = new HashSet<>();
+        for ( int i = 0; i < 20; i++ ) {
+            KeyPair keyPair = KeyPairPool.acquire("EC", 256);
+            assertInstanceOf(ECPublicKey.class, keyPair.getPublic());
+            assertTrue(publicKeys.add(keyPair.getPublic()), "Key pair handed out twice");
+        }
+    }
+
+    @Test
+    public void testDemandRaisesTarget() throws Exception {
+        newPool(List.of(), 1, 16);
+        for ( int i = 0; i < 10; i++ ) {
+            KeyPairPool.acquire("Ed25519", 0);
+        }
+        // 未预热的规格在首次请求后开始补充, 目标随取用速率上升
+        awaitSize(pool, "Ed25519", 256, 10);
+        assertTrue(pool.size("Ed25519", 256) <= 16);
+    }
+
+    @Test
+    public void testInlineFallbackWhenDisabled() throws Exception {
+        KeyPairPoolProperties properties = new KeyPairPoolProperties();
+        properties.setEnabled(false);
+        pool = new KeyPairPool(properties, new SimpleMeterRegistry());
+        pool.init();
+        KeyPair keyPair = KeyPairPool.acquire("EC", 300);
+        assertEquals(256, ((ECPublicKey) keyPair.getPublic()).getParams().getCurve().getField().getFieldSize());
+        assertEquals(0, pool.size("EC", 256));
+    }
+
+    @Test
+    public void testOnlyConfiguredSpecsArePooled() throws Exception {
+        newPool(List.of("EC:256", "RSA:1024", "DSA:2048"), 1, 4);
+        awaitSize(pool, "EC", 256, 1);
+        // 未配置的规格直接生成, 不建立库存
+        KeyPair keyPair = KeyPairPool.acquire("RSA", 1024);
+        assertEquals("RSA", keyPair.getPublic().getAlgorithm());
+        Thread.sleep(300);
+        assertEquals(0, pool.size("RSA", 1024));
+        assertEquals("DSA", KeyPairPool.acquire("DSA", 2048).getPublic().getAlgorithm());
+        Thread.sleep(300);
+        assertEquals(0, pool.size("DSA", 2048));
+    }
+
+    @Test
+    public void testNormalizeKeySize() {
+        assertEquals(256, KeyPairPool.normalizeKeySize("Ed25519", 4096));
+        assertEquals(256, KeyPairPool.normalizeKeySize("EC", 300));
+        assertEquals(384, KeyPairPool.normalizeKeySize("EC", 384));
+        assertEquals(521, KeyPairPool.normalizeKeySize("EC", 500));
+        assertEquals(3072, KeyPairPool.normalizeKeySize("RSA", 3072));
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.gregperlinli.certvault.crypto;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Cipher;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link RsaCipherEngine} against the previous per-call
+ * {@code EncryptAndDecryptUtils} implementation
+ *
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.gregperlinli.certvault.crypto.RsaCipherEngineBenchmark}
+ * or from the IDE via {@link #main(String[])}.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code RsaCipherEngineBenchmark}
+ * @date 2025/5/2 11:30
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RsaCipherEngineBenchmark {
+
+    @Param({"2048", "4096"})
+    public int masterKeySize;
+
+    private String publicKeyString;
+
+    private String privateKeyString;
+
+    private RsaCipherEngine engine;
+
+    private String plainText;
+
+    private String encryptedText;
+
+    @Setup
+    public void setup() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA", "BC");
+        keyPairGenerator.initialize(masterKeySize);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        publicKeyString = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        privateKeyString = Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded());
+        engine = new RsaCipherEngine(publicKeyString, privateKeyString);
+        // 模拟一个 Base64 编码的 PEM 私钥 (约 2.3 KB)
+        KeyPairGenerator sample = KeyPairGenerator.getInstance("RSA", "BC");
+        sample.initialize(2048);
+        plainText = Base64.getEncoder().encodeToString(sample.generateKeyPair().getPrivate().getEncoded());
+        encryptedText = engine.encryptToBase64(plainText);
+    }
+
+    @Benchmark
+    public String legacyEncrypt() throws Exception {
+        return legacyEncrypt(plainText);
+    }
+
+    @Benchmark
+    public String engineEncrypt() throws Exception {
+        return engine.encryptToBase64(plainText);
+    }
+
+    @Benchmark
+    public String legacyDecrypt() throws Exception {
+        return legacyDecrypt(encryptedText);
+    }
+
+    @Benchmark
+    public String engineDecrypt() throws Exception {
+        return engine.decryptFromBase64(encryptedText);
+    }
+
+    /**
+     * Previous {@code EncryptAndDecryptUtils.encrypt} implementation
+     */
+    private String legacyEncrypt(String text) throws Exception {
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA", "BC");
+        PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(publicKeyString)));
+        Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding", "BC");
+        cipher.init(Cipher.ENCRYPT_MODE, publicKey);
+        byte[] plainBytes = text.getBytes(StandardCharsets.UTF_8);
+        int blockSize = cipher.getBlockSize();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for ( int offset = 0; offset < plainBytes.length; offset += blockSize ) {
+            byte[] cache = cipher.doFinal(plainBytes, offset, Math.min(blockSize, plainBytes.length - offset));
+            out.write(cache, 0, cache.length);
+        }
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    /**
+     * Previous {@code EncryptAndDecryptUtils.decrypt} implementation
+     */
+    private String legacyDecrypt(String text) throws Exception {
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA", "BC");
+        PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKeyString)));
+        Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding", "BC");
+        cipher.init(Cipher.DECRYPT_MODE, privateKey);
+        byte[] encryptedBytes = Base64.getDecoder().decode(text);
+        int blockSize = cipher.getBlockSize();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for ( int offset = 0; offset < encryptedBytes.length; offset += blockSize ) {
+            byte[] cache = cipher.doFinal(encryptedBytes, offset, Math.min(blockSize, encryptedBytes.length - offset));
+            out.write(cache, 0, cache.length);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RsaCipherEngineBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
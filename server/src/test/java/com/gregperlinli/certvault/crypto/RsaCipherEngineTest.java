@@ -0,0 +1,67 @@
+package com.gregperlinli.certvault.crypto;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testing RSA master key cipher engine
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code RsaCipherEngineTest}
+ * @date 2025/5/2 11:05
+ */
+@Slf4j
+public class RsaCipherEngineTest {
+
+    private static KeyPair keyPair;
+
+    private static RsaCipherEngine engine;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA", "BC");
+        keyPairGenerator.initialize(2048);
+        keyPair = keyPairGenerator.generateKeyPair();
+        engine = new RsaCipherEngine(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        String plainText = "x".repeat(1000);
+        String encrypted = engine.encryptToBase64(plainText);
+        log.info("Encrypted length: {}", encrypted.length());
+        assertEquals(plainText, engine.decryptFromBase64(encrypted));
+        assertEquals(plainText, new String(engine.decrypt(engine.encrypt(plainText.getBytes(StandardCharsets.UTF_8))), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDecryptLegacyFormat() throws Exception {
+        // 旧版按 block size 分段加密的密文
+        String plainText = "y".repeat(777);
+        Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding", "BC");
+        cipher.init(Cipher.ENCRYPT_MODE, keyPair.getPublic());
+        byte[] plainBytes = plainText.getBytes(StandardCharsets.UTF_8);
+        int blockSize = cipher.getBlockSize();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for ( int offset = 0; offset < plainBytes.length; offset += blockSize ) {
+            out.writeBytes(cipher.doFinal(plainBytes, offset, Math.min(blockSize, plainBytes.length - offset)));
+        }
+        assertEquals(plainText, engine.decryptFromBase64(Base64.getEncoder().encodeToString(out.toByteArray())));
+    }
+
+}
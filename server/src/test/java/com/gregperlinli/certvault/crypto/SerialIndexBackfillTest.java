@@ -0,0 +1,140 @@
+package com.gregperlinli.certvault.crypto;
+
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.domain.entities.SerialIndex;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import com.gregperlinli.certvault.mapper.SerialIndexMapper;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import org.apache.ibatis.session.SqlSession;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing serial index backfill of legacy certificates on H2
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code SerialIndexBackfillTest}
+ * @date 2025/5/18 18:40
+ */
+public class SerialIndexBackfillTest {
+
+    private static final X500Name CA_NAME = new X500Name("CN=Legacy CA");
+
+    private SqlSession sqlSession;
+
+    private CertificateMapper certificateMapper;
+
+    private SerialIndexMapper serialIndexMapper;
+
+    private SerialIndexBackfill serialIndexBackfill;
+
+    private KeyPair keyPair;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        sqlSession = H2SqlSessions.open(CaMapper.class, CertificateMapper.class, SerialIndexMapper.class);
+        CaMapper caMapper = sqlSession.getMapper(CaMapper.class);
+        certificateMapper = sqlSession.getMapper(CertificateMapper.class);
+        serialIndexMapper = sqlSession.getMapper(SerialIndexMapper.class);
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", CryptoBootstrap.provider());
+        generator.initialize(256);
+        keyPair = generator.generateKeyPair();
+        // 升级前签发的 CA 与 SSL 证书, 序列号未登记
+        Ca ca = new Ca();
+        ca.setUuid("ca-1");
+        ca.setPrivkey("privkey");
+        ca.setCertDer(sign(CA_NAME, BigInteger.ONE).getEncoded());
+        ca.setOwner(1);
+        ca.setComment("Legacy CA");
+        ca.setCreatedAt(LocalDateTime.now());
+        ca.setModifiedAt(LocalDateTime.now());
+        caMapper.insert(ca);
+        insertCertificate("cert-1", BigInteger.valueOf(2));
+        insertCertificate("cert-2", BigInteger.valueOf(3));
+        serialIndexBackfill = new SerialIndexBackfill(caMapper, certificateMapper, serialIndexMapper);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sqlSession.close();
+    }
+
+    private X509CertificateHolder sign(X500Name subject, BigInteger serial) throws Exception {
+        return new JcaX509v3CertificateBuilder(CA_NAME, serial, new Date(),
+                new Date(System.currentTimeMillis() + 30 * 86_400_000L), subject, keyPair.getPublic())
+                .build(CryptoBootstrap.contentSigner("SHA256withECDSA", keyPair.getPrivate()));
+    }
+
+    private void insertCertificate(String uuid, BigInteger serial) throws Exception {
+        Certificate certificate = new Certificate();
+        certificate.setUuid(uuid);
+        certificate.setCaUuid("ca-1");
+        certificate.setCertDer(sign(new X500Name("CN=" + uuid), serial).getEncoded());
+        certificate.setOwner(1);
+        certificate.setNotBefore(LocalDateTime.now());
+        certificate.setNotAfter(LocalDateTime.now().plusDays(30));
+        certificate.setCreatedAt(LocalDateTime.now());
+        certificateMapper.insert(certificate);
+    }
+
+    private Set<String> registered() {
+        String issuer = SerialNumberService.issuerHash(CA_NAME);
+        return serialIndexMapper.selectList(null).stream()
+                .filter(serialIndex -> issuer.equals(serialIndex.getIssuer()))
+                .map(SerialIndex::getSerial)
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testMigrateRegistersLegacySerials() {
+        serialIndexBackfill.migrate();
+        // 自签名 CA 的颁发者为其自身
+        assertEquals(Set.of("1", "2", "3"), registered());
+    }
+
+    @Test
+    public void testBackfillIsRepeatable() throws Exception {
+        SerialIndex serialIndex = new SerialIndex();
+        serialIndex.setIssuer(SerialNumberService.issuerHash(CA_NAME));
+        serialIndex.setSerial("2");
+        serialIndex.setCreatedAt(LocalDateTime.now());
+        serialIndexMapper.insert(serialIndex);
+        assertEquals(1, serialIndexBackfill.backfill("ca-1"));
+        insertCertificate("cert-3", BigInteger.valueOf(4));
+        assertEquals(1, serialIndexBackfill.backfill("ca-1"));
+        assertEquals(0, serialIndexBackfill.backfill("ca-1"));
+        // 只补录该 CA 签发的证书, 自签名 CA 本身不属于任何上级 CA
+        assertEquals(Set.of("2", "3", "4"), registered());
+    }
+
+    @Test
+    public void testUnparsableRowIsSkipped() {
+        Certificate certificate = new Certificate();
+        certificate.setUuid("cert-broken");
+        certificate.setCaUuid("ca-1");
+        certificate.setCertDer(new byte[] {0x30, 0x00});
+        certificate.setOwner(1);
+        certificate.setNotBefore(LocalDateTime.now());
+        certificate.setNotAfter(LocalDateTime.now().plusDays(30));
+        certificateMapper.insert(certificate);
+        assertEquals(2, serialIndexBackfill.backfill("ca-1"));
+    }
+
+}
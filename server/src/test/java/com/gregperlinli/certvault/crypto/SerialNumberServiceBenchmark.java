@@ -0,0 +1,58 @@
+package com.gregperlinli.certvault.crypto;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link SerialNumberService#random()} against the previous
+ * {@code BigInteger.probablePrime(128, new SecureRandom())} serial numbers
+ *
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.gregperlinli.certvault.crypto.SerialNumberServiceBenchmark}
+ * or from the IDE via {@link #main(String[])}.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code SerialNumberServiceBenchmark}
+ * @date 2025/5/12 17:05
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerialNumberServiceBenchmark {
+
+    @Benchmark
+    public BigInteger legacyProbablePrime() {
+        return BigInteger.probablePrime(128, new SecureRandom());
+    }
+
+    @Benchmark
+    public BigInteger sharedSecureRandom() {
+        return SerialNumberService.random();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BigInteger sharedSecureRandomContended() {
+        return SerialNumberService.random();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SerialNumberServiceBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.gregperlinli.certvault.crypto;
+
+import com.gregperlinli.certvault.domain.entities.SerialIndex;
+import com.gregperlinli.certvault.mapper.SerialIndexMapper;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing certificate serial number service
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code SerialNumberServiceTest}
+ * @date 2025/5/12 16:50
+ */
+public class SerialNumberServiceTest {
+
+    private static final X500Name ISSUER = new X500Name("C=CN,O=CertVault,CN=CertVault Test CA");
+
+    @Test
+    public void testRandomSerialsArePositiveAndDistinct() {
+        Set<BigInteger> serials = new HashSet<>();
+        for ( int i = 0; i < 10000; i++ ) {
+            BigInteger serial = SerialNumberService.random();
+            assertEquals(1, serial.signum());
+            // DER 编码不超过 RFC 5280 规定的 20 字节
+            assertTrue(serial.toByteArray().length <= 20);
+            assertTrue(serials.add(serial));
+        }
+    }
+
+    @Test
+    public void testAllocateRegistersSerial() {
+        SerialIndexMapper serialIndexMapper = mock(SerialIndexMapper.class);
+        SerialNumberService service = new SerialNumberService(serialIndexMapper);
+        BigInteger serial = service.allocate(ISSUER);
+        ArgumentCaptor<SerialIndex> captor = ArgumentCaptor.forClass(SerialIndex.class);
+        verify(serialIndexMapper).insert(captor.capture());
+        assertEquals(serial.toString(16), captor.getValue().getSerial());
+        assertEquals(SerialNumberService.issuerHash(ISSUER), captor.getValue().getIssuer());
+        assertEquals(64, captor.getValue().getIssuer().length());
+    }
+
+    @Test
+    public void testAllocateRetriesOnDuplicate() {
+        SerialIndexMapper serialIndexMapper = mock(SerialIndexMapper.class);
+        when(serialIndexMapper.insert(any(SerialIndex.class)))
+                .thenThrow(new DuplicateKeyException("serial_index_pk"))
+                .thenReturn(1);
+        SerialNumberService service = new SerialNumberService(serialIndexMapper);
+        assertNotNull(service.allocate(ISSUER));
+        verify(serialIndexMapper, times(2)).insert(any(SerialIndex.class));
+    }
+
+    @Test
+    public void testAllocateGivesUpAfterRepeatedDuplicates() {
+        SerialIndexMapper serialIndexMapper = mock(SerialIndexMapper.class);
+        when(serialIndexMapper.insert(any(SerialIndex.class))).thenThrow(new DuplicateKeyException("serial_index_pk"));
+        SerialNumberService service = new SerialNumberService(serialIndexMapper);
+        assertThrows(IllegalStateException.class, () -> service.allocate(ISSUER));
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.gregperlinli.certvault.geoip;
+
+import com.gregperlinli.certvault.config.properties.GeoIpProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing GeoIP resolution service against a local ip-api.com stub
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code GeoIpServiceTest}
+ * @date 2025/5/11 15:45
+ */
+public class GeoIpServiceTest {
+
+    private StubIpApiServer stub;
+
+    private GeoIpProperties properties;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        stub = new StubIpApiServer();
+        properties = new GeoIpProperties();
+        properties.getIpApi().setBaseUrl(stub.baseUrl());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        stub.close();
+    }
+
+    private GeoIpService newService() {
+        GeoIpService geoIpService = new GeoIpService(properties, new SimpleMeterRegistry());
+        geoIpService.init();
+        return geoIpService;
+    }
+
+    @Test
+    public void testCachedLookup() {
+        GeoIpService geoIpService = newService();
+        assertEquals("Guangzhou", geoIpService.getLocation("8.8.8.8").get("city"));
+        assertEquals("Guangzhou", geoIpService.getLocation("8.8.8.8").get("city"));
+        assertEquals(1, stub.requests());
+    }
+
+    @Test
+    public void testConcurrentLookupsCoalesced() {
+        stub.delay(Duration.ofMillis(300));
+        GeoIpService geoIpService = newService();
+        List<CompletableFuture<Map<String, String>>> futures = IntStream.range(0, 20)
+                .mapToObj(i -> geoIpService.resolve("1.1.1.1"))
+                .toList();
+        futures.forEach(future -> assertEquals("China", future.join().get("region")));
+        assertEquals(1, stub.requests());
+    }
+
+    @Test
+    public void testPrefixKey() {
+        properties.getCache().setKey("prefix");
+        GeoIpService geoIpService = newService();
+        geoIpService.getLocation("9.9.9.1");
+        geoIpService.getLocation("9.9.9.200");
+        geoIpService.getLocation("9.9.10.1");
+        assertEquals(2, stub.requests());
+    }
+
+    @Test
+    public void testPrivateAddressNotQueried() {
+        GeoIpService geoIpService = newService();
+        assertEquals(GeoIpService.UNKNOWN, geoIpService.getLocation("192.168.1.1").get("city"));
+        assertEquals(GeoIpService.UNKNOWN, geoIpService.getLocation("unknown").get("city"));
+        // IPv6 唯一本地地址 fc00::/7
+        assertEquals(GeoIpService.UNKNOWN, geoIpService.getLocation("fd12:3456:789a::1").get("city"));
+        assertEquals(GeoIpService.UNKNOWN, geoIpService.getLocation("fc00::1").get("city"));
+        assertEquals(0, stub.requests());
+    }
+
+    @Test
+    public void testTimeoutFallsBackAndIsNotCached() {
+        stub.delay(Duration.ofMillis(800));
+        properties.setLookupTimeout(Duration.ofMillis(100));
+        properties.getIpApi().setRequestTimeout(Duration.ofMillis(200));
+        GeoIpService geoIpService = newService();
+        assertEquals(GeoIpService.UNKNOWN, geoIpService.getLocation("4.4.4.4").get("city"));
+        // 请求超时的结果不缓存, 恢复后重新查询
+        stub.delay(Duration.ZERO);
+        properties.setLookupTimeout(Duration.ofSeconds(3));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while ( GeoIpService.UNKNOWN.equals(geoIpService.getLocation("4.4.4.4").get("city")) ) {
+                Thread.sleep(50);
+            }
+        });
+    }
+
+    @Test
+    public void testHttpErrorNotCached() {
+        stub.status(429);
+        GeoIpService geoIpService = newService();
+        assertEquals(GeoIpService.UNKNOWN, geoIpService.getLocation("5.5.5.5").get("city"));
+        stub.status(200);
+        assertEquals("Guangzhou", geoIpService.getLocation("5.5.5.5").get("city"));
+        assertEquals(2, stub.requests());
+    }
+
+}
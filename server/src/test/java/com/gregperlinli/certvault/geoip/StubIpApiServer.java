@@ -0,0 +1,81 @@
+package com.gregperlinli.certvault.geoip;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stub of the ip-api.com JSON endpoint for tests
+ *
+ * <p>
+ * Listens on a random loopback port, answers {@code GET /json/{ip}} with a fixed
+ * successful location after an optional delay and counts the requests it served.
+ * Point {@code geoip.ip-api.base-url} to {@link #baseUrl()}.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code StubIpApiServer}
+ * @date 2025/5/11 15:30
+ */
+public class StubIpApiServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private volatile Duration delay = Duration.ZERO;
+
+    private volatile int status = 200;
+
+    public StubIpApiServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/json/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String ip = exchange.getRequestURI().getPath().substring("/json/".length());
+            byte[] body = ("{\"status\":\"success\",\"country\":\"China\",\"regionName\":\"Guangdong\",\"city\":\"Guangzhou\",\"query\":\"" + ip + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try ( OutputStream out = exchange.getResponseBody() ) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/json/";
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public StubIpApiServer delay(Duration delay) {
+        this.delay = delay;
+        return this;
+    }
+
+    public StubIpApiServer status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,121 @@
+package com.gregperlinli.certvault.initializer;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
+import com.gregperlinli.certvault.utils.CertUtils;
+import org.apache.ibatis.session.SqlSession;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the online migration of legacy BASE64 PEM certificates to DER on H2
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CertDerMigrateInitializerTest}
+ * @date 2025/5/15 11:40
+ */
+public class CertDerMigrateInitializerTest {
+
+    private SqlSession sqlSession;
+
+    private CaMapper caMapper;
+
+    private ServiceImpl<CaMapper, Ca> service;
+
+    private final Map<String, String> certs = new HashMap<>();
+
+    @BeforeEach
+    public void setup() throws Exception {
+        sqlSession = H2SqlSessions.open(CaMapper.class);
+        caMapper = sqlSession.getMapper(CaMapper.class);
+        service = new ServiceImpl<>() {
+            {
+                this.baseMapper = caMapper;
+            }
+        };
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", CryptoBootstrap.provider());
+        generator.initialize(256);
+        KeyPair keyPair = generator.generateKeyPair();
+        String parentCa = null;
+        for ( int i = 0; i < 7; i++ ) {
+            X500Name name = new X500Name("CN=Test CA " + i);
+            X509CertificateHolder holder = new JcaX509v3CertificateBuilder(name, BigInteger.valueOf(i + 1),
+                    new Date(), new Date(System.currentTimeMillis() + 86_400_000L), name, keyPair.getPublic())
+                    .build(CryptoBootstrap.contentSigner("SHA256withECDSA", keyPair.getPrivate()));
+            String certBase64 = CertUtils.encodeBase64(CertUtils.generatePemCertificate(holder).getBytes(StandardCharsets.UTF_8));
+            Ca ca = new Ca();
+            ca.setUuid("ca-" + i);
+            ca.setPrivkey("privkey");
+            // 旧格式: Base64 编码的 PEM
+            ca.setCert(certBase64);
+            ca.setParentCa(parentCa);
+            ca.setOwner(1);
+            ca.setComment("CA " + i);
+            ca.setCreatedAt(LocalDateTime.now());
+            ca.setModifiedAt(LocalDateTime.now());
+            caMapper.insert(ca);
+            certs.put(ca.getUuid(), certBase64);
+            parentCa = ca.getUuid();
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sqlSession.close();
+    }
+
+    @Test
+    public void testMigrateToDer() {
+        assertEquals(7, CertDerMigrateInitializer.migrate(service, "ca", Ca::getId, 3));
+        for ( Ca ca : caMapper.selectList(new QueryWrapper<>()) ) {
+            assertNull(ca.getCert());
+            assertNotNull(ca.getCertDer());
+            // API 返回的格式与迁移前一致
+            assertEquals(certs.get(ca.getUuid()), CertStorageUtils.toBase64(ca));
+        }
+        assertEquals(0, CertDerMigrateInitializer.migrate(service, "ca", Ca::getId, 3));
+    }
+
+    @Test
+    public void testMixedFormatsAndConcurrentUpdate() throws Exception {
+        // 迁移前已被更新为 DER 的行不再覆盖
+        Ca renewed = caMapper.selectOne(new QueryWrapper<Ca>().eq("uuid", "ca-2"));
+        CertStorageUtils.store(renewed, certs.get("ca-3"));
+        UpdateWrapper<Ca> updateWrapper = new UpdateWrapper<Ca>().eq("id", renewed.getId());
+        CertStorageUtils.clearUnused(updateWrapper, renewed);
+        caMapper.update(renewed, updateWrapper);
+        // 迁移中途两种格式并存, 证书链均可读取
+        List<Ca> chain = caMapper.selectCaChain("ca-6", 16);
+        assertEquals(7, chain.size());
+        for ( Ca ca : chain ) {
+            String expected = certs.get("ca-2".equals(ca.getUuid()) ? "ca-3" : ca.getUuid());
+            assertEquals(expected, CertStorageUtils.toBase64(ca));
+            assertEquals(CertUtils.parseCertificate(expected), CertStorageUtils.toCertificateHolder(ca));
+        }
+        assertEquals(6, CertDerMigrateInitializer.migrate(service, "ca", Ca::getId, 500));
+        Ca migrated = caMapper.selectOne(new QueryWrapper<Ca>().eq("uuid", "ca-2"));
+        assertNull(migrated.getCert());
+        assertArrayEquals(CertStorageUtils.toDer(certs.get("ca-3")), migrated.getCertDer());
+    }
+
+}
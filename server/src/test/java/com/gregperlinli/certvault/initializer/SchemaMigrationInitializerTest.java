@@ -0,0 +1,165 @@
+package com.gregperlinli.certvault.initializer;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing schema migrations on H2
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code SchemaMigrationInitializerTest}
+ * @date 2025/5/13 14:50
+ */
+public class SchemaMigrationInitializerTest {
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        try ( Connection connection = dataSource.getConnection() ) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("sql/schema-h2.sql"));
+        }
+    }
+
+    private String explain(String sql) throws Exception {
+        try ( Connection connection = dataSource.getConnection();
+              Statement statement = connection.createStatement();
+              ResultSet resultSet = statement.executeQuery("explain " + sql) ) {
+            assertTrue(resultSet.next());
+            return resultSet.getString(1);
+        }
+    }
+
+    private void assertUsesIndex(String index, String sql) throws Exception {
+        String plan = explain(sql);
+        assertTrue(plan.contains(index), "Expected " + index + " in plan: " + plan);
+    }
+
+    @Test
+    public void testMigrationsAppliedOnce() throws Exception {
+        SchemaMigrationInitializer initializer = new SchemaMigrationInitializer(dataSource, "h2");
+        assertEquals(List.of(1, 3), initializer.migrate());
+        assertEquals(List.of(), initializer.migrate());
+        try ( Connection connection = dataSource.getConnection();
+              Statement statement = connection.createStatement();
+              ResultSet resultSet = statement.executeQuery("select version, description from \"schema_migration\" order by version") ) {
+            assertTrue(resultSet.next());
+            assertEquals(1, resultSet.getInt(1));
+            assertEquals("hot lookup indexes", resultSet.getString(2));
+            assertTrue(resultSet.next());
+            assertEquals(3, resultSet.getInt(1));
+            assertEquals("cert der storage", resultSet.getString(2));
+            assertFalse(resultSet.next());
+        }
+    }
+
+    private DataMigration dataMigration(int version, Runnable migrate) {
+        return new DataMigration() {
+            @Override
+            public int getVersion() {
+                return version;
+            }
+
+            @Override
+            public String getDescription() {
+                return "test data";
+            }
+
+            @Override
+            public void migrate() {
+                migrate.run();
+            }
+        };
+    }
+
+    @Test
+    public void testDataMigrationsAppliedInVersionOrder() throws Exception {
+        List<Integer> calls = new ArrayList<>();
+        SchemaMigrationInitializer initializer = new SchemaMigrationInitializer(dataSource, "h2",
+                List.of(dataMigration(4, () -> calls.add(4)), dataMigration(2, () -> calls.add(2))));
+        assertEquals(List.of(1, 2, 3, 4), initializer.migrate());
+        assertEquals(List.of(), initializer.migrate());
+        assertEquals(List.of(2, 4), calls);
+        try ( Connection connection = dataSource.getConnection();
+              Statement statement = connection.createStatement();
+              ResultSet resultSet = statement.executeQuery("select description from \"schema_migration\" where version = 4") ) {
+            assertTrue(resultSet.next());
+            assertEquals("test data", resultSet.getString(1));
+        }
+    }
+
+    @Test
+    public void testFailedDataMigrationIsRetried() throws Exception {
+        SchemaMigrationInitializer failing = new SchemaMigrationInitializer(dataSource, "h2",
+                List.of(dataMigration(4, () -> {
+                    throw new IllegalStateException("broken");
+                })));
+        assertThrows(SQLException.class, failing::migrate);
+        SchemaMigrationInitializer initializer = new SchemaMigrationInitializer(dataSource, "h2",
+                List.of(dataMigration(4, () -> {})));
+        assertEquals(List.of(4), initializer.migrate());
+    }
+
+    @Test
+    public void testDuplicateDataMigrationVersionRejected() {
+        SchemaMigrationInitializer initializer = new SchemaMigrationInitializer(dataSource, "h2",
+                List.of(dataMigration(3, () -> {})));
+        assertThrows(IllegalStateException.class, initializer::migrate);
+    }
+
+    @Test
+    public void testConcurrentMigrationsApplyEachVersionOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for ( int i = 0; i < 4; i++ ) {
+                results.add(executor.submit(() -> new SchemaMigrationInitializer(dataSource, "h2").migrate()));
+            }
+            List<Integer> applied = new ArrayList<>();
+            for ( Future<List<Integer>> result : results ) {
+                applied.addAll(result.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(List.of(1, 3), applied);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHotLookupsUseIndexes() throws Exception {
+        new SchemaMigrationInitializer(dataSource, "h2").migrate();
+        assertUsesIndex("CA_PK", "select * from \"ca\" where uuid = 'x' and deleted = false");
+        assertUsesIndex("IDX_CA_OWNER", "select * from \"ca\" where owner = 1 and deleted = false");
+        assertUsesIndex("IDX_CA_PARENT_CA", "select count(*) from \"ca\" where parent_ca = 'x' and deleted = false");
+        assertUsesIndex("CERTIFICATE_PK_2", "select * from \"certificate\" where uuid = 'x' and deleted = false");
+        assertUsesIndex("IDX_CERTIFICATE_OWNER", "select * from \"certificate\" where owner = 1 and deleted = false");
+        assertUsesIndex("IDX_CERTIFICATE_CA_UUID", "select count(*) from \"certificate\" where ca_uuid = 'x' and deleted = false");
+        assertUsesIndex("CA_ALLOC_PK_2", "select * from \"ca_binding\" where ca_uuid = 'x' and uid = 1");
+        assertUsesIndex("IDX_CA_BINDING_UID", "select * from \"ca_binding\" where uid = 1");
+        assertUsesIndex("USERS_NAMES", "select * from \"user\" where username = 'x' and deleted = false");
+        assertUsesIndex("IDX_USER_EMAIL", "select * from \"user\" where email = 'x' and deleted = false");
+        assertUsesIndex("IDX_LOGIN_RECORD_SESSION_ID", "update \"login_record\" set online = false where session_id = 'x'");
+        assertUsesIndex("IDX_LOGIN_RECORD_UID", "select * from \"login_record\" where uid = 1 order by login_time desc");
+    }
+
+}
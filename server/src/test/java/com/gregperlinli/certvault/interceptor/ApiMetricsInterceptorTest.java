@@ -0,0 +1,85 @@
+package com.gregperlinli.certvault.interceptor;
+
+import com.gregperlinli.certvault.constant.PrometheusConstant;
+import com.gregperlinli.certvault.controller.PkiController;
+import com.gregperlinli.certvault.domain.vo.ResultVO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Testing API request metrics tagged per {@link PrometheusConstant}
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code ApiMetricsInterceptorTest}
+ * @date 2025/5/17 21:00
+ */
+public class ApiMetricsInterceptorTest {
+
+    private SimpleMeterRegistry registry;
+
+    private ApiMetricsInterceptor interceptor;
+
+    private HandlerMethod handler;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        registry = new SimpleMeterRegistry();
+        interceptor = new ApiMetricsInterceptor(registry);
+        handler = new HandlerMethod(mock(PkiController.class), Object.class.getMethod("toString"));
+    }
+
+    private MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/pki/crl/ca-1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    @Test
+    public void testRecordsRequestTaggedWithResultCode() {
+        MockHttpServletRequest request = request("/api/v1/pki/crl/{uuid}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler);
+        new ApiMetricsResponseAdvice().beforeBodyWrite(new ResultVO<>(404, "No data"), null, null, null,
+                new ServletServerHttpRequest(request), new ServletServerHttpResponse(response));
+        interceptor.afterCompletion(request, response, handler, null);
+
+        String[] tags = {
+                PrometheusConstant.API_CODE.getName(), "200",
+                PrometheusConstant.CONTROLLER.getName(), handler.getBeanType().getSimpleName(),
+                PrometheusConstant.PATH.getName(), "/api/v1/pki/crl/{uuid}",
+                PrometheusConstant.METHOD.getName(), "GET",
+                PrometheusConstant.CODE.getName(), "404"
+        };
+        assertEquals(1, registry.get(PrometheusConstant.PROMETHEUS_METRICS.getName()).tags(tags).counter().count());
+        assertEquals(1, registry.get(PrometheusConstant.API_REQUEST_DURATION.getName()).tags(tags).timer().count());
+    }
+
+    @Test
+    public void testUnhandledExceptionAndNonControllerHandler() {
+        MockHttpServletRequest request = request("/api/v1/pki/ocsp");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler);
+        interceptor.afterCompletion(request, response, handler, new IllegalStateException("broken"));
+        assertEquals(1, registry.get(PrometheusConstant.PROMETHEUS_METRICS.getName())
+                .tags(PrometheusConstant.API_CODE.getName(), "500", PrometheusConstant.CODE.getName(), "none")
+                .counter().count());
+
+        // 静态资源等非控制器请求不记录
+        MockHttpServletRequest resource = request("/**");
+        interceptor.preHandle(resource, response, new Object());
+        interceptor.afterCompletion(resource, response, new Object(), null);
+        assertEquals(1, registry.get(PrometheusConstant.PROMETHEUS_METRICS.getName()).counters().size());
+    }
+
+}
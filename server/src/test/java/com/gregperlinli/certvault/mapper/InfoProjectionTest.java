@@ -0,0 +1,109 @@
+package com.gregperlinli.certvault.mapper;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the list projections never load private keys or certificates
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code InfoProjectionTest}
+ * @date 2025/5/14 15:20
+ */
+public class InfoProjectionTest {
+
+    private SqlSession sqlSession;
+
+    private CaMapper caMapper;
+
+    private CertificateMapper certificateMapper;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        sqlSession = H2SqlSessions.open(CaMapper.class, CertificateMapper.class);
+        caMapper = sqlSession.getMapper(CaMapper.class);
+        certificateMapper = sqlSession.getMapper(CertificateMapper.class);
+        for ( int i = 0; i < 5; i++ ) {
+            Ca ca = new Ca();
+            ca.setUuid("ca-" + i);
+            ca.setAlgorithm("RSA");
+            ca.setKeySize(2048);
+            ca.setPrivkey("privkey-" + i);
+            ca.setCert("cert-" + i);
+            ca.setOwner(i % 2);
+            ca.setComment("CA " + i);
+            ca.setAvailable(true);
+            ca.setNotBefore(LocalDateTime.now());
+            ca.setNotAfter(LocalDateTime.now().plusYears(1));
+            ca.setCreatedAt(LocalDateTime.now());
+            ca.setModifiedAt(LocalDateTime.now());
+            caMapper.insert(ca);
+            Certificate certificate = new Certificate();
+            certificate.setUuid("cert-" + i);
+            certificate.setAlgorithm("RSA");
+            certificate.setKeySize(2048);
+            certificate.setPrivkey("privkey-" + i);
+            certificate.setCert("cert-" + i);
+            certificate.setCaUuid("ca-" + i);
+            certificate.setOwner(i % 2);
+            certificate.setComment("Certificate " + i);
+            certificate.setNotBefore(LocalDateTime.now());
+            certificate.setNotAfter(LocalDateTime.now().plusYears(1));
+            certificate.setCreatedAt(LocalDateTime.now());
+            certificate.setModifiedAt(LocalDateTime.now());
+            certificateMapper.insert(certificate);
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sqlSession.close();
+    }
+
+    @Test
+    public void testCaInfoPage() {
+        Page<Ca> page = caMapper.selectInfoPage(new Page<>(1, 2),
+                new QueryWrapper<Ca>().eq("owner", 0).eq("deleted", false).orderByDesc("uuid"));
+        assertEquals(3, page.getTotal());
+        assertEquals(2, page.getRecords().size());
+        Ca ca = page.getRecords().get(0);
+        assertEquals("ca-4", ca.getUuid());
+        assertEquals("CA 4", ca.getComment());
+        assertEquals(2048, ca.getKeySize());
+        assertTrue(ca.getAvailable());
+        assertNotNull(ca.getNotAfter());
+        assertNull(ca.getPrivkey());
+        assertNull(ca.getCert());
+        assertNull(ca.getCertDer());
+    }
+
+    @Test
+    public void testCertificateInfoPage() {
+        Page<Certificate> page = certificateMapper.selectInfoPage(new Page<>(2, 2),
+                new QueryWrapper<Certificate>().eq("deleted", false).orderByAsc("id"));
+        assertEquals(5, page.getTotal());
+        assertEquals(2, page.getRecords().size());
+        Certificate certificate = page.getRecords().get(0);
+        assertEquals("cert-2", certificate.getUuid());
+        assertEquals("ca-2", certificate.getCaUuid());
+        assertNotNull(certificate.getId());
+        assertNull(certificate.getPrivkey());
+        assertNull(certificate.getCert());
+        assertNull(certificate.getCertDer());
+        // 详情仍然加载完整的行
+        assertEquals("cert-2", certificateMapper.selectById(certificate.getId()).getCert());
+    }
+
+}
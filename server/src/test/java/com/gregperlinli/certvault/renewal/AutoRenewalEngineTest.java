@@ -0,0 +1,287 @@
+package com.gregperlinli.certvault.renewal;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.gregperlinli.certvault.async.BulkCertIssuer;
+import com.gregperlinli.certvault.cache.CaSigningKeyCache;
+import com.gregperlinli.certvault.cache.ExpiryIndex;
+import com.gregperlinli.certvault.config.properties.AutoRenewalProperties;
+import com.gregperlinli.certvault.config.properties.BulkIssuanceProperties;
+import com.gregperlinli.certvault.config.properties.ExpiryIndexProperties;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
+import com.gregperlinli.certvault.domain.entities.*;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import com.gregperlinli.certvault.mapper.RenewalPolicyMapper;
+import com.gregperlinli.certvault.mapper.RevokedCertificateMapper;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.session.SqlSession;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing automatic renewal by policy on H2
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code AutoRenewalEngineTest}
+ * @date 2025/5/17 19:10
+ */
+public class AutoRenewalEngineTest {
+
+    private SqlSession sqlSession;
+
+    private CaMapper caMapper;
+
+    private CertificateMapper certificateMapper;
+
+    private RenewalPolicyMapper renewalPolicyMapper;
+
+    private RevokedCertificateMapper revokedCertificateMapper;
+
+    private CaSigningKeyCache caSigningKeyCache;
+
+    private ValueOperations<String, String> valueOperations;
+
+    private ExpiryIndex expiryIndex;
+
+    private BulkCertIssuer bulkCertIssuer;
+
+    private AutoRenewalEngine engine;
+
+    private KeyPair leafKeyPair;
+
+    private final AtomicLong leaseResult = new AtomicLong(1);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        sqlSession = H2SqlSessions.open(CaMapper.class, CertificateMapper.class, RenewalPolicyMapper.class, RevokedCertificateMapper.class);
+        caMapper = sqlSession.getMapper(CaMapper.class);
+        certificateMapper = sqlSession.getMapper(CertificateMapper.class);
+        renewalPolicyMapper = sqlSession.getMapper(RenewalPolicyMapper.class);
+        revokedCertificateMapper = sqlSession.getMapper(RevokedCertificateMapper.class);
+        caSigningKeyCache = mock(CaSigningKeyCache.class);
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", CryptoBootstrap.provider());
+        generator.initialize(256);
+        leafKeyPair = generator.generateKeyPair();
+
+        // 租约: 获取成功, 续约与释放默认返回 1
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class, invocation ->
+                "execute".equals(invocation.getMethod().getName()) ? leaseResult.get() : Answers.RETURNS_DEFAULTS.answer(invocation));
+        valueOperations = mock(ValueOperations.class);
+        doReturn(valueOperations).when(stringRedisTemplate).opsForValue();
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        expiryIndex = new ExpiryIndex(caMapper, certificateMapper, stringRedisTemplate,
+                mock(RedisMessageListenerContainer.class), new ExpiryIndexProperties(), new SimpleMeterRegistry());
+        BulkIssuanceProperties bulkIssuanceProperties = new BulkIssuanceProperties();
+        bulkIssuanceProperties.setParallelism(2);
+        bulkCertIssuer = spy(new BulkCertIssuer(bulkIssuanceProperties));
+        AutoRenewalProperties properties = new AutoRenewalProperties();
+        properties.setCommitBatchSize(2);
+        engine = new AutoRenewalEngine(renewalPolicyMapper, caMapper, certificateMapper, revokedCertificateMapper,
+                caSigningKeyCache, expiryIndex, bulkCertIssuer, stringRedisTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), properties);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        bulkCertIssuer.destroy();
+        sqlSession.close();
+    }
+
+    private X509CertificateHolder insertCa(String uuid, long daysLeft) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", CryptoBootstrap.provider());
+        generator.initialize(256);
+        KeyPair keyPair = generator.generateKeyPair();
+        X500Name name = new X500Name("CN=" + uuid);
+        X509CertificateHolder caCert = new JcaX509v3CertificateBuilder(name, BigInteger.ONE, new Date(),
+                new Date(System.currentTimeMillis() + daysLeft * 86_400_000L), name, keyPair.getPublic())
+                .build(CryptoBootstrap.contentSigner("SHA256withECDSA", keyPair.getPrivate()));
+        Ca ca = new Ca();
+        ca.setUuid(uuid);
+        ca.setPrivkey("privkey");
+        ca.setCert(base64(caCert));
+        ca.setOwner(1);
+        ca.setComment(uuid);
+        ca.setAvailable(true);
+        ca.setNotBefore(LocalDateTime.now());
+        ca.setNotAfter(LocalDateTime.now().plusDays(daysLeft));
+        caMapper.insert(ca);
+        when(caSigningKeyCache.get(argThat(argument -> argument != null && uuid.equals(argument.getUuid()))))
+                .thenReturn(new CaSigningKey(keyPair.getPrivate(), keyPair.getPublic(), caCert, caCert.getEncoded()));
+        return caCert;
+    }
+
+    private void insertCertificate(String uuid, String caUuid, X509CertificateHolder caCert, long validityDays, long daysLeft) throws Exception {
+        Date notAfter = new Date(System.currentTimeMillis() + daysLeft * 86_400_000L);
+        Date notBefore = new Date(notAfter.getTime() - validityDays * 86_400_000L);
+        X509CertificateHolder cert = new JcaX509v3CertificateBuilder(caCert.getSubject(), BigInteger.valueOf(uuid.hashCode() & 0x7fffffff),
+                notBefore, notAfter, new X500Name("CN=" + uuid), leafKeyPair.getPublic())
+                .build(CryptoBootstrap.contentSigner("SHA256withECDSA", leafKeyPair.getPrivate()));
+        Certificate certificate = new Certificate();
+        certificate.setUuid(uuid);
+        certificate.setCert(base64(cert));
+        certificate.setOwner(1);
+        certificate.setCaUuid(caUuid);
+        certificate.setComment(uuid);
+        certificate.setNotBefore(LocalDateTime.ofInstant(notBefore.toInstant(), ZoneId.systemDefault()));
+        certificate.setNotAfter(LocalDateTime.ofInstant(notAfter.toInstant(), ZoneId.systemDefault()));
+        certificateMapper.insert(certificate);
+    }
+
+    private void insertPolicy(String caUuid, String certUuid, int renewBeforeDays, Integer validityDays, boolean enabled) {
+        RenewalPolicy policy = new RenewalPolicy();
+        policy.setCaUuid(caUuid);
+        policy.setCertUuid(certUuid);
+        policy.setRenewBeforeDays(renewBeforeDays);
+        policy.setValidityDays(validityDays);
+        policy.setEnabled(enabled);
+        policy.setOwner(1);
+        renewalPolicyMapper.insert(policy);
+    }
+
+    private static String base64(X509CertificateHolder cert) throws Exception {
+        return Base64.getEncoder().encodeToString(CertStorageUtils.toPem(cert.getEncoded()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long daysLeft(String uuid) {
+        Certificate certificate = certificateMapper.selectOne(new QueryWrapper<Certificate>().eq("uuid", uuid));
+        return Duration.between(LocalDateTime.now(), certificate.getNotAfter()).toDays();
+    }
+
+    @Test
+    public void testRenewsDueCertificatesByPolicy() throws Exception {
+        X509CertificateHolder ca1 = insertCa("ca-1", 365);
+        X509CertificateHolder ca2 = insertCa("ca-2", 50);
+        insertCertificate("due-1", "ca-1", ca1, 30, 3);
+        insertCertificate("due-2", "ca-1", ca1, 30, 5);
+        insertCertificate("due-3", "ca-1", ca1, 30, 6);
+        insertCertificate("not-due", "ca-1", ca1, 30, 20);
+        insertCertificate("opted-out", "ca-1", ca1, 30, 3);
+        insertCertificate("revoked", "ca-1", ca1, 30, 3);
+        insertCertificate("own-policy", "ca-2", ca2, 30, 20);
+        insertCertificate("no-policy", "ca-2", ca2, 30, 2);
+        insertPolicy("ca-1", null, 7, null, true);
+        insertPolicy(null, "opted-out", 7, null, false);
+        insertPolicy(null, "own-policy", 30, 90, true);
+        RevokedCertificate revokedCertificate = new RevokedCertificate();
+        revokedCertificate.setCaUuid("ca-1");
+        revokedCertificate.setCertUuid("revoked");
+        revokedCertificate.setSerial("1");
+        revokedCertificate.setReason(0);
+        revokedCertificate.setRevokedAt(LocalDateTime.now());
+        revokedCertificateMapper.insert(revokedCertificate);
+        expiryIndex.rebuild();
+
+        assertEquals(4, engine.run());
+        // 沿用原有效期
+        assertEquals(29, daysLeft("due-1"));
+        assertEquals(29, daysLeft("due-3"));
+        // 证书策略的有效期受 CA 到期时间限制
+        assertEquals(48, daysLeft("own-policy"));
+        assertEquals(19, daysLeft("not-due"));
+        assertEquals(2, daysLeft("opted-out"));
+        assertEquals(2, daysLeft("revoked"));
+        assertEquals(1, daysLeft("no-policy"));
+        // 每个 CA 只解析一次签名密钥, 到期索引同步更新
+        verify(caSigningKeyCache, times(2)).get(any());
+        assertNull(expiryIndex.expiring(ExpiryIndex.Target.CERTIFICATE, Duration.ofDays(7), null).stream()
+                .filter(entry -> entry.getUuid().startsWith("due-"))
+                .findAny()
+                .orElse(null));
+        X509CertificateHolder renewed = CertStorageUtils.toCertificateHolder(
+                certificateMapper.selectOne(new QueryWrapper<Certificate>().eq("uuid", "due-2")));
+        assertEquals(ca1.getSubject(), renewed.getIssuer());
+        assertEquals(new X500Name("CN=due-2"), renewed.getSubject());
+
+        // 已续期的证书不会被重复续期
+        assertEquals(0, engine.run());
+    }
+
+    @Test
+    public void testSkipsGroupLeasedByAnotherNode() throws Exception {
+        X509CertificateHolder ca1 = insertCa("ca-1", 365);
+        insertCertificate("due-1", "ca-1", ca1, 30, 3);
+        insertPolicy("ca-1", null, 7, null, true);
+        expiryIndex.rebuild();
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertEquals(0, engine.run());
+        assertEquals(2, daysLeft("due-1"));
+        verify(caSigningKeyCache, never()).get(any());
+    }
+
+    @Test
+    public void testSkipsCertificatesChangedDuringRenewal() throws Exception {
+        X509CertificateHolder ca1 = insertCa("ca-1", 365);
+        insertCertificate("due-1", "ca-1", ca1, 30, 3);
+        insertCertificate("due-2", "ca-1", ca1, 30, 3);
+        insertCertificate("due-3", "ca-1", ca1, 30, 3);
+        insertPolicy("ca-1", null, 7, null, true);
+        expiryIndex.rebuild();
+        // 续期进行中: due-1 被手动续期, due-2 被吊销
+        doAnswer(invocation -> {
+            if ( daysLeft("due-1") > 2 ) {
+                return invocation.callRealMethod();
+            }
+            Certificate certificate = new Certificate();
+            certificate.setNotAfter(LocalDateTime.now().plusDays(100));
+            certificateMapper.update(certificate, new UpdateWrapper<Certificate>().eq("uuid", "due-1"));
+            RevokedCertificate revokedCertificate = new RevokedCertificate();
+            revokedCertificate.setCaUuid("ca-1");
+            revokedCertificate.setCertUuid("due-2");
+            revokedCertificate.setSerial("2");
+            revokedCertificate.setReason(1);
+            revokedCertificate.setRevokedAt(LocalDateTime.now());
+            revokedCertificateMapper.insert(revokedCertificate);
+            return invocation.callRealMethod();
+        }).when(bulkCertIssuer).renew(anyList(), any());
+
+        assertEquals(1, engine.run());
+        assertEquals(99, daysLeft("due-1"));
+        assertEquals(2, daysLeft("due-2"));
+        assertEquals(29, daysLeft("due-3"));
+    }
+
+    @Test
+    public void testDiscardsBatchWhenLeaseIsLost() throws Exception {
+        X509CertificateHolder ca1 = insertCa("ca-1", 365);
+        insertCertificate("due-1", "ca-1", ca1, 30, 3);
+        insertPolicy("ca-1", null, 7, null, true);
+        expiryIndex.rebuild();
+        leaseResult.set(0);
+
+        assertEquals(0, engine.run());
+        assertEquals(2, daysLeft("due-1"));
+    }
+
+}
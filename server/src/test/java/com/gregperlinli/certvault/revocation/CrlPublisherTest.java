@@ -0,0 +1,214 @@
+package com.gregperlinli.certvault.revocation;
+
+import com.gregperlinli.certvault.cache.CaHierarchyIndex;
+import com.gregperlinli.certvault.cache.CaSigningKeyCache;
+import com.gregperlinli.certvault.config.properties.CrlProperties;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.CaCrl;
+import com.gregperlinli.certvault.domain.entities.CaSigningKey;
+import com.gregperlinli.certvault.domain.entities.RevokedCertificate;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CrlNumberMapper;
+import com.gregperlinli.certvault.mapper.RevokedCertificateMapper;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import org.apache.ibatis.session.SqlSession;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.cert.X509CRLEntryHolder;
+import org.bouncycastle.cert.X509CRLHolder;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing full and delta CRL signing on H2
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CrlPublisherTest}
+ * @date 2025/5/16 15:10
+ */
+public class CrlPublisherTest {
+
+    private SqlSession sqlSession;
+
+    private RevokedCertificateMapper revokedCertificateMapper;
+
+    private X509CertificateHolder caCert;
+
+    private CrlProperties properties;
+
+    private CrlPublisher crlPublisher;
+
+    private CaMapper caMapper;
+
+    private CaSigningKeyCache caSigningKeyCache;
+
+    private CaHierarchyIndex caHierarchyIndex;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        sqlSession = H2SqlSessions.open(CaMapper.class, RevokedCertificateMapper.class, CrlNumberMapper.class);
+        caMapper = sqlSession.getMapper(CaMapper.class);
+        revokedCertificateMapper = sqlSession.getMapper(RevokedCertificateMapper.class);
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", CryptoBootstrap.provider());
+        generator.initialize(256);
+        KeyPair keyPair = generator.generateKeyPair();
+        X500Name name = new X500Name("CN=Test CA");
+        caCert = new JcaX509v3CertificateBuilder(name, BigInteger.ONE, new Date(),
+                new Date(System.currentTimeMillis() + 86_400_000L), name, keyPair.getPublic())
+                .build(CryptoBootstrap.contentSigner("SHA256withECDSA", keyPair.getPrivate()));
+        Ca ca = new Ca();
+        ca.setUuid("ca-1");
+        ca.setPrivkey("privkey");
+        ca.setCertDer(caCert.getEncoded());
+        ca.setOwner(1);
+        ca.setComment("Test CA");
+        ca.setCreatedAt(LocalDateTime.now());
+        ca.setModifiedAt(LocalDateTime.now());
+        caMapper.insert(ca);
+        caSigningKeyCache = mock(CaSigningKeyCache.class);
+        when(caSigningKeyCache.get(any())).thenReturn(
+                new CaSigningKey(keyPair.getPrivate(), keyPair.getPublic(), caCert, caCert.getEncoded()));
+        caHierarchyIndex = mock(CaHierarchyIndex.class);
+        when(caHierarchyIndex.get("ca-1")).thenReturn(new CaHierarchyIndex.CaNode("ca-1", null, 1, true, true, new BitSet()));
+        properties = new CrlProperties();
+        crlPublisher = publisher();
+    }
+
+    private CrlPublisher publisher() {
+        return new CrlPublisher(caMapper, revokedCertificateMapper, sqlSession.getMapper(CrlNumberMapper.class),
+                caSigningKeyCache, caHierarchyIndex, mock(StringRedisTemplate.class), mock(RedisMessageListenerContainer.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), properties);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sqlSession.close();
+    }
+
+    private RevokedCertificate revoke(long serial, int reason) {
+        RevokedCertificate revokedCertificate = new RevokedCertificate();
+        revokedCertificate.setCaUuid("ca-1");
+        revokedCertificate.setCertUuid("cert-" + serial);
+        revokedCertificate.setSerial(BigInteger.valueOf(serial).toString(16));
+        revokedCertificate.setReason(reason);
+        revokedCertificate.setRevokedAt(LocalDateTime.now());
+        revokedCertificateMapper.insert(revokedCertificate);
+        return revokedCertificate;
+    }
+
+    private X509CRLHolder verify(byte[] der) throws Exception {
+        X509CRLHolder crl = new X509CRLHolder(der);
+        assertTrue(crl.isSignatureValid(new JcaContentVerifierProviderBuilder().build(caCert)));
+        assertEquals(caCert.getSubject(), crl.getIssuer());
+        return crl;
+    }
+
+    private static BigInteger crlNumber(X509CRLHolder crl, ASN1ObjectIdentifier oid) {
+        return CRLNumber.getInstance(crl.getExtension(oid).getParsedValue()).getCRLNumber();
+    }
+
+    @Test
+    public void testFullAndDelta() throws Exception {
+        assertNull(crlPublisher.get("ca-unknown"));
+        revoke(100, CRLReason.keyCompromise);
+        revoke(101, CRLReason.unspecified);
+        CaCrl crl = crlPublisher.get("ca-1");
+        X509CRLHolder full = verify(crl.getFull());
+        assertEquals(2, full.getRevokedCertificates().size());
+        assertEquals(crl.getFullNumber(), crlNumber(full, Extension.cRLNumber));
+        X509CRLHolder delta = verify(crl.getDelta());
+        assertTrue(delta.getRevokedCertificates().isEmpty());
+        assertEquals(crl.getFullNumber(), crlNumber(delta, Extension.deltaCRLIndicator));
+        // 未到期时直接返回内存中的 CRL
+        assertSame(crl, crlPublisher.get("ca-1"));
+
+        // 新的吊销只重新签名增量 CRL
+        revoke(102, CRLReason.superseded);
+        crlPublisher.revoked("ca-1", "66");
+        CaCrl updated = crlPublisher.get("ca-1");
+        assertSame(crl.getFull(), updated.getFull());
+        delta = verify(updated.getDelta());
+        assertEquals(1, delta.getRevokedCertificates().size());
+        X509CRLEntryHolder entry = delta.getRevokedCertificate(BigInteger.valueOf(102));
+        assertNotNull(entry);
+        assertEquals(CRLReason.superseded, CRLReason.getInstance(entry.getExtensions().getExtensionParsedValue(Extension.reasonCode)).getValue().intValue());
+        assertTrue(crlNumber(delta, Extension.cRLNumber).compareTo(crl.getDeltaNumber()) > 0);
+        assertEquals(crl.getFullNumber(), crlNumber(delta, Extension.deltaCRLIndicator));
+    }
+
+    @Test
+    public void testLargeDeltaResignsFull() throws Exception {
+        properties.setDeltaMaxEntries(1);
+        CaCrl crl = crlPublisher.get("ca-1");
+        revoke(200, CRLReason.keyCompromise);
+        crlPublisher.revoked("ca-1", "c8");
+        assertEquals(1, verify(crlPublisher.get("ca-1").getDelta()).getRevokedCertificates().size());
+        revoke(201, CRLReason.keyCompromise);
+        crlPublisher.revoked("ca-1", "c9");
+        CaCrl resigned = crlPublisher.get("ca-1");
+        assertTrue(resigned.getFullNumber().compareTo(crl.getFullNumber()) > 0);
+        assertEquals(2, verify(resigned.getFull()).getRevokedCertificates().size());
+        assertTrue(verify(resigned.getDelta()).getRevokedCertificates().isEmpty());
+        // 完整 CRL 与增量 CRL 共用编号序列
+        assertTrue(resigned.getDeltaNumber().compareTo(resigned.getFullNumber()) > 0);
+    }
+
+    @Test
+    public void testRevocationCommittedOutOfOrder() throws Exception {
+        crlPublisher.get("ca-1");
+        // 先分配 ID 的吊销晚于后分配 ID 的吊销提交
+        RevokedCertificate late = revoke(300, CRLReason.keyCompromise);
+        late.setCaUuid("ca-uncommitted");
+        revokedCertificateMapper.updateById(late);
+        revoke(301, CRLReason.keyCompromise);
+        crlPublisher.revoked("ca-1", "12d");
+        assertEquals(1, verify(crlPublisher.get("ca-1").getDelta()).getRevokedCertificates().size());
+
+        late.setCaUuid("ca-1");
+        revokedCertificateMapper.updateById(late);
+        crlPublisher.revoked("ca-1", "12c");
+        X509CRLHolder delta = verify(crlPublisher.get("ca-1").getDelta());
+        assertEquals(2, delta.getRevokedCertificates().size());
+        assertNotNull(delta.getRevokedCertificate(BigInteger.valueOf(300)));
+        // 已包含的吊销不会重复加入
+        crlPublisher.revoked("ca-1", "12c");
+        assertEquals(2, verify(crlPublisher.get("ca-1").getDelta()).getRevokedCertificates().size());
+    }
+
+    @Test
+    public void testCrlNumbersAreMonotonicAcrossNodes() throws Exception {
+        CrlPublisher other = publisher();
+        CaCrl first = crlPublisher.get("ca-1");
+        CaCrl second = other.get("ca-1");
+        assertTrue(second.getFullNumber().compareTo(first.getDeltaNumber()) > 0);
+        revoke(400, CRLReason.unspecified);
+        crlPublisher.revoked("ca-1", "190");
+        BigInteger delta = crlNumber(verify(crlPublisher.get("ca-1").getDelta()), Extension.cRLNumber);
+        assertTrue(delta.compareTo(second.getDeltaNumber()) > 0);
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.gregperlinli.certvault.revocation;
+
+import com.gregperlinli.certvault.cache.CaSigningKeyCache;
+import com.gregperlinli.certvault.config.properties.OcspProperties;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
+import com.gregperlinli.certvault.crypto.SerialIndexBackfill;
+import com.gregperlinli.certvault.crypto.SerialNumberService;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.CaSigningKey;
+import com.gregperlinli.certvault.domain.entities.SerialIndex;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import com.gregperlinli.certvault.mapper.RevokedCertificateMapper;
+import com.gregperlinli.certvault.mapper.SerialIndexMapper;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.session.SqlSession;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.OCSPReqBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load benchmark of {@link OcspResponder}, responses per second for pre-signed cached responses
+ * against signing every request with the delegated signer or the CA key (RSA 2048)
+ *
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.gregperlinli.certvault.revocation.OcspResponderBenchmark}
+ * or from the IDE via {@link #main(String[])}.
+ * </p>
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code OcspResponderBenchmark}
+ * @date 2025/5/17 15:00
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OcspResponderBenchmark {
+
+    private static final int CERTIFICATES = 1024;
+
+    private SqlSession sqlSession;
+
+    private byte[][] requests;
+
+    private OcspResponder cached;
+
+    private OcspResponder delegatedPerRequest;
+
+    private OcspResponder caKeyPerRequest;
+
+    @Setup
+    public void setup() throws Exception {
+        sqlSession = H2SqlSessions.open(CaMapper.class, CertificateMapper.class, RevokedCertificateMapper.class, SerialIndexMapper.class);
+        CaMapper caMapper = sqlSession.getMapper(CaMapper.class);
+        RevokedCertificateMapper revokedCertificateMapper = sqlSession.getMapper(RevokedCertificateMapper.class);
+        SerialIndexMapper serialIndexMapper = sqlSession.getMapper(SerialIndexMapper.class);
+        SerialIndexBackfill serialIndexBackfill = new SerialIndexBackfill(caMapper,
+                sqlSession.getMapper(CertificateMapper.class), serialIndexMapper);
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA", CryptoBootstrap.provider());
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        X500Name name = new X500Name("CN=Benchmark CA");
+        X509CertificateHolder caCert = new JcaX509v3CertificateBuilder(name, BigInteger.ONE, new Date(),
+                new Date(System.currentTimeMillis() + 30 * 86_400_000L), name, keyPair.getPublic())
+                .build(CryptoBootstrap.contentSigner(keyPair.getPrivate()));
+        Ca ca = new Ca();
+        ca.setUuid("ca-1");
+        ca.setPrivkey("privkey");
+        ca.setCertDer(caCert.getEncoded());
+        ca.setOwner(1);
+        ca.setComment("Benchmark CA");
+        ca.setCreatedAt(LocalDateTime.now());
+        ca.setModifiedAt(LocalDateTime.now());
+        caMapper.insert(ca);
+        CaSigningKeyCache caSigningKeyCache = mock(CaSigningKeyCache.class);
+        when(caSigningKeyCache.get(any())).thenReturn(
+                new CaSigningKey(keyPair.getPrivate(), keyPair.getPublic(), caCert, caCert.getEncoded()));
+
+        requests = new byte[CERTIFICATES][];
+        for ( int i = 0; i < CERTIFICATES; i++ ) {
+            SerialIndex serialIndex = new SerialIndex();
+            serialIndex.setIssuer(SerialNumberService.issuerHash(caCert.getSubject()));
+            serialIndex.setSerial(BigInteger.valueOf(1000 + i).toString(16));
+            serialIndex.setCreatedAt(LocalDateTime.now());
+            serialIndexMapper.insert(serialIndex);
+            requests[i] = new OCSPReqBuilder()
+                    .addRequest(new CertificateID(new JcaDigestCalculatorProviderBuilder().build().get(CertificateID.HASH_SHA1),
+                            caCert, BigInteger.valueOf(1000 + i)))
+                    .build().getEncoded();
+        }
+
+        cached = new OcspResponder(caMapper, revokedCertificateMapper, serialIndexMapper, serialIndexBackfill, caSigningKeyCache,
+                mock(StringRedisTemplate.class), mock(RedisMessageListenerContainer.class), new OcspProperties(), new SimpleMeterRegistry());
+        OcspProperties uncached = new OcspProperties();
+        uncached.setCacheEnabled(false);
+        delegatedPerRequest = new OcspResponder(caMapper, revokedCertificateMapper, serialIndexMapper, serialIndexBackfill, caSigningKeyCache,
+                mock(StringRedisTemplate.class), mock(RedisMessageListenerContainer.class), uncached, new SimpleMeterRegistry());
+        OcspProperties caKey = new OcspProperties();
+        caKey.setCacheEnabled(false);
+        caKey.setDelegatedSigner(false);
+        caKeyPerRequest = new OcspResponder(caMapper, revokedCertificateMapper, serialIndexMapper, serialIndexBackfill, caSigningKeyCache,
+                mock(StringRedisTemplate.class), mock(RedisMessageListenerContainer.class), caKey, new SimpleMeterRegistry());
+        // 预先签名全部响应
+        for ( byte[] request : requests ) {
+            cached.respond(request);
+        }
+    }
+
+    @TearDown
+    public void cleanup() {
+        sqlSession.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+
+        private byte[] request(byte[][] requests) {
+            next = (next + 1) % requests.length;
+            return requests[next];
+        }
+    }
+
+    @Benchmark
+    public byte[] preSignedCached(Cursor cursor) {
+        return cached.respond(cursor.request(requests));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] preSignedCachedContended(Cursor cursor) {
+        return cached.respond(cursor.request(requests));
+    }
+
+    @Benchmark
+    public byte[] delegatedSignerPerRequest(Cursor cursor) {
+        return delegatedPerRequest.respond(cursor.request(requests));
+    }
+
+    @Benchmark
+    public byte[] caKeyPerRequest(Cursor cursor) {
+        return caKeyPerRequest.respond(cursor.request(requests));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OcspResponderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,273 @@
+package com.gregperlinli.certvault.revocation;
+
+import com.gregperlinli.certvault.cache.CaSigningKeyCache;
+import com.gregperlinli.certvault.config.properties.OcspProperties;
+import com.gregperlinli.certvault.constant.RedisKeyConstant;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
+import com.gregperlinli.certvault.crypto.SerialIndexBackfill;
+import com.gregperlinli.certvault.crypto.SerialNumberService;
+import com.gregperlinli.certvault.domain.entities.Ca;
+import com.gregperlinli.certvault.domain.entities.CaSigningKey;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.domain.entities.RevokedCertificate;
+import com.gregperlinli.certvault.domain.entities.SerialIndex;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import com.gregperlinli.certvault.mapper.RevokedCertificateMapper;
+import com.gregperlinli.certvault.mapper.SerialIndexMapper;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.session.SqlSession;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.*;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testing OCSP responses signed by a delegated signer on H2
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code OcspResponderTest}
+ * @date 2025/5/17 14:20
+ */
+public class OcspResponderTest {
+
+    private SqlSession sqlSession;
+
+    private RevokedCertificateMapper revokedCertificateMapper;
+
+    private SerialIndexMapper serialIndexMapper;
+
+    private CertificateMapper certificateMapper;
+
+    private KeyPair keyPair;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private X509CertificateHolder caCert;
+
+    private DigestCalculatorProvider digestCalculatorProvider;
+
+    private OcspProperties properties;
+
+    private OcspResponder ocspResponder;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        sqlSession = H2SqlSessions.open(CaMapper.class, CertificateMapper.class, RevokedCertificateMapper.class, SerialIndexMapper.class);
+        CaMapper caMapper = sqlSession.getMapper(CaMapper.class);
+        revokedCertificateMapper = sqlSession.getMapper(RevokedCertificateMapper.class);
+        serialIndexMapper = sqlSession.getMapper(SerialIndexMapper.class);
+        certificateMapper = sqlSession.getMapper(CertificateMapper.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", CryptoBootstrap.provider());
+        generator.initialize(256);
+        keyPair = generator.generateKeyPair();
+        X500Name name = new X500Name("CN=Test CA");
+        caCert = new JcaX509v3CertificateBuilder(name, BigInteger.ONE, new Date(),
+                new Date(System.currentTimeMillis() + 30 * 86_400_000L), name, keyPair.getPublic())
+                .build(CryptoBootstrap.contentSigner("SHA256withECDSA", keyPair.getPrivate()));
+        Ca ca = new Ca();
+        ca.setUuid("ca-1");
+        ca.setPrivkey("privkey");
+        ca.setCertDer(caCert.getEncoded());
+        ca.setOwner(1);
+        ca.setComment("Test CA");
+        ca.setCreatedAt(LocalDateTime.now());
+        ca.setModifiedAt(LocalDateTime.now());
+        caMapper.insert(ca);
+        CaSigningKeyCache caSigningKeyCache = mock(CaSigningKeyCache.class);
+        when(caSigningKeyCache.get(any())).thenReturn(
+                new CaSigningKey(keyPair.getPrivate(), keyPair.getPublic(), caCert, caCert.getEncoded()));
+        digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder().build();
+        properties = new OcspProperties();
+        ocspResponder = new OcspResponder(caMapper, revokedCertificateMapper, serialIndexMapper,
+                new SerialIndexBackfill(caMapper, certificateMapper, serialIndexMapper), caSigningKeyCache,
+                stringRedisTemplate, mock(RedisMessageListenerContainer.class), properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        ocspResponder.destroy();
+        sqlSession.close();
+    }
+
+    private byte[] request(X509CertificateHolder issuer, long... serials) throws Exception {
+        OCSPReqBuilder builder = new OCSPReqBuilder();
+        for ( long serial : serials ) {
+            builder.addRequest(new CertificateID(digestCalculatorProvider.get(CertificateID.HASH_SHA1), issuer, BigInteger.valueOf(serial)));
+        }
+        return builder.build().getEncoded();
+    }
+
+    private BasicOCSPResp verify(byte[] der) throws Exception {
+        OCSPResp response = new OCSPResp(der);
+        assertEquals(OCSPResp.SUCCESSFUL, response.getStatus());
+        BasicOCSPResp basic = (BasicOCSPResp) response.getResponseObject();
+        // 委托签名证书由 CA 签发, 且仅用于 OCSP 签名
+        X509CertificateHolder signerCert = basic.getCerts()[0];
+        assertTrue(signerCert.isSignatureValid(new JcaContentVerifierProviderBuilder().build(caCert)));
+        assertEquals(caCert.getSubject(), signerCert.getIssuer());
+        assertTrue(ExtendedKeyUsage.fromExtensions(signerCert.getExtensions())
+                .hasKeyPurposeId(KeyPurposeId.id_kp_OCSPSigning));
+        assertTrue(basic.isSignatureValid(new JcaContentVerifierProviderBuilder().build(signerCert)));
+        return basic;
+    }
+
+    private void issue(long... serials) {
+        for ( long serial : serials ) {
+            SerialIndex serialIndex = new SerialIndex();
+            serialIndex.setIssuer(SerialNumberService.issuerHash(caCert.getSubject()));
+            serialIndex.setSerial(BigInteger.valueOf(serial).toString(16));
+            serialIndex.setCreatedAt(LocalDateTime.now());
+            serialIndexMapper.insert(serialIndex);
+        }
+    }
+
+    private void revoke(long serial, int reason) {
+        RevokedCertificate revokedCertificate = new RevokedCertificate();
+        revokedCertificate.setCaUuid("ca-1");
+        revokedCertificate.setCertUuid("cert-" + serial);
+        revokedCertificate.setSerial(BigInteger.valueOf(serial).toString(16));
+        revokedCertificate.setReason(reason);
+        revokedCertificate.setRevokedAt(LocalDateTime.now());
+        revokedCertificateMapper.insert(revokedCertificate);
+    }
+
+    @Test
+    public void testCachedResponseAndRevocation() throws Exception {
+        issue(100);
+        byte[] response = ocspResponder.respond(request(caCert, 100));
+        SingleResp single = verify(response).getResponses()[0];
+        assertEquals(BigInteger.valueOf(100), single.getCertID().getSerialNumber());
+        assertEquals(CertificateStatus.GOOD, single.getCertStatus());
+        assertTrue(single.getNextUpdate().after(single.getThisUpdate()));
+        // 命中缓存时返回同一份预签名响应
+        assertSame(response, ocspResponder.respond(request(caCert, 100)));
+
+        revoke(100, CRLReason.keyCompromise);
+        ocspResponder.revoked("ca-1", "64");
+        single = verify(ocspResponder.respond(request(caCert, 100))).getResponses()[0];
+        RevokedStatus status = (RevokedStatus) single.getCertStatus();
+        assertEquals(CRLReason.keyCompromise, status.getRevocationReason());
+    }
+
+    @Test
+    public void testRefreshResignsExpiringResponses() throws Exception {
+        properties.setValidity(Duration.ofMinutes(10));
+        ocspResponder.init();
+        issue(200);
+        byte[] response = ocspResponder.respond(request(caCert, 200));
+        // 有效期短于 refresh-ahead, 每次扫描都会重新签名
+        revoke(200, CRLReason.superseded);
+        ocspResponder.refresh();
+        byte[] resigned = ocspResponder.respond(request(caCert, 200));
+        assertNotSame(response, resigned);
+        assertInstanceOf(RevokedStatus.class, verify(resigned).getResponses()[0].getCertStatus());
+    }
+
+    @Test
+    public void testMultipleCertificatesAndErrors() throws Exception {
+        issue(300, 301);
+        revoke(301, CRLReason.unspecified);
+        SingleResp[] responses = verify(ocspResponder.respond(request(caCert, 300, 301))).getResponses();
+        assertEquals(2, responses.length);
+        assertEquals(CertificateStatus.GOOD, responses[0].getCertStatus());
+        assertInstanceOf(RevokedStatus.class, responses[1].getCertStatus());
+
+        assertEquals(OCSPResp.MALFORMED_REQUEST, new OCSPResp(ocspResponder.respond(new byte[]{1, 2, 3})).getStatus());
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", CryptoBootstrap.provider());
+        generator.initialize(256);
+        KeyPair other = generator.generateKeyPair();
+        X500Name name = new X500Name("CN=Other CA");
+        X509CertificateHolder otherCa = new JcaX509v3CertificateBuilder(name, BigInteger.TWO, new Date(),
+                new Date(System.currentTimeMillis() + 86_400_000L), name, other.getPublic())
+                .build(CryptoBootstrap.contentSigner("SHA256withECDSA", other.getPrivate()));
+        assertEquals(OCSPResp.UNAUTHORIZED, new OCSPResp(ocspResponder.respond(request(otherCa, 1))).getStatus());
+
+        // 超过 max-request-certs 的请求被拒绝
+        properties.setMaxRequestCerts(2);
+        assertEquals(OCSPResp.MALFORMED_REQUEST, new OCSPResp(ocspResponder.respond(request(caCert, 300, 301, 302))).getStatus());
+    }
+
+    @Test
+    public void testUnknownSerialIsNotCached() throws Exception {
+        byte[] response = ocspResponder.respond(request(caCert, 400));
+        assertInstanceOf(UnknownStatus.class, verify(response).getResponses()[0].getCertStatus());
+        assertNotSame(response, ocspResponder.respond(request(caCert, 400)));
+        // 登记后回答 good 并缓存
+        issue(400);
+        byte[] good = ocspResponder.respond(request(caCert, 400));
+        assertEquals(CertificateStatus.GOOD, verify(good).getResponses()[0].getCertStatus());
+        assertSame(good, ocspResponder.respond(request(caCert, 400)));
+
+        SingleResp[] responses = verify(ocspResponder.respond(request(caCert, 400, 401))).getResponses();
+        assertEquals(CertificateStatus.GOOD, responses[0].getCertStatus());
+        assertInstanceOf(UnknownStatus.class, responses[1].getCertStatus());
+    }
+
+    @Test
+    public void testLegacyCertificateIsBackfilled() throws Exception {
+        // 升级前签发的证书, 序列号未登记
+        Certificate certificate = new Certificate();
+        certificate.setUuid("cert-600");
+        certificate.setCaUuid("ca-1");
+        certificate.setCertDer(new JcaX509v3CertificateBuilder(caCert.getSubject(), BigInteger.valueOf(600), new Date(),
+                new Date(System.currentTimeMillis() + 86_400_000L), new X500Name("CN=Legacy"), keyPair.getPublic())
+                .build(CryptoBootstrap.contentSigner("SHA256withECDSA", keyPair.getPrivate())).getEncoded());
+        certificate.setOwner(1);
+        certificate.setNotBefore(LocalDateTime.now());
+        certificate.setNotAfter(LocalDateTime.now().plusDays(1));
+        certificateMapper.insert(certificate);
+        SingleResp[] responses = verify(ocspResponder.respond(request(caCert, 600, 601))).getResponses();
+        assertEquals(CertificateStatus.GOOD, responses[0].getCertStatus());
+        assertInstanceOf(UnknownStatus.class, responses[1].getCertStatus());
+        assertEquals(1, serialIndexMapper.selectCount(null));
+    }
+
+    @Test
+    public void testInvalidateIsBroadcast() throws Exception {
+        issue(500);
+        byte[] response = ocspResponder.respond(request(caCert, 500));
+        ocspResponder.invalidate("ca-1");
+        Mockito.verify(stringRedisTemplate).convertAndSend(eq(RedisKeyConstant.OCSP_CHANNEL.getKeyPrefix()), endsWith("|ca-1"));
+        byte[] resigned = ocspResponder.respond(request(caCert, 500));
+        assertNotSame(response, resigned);
+        assertSame(resigned, ocspResponder.respond(request(caCert, 500)));
+
+        // 其它节点的失效通知
+        byte[] channel = RedisKeyConstant.OCSP_CHANNEL.getKeyPrefix().getBytes(StandardCharsets.UTF_8);
+        ocspResponder.onMessage(new DefaultMessage(channel, "other-node|ca-1".getBytes(StandardCharsets.UTF_8)), null);
+        assertNotSame(resigned, ocspResponder.respond(request(caCert, 500)));
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.gregperlinli.certvault.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.mapper.CaMapper;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing keyword search with the in-process trigram index on H2
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code KeywordSearchTest}
+ * @date 2025/5/14 11:50
+ */
+public class KeywordSearchTest {
+
+    private SqlSession sqlSession;
+
+    private CertificateMapper certificateMapper;
+
+    private KeywordSearch keywordSearch;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        sqlSession = H2SqlSessions.open(CertificateMapper.class, CaMapper.class);
+        certificateMapper = sqlSession.getMapper(CertificateMapper.class);
+        keywordSearch = new KeywordSearch("org.h2.Driver", certificateMapper, sqlSession.getMapper(CaMapper.class));
+        for ( int i = 0; i < 60; i++ ) {
+            insert("cert-" + i + "-" + Integer.toHexString(i * 7919), i % 3 == 0 ? null : "Server " + (i % 7), "ca-" + (i % 4));
+        }
+        insert("web", "exact uuid", "ca-0");
+        insert("web-frontend", "prefix uuid", "ca-0");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sqlSession.close();
+    }
+
+    private Certificate insert(String uuid, String comment, String caUuid) {
+        Certificate certificate = new Certificate();
+        certificate.setUuid(uuid);
+        certificate.setComment(comment);
+        certificate.setCaUuid(caUuid);
+        certificate.setCert("cert");
+        certificate.setOwner(1);
+        certificate.setCreatedAt(LocalDateTime.now());
+        certificate.setModifiedAt(LocalDateTime.now());
+        certificateMapper.insert(certificate);
+        return certificate;
+    }
+
+    private List<Integer> search(String keyword, boolean rank) {
+        QueryWrapper<Certificate> wrapper = new QueryWrapper<Certificate>().eq("deleted", false);
+        keywordSearch.match(wrapper, SearchTarget.CERTIFICATE, keyword);
+        if ( rank ) {
+            keywordSearch.rank(wrapper, SearchTarget.CERTIFICATE, keyword);
+        } else {
+            wrapper.orderByAsc("id");
+        }
+        return certificateMapper.selectList(wrapper).stream().map(Certificate::getId).toList();
+    }
+
+    private List<Integer> like(String keyword) {
+        return certificateMapper.selectList(new QueryWrapper<Certificate>()
+                .eq("deleted", false)
+                .and(wrapper -> wrapper.like("uuid", keyword).or().like("comment", keyword).or().like("ca_uuid", keyword))
+                .orderByAsc("id")).stream().map(Certificate::getId).toList();
+    }
+
+    @Test
+    public void testSameResultsAsLike() {
+        for ( String keyword : List.of("c", "-1", "ca-3", "Server 5", "server 5", "cert-4", "web", "uuid", "nothing-here") ) {
+            assertEquals(like(keyword), search(keyword, false), keyword);
+        }
+        assertTrue(search("nothing-here", false).isEmpty());
+        assertEquals(15, search("ca-3", false).size());
+    }
+
+    @Test
+    public void testRankExactAndPrefixFirst() {
+        List<Integer> ranked = search("web", true);
+        assertEquals(2, ranked.size());
+        Certificate exact = certificateMapper.selectOne(new QueryWrapper<Certificate>().eq("uuid", "web"));
+        assertEquals(exact.getId(), ranked.get(0));
+        // 与服务中一致: 总数在排序前统计, 分页不再执行 COUNT
+        QueryWrapper<Certificate> wrapper = new QueryWrapper<>();
+        keywordSearch.match(wrapper, SearchTarget.CERTIFICATE, "web");
+        Page<Certificate> page = new Page<>(1, 1);
+        page.setSearchCount(false);
+        page.setTotal(certificateMapper.selectCount(wrapper));
+        keywordSearch.rank(wrapper, SearchTarget.CERTIFICATE, "web");
+        page = certificateMapper.selectPage(page, wrapper);
+        assertEquals(2, page.getTotal());
+        assertEquals(List.of(exact.getId()), page.getRecords().stream().map(Certificate::getId).toList());
+    }
+
+    @Test
+    public void testNewAndModifiedRowsAreFound() {
+        assertTrue(search("late-arrival", false).isEmpty());
+        Certificate created = insert("late-arrival", null, "ca-9");
+        assertEquals(List.of(created.getId()), search("late-arrival", false));
+        Certificate modified = certificateMapper.selectOne(new QueryWrapper<Certificate>().eq("uuid", "cert-1-1eef"));
+        modified.setComment("renamed comment");
+        modified.setModifiedAt(LocalDateTime.now());
+        certificateMapper.updateById(modified);
+        assertEquals(List.of(modified.getId()), search("renamed", false));
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.gregperlinli.certvault.service.impl;
+
+import com.gregperlinli.certvault.cache.CertFingerprintCache;
+import com.gregperlinli.certvault.cache.UserCache;
+import com.gregperlinli.certvault.certificate.CaGenerator;
+import com.gregperlinli.certvault.config.properties.LocalCacheProperties;
+import com.gregperlinli.certvault.domain.entities.CaGenRequest;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.domain.entities.GenResponse;
+import com.gregperlinli.certvault.domain.entities.User;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import com.gregperlinli.certvault.utils.CertStorageUtils;
+import com.gregperlinli.certvault.utils.EtagUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing SSL certificate download with conditional GET
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CertificateDownloadTest}
+ * @date 2025/5/18 16:40
+ */
+public class CertificateDownloadTest {
+
+    private SqlSession sqlSession;
+
+    private CertificateMapper certificateMapper;
+
+    private CertificateServiceImpl certificateService;
+
+    private String cert;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        CaGenRequest caGenRequest = new CaGenRequest();
+        caGenRequest.setAlgorithm("EC");
+        caGenRequest.setKeySize(256);
+        caGenRequest.setCountry("CN");
+        caGenRequest.setProvince("Guangdong");
+        caGenRequest.setCity("Guangzhou");
+        caGenRequest.setOrganization("CertVault");
+        caGenRequest.setOrganizationalUnit("CertVault");
+        caGenRequest.setCommonName("CertVault Download Test");
+        caGenRequest.setExpiry(30);
+        GenResponse genResponse = CaGenerator.generateCaCertificate(caGenRequest);
+        cert = genResponse.getCert();
+
+        sqlSession = H2SqlSessions.open(CertificateMapper.class);
+        CertificateMapper h2Mapper = sqlSession.getMapper(CertificateMapper.class);
+        Certificate certificate = new Certificate();
+        certificate.setUuid("cert-1");
+        certificate.setCaUuid("ca-1");
+        certificate.setOwner(1);
+        certificate.setNotBefore(LocalDateTime.now());
+        certificate.setNotAfter(LocalDateTime.now().plusDays(30));
+        h2Mapper.insert(CertStorageUtils.store(certificate, cert));
+        // 统计查询次数
+        certificateMapper = mock(CertificateMapper.class, AdditionalAnswers.delegatesTo(h2Mapper));
+
+        User user = new User();
+        user.setId(1);
+        user.setUsername("alice");
+        user.setRole(1);
+        certificateService = new CertificateServiceImpl();
+        ReflectionTestUtils.setField(certificateService, "baseMapper", certificateMapper);
+        certificateService.userCache = mock(UserCache.class);
+        when(certificateService.userCache.getActive("alice")).thenReturn(user);
+        certificateService.certFingerprintCache = new CertFingerprintCache(new LocalCacheProperties(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sqlSession.close();
+    }
+
+    private String download(boolean conditional, String ifNoneMatch, AtomicReference<String> etag) {
+        return certificateService.downloadCertificateCert("cert-1", "alice", false, true, conditional, value -> {
+            etag.set(value);
+            return value != null && value.equals(ifNoneMatch);
+        });
+    }
+
+    @Test
+    public void testUnconditionalDownloadIsOneQuery() {
+        AtomicReference<String> etag = new AtomicReference<>();
+        assertEquals(cert, download(false, null, etag));
+        assertEquals(EtagUtils.of(List.of(CertStorageUtils.fingerprint(certificateMapper.selectById(1)))), etag.get());
+        // 权限检查与证书内容在同一次查询中读取
+        verify(certificateMapper, times(1)).selectOne(any(), anyBoolean());
+    }
+
+    @Test
+    public void testNotModifiedDoesNotLoadContent() {
+        AtomicReference<String> etag = new AtomicReference<>();
+        download(false, null, etag);
+        clearInvocations(certificateMapper);
+        assertNull(download(true, etag.get(), new AtomicReference<>()));
+        verify(certificateMapper, times(1)).selectOne(any(), anyBoolean());
+    }
+
+    @Test
+    public void testModifiedConditionalDownload() {
+        AtomicReference<String> etag = new AtomicReference<>();
+        // 指纹未缓存: 计算指纹时读取的内容直接返回
+        assertEquals(cert, download(true, "\"stale\"", etag));
+        assertNotNull(etag.get());
+        verify(certificateMapper, times(2)).selectOne(any(), anyBoolean());
+        // 指纹已缓存: 权限检查后再读取内容
+        clearInvocations(certificateMapper);
+        assertEquals(cert, download(true, "\"stale\"", etag));
+        verify(certificateMapper, times(2)).selectOne(any(), anyBoolean());
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.gregperlinli.certvault.service.impl;
+
+import com.gregperlinli.certvault.cache.UserCache;
+import com.gregperlinli.certvault.constant.ResultStatusCodeConstant;
+import com.gregperlinli.certvault.domain.entities.Certificate;
+import com.gregperlinli.certvault.domain.entities.RevokedCertificate;
+import com.gregperlinli.certvault.domain.entities.User;
+import com.gregperlinli.certvault.domain.exception.ParamValidateException;
+import com.gregperlinli.certvault.mapper.CertificateMapper;
+import com.gregperlinli.certvault.mapper.RevokedCertificateMapper;
+import com.gregperlinli.certvault.service.interfaces.ICaService;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testing revoked certificates cannot be renewed
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CertificateRenewalTest}
+ * @date 2025/5/18 10:20
+ */
+public class CertificateRenewalTest {
+
+    private SqlSession sqlSession;
+
+    private RevokedCertificateMapper revokedCertificateMapper;
+
+    private CertificateServiceImpl certificateService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        sqlSession = H2SqlSessions.open(CertificateMapper.class, RevokedCertificateMapper.class);
+        CertificateMapper certificateMapper = sqlSession.getMapper(CertificateMapper.class);
+        revokedCertificateMapper = sqlSession.getMapper(RevokedCertificateMapper.class);
+        Certificate certificate = new Certificate();
+        certificate.setUuid("cert-1");
+        certificate.setCert("cert");
+        certificate.setCaUuid("ca-1");
+        certificate.setOwner(1);
+        certificate.setComment("cert-1");
+        certificate.setNotBefore(LocalDateTime.now());
+        certificate.setNotAfter(LocalDateTime.now().plusDays(30));
+        certificateMapper.insert(certificate);
+
+        User user = new User();
+        user.setId(1);
+        user.setUsername("alice");
+        user.setRole(1);
+        certificateService = new CertificateServiceImpl();
+        ReflectionTestUtils.setField(certificateService, "baseMapper", certificateMapper);
+        certificateService.userCache = mock(UserCache.class);
+        when(certificateService.userCache.getActive("alice")).thenReturn(user);
+        certificateService.caService = mock(ICaService.class);
+        certificateService.revokedCertificateMapper = revokedCertificateMapper;
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sqlSession.close();
+    }
+
+    @Test
+    public void testRevokedCertificateIsNotRenewed() {
+        RevokedCertificate revokedCertificate = new RevokedCertificate();
+        revokedCertificate.setCaUuid("ca-1");
+        revokedCertificate.setCertUuid("cert-1");
+        revokedCertificate.setSerial("1");
+        revokedCertificate.setReason(1);
+        revokedCertificate.setRevokedAt(LocalDateTime.now());
+        revokedCertificateMapper.insert(revokedCertificate);
+
+        ParamValidateException e = assertThrows(ParamValidateException.class,
+                () -> certificateService.renewCert("cert-1", 30, "alice"));
+        assertEquals(ResultStatusCodeConstant.FAILED.getResultCode(), e.getCode());
+        // 在解析 CA 与签名密钥之前拒绝
+        verify(certificateService.caService, never()).getOne(any());
+    }
+
+    @Test
+    public void testUnrevokedCertificateProceedsToCa() {
+        ParamValidateException e = assertThrows(ParamValidateException.class,
+                () -> certificateService.renewCert("cert-1", 30, "alice"));
+        assertEquals("The CA does not exist.", e.getMsg());
+        verify(certificateService.caService).getOne(any());
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.gregperlinli.certvault.support;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.gregperlinli.certvault.initializer.SchemaMigrationInitializer;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.util.UUID;
+
+/**
+ * MyBatis-Plus sessions on a fresh in-memory H2 schema, configured like {@code MyBatisConfig}
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code H2SqlSessions}
+ * @date 2025/5/14 11:30
+ */
+public class H2SqlSessions {
+
+    /**
+     * Create a new database with {@code schema-h2.sql} and the H2 migrations, and open an auto-commit session <br/>
+     * (The {@code mapper/*.xml} statement of each mapper is loaded with the {@code h2} database ID)
+     *
+     * @param mappers mapper interfaces to register
+     * @return {@link SqlSession}
+     * @throws Exception if the schema cannot be created or a mapper XML cannot be read
+     */
+    public static SqlSession open(Class<?>... mappers) throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        // 未加引号的标识符按小写处理, 与 schema-h2.sql 中带引号的小写表名一致
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+        try ( Connection connection = dataSource.getConnection() ) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("sql/schema-h2.sql"));
+        }
+        new SchemaMigrationInitializer(dataSource, "h2").run(null);
+        MybatisConfiguration configuration = new MybatisConfiguration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setDatabaseId("h2");
+        GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+        globalConfig.getDbConfig().setColumnFormat("\"%s\"");
+        globalConfig.getDbConfig().setTableFormat("\"%s\"");
+        GlobalConfigUtils.setGlobalConfig(configuration, globalConfig);
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.H2));
+        configuration.addInterceptor(interceptor);
+        for ( Class<?> mapper : mappers ) {
+            ClassPathResource xml = new ClassPathResource("mapper/" + mapper.getSimpleName() + ".xml");
+            if ( xml.exists() ) {
+                // 解析 XML 时会按命名空间注册 Mapper 接口
+                try ( InputStream inputStream = xml.getInputStream() ) {
+                    new XMLMapperBuilder(inputStream, configuration, xml.getPath(), configuration.getSqlFragments()).parse();
+                }
+            }
+            if ( !configuration.hasMapper(mapper) ) {
+                configuration.addMapper(mapper);
+            }
+        }
+        return new MybatisSqlSessionFactoryBuilder().build(configuration).openSession(true);
+    }
+
+}
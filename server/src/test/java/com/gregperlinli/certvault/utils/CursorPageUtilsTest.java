@@ -0,0 +1,160 @@
+package com.gregperlinli.certvault.utils;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.gregperlinli.certvault.domain.dto.PageDTO;
+import com.gregperlinli.certvault.domain.entities.LoginRecord;
+import com.gregperlinli.certvault.domain.exception.ParamValidateException;
+import com.gregperlinli.certvault.mapper.LoginRecordMapper;
+import com.gregperlinli.certvault.support.H2SqlSessions;
+import com.gregperlinli.certvault.utils.CursorPageUtils.SortKey;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing keyset pagination on H2
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code CursorPageUtilsTest}
+ * @date 2025/5/13 17:40
+ */
+public class CursorPageUtilsTest {
+
+    private static final Map<String, SortKey<LoginRecord>> SORT_KEYS = Map.of(
+            "loginTime", SortKey.<LoginRecord>by().dateTime("login_time", LoginRecord::getLoginTime),
+            "browser", SortKey.<LoginRecord>by().nullableString("browser", LoginRecord::getBrowser),
+            "status", SortKey.<LoginRecord>by().bool("online", LoginRecord::getOnline).dateTime("login_time", LoginRecord::getLoginTime)
+    );
+
+    private static final int RECORDS = 37;
+
+    private SqlSession sqlSession;
+
+    private ServiceImpl<LoginRecordMapper, LoginRecord> service;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        sqlSession = H2SqlSessions.open(LoginRecordMapper.class);
+        LoginRecordMapper mapper = sqlSession.getMapper(LoginRecordMapper.class);
+        service = new ServiceImpl<>() {
+            {
+                this.baseMapper = mapper;
+            }
+        };
+        // 登录时间与浏览器大量重复, 翻页必须依赖 ID 打破平局
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 0, 0);
+        for ( int i = 0; i < RECORDS; i++ ) {
+            LoginRecord loginRecord = new LoginRecord();
+            loginRecord.setUuid(UUID.randomUUID().toString());
+            loginRecord.setUid(i % 3);
+            loginRecord.setBrowser(i % 4 == 0 ? null : "Browser " + (i % 5));
+            loginRecord.setLoginTime(base.plusHours(i % 6));
+            loginRecord.setOnline(i % 2 == 0);
+            mapper.insert(loginRecord);
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sqlSession.close();
+    }
+
+    private List<LoginRecord> walk(Integer uid, String orderBy, boolean isAsc, int limit) {
+        List<LoginRecord> all = new ArrayList<>();
+        String cursor = "";
+        do {
+            QueryWrapper<LoginRecord> wrapper = new QueryWrapper<>();
+            if ( uid != null ) {
+                wrapper.eq("uid", uid);
+            }
+            PageDTO<LoginRecord> page = CursorPageUtils.page(service, wrapper, SORT_KEYS, LoginRecord::getId, orderBy, isAsc, cursor, limit, false);
+            assertNull(page.getTotal());
+            assertTrue(page.getList().size() <= limit);
+            all.addAll(page.getList());
+            cursor = page.getNextCursor();
+        } while ( cursor != null );
+        return all;
+    }
+
+    private List<Integer> expected(Integer uid, String orderBy, boolean isAsc) {
+        QueryWrapper<LoginRecord> wrapper = new QueryWrapper<>();
+        if ( uid != null ) {
+            wrapper.eq("uid", uid);
+        }
+        switch (orderBy) {
+            case "loginTime" -> wrapper.orderBy(true, isAsc, "login_time", "id");
+            case "browser" -> wrapper.orderBy(true, isAsc, "coalesce(browser, '')", "id");
+            case "status" -> wrapper.orderBy(true, isAsc, "online", "login_time", "id");
+            default -> wrapper.orderBy(true, isAsc, "id");
+        }
+        return service.list(wrapper).stream().map(LoginRecord::getId).toList();
+    }
+
+    @Test
+    public void testWalkMatchesFullOrdering() {
+        for ( String orderBy : List.of("", "loginTime", "browser", "status") ) {
+            for ( boolean isAsc : List.of(true, false) ) {
+                for ( int limit : List.of(1, 5, 37, 50) ) {
+                    List<Integer> walked = walk(null, orderBy, isAsc, limit).stream().map(LoginRecord::getId).toList();
+                    assertEquals(expected(null, orderBy, isAsc), walked, orderBy + " " + isAsc + " " + limit);
+                }
+            }
+        }
+        List<Integer> filtered = walk(1, "loginTime", false, 4).stream().map(LoginRecord::getId).toList();
+        assertEquals(expected(1, "loginTime", false), filtered);
+        assertEquals(12, filtered.size());
+    }
+
+    @Test
+    public void testCursorValuesMayContainSeparators() {
+        // 排序键值包含换行等字符时游标仍可往返
+        LoginRecordMapper mapper = sqlSession.getMapper(LoginRecordMapper.class);
+        for ( String browser : List.of("Line\nBreak", "Line\nBreak\n", "\n", "[\"quoted\"]") ) {
+            for ( int i = 0; i < 3; i++ ) {
+                LoginRecord loginRecord = new LoginRecord();
+                loginRecord.setUuid(UUID.randomUUID().toString());
+                loginRecord.setUid(9);
+                loginRecord.setBrowser(browser);
+                loginRecord.setLoginTime(LocalDateTime.of(2025, 5, 2, 0, 0));
+                mapper.insert(loginRecord);
+            }
+        }
+        for ( boolean isAsc : List.of(true, false) ) {
+            List<Integer> walked = walk(9, "browser", isAsc, 2).stream().map(LoginRecord::getId).toList();
+            assertEquals(expected(9, "browser", isAsc), walked);
+            assertEquals(12, walked.size());
+        }
+    }
+
+    @Test
+    public void testTotalOnlyWhenRequested() {
+        PageDTO<LoginRecord> page = CursorPageUtils.page(service, new QueryWrapper<LoginRecord>().eq("uid", 2),
+                SORT_KEYS, LoginRecord::getId, "loginTime", true, "", 5, true);
+        assertEquals(12L, page.getTotal());
+        assertEquals(5, page.getList().size());
+        assertNotNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testCursorMustMatchOrder() {
+        PageDTO<LoginRecord> page = CursorPageUtils.page(service, new QueryWrapper<>(),
+                SORT_KEYS, LoginRecord::getId, "loginTime", true, "", 5, false);
+        assertThrows(ParamValidateException.class, () -> CursorPageUtils.page(service, new QueryWrapper<>(),
+                SORT_KEYS, LoginRecord::getId, "browser", true, page.getNextCursor(), 5, false));
+        assertThrows(ParamValidateException.class, () -> CursorPageUtils.page(service, new QueryWrapper<>(),
+                SORT_KEYS, LoginRecord::getId, "loginTime", false, page.getNextCursor(), 5, false));
+        assertThrows(ParamValidateException.class, () -> CursorPageUtils.page(service, new QueryWrapper<>(),
+                SORT_KEYS, LoginRecord::getId, "loginTime", true, "not-a-cursor", 5, false));
+        assertThrows(ParamValidateException.class, () -> CursorPageUtils.page(service, new QueryWrapper<>(),
+                SORT_KEYS, LoginRecord::getId, "city", true, "", 5, false));
+    }
+
+}
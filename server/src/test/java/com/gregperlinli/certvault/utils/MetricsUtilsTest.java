@@ -0,0 +1,94 @@
+package com.gregperlinli.certvault.utils;
+
+import com.gregperlinli.certvault.certificate.SslCertGenerator;
+import com.gregperlinli.certvault.constant.PrometheusConstant;
+import com.gregperlinli.certvault.crypto.CryptoBootstrap;
+import com.gregperlinli.certvault.domain.entities.CaSigningKey;
+import com.gregperlinli.certvault.domain.entities.CertRenewRequest;
+import com.gregperlinli.certvault.domain.exception.CertGenException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing timers recorded by {@link MetricsUtils} and the instrumented certificate generator
+ *
+ * @author gregPerlinLi
+ * @version 1.0.0
+ * @className {@code MetricsUtilsTest}
+ * @date 2025/5/17 20:50
+ */
+public class MetricsUtilsTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        new MetricsUtils(registry).init();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        new MetricsUtils(Metrics.globalRegistry).init();
+    }
+
+    private long count(PrometheusConstant metric, String... tags) {
+        return registry.get(metric.getName()).tags(tags).timer().count();
+    }
+
+    @Test
+    public void testTimeTagsResult() {
+        assertEquals("ok", MetricsUtils.time(PrometheusConstant.CERT_CONVERSION, () -> "ok", "operation", "test"));
+        assertThrows(IOException.class, () -> MetricsUtils.time(PrometheusConstant.CERT_CONVERSION, () -> {
+            throw new IOException("broken");
+        }, "operation", "test"));
+
+        assertEquals(1, count(PrometheusConstant.CERT_CONVERSION, "operation", "test", "result", MetricsUtils.SUCCESS));
+        assertEquals(1, count(PrometheusConstant.CERT_CONVERSION, "operation", "test", "result", MetricsUtils.FAILURE));
+    }
+
+    @Test
+    public void testRenewRecordsIssuanceAndSignTimers() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC", CryptoBootstrap.provider());
+        generator.initialize(256);
+        KeyPair caKeyPair = generator.generateKeyPair();
+        KeyPair leafKeyPair = generator.generateKeyPair();
+        X500Name caName = new X500Name("CN=Metrics CA");
+        X509CertificateHolder caCert = new JcaX509v3CertificateBuilder(caName, BigInteger.ONE, new Date(),
+                new Date(System.currentTimeMillis() + 30 * 86_400_000L), caName, caKeyPair.getPublic())
+                .build(CryptoBootstrap.contentSigner("SHA256withECDSA", caKeyPair.getPrivate()));
+        X509CertificateHolder leafCert = new JcaX509v3CertificateBuilder(caName, BigInteger.TWO, new Date(),
+                new Date(System.currentTimeMillis() + 86_400_000L), new X500Name("CN=leaf"), leafKeyPair.getPublic())
+                .build(CryptoBootstrap.contentSigner("SHA256withECDSA", caKeyPair.getPrivate()));
+        CertRenewRequest request = new CertRenewRequest()
+                .setCaSigningKey(new CaSigningKey(caKeyPair.getPrivate(), caKeyPair.getPublic(), caCert, caCert.getEncoded()))
+                .setUuid("leaf")
+                .setOldCert(Base64.getEncoder().encodeToString(CertStorageUtils.toPem(leafCert.getEncoded()).getBytes(StandardCharsets.UTF_8)))
+                .setNewExpiry(7);
+
+        assertNotNull(SslCertGenerator.renewSslCertificate(request));
+        // 有效期超过 CA 时续期失败
+        assertThrows(CertGenException.class, () -> SslCertGenerator.renewSslCertificate(request.setNewExpiry(365)));
+
+        assertEquals(1, count(PrometheusConstant.CERT_ISSUANCE, "type", "ssl", "operation", "renew", "result", MetricsUtils.SUCCESS));
+        assertEquals(1, count(PrometheusConstant.CERT_ISSUANCE, "type", "ssl", "operation", "renew", "result", MetricsUtils.FAILURE));
+        assertEquals(1, count(PrometheusConstant.CERT_SIGN, "type", "ssl", "algorithm", "EC"));
+    }
+
+}